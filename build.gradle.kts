@@ -48,6 +48,15 @@ enum class OS(val alias: String, val dirname: String, val jvmArchiveName: String
     );
 }
 
+/** The platform of the build machine, whose binaries can be run during the build */
+val hostOs = System.getProperty("os.name").toLowerCase().let {
+    when {
+        it.startsWith("linux") -> OS.LINUX_X64
+        it.startsWith("mac") -> OS.MACOSX_X64
+        else -> null
+    }
+}
+
 application {
     mainClassName = mainClass
 }
@@ -234,10 +243,20 @@ tasks {
                 into("$buildDir/$binariesOutput/bin")
             }
 
-            val zipBinaries = "zipBinaries${os.alias}"(Zip::class) {
+            val createCdsArchive = "createCdsArchive${os.alias}"(Exec::class) {
                 this.group = binariesGroup
 
                 dependsOn(overrideLauncher)
+                // Training runs the binaries. The launcher does without the archive elsewhere.
+                onlyIf { os == hostOs }
+
+                commandLine("bash", "$rootDir/cds-archive.sh", "$buildDir/$binariesOutput")
+            }
+
+            val zipBinaries = "zipBinaries${os.alias}"(Zip::class) {
+                this.group = binariesGroup
+
+                dependsOn(createCdsArchive)
 
                 from("$buildDir/$binariesOutput")
                 include("**/*")
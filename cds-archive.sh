@@ -0,0 +1,48 @@
+#!/bin/bash
+# Trains the vet binary found in the given jlink image on typical commands, then dumps the loaded
+# classes in a class data sharing archive: <image>/lib/vet.jsa
+# The launcher maps the archive instead of loading and verifying these classes on each call.
+# Before JDK 10 (JEP 310, application class data sharing), only the classes of the boot class loader
+# are archived: on the bundled JDK 9 runtime, the vet classes of the list are skipped.
+set -e
+
+IMAGE="$( cd -P "$1" && pwd )"
+JAVA="$IMAGE/bin/java"
+ARCHIVE="$IMAGE/lib/vet.jsa"
+MODULE_MAIN="com.cosium.vet/com.cosium.vet.App"
+
+WORK="$(mktemp -d)"
+trap 'rm -rf "$WORK"' EXIT
+
+# A clone whose origin looks like a Gerrit remote. None of the training commands contacts it.
+GIT="git -c user.name=vet -c user.email=vet@localhost"
+$GIT init -q "$WORK/upstream"
+touch "$WORK/upstream/foo.txt"
+$GIT -C "$WORK/upstream" add .
+$GIT -C "$WORK/upstream" commit -q -m "Initial commit"
+$GIT clone -q "$WORK/upstream" "$WORK/repo"
+$GIT -C "$WORK/repo" remote set-url origin http://localhost/vet
+
+TRAINING_COUNT=0
+train() {
+    TRAINING_COUNT=$((TRAINING_COUNT + 1))
+    (cd "$WORK/repo" && "$JAVA" -Xshare:off -XX:DumpLoadedClassList="$WORK/classes-$TRAINING_COUNT.lst" \
+        -m $MODULE_MAIN "$@" < /dev/null > /dev/null 2>&1) || true
+}
+
+train --version
+train --help
+train push --help
+train status
+train autocomplete -a "vet pu" -i 1
+train autocomplete -a "vet checkout -t " -i 3
+train completion bash
+
+# Keep the class names only, so that the lists of all runs can be merged
+cat "$WORK"/classes-*.lst | grep -v '^[@#]' | cut -d ' ' -f 1 | sort -u > "$WORK/classes.lst"
+
+rm -f "$ARCHIVE"
+(cd "$WORK/repo" && "$JAVA" -Xshare:dump -XX:SharedClassListFile="$WORK/classes.lst" \
+    -XX:SharedArchiveFile="$ARCHIVE" -m $MODULE_MAIN --version > "$WORK/dump.log" 2>&1) \
+    || { cat "$WORK/dump.log"; exit 1; }
+echo "Created $ARCHIVE from a list of $(wc -l < "$WORK/classes.lst") classes"
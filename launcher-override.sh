@@ -20,4 +20,20 @@ do
 done
 
 JLINK_VM_OPTIONS=
-$DIR/java $JLINK_VM_OPTIONS -m com.cosium.vet/com.cosium.vet.App "${RECEIVED_ARGUMENTS[@]}"
\ No newline at end of file
+
+# Map the class data sharing archive created at build time, unless the runtime image is newer.
+# -Xshare:auto makes the JVM silently ignore an archive it does not accept.
+CDS_ARCHIVE="$DIR/../lib/vet.jsa"
+if [ -f "$CDS_ARCHIVE" ] && [ ! "$DIR/../lib/modules" -nt "$CDS_ARCHIVE" ]
+then
+    JLINK_VM_OPTIONS="$JLINK_VM_OPTIONS -Xshare:auto -XX:SharedArchiveFile=$CDS_ARCHIVE"
+fi
+
+# Opt-in: forward the command to the resident vet daemon of the current user
+MAIN_CLASS=com.cosium.vet.App
+if [ "$VET_DAEMON" = "true" ]
+then
+    MAIN_CLASS=com.cosium.vet.daemon.DaemonClient
+fi
+
+$DIR/java $JLINK_VM_OPTIONS -m com.cosium.vet/$MAIN_CLASS "${RECEIVED_ARGUMENTS[@]}"
\ No newline at end of file
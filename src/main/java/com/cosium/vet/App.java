@@ -1,10 +1,14 @@
 package com.cosium.vet;
 
 import com.cosium.vet.command.DebugOptions;
+import com.cosium.vet.git.GitPromptRequiredException;
 import com.cosium.vet.log.Level;
 import com.cosium.vet.log.Logger;
 import com.cosium.vet.log.LoggerFactory;
+import com.cosium.vet.thirdparty.apache_commons_lang3.exception.ExceptionUtils;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -14,18 +18,34 @@ public class App {
 
   private static final Logger LOG = LoggerFactory.getLogger(App.class);
 
-  private static final List<String> STACKTRACE_ARG_NAMES = Collections.singletonList("--stacktrace");
+  /** The exit status of a command that failed as git could not prompt the user */
+  public static final int PROMPT_REQUIRED_STATUS = 2;
+
+  private static final List<String> STACKTRACE_ARG_NAMES =
+      Collections.singletonList("--stacktrace");
   private static final List<String> VERBOSE_ARG_NAMES = Collections.singletonList("--verbose");
 
   public static void main(String[] args) {
+    int status = run(args, Paths.get(System.getProperty("user.dir")));
+    if (status != 0) {
+      System.exit(status);
+    }
+  }
+
+  /**
+   * Runs vet without exiting the JVM. Every call starts from the default logging settings.
+   *
+   * @param args The command line arguments
+   * @param workingDir The directory vet was called from
+   * @return The exit status
+   */
+  public static int run(String[] args, Path workingDir) {
     try {
       boolean stacktrace = Arrays.stream(args).anyMatch(STACKTRACE_ARG_NAMES::contains);
       boolean verbose = Arrays.stream(args).anyMatch(VERBOSE_ARG_NAMES::contains);
       LoggerFactory.setPrintStackTrace(stacktrace);
       LoggerFactory.setPrintContext(verbose);
-      if (verbose) {
-        LoggerFactory.setLevel(Level.TRACE);
-      }
+      LoggerFactory.setLevel(verbose ? Level.TRACE : Level.INFO);
 
       if (stacktrace) {
         LOG.info("Stacktrace printing enabled");
@@ -40,10 +60,17 @@ public class App {
               .collect(Collectors.toList())
               .toArray(new String[] {});
 
-      new Vet(true, new DebugOptions(STACKTRACE_ARG_NAMES, VERBOSE_ARG_NAMES)).run(filteredArgs);
+      try (Vet vet =
+          new Vet(true, new DebugOptions(STACKTRACE_ARG_NAMES, VERBOSE_ARG_NAMES), workingDir)) {
+        vet.run(filteredArgs);
+      }
+      return 0;
     } catch (Exception e) {
       LOG.error(e.getMessage(), e);
-      System.exit(1);
+      if (ExceptionUtils.indexOfType(e, GitPromptRequiredException.class) >= 0) {
+        return PROMPT_REQUIRED_STATUS;
+      }
+      return 1;
     }
   }
 }
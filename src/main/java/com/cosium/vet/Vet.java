@@ -6,12 +6,15 @@ import com.cosium.vet.command.VetAdvancedCommandArgParser;
 import com.cosium.vet.command.VetCommandArgParser;
 import com.cosium.vet.command.autocomplete.AutocompleteCommand;
 import com.cosium.vet.command.autocomplete.AutocompleteCommandArgParser;
+import com.cosium.vet.command.autocomplete.CompletionProvider;
 import com.cosium.vet.command.checkout.CheckoutCommand;
 import com.cosium.vet.command.checkout.CheckoutCommandArgParser;
 import com.cosium.vet.command.checkout.CheckoutCommandFactory;
 import com.cosium.vet.command.checkout_new.CheckoutNewCommand;
 import com.cosium.vet.command.checkout_new.CheckoutNewCommandArgParser;
 import com.cosium.vet.command.checkout_new.CheckoutNewCommandFactory;
+import com.cosium.vet.command.completion.CompletionCommand;
+import com.cosium.vet.command.completion.CompletionCommandArgParser;
 import com.cosium.vet.command.fire_and_forget.FireAndForgetCommand;
 import com.cosium.vet.command.fire_and_forget.FireAndForgetCommandArgParser;
 import com.cosium.vet.command.fire_and_forget.FireAndForgetCommandFactory;
@@ -37,14 +40,19 @@ import com.cosium.vet.gerrit.Change;
 import com.cosium.vet.gerrit.ChangeNumericId;
 import com.cosium.vet.gerrit.ChangeRepositoryFactory;
 import com.cosium.vet.gerrit.DefaultChangeRepositoryFactory;
+import com.cosium.vet.gerrit.LocalChanges;
 import com.cosium.vet.git.GitClient;
+import com.cosium.vet.git.GitLocalState;
 import com.cosium.vet.git.GitProvider;
 import com.cosium.vet.runtime.*;
+import com.cosium.vet.utils.Lazy;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -56,22 +64,23 @@ import static java.util.Objects.requireNonNull;
  *
  * @author Reda.Housni-Alaoui
  */
-public class Vet {
+public class Vet implements AutoCloseable {
 
   private static final String APP_NAME = "vet";
 
-  private final GitClient git;
-  private final ChangeRepositoryFactory changeRepositoryFactory;
+  private final Lazy<GitProvider> gitProvider;
+  private final Lazy<GitClient> git;
+  private final Lazy<ChangeRepositoryFactory> changeRepositoryFactory;
 
-  private final NewCommandFactory newCommandFactory;
-  private final CheckoutCommandFactory checkoutCommandFactory;
-  private final CheckoutNewCommandFactory checkoutNewCommandFactory;
-  private final PushCommandFactory pushCommandFactory;
-  private final UntrackCommandFactory untrackCommandFactory;
-  private final StatusCommandFactory statusCommandFactory;
-  private final PullCommandFactory pullCommandFactory;
-  private final FireAndForgetCommandFactory fireAndForgetCommandFactory;
-  private final TrackCommandFactory trackCommandFactory;
+  private final Lazy<NewCommandFactory> newCommandFactory;
+  private final Lazy<CheckoutCommandFactory> checkoutCommandFactory;
+  private final Lazy<CheckoutNewCommandFactory> checkoutNewCommandFactory;
+  private final Lazy<PushCommandFactory> pushCommandFactory;
+  private final Lazy<UntrackCommandFactory> untrackCommandFactory;
+  private final Lazy<StatusCommandFactory> statusCommandFactory;
+  private final Lazy<PullCommandFactory> pullCommandFactory;
+  private final Lazy<FireAndForgetCommandFactory> fireAndForgetCommandFactory;
+  private final Lazy<TrackCommandFactory> trackCommandFactory;
 
   private final VetCommandArgParser commandParser;
 
@@ -84,7 +93,11 @@ public class Vet {
   }
 
   public Vet(boolean interactive, DebugOptions debugOptions, Path workingDir) {
-    this(interactive, debugOptions, workingDir, new BasicCommandRunner());
+    this(
+        interactive,
+        debugOptions,
+        workingDir,
+        new MemoizingCommandRunner(new BasicCommandRunner()));
   }
 
   /**
@@ -112,76 +125,156 @@ public class Vet {
       userInput = new NonInteractiveUserInput();
     }
 
-    GitProvider gitProvider = new GitProvider(workingDir, commandRunner);
-    git = gitProvider.build();
-    changeRepositoryFactory = new DefaultChangeRepositoryFactory(gitProvider, git);
+    // Everything below is built on first use, so that a command only pays for what it uses
+    this.gitProvider = Lazy.of(() -> new GitProvider(workingDir, commandRunner));
+    this.git = Lazy.of(() -> gitProvider.get().build());
+    this.changeRepositoryFactory =
+        Lazy.of(() -> new DefaultChangeRepositoryFactory(gitProvider.get(), git.get(), userOutput));
 
-    this.newCommandFactory = new NewCommand.Factory(changeRepositoryFactory, userInput, userOutput);
+    this.newCommandFactory =
+        Lazy.of(() -> new NewCommand.Factory(changeRepositoryFactory.get(), userInput, userOutput));
     this.checkoutCommandFactory =
-        new CheckoutCommand.Factory(git, changeRepositoryFactory, userInput, userOutput);
+        Lazy.of(
+            () ->
+                new CheckoutCommand.Factory(
+                    git.get(), changeRepositoryFactory.get(), userInput, userOutput));
     this.checkoutNewCommandFactory =
-        new CheckoutNewCommand.Factory(git, changeRepositoryFactory, userInput, userOutput);
-    this.pushCommandFactory = new PushCommand.Factory(changeRepositoryFactory, userOutput);
-    this.untrackCommandFactory = new UntrackCommand.Factory(changeRepositoryFactory, userInput);
-    this.statusCommandFactory = new StatusCommand.Factory(git, changeRepositoryFactory, userOutput);
-    this.pullCommandFactory = new PullCommand.Factory(changeRepositoryFactory, userOutput);
+        Lazy.of(
+            () ->
+                new CheckoutNewCommand.Factory(
+                    git.get(), changeRepositoryFactory.get(), userInput, userOutput));
+    this.pushCommandFactory =
+        Lazy.of(() -> new PushCommand.Factory(changeRepositoryFactory.get(), userOutput));
+    this.untrackCommandFactory =
+        Lazy.of(() -> new UntrackCommand.Factory(changeRepositoryFactory.get(), userInput));
+    this.statusCommandFactory =
+        Lazy.of(
+            () -> new StatusCommand.Factory(git.get(), changeRepositoryFactory.get(), userOutput));
+    this.pullCommandFactory =
+        Lazy.of(() -> new PullCommand.Factory(changeRepositoryFactory.get(), userOutput));
     this.fireAndForgetCommandFactory =
-        new FireAndForgetCommand.Factory(git, changeRepositoryFactory, userInput, userOutput);
+        Lazy.of(
+            () ->
+                new FireAndForgetCommand.Factory(
+                    git.get(), changeRepositoryFactory.get(), userInput, userOutput));
     this.trackCommandFactory =
-        new TrackCommand.Factory(changeRepositoryFactory, userInput, userOutput);
+        Lazy.of(
+            () -> new TrackCommand.Factory(changeRepositoryFactory.get(), userInput, userOutput));
 
+    this.commandParser =
+        new CompositeCommandArgParser(
+            APP_NAME, Lazy.of(() -> buildParsers(userOutput)), debugOptions);
+  }
+
+  /**
+   * The parsers get factories building the real command factory on call, so that parsing only
+   * builds the factory of the selected command
+   */
+  private List<VetAdvancedCommandArgParser> buildParsers(UserOutput userOutput) {
     List<VetAdvancedCommandArgParser> normalParsers =
         Arrays.asList(
-            new CheckoutNewCommandArgParser(checkoutNewCommandFactory),
-            new CheckoutCommandArgParser(checkoutCommandFactory),
-            new PushCommandArgParser(pushCommandFactory),
-            new FireAndForgetCommandArgParser(fireAndForgetCommandFactory),
-            new NewCommandArgParser(newCommandFactory),
-            new PullCommandArgParser(pullCommandFactory),
-            new StatusCommandArgParser(statusCommandFactory),
-            new TrackCommandArgParser(trackCommandFactory),
-            new UntrackCommandArgParser(untrackCommandFactory));
+            new CheckoutNewCommandArgParser(
+                (force, checkoutBranch) ->
+                    checkoutNewCommandFactory.get().build(force, checkoutBranch)),
+            new CheckoutCommandArgParser(
+                (force, checkoutBranch, numericId, targetBranch) ->
+                    checkoutCommandFactory
+                        .get()
+                        .build(force, checkoutBranch, numericId, targetBranch)),
+            new PushCommandArgParser(
+                (publishDraftedComments,
+                    workInProgress,
+                    patchSetSubject,
+                    bypassReview,
+                    codeReviewVote,
+                    maxBaseAge,
+                    force) ->
+                    pushCommandFactory
+                        .get()
+                        .build(
+                            publishDraftedComments,
+                            workInProgress,
+                            patchSetSubject,
+                            bypassReview,
+                            codeReviewVote,
+                            maxBaseAge,
+                            force)),
+            new FireAndForgetCommandArgParser(
+                (force, codeReviewVote) ->
+                    fireAndForgetCommandFactory.get().build(force, codeReviewVote)),
+            new NewCommandArgParser(
+                (force, targetBranch) -> newCommandFactory.get().build(force, targetBranch)),
+            new PullCommandArgParser(() -> pullCommandFactory.get().build()),
+            new StatusCommandArgParser(() -> statusCommandFactory.get().build()),
+            new TrackCommandArgParser(
+                (force, numericId, targetBranch) ->
+                    trackCommandFactory.get().build(force, numericId, targetBranch)),
+            new UntrackCommandArgParser(force -> untrackCommandFactory.get().build(force)));
+
+    Lazy<GitLocalState> gitLocalState = Lazy.of(() -> gitProvider.get().buildLocalState());
+    Map<String, CompletionProvider> valueProviders = new HashMap<>();
+    valueProviders.put(
+        "numeric-id",
+        candidateConsumer ->
+            new LocalChanges(gitLocalState.get())
+                .listNumericIds(numericId -> candidateConsumer.accept(numericId.toString())));
+    valueProviders.put(
+        "target-branch",
+        candidateConsumer ->
+            gitLocalState
+                .get()
+                .listRemoteTrackingBranches(branch -> candidateConsumer.accept(branch.toString())));
 
     AutocompleteCommandArgParser autocompleteCommandArgParser =
         new AutocompleteCommandArgParser(
-            new AutocompleteCommand.Factory(userOutput, normalParsers));
+            new AutocompleteCommand.Factory(userOutput, normalParsers, valueProviders));
 
-    List<VetAdvancedCommandArgParser> allParsers =
-        Stream.concat(Stream.of(autocompleteCommandArgParser), normalParsers.stream())
-            .collect(Collectors.toList());
+    CompletionCommandArgParser completionCommandArgParser =
+        new CompletionCommandArgParser(
+            new CompletionCommand.Factory(
+                userOutput, APP_NAME, normalParsers, valueProviders.keySet()));
 
-    this.commandParser = new CompositeCommandArgParser(APP_NAME, allParsers, debugOptions);
+    return Stream.concat(
+            Stream.concat(Stream.of(autocompleteCommandArgParser), normalParsers.stream()),
+            Stream.of(completionCommandArgParser))
+        .collect(Collectors.toList());
   }
 
   public void run(String args[]) {
     commandParser.parse(args).execute();
   }
 
+  /** Stops the git processes started by the commands run so far */
+  @Override
+  public void close() {
+    gitProvider.getIfComputed().ifPresent(GitProvider::close);
+  }
+
   public Optional<Change> getTrackedChange() {
-    return changeRepositoryFactory.build().getTrackedChange();
+    return changeRepositoryFactory.get().build().getTrackedChange();
   }
 
   public boolean isChangeExist(ChangeNumericId changeNumericId) {
-    return changeRepositoryFactory.build().exists(changeNumericId);
+    return changeRepositoryFactory.get().build().exists(changeNumericId);
   }
 
   public PushCommandFactory pushCommandFactory() {
-    return pushCommandFactory;
+    return pushCommandFactory.get();
   }
 
   public NewCommandFactory newCommandFactory() {
-    return newCommandFactory;
+    return newCommandFactory.get();
   }
 
   public CheckoutNewCommandFactory checkoutNewCommandFactory() {
-    return checkoutNewCommandFactory;
+    return checkoutNewCommandFactory.get();
   }
 
   public FireAndForgetCommandFactory fireAndForgetCommandFactory() {
-    return fireAndForgetCommandFactory;
+    return fireAndForgetCommandFactory.get();
   }
 
   public TrackCommandFactory trackCommandFactory() {
-    return trackCommandFactory;
+    return trackCommandFactory.get();
   }
 }
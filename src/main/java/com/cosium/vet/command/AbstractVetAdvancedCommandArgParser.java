@@ -29,7 +29,8 @@ public abstract class AbstractVetAdvancedCommandArgParser implements VetAdvanced
         .collect(Collectors.toList());
   }
 
-  protected Options getOptions() {
+  @Override
+  public Options getOptions() {
     return options;
   }
 }
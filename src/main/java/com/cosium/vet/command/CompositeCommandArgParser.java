@@ -8,6 +8,7 @@ import com.cosium.vet.thirdparty.apache_commons_lang3.StringUtils;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static java.util.Objects.requireNonNull;
@@ -24,13 +25,27 @@ public class CompositeCommandArgParser implements VetCommandArgParser {
   private static final String VERSION_OPT = "--version";
 
   private final String executableName;
-  private final List<VetAdvancedCommandArgParser> availableParsers;
+  private final Supplier<List<VetAdvancedCommandArgParser>> availableParsers;
   private final DebugOptions debugOptions;
 
   public CompositeCommandArgParser(
       String executableName,
       List<VetAdvancedCommandArgParser> availableParsers,
       DebugOptions debugOptions) {
+    this(executableName, () -> availableParsers, debugOptions);
+    requireNonNull(availableParsers);
+  }
+
+  /**
+   * @param executableName The name of the current executable
+   * @param availableParsers Provides the available parsers. Only called when the arguments are not
+   *     answered by the composite itself, i.e. '--version'.
+   * @param debugOptions The debug options
+   */
+  public CompositeCommandArgParser(
+      String executableName,
+      Supplier<List<VetAdvancedCommandArgParser>> availableParsers,
+      DebugOptions debugOptions) {
     if (StringUtils.isBlank(executableName)) {
       throw new IllegalArgumentException("appName can't be blank");
     }
@@ -54,6 +69,7 @@ public class CompositeCommandArgParser implements VetCommandArgParser {
 
     boolean isHelp = Arrays.stream(args).anyMatch(HELP_OPT::equals);
 
+    List<VetAdvancedCommandArgParser> availableParsers = this.availableParsers.get();
     Optional<VetAdvancedCommandArgParser> parser =
         availableParsers.stream().filter(p -> p.canParse(args)).findFirst();
     if (!isHelp && parser.isPresent()) {
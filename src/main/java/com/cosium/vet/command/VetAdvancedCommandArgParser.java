@@ -1,5 +1,7 @@
 package com.cosium.vet.command;
 
+import com.cosium.vet.thirdparty.apache_commons_cli.Options;
+
 import java.util.List;
 
 /**
@@ -26,4 +28,7 @@ public interface VetAdvancedCommandArgParser extends VetCommandArgParser {
    * @return Options starting with the provided word
    */
   List<String> getMatchingOptions(String word);
+
+  /** @return The options accepted by the managed command */
+  Options getOptions();
 }
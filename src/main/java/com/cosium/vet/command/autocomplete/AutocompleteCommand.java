@@ -5,11 +5,18 @@ import com.cosium.vet.command.VetCommand;
 import com.cosium.vet.log.Logger;
 import com.cosium.vet.log.LoggerFactory;
 import com.cosium.vet.runtime.UserOutput;
+import com.cosium.vet.thirdparty.apache_commons_cli.Option;
+import com.cosium.vet.thirdparty.apache_commons_cli.Options;
 import com.cosium.vet.thirdparty.apache_commons_lang3.ArrayUtils;
 import com.cosium.vet.thirdparty.apache_commons_lang3.StringUtils;
 
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.stream.Collectors;
 
 import static java.util.Objects.requireNonNull;
@@ -25,16 +32,23 @@ public class AutocompleteCommand implements VetCommand<Void> {
 
   private final UserOutput userOutput;
   private final List<VetAdvancedCommandArgParser> parsers;
+  private final Map<String, CompletionProvider> valueProviders;
+  private final Duration valueCompletionBudget;
   private final List<String> typedWordList;
   private final String currentWord;
+  private final String previousWord;
 
   private AutocompleteCommand(
       UserOutput userOutput,
       List<VetAdvancedCommandArgParser> parsers,
+      Map<String, CompletionProvider> valueProviders,
+      Duration valueCompletionBudget,
       String[] typedWordList,
       Integer highlightedWordIndex) {
     this.userOutput = requireNonNull(userOutput);
     this.parsers = requireNonNull(parsers);
+    this.valueProviders = requireNonNull(valueProviders);
+    this.valueCompletionBudget = requireNonNull(valueCompletionBudget);
 
     while (highlightedWordIndex >= typedWordList.length) {
       typedWordList = ArrayUtils.add(typedWordList, StringUtils.EMPTY);
@@ -42,6 +56,8 @@ public class AutocompleteCommand implements VetCommand<Void> {
 
     this.typedWordList = Arrays.asList(typedWordList);
     this.currentWord = this.typedWordList.get(highlightedWordIndex);
+    this.previousWord =
+        highlightedWordIndex > 0 ? this.typedWordList.get(highlightedWordIndex - 1) : null;
   }
 
   @Override
@@ -90,6 +106,17 @@ public class AutocompleteCommand implements VetCommand<Void> {
       return null;
     }
 
+    Option valueOption = findOptionTakingValue(parser, previousWord);
+    if (valueOption != null) {
+      CompletionProvider valueProvider = valueProviders.get(valueOption.getLongOpt());
+      if (valueProvider == null) {
+        LOG.debug("'{}' expects a value. No value to offer.", previousWord);
+        return null;
+      }
+      displayValues(valueProvider);
+      return null;
+    }
+
     String possibilities =
         parser
             .getMatchingOptions(currentWord)
@@ -100,19 +127,111 @@ public class AutocompleteCommand implements VetCommand<Void> {
     return null;
   }
 
+  /** @return The option expecting a value named by the word. Null if there is none. */
+  private Option findOptionTakingValue(VetAdvancedCommandArgParser parser, String word) {
+    if (word == null || !word.startsWith("-")) {
+      return null;
+    }
+    Options options = parser.getOptions();
+    if (!options.hasOption(word)) {
+      return null;
+    }
+    Option option = options.getOption(word);
+    return option.hasArg() ? option : null;
+  }
+
+  /**
+   * Displays the values matching the current word found by the provider within the budget. Values
+   * found after the budget are not waited for.
+   */
+  private void displayValues(CompletionProvider valueProvider) {
+    Queue<String> candidates = new ConcurrentLinkedQueue<>();
+    Thread providerThread =
+        new Thread(
+            () -> {
+              try {
+                valueProvider.provide(
+                    candidate -> {
+                      if (candidate.startsWith(currentWord)) {
+                        candidates.add(candidate);
+                      }
+                    });
+              } catch (RuntimeException e) {
+                LOG.debug("Value completion failed", e);
+              }
+            },
+            "vet-value-completion");
+    providerThread.setDaemon(true);
+    providerThread.start();
+    try {
+      providerThread.join(valueCompletionBudget.toMillis());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (providerThread.isAlive()) {
+      LOG.debug(
+          "Value completion exceeded {}. Displaying the values found so far.",
+          valueCompletionBudget);
+      providerThread.interrupt();
+    }
+
+    String possibilities =
+        candidates.stream().distinct().collect(Collectors.joining(StringUtils.LF));
+    userOutput.display(possibilities);
+  }
+
   public static class Factory implements AutocompleteCommandFactory {
 
+    /** The time a TAB press may wait for option values */
+    private static final Duration DEFAULT_VALUE_COMPLETION_BUDGET = Duration.ofMillis(50);
+
     private final UserOutput userOutput;
     private final List<VetAdvancedCommandArgParser> parsers;
+    private final Map<String, CompletionProvider> valueProviders;
+    private final Duration valueCompletionBudget;
 
     public Factory(UserOutput userOutput, List<VetAdvancedCommandArgParser> parsers) {
+      this(userOutput, parsers, Collections.emptyMap());
+    }
+
+    /**
+     * @param userOutput The user output
+     * @param parsers The parsers of the commands to complete
+     * @param valueProviders The value providers, by long option name. i.e. 'target-branch'
+     */
+    public Factory(
+        UserOutput userOutput,
+        List<VetAdvancedCommandArgParser> parsers,
+        Map<String, CompletionProvider> valueProviders) {
+      this(userOutput, parsers, valueProviders, DEFAULT_VALUE_COMPLETION_BUDGET);
+    }
+
+    /**
+     * @param userOutput The user output
+     * @param parsers The parsers of the commands to complete
+     * @param valueProviders The value providers, by long option name. i.e. 'target-branch'
+     * @param valueCompletionBudget The time a completion may wait for option values
+     */
+    public Factory(
+        UserOutput userOutput,
+        List<VetAdvancedCommandArgParser> parsers,
+        Map<String, CompletionProvider> valueProviders,
+        Duration valueCompletionBudget) {
       this.userOutput = requireNonNull(userOutput);
       this.parsers = requireNonNull(parsers);
+      this.valueProviders = requireNonNull(valueProviders);
+      this.valueCompletionBudget = requireNonNull(valueCompletionBudget);
     }
 
     @Override
     public AutocompleteCommand build(String[] typedWordArray, Integer highlightedWordIndex) {
-      return new AutocompleteCommand(userOutput, parsers, typedWordArray, highlightedWordIndex);
+      return new AutocompleteCommand(
+          userOutput,
+          parsers,
+          valueProviders,
+          valueCompletionBudget,
+          typedWordArray,
+          highlightedWordIndex);
     }
   }
 }
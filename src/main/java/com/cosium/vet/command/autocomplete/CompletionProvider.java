@@ -0,0 +1,18 @@
+package com.cosium.vet.command.autocomplete;
+
+import java.util.function.Consumer;
+
+/**
+ * Provides the possible values of an option. Called from a TAB handler: it must answer from local
+ * state only, and stop as soon as the current thread is interrupted.
+ *
+ * <p>Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+@FunctionalInterface
+public interface CompletionProvider {
+
+  /** @param candidateConsumer Receives each possible value as soon as it is found */
+  void provide(Consumer<String> candidateConsumer);
+}
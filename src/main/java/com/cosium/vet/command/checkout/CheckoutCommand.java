@@ -65,7 +65,7 @@ public class CheckoutCommand implements VetCommand<Change> {
     Change change =
         changeRepository.checkoutAndTrackChange(checkoutBranch, numericId, targetBranch);
 
-    userOutput.display(git.status());
+    git.status(userOutput::display);
     userOutput.display("Now tracking change " + change);
     return change;
   }
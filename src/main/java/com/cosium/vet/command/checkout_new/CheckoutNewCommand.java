@@ -67,7 +67,7 @@ public class CheckoutNewCommand implements VetCommand<Change> {
     ChangeCheckoutBranchName checkoutBranch = getCheckoutBranch(numericId);
     LOG.debug("Checking out new local branch '{}' to track {}", checkoutBranch, change);
     changeRepository.checkoutAndTrackChange(checkoutBranch, numericId, targetBranch);
-    userOutput.display(git.status());
+    git.status(userOutput::display);
     userOutput.display("Now tracking new change " + change);
 
     return change;
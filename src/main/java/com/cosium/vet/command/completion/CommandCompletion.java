@@ -0,0 +1,88 @@
+package com.cosium.vet.command.completion;
+
+import com.cosium.vet.command.VetAdvancedCommandArgParser;
+import com.cosium.vet.thirdparty.apache_commons_cli.Option;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * What a completion script needs to know about a command
+ *
+ * <p>Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+class CommandCompletion {
+
+  private final String name;
+  private final List<String> options;
+  private final List<String> valueOptions;
+  private final List<String> dynamicValueOptions;
+
+  private CommandCompletion(
+      String name,
+      List<String> options,
+      List<String> valueOptions,
+      List<String> dynamicValueOptions) {
+    this.name = requireNonNull(name);
+    this.options = Collections.unmodifiableList(options);
+    this.valueOptions = Collections.unmodifiableList(valueOptions);
+    this.dynamicValueOptions = Collections.unmodifiableList(dynamicValueOptions);
+  }
+
+  /**
+   * @param parser The parser of the command
+   * @param dynamicOptions The long names of the options whose values can only be completed by vet
+   */
+  static CommandCompletion of(VetAdvancedCommandArgParser parser, Set<String> dynamicOptions) {
+    List<String> options = new ArrayList<>();
+    List<String> valueOptions = new ArrayList<>();
+    List<String> dynamicValueOptions = new ArrayList<>();
+    for (Option option : parser.getOptions().getOptions()) {
+      if (option.hasLongOpt()) {
+        options.add("--" + option.getLongOpt());
+      }
+      if (!option.hasArg()) {
+        continue;
+      }
+      List<String> names = new ArrayList<>();
+      if (option.getOpt() != null) {
+        names.add("-" + option.getOpt());
+      }
+      if (option.hasLongOpt()) {
+        names.add("--" + option.getLongOpt());
+      }
+      valueOptions.addAll(names);
+      if (dynamicOptions.contains(option.getLongOpt())) {
+        dynamicValueOptions.addAll(names);
+      }
+    }
+    return new CommandCompletion(
+        parser.getCommandArgName(), options, valueOptions, dynamicValueOptions);
+  }
+
+  /** @return The command arg name. i.e. 'push' */
+  String getName() {
+    return name;
+  }
+
+  /** @return The long options to offer */
+  List<String> getOptions() {
+    return options;
+  }
+
+  /** @return The short and long options followed by a value */
+  List<String> getValueOptions() {
+    return valueOptions;
+  }
+
+  /** @return The short and long options followed by a value only vet can complete */
+  List<String> getDynamicValueOptions() {
+    return dynamicValueOptions;
+  }
+}
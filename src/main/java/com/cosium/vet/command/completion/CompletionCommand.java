@@ -0,0 +1,85 @@
+package com.cosium.vet.command.completion;
+
+import com.cosium.vet.command.VetAdvancedCommandArgParser;
+import com.cosium.vet.command.VetCommand;
+import com.cosium.vet.runtime.UserOutput;
+import com.cosium.vet.thirdparty.apache_commons_lang3.StringUtils;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Prints a static completion script, so that the shell does not have to start vet to complete
+ * commands and options.
+ *
+ * <p>Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+public class CompletionCommand implements VetCommand<Void> {
+
+  private final UserOutput userOutput;
+  private final String executableName;
+  private final List<VetAdvancedCommandArgParser> parsers;
+  private final Set<String> dynamicOptions;
+  private final Shell shell;
+
+  private CompletionCommand(
+      UserOutput userOutput,
+      String executableName,
+      List<VetAdvancedCommandArgParser> parsers,
+      Set<String> dynamicOptions,
+      Shell shell) {
+    this.userOutput = requireNonNull(userOutput);
+    this.executableName = requireNonNull(executableName);
+    this.parsers = requireNonNull(parsers);
+    this.dynamicOptions = requireNonNull(dynamicOptions);
+    this.shell = requireNonNull(shell);
+  }
+
+  @Override
+  public Void execute() {
+    List<CommandCompletion> commands =
+        parsers
+            .stream()
+            .map(parser -> CommandCompletion.of(parser, dynamicOptions))
+            .collect(Collectors.toList());
+    userOutput.display(
+        StringUtils.removeEnd(shell.buildScript(executableName, commands), StringUtils.LF));
+    return null;
+  }
+
+  public static class Factory implements CompletionCommandFactory {
+
+    private final UserOutput userOutput;
+    private final String executableName;
+    private final List<VetAdvancedCommandArgParser> parsers;
+    private final Set<String> dynamicOptions;
+
+    /**
+     * @param userOutput The user output
+     * @param executableName The name of the executable to complete
+     * @param parsers The parsers of the commands to complete
+     * @param dynamicOptions The long names of the options whose values are completed by '&lt;
+     *     executableName&gt; autocomplete'. The values of the other options are not completed.
+     */
+    public Factory(
+        UserOutput userOutput,
+        String executableName,
+        List<VetAdvancedCommandArgParser> parsers,
+        Set<String> dynamicOptions) {
+      this.userOutput = requireNonNull(userOutput);
+      this.executableName = requireNonNull(executableName);
+      this.parsers = requireNonNull(parsers);
+      this.dynamicOptions = requireNonNull(dynamicOptions);
+    }
+
+    @Override
+    public CompletionCommand build(Shell shell) {
+      return new CompletionCommand(userOutput, executableName, parsers, dynamicOptions, shell);
+    }
+  }
+}
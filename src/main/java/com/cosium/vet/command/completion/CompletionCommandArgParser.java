@@ -0,0 +1,68 @@
+package com.cosium.vet.command.completion;
+
+import com.cosium.vet.command.AbstractVetAdvancedCommandArgParser;
+import com.cosium.vet.command.VetCommand;
+import com.cosium.vet.thirdparty.apache_commons_cli.*;
+import com.cosium.vet.thirdparty.apache_commons_lang3.StringUtils;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+public class CompletionCommandArgParser extends AbstractVetAdvancedCommandArgParser {
+
+  private static final String COMMAND_NAME = "completion";
+
+  private final CompletionCommandFactory factory;
+
+  public CompletionCommandArgParser(CompletionCommandFactory factory) {
+    super(new Options());
+    this.factory = requireNonNull(factory);
+  }
+
+  @Override
+  public void displayHelp(String executableName) {
+    HelpFormatter formatter = new HelpFormatter();
+    formatter.printHelp(
+        String.format("%s %s <shell>", executableName, COMMAND_NAME),
+        StringUtils.EMPTY,
+        getOptions(),
+        String.format("Prints the completion script of <shell>. One of %s.", Shell.names()),
+        true);
+  }
+
+  @Override
+  public String getCommandArgName() {
+    return COMMAND_NAME;
+  }
+
+  @Override
+  public boolean canParse(String... args) {
+    return Arrays.stream(args).anyMatch(COMMAND_NAME::equals);
+  }
+
+  @Override
+  public VetCommand parse(String... args) {
+    CommandLineParser parser = new DefaultParser();
+    CommandLine commandLine;
+    try {
+      commandLine = parser.parse(getOptions(), args);
+    } catch (ParseException e) {
+      throw new RuntimeException(e);
+    }
+
+    List<String> arguments = commandLine.getArgList();
+    int shellIndex = arguments.indexOf(COMMAND_NAME) + 1;
+    if (shellIndex >= arguments.size()) {
+      throw new IllegalArgumentException(
+          String.format("Missing shell. Supported shells are %s.", Shell.names()));
+    }
+    return factory.build(Shell.of(arguments.get(shellIndex)));
+  }
+}
@@ -0,0 +1,15 @@
+package com.cosium.vet.command.completion;
+
+/**
+ * Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+public interface CompletionCommandFactory {
+
+  /**
+   * @param shell The shell to generate the completion script for
+   * @return A new command
+   */
+  CompletionCommand build(Shell shell);
+}
@@ -0,0 +1,190 @@
+package com.cosium.vet.command.completion;
+
+import com.cosium.vet.thirdparty.apache_commons_lang3.StringUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * The shells vet can generate a completion script for. Commands and options are written in the
+ * script. Only the values of the dynamic options are left to '&lt;executable&gt; autocomplete'.
+ *
+ * <p>Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+public enum Shell {
+  BASH {
+    @Override
+    String buildScript(String executableName, List<CommandCompletion> commands) {
+      String functionName = "_" + executableName;
+      StringBuilder script = new StringBuilder();
+      line(
+          script,
+          "# Bash completion for "
+              + executableName
+              + ". Generated by '"
+              + executableName
+              + " completion bash'.");
+      line(script, "");
+      line(script, functionName + "()");
+      line(script, "{");
+      line(script, "    local cur=\"${COMP_WORDS[COMP_CWORD]}\"");
+      line(script, "    local prev=\"${COMP_WORDS[COMP_CWORD-1]}\"");
+      line(script, "    COMPREPLY=()");
+      line(script, "");
+      line(script, "    if [ \"${COMP_CWORD}\" -eq 1 ]; then");
+      line(
+          script,
+          "        COMPREPLY=($(compgen -W \"" + commandNames(commands) + "\" -- \"${cur}\"))");
+      line(script, "        return 0");
+      line(script, "    fi");
+      line(script, "");
+      line(script, "    local options value_options dynamic_value_options");
+      line(script, "    case \"${COMP_WORDS[1]}\" in");
+      for (CommandCompletion command : commands) {
+        line(script, "        " + command.getName() + ")");
+        line(script, "            options=\"" + String.join(" ", command.getOptions()) + "\"");
+        line(
+            script,
+            "            value_options=\"" + String.join(" ", command.getValueOptions()) + "\"");
+        line(
+            script,
+            "            dynamic_value_options=\""
+                + String.join(" ", command.getDynamicValueOptions())
+                + "\"");
+        line(script, "            ;;");
+      }
+      line(script, "        *)");
+      line(script, "            return 0");
+      line(script, "            ;;");
+      line(script, "    esac");
+      line(script, "");
+      line(
+          script, "    if [[ -n \"${prev}\" && \" ${value_options} \" == *\" ${prev} \"* ]]; then");
+      line(script, "        if [[ \" ${dynamic_value_options} \" == *\" ${prev} \"* ]]; then");
+      line(script, "            local words=\"$(printf '%s ' \"${COMP_WORDS[@]}\")\"");
+      line(
+          script,
+          "            COMPREPLY=($("
+              + executableName
+              + " autocomplete -a \"${words}\" -i ${COMP_CWORD}))");
+      line(script, "        fi");
+      line(script, "        return 0");
+      line(script, "    fi");
+      line(script, "");
+      line(script, "    local option remaining_options=\"\"");
+      line(script, "    for option in ${options}; do");
+      line(script, "        if [[ \" ${COMP_WORDS[*]} \" != *\" ${option} \"* ]]; then");
+      line(script, "            remaining_options=\"${remaining_options} ${option}\"");
+      line(script, "        fi");
+      line(script, "    done");
+      line(script, "    COMPREPLY=($(compgen -W \"${remaining_options}\" -- \"${cur}\"))");
+      line(script, "    return 0");
+      line(script, "}");
+      line(script, "complete -F " + functionName + " " + executableName);
+      return script.toString();
+    }
+  },
+  ZSH {
+    @Override
+    String buildScript(String executableName, List<CommandCompletion> commands) {
+      String functionName = "_" + executableName;
+      StringBuilder script = new StringBuilder();
+      line(script, "#compdef " + executableName);
+      line(
+          script,
+          "# Zsh completion for "
+              + executableName
+              + ". Generated by '"
+              + executableName
+              + " completion zsh'.");
+      line(script, "");
+      line(script, functionName + "() {");
+      line(script, "  if (( CURRENT == 2 )); then");
+      line(script, "    compadd -- " + commandNames(commands));
+      line(script, "    return");
+      line(script, "  fi");
+      line(script, "");
+      line(script, "  local -a options value_options dynamic_value_options");
+      line(script, "  case \"${words[2]}\" in");
+      for (CommandCompletion command : commands) {
+        line(script, "    " + command.getName() + ")");
+        line(script, "      options=(" + String.join(" ", command.getOptions()) + ")");
+        line(script, "      value_options=(" + String.join(" ", command.getValueOptions()) + ")");
+        line(
+            script,
+            "      dynamic_value_options=("
+                + String.join(" ", command.getDynamicValueOptions())
+                + ")");
+        line(script, "      ;;");
+      }
+      line(script, "    *)");
+      line(script, "      return 1");
+      line(script, "      ;;");
+      line(script, "  esac");
+      line(script, "");
+      line(script, "  if (( ${value_options[(Ie)${words[CURRENT-1]}]} )); then");
+      line(script, "    if (( ${dynamic_value_options[(Ie)${words[CURRENT-1]}]} )); then");
+      line(
+          script,
+          "      compadd -- ${(f)\"$("
+              + executableName
+              + " autocomplete -a \"${words[*]}\" -i $(( CURRENT - 1 )))\"}");
+      line(script, "    fi");
+      line(script, "    return");
+      line(script, "  fi");
+      line(script, "");
+      line(script, "  compadd -- ${options:|words}");
+      line(script, "}");
+      line(script, "");
+      line(script, "if [ \"${funcstack[1]}\" = \"" + functionName + "\" ]; then");
+      line(script, "  " + functionName + " \"$@\"");
+      line(script, "else");
+      line(script, "  compdef " + functionName + " " + executableName);
+      line(script, "fi");
+      return script.toString();
+    }
+  };
+
+  /**
+   * @param executableName The name of the executable to complete
+   * @param commands The commands to complete
+   * @return The completion script
+   */
+  abstract String buildScript(String executableName, List<CommandCompletion> commands);
+
+  /** @return The name of the shell, as typed by the user */
+  public String getName() {
+    return name().toLowerCase(Locale.ENGLISH);
+  }
+
+  /**
+   * @param name The name of the shell
+   * @return The matching shell
+   */
+  public static Shell of(String name) {
+    return Arrays.stream(values())
+        .filter(shell -> shell.getName().equals(name))
+        .findFirst()
+        .orElseThrow(
+            () ->
+                new IllegalArgumentException(
+                    "Unsupported shell '" + name + "'. Supported shells are " + names() + "."));
+  }
+
+  /** @return The names of the supported shells, comma separated */
+  public static String names() {
+    return Arrays.stream(values()).map(Shell::getName).collect(Collectors.joining(", "));
+  }
+
+  private static String commandNames(List<CommandCompletion> commands) {
+    return commands.stream().map(CommandCompletion::getName).collect(Collectors.joining(" "));
+  }
+
+  private static void line(StringBuilder script, String line) {
+    script.append(line).append(StringUtils.LF);
+  }
+}
@@ -74,7 +74,6 @@ public class FireAndForgetCommand implements VetCommand<Change> {
 
     CreatedChange change = changeRepository.createChange(targetBranch, patchOptions);
     LOG.debug("Change {} created", change);
-    userOutput.display(change.getCreationLog());
 
     RevisionId parent = change.fetchParent();
     LOG.debug("Resetting current branch to {}", parent);
@@ -53,7 +53,6 @@ public class NewCommand implements VetCommand<Change> {
     BranchShortName targetBranch = getTargetBranch();
     CreatedChange change =
         changeRepository.createAndTrackChange(targetBranch, PatchOptions.DEFAULT);
-    userOutput.display(change.getCreationLog());
     userOutput.display("Now tracking new change " + change);
     return change;
   }
@@ -7,6 +7,8 @@ import com.cosium.vet.log.LoggerFactory;
 import com.cosium.vet.runtime.UserOutput;
 import com.cosium.vet.thirdparty.apache_commons_lang3.BooleanUtils;
 
+import java.time.Duration;
+
 import static java.util.Objects.requireNonNull;
 
 /**
@@ -26,6 +28,8 @@ public class PushCommand implements VetCommand<Void> {
   private final PatchSubject patchSetSubject;
   private final Boolean bypassReview;
   private final CodeReviewVote codeReviewVote;
+  private final Duration maxBaseAge;
+  private final boolean force;
 
   private PushCommand(
       ChangeRepository changeRepository,
@@ -35,7 +39,9 @@ public class PushCommand implements VetCommand<Void> {
       Boolean workInProgress,
       PatchSubject patchSetSubject,
       Boolean bypassReview,
-      CodeReviewVote codeReviewVote) {
+      CodeReviewVote codeReviewVote,
+      Duration maxBaseAge,
+      Boolean force) {
     this.changeRepository = requireNonNull(changeRepository);
     this.userOutput = requireNonNull(userOutput);
 
@@ -44,6 +50,8 @@ public class PushCommand implements VetCommand<Void> {
     this.patchSetSubject = patchSetSubject;
     this.bypassReview = bypassReview;
     this.codeReviewVote = codeReviewVote;
+    this.maxBaseAge = maxBaseAge;
+    this.force = BooleanUtils.toBoolean(force);
   }
 
   @Override
@@ -63,11 +71,21 @@ public class PushCommand implements VetCommand<Void> {
             .subject(patchSetSubject)
             .bypassReview(BooleanUtils.toBoolean(bypassReview))
             .codeReviewVote(codeReviewVote)
+            .maxBaseAge(maxBaseAge)
             .build();
 
-    String output = change.createPatch(patchOptions);
+    // The check only knows the patch sets pushed from this clone. Options acting on the change
+    // must reach the server even when the patch set is unchanged.
+    if (!force && !patchOptions.hasServerSideEffect() && change.isUpToDate()) {
+      userOutput.display(
+          "Nothing changed since the last patch set pushed from this clone to "
+              + change.getWebUrl()
+              + ". Nothing was pushed. Use --force to push anyway.");
+      return null;
+    }
+
+    change.createPatch(patchOptions);
 
-    userOutput.display(output);
     userOutput.display("Pushed to " + change);
     return null;
   }
@@ -88,7 +106,9 @@ public class PushCommand implements VetCommand<Void> {
         Boolean workInProgress,
         PatchSubject patchSetSubject,
         Boolean bypassReview,
-        CodeReviewVote codeReviewVote) {
+        CodeReviewVote codeReviewVote,
+        Duration maxBaseAge,
+        Boolean force) {
       return new PushCommand(
           changeRepositoryFactory.build(),
           userOutput,
@@ -96,7 +116,9 @@ public class PushCommand implements VetCommand<Void> {
           workInProgress,
           patchSetSubject,
           bypassReview,
-          codeReviewVote);
+          codeReviewVote,
+          maxBaseAge,
+          force);
     }
   }
 }
@@ -6,7 +6,9 @@ import com.cosium.vet.gerrit.CodeReviewVote;
 import com.cosium.vet.gerrit.PatchSubject;
 import com.cosium.vet.thirdparty.apache_commons_cli.*;
 import com.cosium.vet.thirdparty.apache_commons_lang3.StringUtils;
+import com.cosium.vet.thirdparty.apache_commons_lang3.math.NumberUtils;
 
+import java.time.Duration;
 import java.util.Arrays;
 
 import static java.util.Objects.requireNonNull;
@@ -26,6 +28,9 @@ public class PushCommandArgParser extends AbstractVetAdvancedCommandArgParser {
   private static final String PATCH_SET_SUBJECT = "s";
   private static final String BYPASS_REVIEW = "f";
   private static final String CODE_REVIEW_VOTE = "v";
+  private static final String MAX_BASE_AGE = "a";
+  /** No short name as -f bypasses the review */
+  private static final String FORCE = "force";
 
   private final PushCommandFactory pushCommandFactory;
 
@@ -64,6 +69,20 @@ public class PushCommandArgParser extends AbstractVetAdvancedCommandArgParser {
                     .longOpt("code-review-vote")
                     .hasArg()
                     .desc("Vote on code review. i.e. +1 is a valid vote value.")
+                    .build())
+            .addOption(
+                Option.builder(MAX_BASE_AGE)
+                    .argName("seconds")
+                    .longOpt("max-base-age")
+                    .hasArg()
+                    .desc(
+                        "Do not fetch the target branch if it was fetched less than this number of seconds ago. Overrides the vet.max-base-age git configuration.")
+                    .build())
+            .addOption(
+                Option.builder()
+                    .longOpt(FORCE)
+                    .desc(
+                        "Push even if nothing changed since the last patch set pushed from this clone.")
                     .build()));
     this.pushCommandFactory = requireNonNull(pushCommandFactory);
   }
@@ -112,8 +131,27 @@ public class PushCommandArgParser extends AbstractVetAdvancedCommandArgParser {
             .filter(StringUtils::isNotBlank)
             .map(CodeReviewVote::of)
             .orElse(null);
+    Duration maxBaseAge =
+        ofNullable(commandLine.getOptionValue(MAX_BASE_AGE))
+            .filter(StringUtils::isNotBlank)
+            .map(PushCommandArgParser::parseSeconds)
+            .orElse(null);
+    Boolean force = commandLine.hasOption(FORCE) ? true : null;
 
     return pushCommandFactory.build(
-        publishDraftedComments, workInProgress, patchSetSubject, bypassReview, reviewVote);
+        publishDraftedComments,
+        workInProgress,
+        patchSetSubject,
+        bypassReview,
+        reviewVote,
+        maxBaseAge,
+        force);
+  }
+
+  private static Duration parseSeconds(String value) {
+    if (!NumberUtils.isDigits(value)) {
+      throw new IllegalArgumentException("'" + value + "' is not a valid number of seconds");
+    }
+    return Duration.ofSeconds(Long.parseLong(value));
   }
 }
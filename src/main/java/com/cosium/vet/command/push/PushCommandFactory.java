@@ -3,6 +3,8 @@ package com.cosium.vet.command.push;
 import com.cosium.vet.gerrit.CodeReviewVote;
 import com.cosium.vet.gerrit.PatchSubject;
 
+import java.time.Duration;
+
 /**
  * Created on 23/02/18.
  *
@@ -15,5 +17,7 @@ public interface PushCommandFactory {
       Boolean workInProgress,
       PatchSubject patchSetSubject,
       Boolean bypassReview,
-      CodeReviewVote codeReviewVote);
+      CodeReviewVote codeReviewVote,
+      Duration maxBaseAge,
+      Boolean force);
 }
@@ -31,7 +31,7 @@ public class StatusCommand implements VetCommand<Void> {
   @Override
   public Void execute() {
     Optional<Change> change = changeRepository.getTrackedChange();
-    userOutput.display(git.status());
+    git.status(userOutput::display);
     if (change.isPresent()) {
       userOutput.display("Tracking change " + change.get());
     } else {
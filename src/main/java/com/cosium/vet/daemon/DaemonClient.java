@@ -0,0 +1,287 @@
+package com.cosium.vet.daemon;
+
+import com.cosium.vet.App;
+import com.cosium.vet.VetVersion;
+import com.cosium.vet.daemon.DaemonRegistry.DaemonAddress;
+import com.cosium.vet.log.Logger;
+import com.cosium.vet.log.LoggerFactory;
+import com.cosium.vet.utils.OperatingSystem;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The thin client forwarding a command to the {@link DaemonServer} of the current user, starting it
+ * when needed. The command runs in the client JVM when no daemon can serve it.
+ *
+ * <p>Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+public class DaemonClient {
+
+  private static final Logger LOG = LoggerFactory.getLogger(DaemonClient.class);
+
+  private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(10);
+  private static final long STARTUP_POLL_INTERVAL_MILLIS = 20;
+  private static final int BUFFER_SIZE = 8192;
+
+  private final DaemonRegistry registry;
+  private final String version;
+  private final Map<String, String> environment;
+  private final Runnable daemonStarter;
+
+  /**
+   * @param registry The registry the daemon address is read from
+   * @param version The client vet version
+   * @param environment The client relevant environment
+   * @param daemonStarter Starts a daemon in the background
+   */
+  DaemonClient(
+      DaemonRegistry registry,
+      String version,
+      Map<String, String> environment,
+      Runnable daemonStarter) {
+    this.registry = requireNonNull(registry);
+    this.version = requireNonNull(version);
+    this.environment = requireNonNull(environment);
+    this.daemonStarter = requireNonNull(daemonStarter);
+  }
+
+  public static void main(String[] args) {
+    Map<String, String> environment = DaemonProtocol.relevantEnvironment(System.getenv());
+    String version = VetVersion.getValue();
+    DaemonRegistry registry = DaemonRegistry.of(version, environment);
+    Path workingDir = Paths.get(System.getProperty("user.dir"));
+
+    OptionalInt status =
+        new DaemonClient(registry, version, environment, () -> startDaemon(registry))
+            .run(
+                args,
+                workingDir,
+                System.in,
+                new FileOutputStream(FileDescriptor.out),
+                new FileOutputStream(FileDescriptor.err));
+    System.exit(status.isPresent() ? status.getAsInt() : App.run(args, workingDir));
+  }
+
+  /**
+   * @return The exit status of the command run by the daemon. Empty if no daemon could run it, or
+   *     if it must run in the client to let git prompt.
+   */
+  OptionalInt run(
+      String[] args, Path workingDir, InputStream stdin, OutputStream stdout, OutputStream stderr) {
+    Optional<Connection> connection = connect();
+    if (!connection.isPresent()) {
+      return OptionalInt.empty();
+    }
+    try (Socket socket = connection.get().socket) {
+      socket.setTcpNoDelay(true);
+      DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+      DataOutputStream output =
+          new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+      output.writeUTF(connection.get().address.getToken());
+      output.writeUTF(version);
+      DaemonProtocol.writeMap(output, environment);
+      output.writeUTF(workingDir.toAbsolutePath().toString());
+      DaemonProtocol.writeStrings(output, args);
+      output.flush();
+
+      byte reply = input.readByte();
+      if (reply == DaemonProtocol.BUSY) {
+        LOG.debug("The vet daemon is busy");
+        return OptionalInt.empty();
+      }
+      if (reply != DaemonProtocol.ACCEPTED) {
+        LOG.debug("The vet daemon rejected the command: {}", input.readUTF());
+        return OptionalInt.empty();
+      }
+
+      return exchange(input, output, stdin, stdout, stderr);
+    } catch (IOException e) {
+      LOG.debug("Failed to run the command through the vet daemon", e);
+      return OptionalInt.empty();
+    }
+  }
+
+  /**
+   * Serves the command streams until it ends
+   *
+   * @return The exit status. Empty if the command must be run again by the client.
+   */
+  private static OptionalInt exchange(
+      DataInputStream input,
+      DataOutputStream output,
+      InputStream stdin,
+      OutputStream stdout,
+      OutputStream stderr)
+      throws IOException {
+    byte[] buffer = new byte[BUFFER_SIZE];
+    while (true) {
+      byte type;
+      try {
+        type = input.readByte();
+      } catch (IOException e) {
+        // The command may have had effects already, running it again would not be safe
+        stderr.write("Lost the connection to the vet daemon\n".getBytes(StandardCharsets.UTF_8));
+        stderr.flush();
+        return OptionalInt.of(1);
+      }
+      if (type == DaemonProtocol.EXIT) {
+        return OptionalInt.of(input.readInt());
+      }
+      if (type == DaemonProtocol.READ_STDIN) {
+        sendInput(stdin, output, buffer);
+        continue;
+      }
+      if (type == DaemonProtocol.RUN_LOCALLY) {
+        stderr.write(
+            "Running the command again outside of the vet daemon, to let git prompt\n"
+                .getBytes(StandardCharsets.UTF_8));
+        stderr.flush();
+        return OptionalInt.empty();
+      }
+      OutputStream target = type == DaemonProtocol.STDERR ? stderr : stdout;
+      int remaining = input.readInt();
+      while (remaining > 0) {
+        int read = input.read(buffer, 0, Math.min(buffer.length, remaining));
+        if (read < 0) {
+          throw new IOException("Truncated frame");
+        }
+        target.write(buffer, 0, read);
+        remaining -= read;
+      }
+      target.flush();
+    }
+  }
+
+  /** Answers a {@link DaemonProtocol#READ_STDIN} frame with the next chunk of the client input */
+  private static void sendInput(InputStream stdin, DataOutputStream output, byte[] buffer)
+      throws IOException {
+    int read;
+    do {
+      read = stdin.read(buffer);
+    } while (read == 0);
+    output.writeByte(DaemonProtocol.STDIN);
+    if (read < 0) {
+      output.writeInt(DaemonProtocol.END_OF_STREAM);
+    } else {
+      output.writeInt(read);
+      output.write(buffer, 0, read);
+    }
+    output.flush();
+  }
+
+  /** @return A connection to the registered daemon, started if needed */
+  private Optional<Connection> connect() {
+    Optional<DaemonAddress> registeredAddress = registry.read();
+    Optional<Connection> connection = registeredAddress.flatMap(DaemonClient::connect);
+    if (connection.isPresent()) {
+      return connection;
+    }
+
+    LOG.debug("Starting a vet daemon");
+    daemonStarter.run();
+    long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+    while (System.nanoTime() < deadline) {
+      Optional<DaemonAddress> address = registry.read();
+      if (address.isPresent() && !address.equals(registeredAddress)) {
+        return connect(address.get());
+      }
+      try {
+        Thread.sleep(STARTUP_POLL_INTERVAL_MILLIS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return Optional.empty();
+      }
+    }
+    LOG.debug("The vet daemon did not start within {}", STARTUP_TIMEOUT);
+    return Optional.empty();
+  }
+
+  private static Optional<Connection> connect(DaemonAddress address) {
+    try {
+      return Optional.of(
+          new Connection(address, new Socket(InetAddress.getLoopbackAddress(), address.getPort())));
+    } catch (IOException e) {
+      LOG.debug("Could not connect to the vet daemon on port {}", address.getPort(), e);
+      return Optional.empty();
+    }
+  }
+
+  /** Starts a daemon running this vet, detached from the client */
+  private static void startDaemon(DaemonRegistry registry) {
+    boolean windows = new OperatingSystem().isWindows();
+    List<String> command = new ArrayList<>();
+    if (!windows) {
+      // Survives the terminal that started it
+      command.add("nohup");
+    }
+    command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+    Module module = DaemonClient.class.getModule();
+    if (module.isNamed()) {
+      command.add("-m");
+      command.add(module.getName() + "/" + DaemonServer.class.getName());
+    } else {
+      command.add("-cp");
+      command.add(System.getProperty("java.class.path"));
+      command.add(DaemonServer.class.getName());
+    }
+
+    Path logFile = registry.getLogFile();
+    try {
+      Files.createDirectories(logFile.getParent());
+      ProcessBuilder processBuilder = new ProcessBuilder(command);
+      // The daemon may still be attached to this terminal, but can't read the answers typed in it
+      processBuilder.environment().put(DaemonProtocol.TERMINAL_PROMPT_VARIABLE, "0");
+      processBuilder
+          .redirectInput(ProcessBuilder.Redirect.from(new File(windows ? "NUL" : "/dev/null")))
+          .redirectErrorStream(true)
+          .redirectOutput(ProcessBuilder.Redirect.appendTo(logFile.toFile()))
+          .start();
+    } catch (IOException e) {
+      LOG.debug("Failed to start the vet daemon", e);
+    }
+  }
+
+  /**
+   * A socket connected to a daemon, with the address it was opened from
+   *
+   * <p>Created on 18/10/26.
+   *
+   * @author Reda.Housni-Alaoui
+   */
+  private static class Connection {
+
+    private final DaemonAddress address;
+    private final Socket socket;
+
+    private Connection(DaemonAddress address, Socket socket) {
+      this.address = requireNonNull(address);
+      this.socket = requireNonNull(socket);
+    }
+  }
+}
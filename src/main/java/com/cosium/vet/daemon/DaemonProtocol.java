@@ -0,0 +1,211 @@
+package com.cosium.vet.daemon;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The exchange between a client and the daemon, over a loopback socket.
+ *
+ * <p>The client opens with the token, the version, the relevant environment, the working directory
+ * and the arguments. The daemon answers with a {@link #ACCEPTED}, {@link #BUSY} or {@link
+ * #REJECTED} byte. Once accepted, the daemon sends {@link #STDOUT} and {@link #STDERR} frames then
+ * a final {@link #EXIT} or {@link #RUN_LOCALLY} frame. When the command waits for input, the daemon
+ * sends a {@link #READ_STDIN} frame that the client answers with a {@link #STDIN} frame. The client
+ * never reads its input ahead of the command.
+ *
+ * <p>Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+class DaemonProtocol {
+
+  static final byte ACCEPTED = 0;
+  static final byte BUSY = 1;
+  static final byte REJECTED = 2;
+
+  static final byte STDOUT = 1;
+  static final byte STDERR = 2;
+  static final byte EXIT = 3;
+  static final byte STDIN = 4;
+  static final byte READ_STDIN = 5;
+  /** Ends the command instead of {@link #EXIT} when it needs a terminal, that the daemon lacks */
+  static final byte RUN_LOCALLY = 6;
+
+  /** The daemon runs git with terminal prompts disabled, whatever the client sets */
+  static final String TERMINAL_PROMPT_VARIABLE = "GIT_TERMINAL_PROMPT";
+
+  /** The length of a {@link #STDIN} frame telling that the client input is closed */
+  static final int END_OF_STREAM = -1;
+
+  private DaemonProtocol() {}
+
+  /**
+   * @param environment The whole environment
+   * @return The variables git and vet read. A daemon only serves clients sharing them.
+   */
+  static Map<String, String> relevantEnvironment(Map<String, String> environment) {
+    Map<String, String> relevant = new TreeMap<>();
+    environment.forEach(
+        (name, value) -> {
+          if (isRelevant(name)) {
+            relevant.put(name, value);
+          }
+        });
+    return relevant;
+  }
+
+  private static boolean isRelevant(String name) {
+    if (name.equals(TERMINAL_PROMPT_VARIABLE)) {
+      return false;
+    }
+    return name.startsWith("GIT_")
+        || name.startsWith("SSH_")
+        || name.startsWith("XDG_")
+        || name.startsWith("LC_")
+        || name.equals("PATH")
+        || name.equals("HOME")
+        || name.equals("LANG");
+  }
+
+  static void writeStrings(DataOutputStream output, String... values) throws IOException {
+    output.writeInt(values.length);
+    for (String value : values) {
+      output.writeUTF(value);
+    }
+  }
+
+  static String[] readStrings(DataInputStream input) throws IOException {
+    String[] values = new String[input.readInt()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = input.readUTF();
+    }
+    return values;
+  }
+
+  static void writeMap(DataOutputStream output, Map<String, String> map) throws IOException {
+    output.writeInt(map.size());
+    for (Map.Entry<String, String> entry : map.entrySet()) {
+      output.writeUTF(entry.getKey());
+      output.writeUTF(entry.getValue());
+    }
+  }
+
+  static Map<String, String> readMap(DataInputStream input) throws IOException {
+    Map<String, String> map = new TreeMap<>();
+    int size = input.readInt();
+    for (int i = 0; i < size; i++) {
+      map.put(input.readUTF(), input.readUTF());
+    }
+    return map;
+  }
+
+  /** Writes each chunk it receives as a frame of the given type */
+  static class FrameOutputStream extends OutputStream {
+
+    private final DataOutputStream output;
+    private final byte type;
+
+    FrameOutputStream(DataOutputStream output, byte type) {
+      this.output = requireNonNull(output);
+      this.type = type;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+      if (length == 0) {
+        return;
+      }
+      synchronized (output) {
+        output.writeByte(type);
+        output.writeInt(length);
+        output.write(bytes, offset, length);
+        output.flush();
+      }
+    }
+
+    @Override
+    public void flush() throws IOException {
+      synchronized (output) {
+        output.flush();
+      }
+    }
+  }
+
+  /** Reads the client input one {@link #STDIN} frame at a time, requesting each one */
+  static class FrameInputStream extends InputStream {
+
+    private final DataInputStream input;
+    private final DataOutputStream output;
+    private byte[] chunk = new byte[0];
+    private int position;
+    private boolean ended;
+
+    FrameInputStream(DataInputStream input, DataOutputStream output) {
+      this.input = requireNonNull(input);
+      this.output = requireNonNull(output);
+    }
+
+    @Override
+    public synchronized int read() throws IOException {
+      byte[] single = new byte[1];
+      if (read(single, 0, 1) < 0) {
+        return -1;
+      }
+      return single[0] & 0xFF;
+    }
+
+    @Override
+    public synchronized int read(byte[] bytes, int offset, int length) throws IOException {
+      if (length == 0) {
+        return 0;
+      }
+      if (position == chunk.length && !readChunk()) {
+        return -1;
+      }
+      int read = Math.min(length, chunk.length - position);
+      System.arraycopy(chunk, position, bytes, offset, read);
+      position += read;
+      return read;
+    }
+
+    @Override
+    public synchronized int available() {
+      return chunk.length - position;
+    }
+
+    /** @return False if the client input is closed */
+    private boolean readChunk() throws IOException {
+      if (ended) {
+        return false;
+      }
+      synchronized (output) {
+        output.writeByte(READ_STDIN);
+        output.flush();
+      }
+      if (input.readByte() != STDIN) {
+        throw new IOException("Expected an input frame");
+      }
+      int length = input.readInt();
+      if (length == END_OF_STREAM) {
+        ended = true;
+        return false;
+      }
+      chunk = new byte[length];
+      input.readFully(chunk);
+      position = 0;
+      return true;
+    }
+  }
+}
@@ -0,0 +1,159 @@
+package com.cosium.vet.daemon;
+
+import com.cosium.vet.log.Logger;
+import com.cosium.vet.log.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Properties;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Where the daemon of a vet version and environment publishes its address. The file is only
+ * readable by its owner, as the token it holds grants running commands as that user.
+ *
+ * <p>Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+class DaemonRegistry {
+
+  private static final Logger LOG = LoggerFactory.getLogger(DaemonRegistry.class);
+
+  private static final String PORT = "port";
+  private static final String TOKEN = "token";
+
+  private final Path file;
+
+  /**
+   * @param directory The directory holding the registry files
+   * @param version The vet version
+   * @param relevantEnvironment The environment shared by the daemon and its clients
+   */
+  DaemonRegistry(Path directory, String version, Map<String, String> relevantEnvironment) {
+    String name =
+        "vet-"
+            + version.trim().replaceAll("[^A-Za-z0-9._-]", "_")
+            + "-"
+            + Integer.toHexString(relevantEnvironment.hashCode());
+    this.file = directory.resolve(name + ".properties");
+  }
+
+  /** @return The registry of the current user */
+  static DaemonRegistry of(String version, Map<String, String> relevantEnvironment) {
+    return new DaemonRegistry(
+        Paths.get(System.getProperty("user.home"), ".vet", "daemon"), version, relevantEnvironment);
+  }
+
+  /** @return The address of the registered daemon. Empty if none is registered. */
+  Optional<DaemonAddress> read() {
+    if (!Files.isRegularFile(file)) {
+      return Optional.empty();
+    }
+    Properties properties = new Properties();
+    try (InputStream inputStream = Files.newInputStream(file)) {
+      properties.load(inputStream);
+    } catch (IOException e) {
+      LOG.debug("Failed to read '{}'", file, e);
+      return Optional.empty();
+    }
+    String port = properties.getProperty(PORT);
+    String token = properties.getProperty(TOKEN);
+    if (port == null || token == null || !port.matches("\\d{1,5}")) {
+      return Optional.empty();
+    }
+    return Optional.of(new DaemonAddress(Integer.parseInt(port), token));
+  }
+
+  /** Registers the daemon, replacing any previous one */
+  void write(DaemonAddress address) throws IOException {
+    Files.createDirectories(file.getParent());
+    Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+    Files.deleteIfExists(temporaryFile);
+    if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+      Files.createFile(
+          temporaryFile,
+          PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+    }
+    Properties properties = new Properties();
+    properties.setProperty(PORT, String.valueOf(address.getPort()));
+    properties.setProperty(TOKEN, address.getToken());
+    try (OutputStream outputStream = Files.newOutputStream(temporaryFile)) {
+      properties.store(outputStream, null);
+    }
+    Files.move(
+        temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /** @return True if the given daemon is still the registered one */
+  boolean isRegistered(DaemonAddress address) {
+    return read().map(address::equals).orElse(false);
+  }
+
+  /** Unregisters the given daemon, unless another one replaced it */
+  void delete(DaemonAddress address) {
+    if (!isRegistered(address)) {
+      return;
+    }
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      LOG.debug("Failed to delete '{}'", file, e);
+    }
+  }
+
+  /** @return The file the daemon output goes to */
+  Path getLogFile() {
+    return file.resolveSibling(file.getFileName().toString().replace(".properties", ".log"));
+  }
+
+  /**
+   * The loopback port of a daemon and the token it expects
+   *
+   * <p>Created on 18/10/26.
+   *
+   * @author Reda.Housni-Alaoui
+   */
+  static class DaemonAddress {
+
+    private final int port;
+    private final String token;
+
+    DaemonAddress(int port, String token) {
+      this.port = port;
+      this.token = requireNonNull(token);
+    }
+
+    int getPort() {
+      return port;
+    }
+
+    String getToken() {
+      return token;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      DaemonAddress that = (DaemonAddress) o;
+      return port == that.port && Objects.equals(token, that.token);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(port, token);
+    }
+  }
+}
@@ -0,0 +1,272 @@
+package com.cosium.vet.daemon;
+
+import com.cosium.vet.App;
+import com.cosium.vet.VetVersion;
+import com.cosium.vet.daemon.DaemonProtocol.FrameInputStream;
+import com.cosium.vet.daemon.DaemonProtocol.FrameOutputStream;
+import com.cosium.vet.daemon.DaemonRegistry.DaemonAddress;
+import com.cosium.vet.log.Logger;
+import com.cosium.vet.log.LoggerFactory;
+import com.cosium.vet.thirdparty.apache_commons_lang3.math.NumberUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A resident vet serving the commands forwarded by {@link DaemonClient}, so that they skip the JVM
+ * startup and run on warm classes and connections.
+ *
+ * <p>Each command gets a fresh {@link com.cosium.vet.Vet} built for the client working directory:
+ * nothing read from a repository outlives the command, as git may change it between two commands.
+ * Commands run one at a time since they use the process wide standard streams. A client finding the
+ * daemon busy runs its command itself.
+ *
+ * <p>The daemon has no terminal to prompt the user on. It is started with git terminal prompts
+ * disabled, and a command failing because git needed to prompt is run again by the client.
+ *
+ * <p>Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+public class DaemonServer {
+
+  private static final Logger LOG = LoggerFactory.getLogger(DaemonServer.class);
+
+  private static final String IDLE_TIMEOUT_VARIABLE = "VET_DAEMON_IDLE_TIMEOUT";
+  private static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofHours(3);
+  /** How often an idle daemon checks that it is still the registered one */
+  private static final Duration REGISTRATION_CHECK_INTERVAL = Duration.ofMinutes(1);
+
+  private final DaemonRegistry registry;
+  private final String version;
+  private final Map<String, String> environment;
+  private final Duration idleTimeout;
+  private final Command command;
+  private final ServerSocket serverSocket;
+  private final DaemonAddress address;
+  private final ReentrantLock commandLock = new ReentrantLock();
+  private volatile long lastActivity = System.nanoTime();
+
+  /**
+   * @param registry The registry to publish the daemon address to
+   * @param version The vet version. Only clients of the same version are served.
+   * @param environment The relevant environment. Only clients sharing it are served.
+   * @param idleTimeout The inactivity duration after which the daemon stops
+   * @param command Runs a vet command
+   */
+  DaemonServer(
+      DaemonRegistry registry,
+      String version,
+      Map<String, String> environment,
+      Duration idleTimeout,
+      Command command)
+      throws IOException {
+    this.registry = requireNonNull(registry);
+    this.version = requireNonNull(version);
+    this.environment = requireNonNull(environment);
+    this.idleTimeout = requireNonNull(idleTimeout);
+    this.command = requireNonNull(command);
+    this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+    this.address =
+        new DaemonAddress(
+            serverSocket.getLocalPort(), new BigInteger(160, new SecureRandom()).toString(32));
+  }
+
+  public static void main(String[] args) throws IOException {
+    Map<String, String> environment = DaemonProtocol.relevantEnvironment(System.getenv());
+    String version = VetVersion.getValue();
+    new DaemonServer(
+            DaemonRegistry.of(version, environment),
+            version,
+            environment,
+            readIdleTimeout(System.getenv(IDLE_TIMEOUT_VARIABLE)),
+            App::run)
+        .serve();
+  }
+
+  /**
+   * @param minutes The configured idle timeout in minutes. May be null.
+   * @return The idle timeout to use
+   */
+  static Duration readIdleTimeout(String minutes) {
+    if (!NumberUtils.isDigits(minutes)) {
+      return DEFAULT_IDLE_TIMEOUT;
+    }
+    return Duration.ofMinutes(Long.parseLong(minutes));
+  }
+
+  /**
+   * Registers the daemon then serves the clients until it stays idle for too long, another daemon
+   * replaces it or it is closed.
+   */
+  void serve() throws IOException {
+    registry.write(address);
+    LOG.info("Vet daemon {} listening on port {}", version.trim(), address.getPort());
+    try {
+      Duration checkInterval =
+          idleTimeout.compareTo(REGISTRATION_CHECK_INTERVAL) < 0
+              ? idleTimeout
+              : REGISTRATION_CHECK_INTERVAL;
+      serverSocket.setSoTimeout((int) Math.max(1, checkInterval.toMillis()));
+      while (true) {
+        Socket socket;
+        try {
+          socket = serverSocket.accept();
+        } catch (SocketTimeoutException e) {
+          if (isIdle()) {
+            LOG.info("Stopping after {} of inactivity", idleTimeout);
+            return;
+          }
+          if (!registry.isRegistered(address)) {
+            LOG.info("Stopping as another daemon was registered");
+            return;
+          }
+          continue;
+        } catch (IOException e) {
+          if (serverSocket.isClosed()) {
+            return;
+          }
+          throw e;
+        }
+        Thread thread = new Thread(() -> handle(socket), "vet-daemon-connection");
+        thread.setDaemon(true);
+        thread.start();
+      }
+    } finally {
+      registry.delete(address);
+      serverSocket.close();
+    }
+  }
+
+  /** Stops serving */
+  void close() throws IOException {
+    serverSocket.close();
+  }
+
+  private boolean isIdle() {
+    return !commandLock.isLocked() && System.nanoTime() - lastActivity >= idleTimeout.toNanos();
+  }
+
+  private void handle(Socket socket) {
+    try (Socket client = socket) {
+      client.setTcpNoDelay(true);
+      DataInputStream input = new DataInputStream(new BufferedInputStream(client.getInputStream()));
+      DataOutputStream output =
+          new DataOutputStream(new BufferedOutputStream(client.getOutputStream()));
+
+      String token = input.readUTF();
+      String clientVersion = input.readUTF();
+      Map<String, String> clientEnvironment = DaemonProtocol.readMap(input);
+      Path workingDir = Paths.get(input.readUTF());
+      String[] args = DaemonProtocol.readStrings(input);
+
+      if (!MessageDigest.isEqual(
+          address.getToken().getBytes(StandardCharsets.UTF_8),
+          token.getBytes(StandardCharsets.UTF_8))) {
+        reject(output, "Invalid token");
+        return;
+      }
+      if (!version.equals(clientVersion)) {
+        reject(output, "The daemon runs vet " + version);
+        return;
+      }
+      if (!environment.equals(clientEnvironment)) {
+        reject(output, "The daemon runs in another environment");
+        return;
+      }
+      if (!commandLock.tryLock()) {
+        output.writeByte(DaemonProtocol.BUSY);
+        output.flush();
+        return;
+      }
+      try {
+        output.writeByte(DaemonProtocol.ACCEPTED);
+        output.flush();
+        int status = execute(input, output, workingDir, args);
+        synchronized (output) {
+          if (status == App.PROMPT_REQUIRED_STATUS) {
+            output.writeByte(DaemonProtocol.RUN_LOCALLY);
+          } else {
+            output.writeByte(DaemonProtocol.EXIT);
+            output.writeInt(status);
+          }
+          output.flush();
+        }
+      } finally {
+        lastActivity = System.nanoTime();
+        commandLock.unlock();
+      }
+    } catch (IOException e) {
+      LOG.debug("Connection failed", e);
+    }
+  }
+
+  private static void reject(DataOutputStream output, String reason) throws IOException {
+    output.writeByte(DaemonProtocol.REJECTED);
+    output.writeUTF(reason);
+    output.flush();
+  }
+
+  /** Runs the command with the standard streams bound to the client ones */
+  private int execute(
+      DataInputStream input, DataOutputStream output, Path workingDir, String[] args) {
+    InputStream stdin = new FrameInputStream(input, output);
+    PrintStream stdout =
+        new PrintStream(new FrameOutputStream(output, DaemonProtocol.STDOUT), true);
+    PrintStream stderr =
+        new PrintStream(new FrameOutputStream(output, DaemonProtocol.STDERR), true);
+    InputStream systemIn = System.in;
+    PrintStream systemOut = System.out;
+    PrintStream systemErr = System.err;
+    System.setIn(stdin);
+    System.setOut(stdout);
+    System.setErr(stderr);
+    try {
+      return command.run(args, workingDir);
+    } finally {
+      System.setIn(systemIn);
+      System.setOut(systemOut);
+      System.setErr(systemErr);
+      stdout.flush();
+      stderr.flush();
+    }
+  }
+
+  /**
+   * Runs a vet command
+   *
+   * <p>Created on 18/10/26.
+   *
+   * @author Reda.Housni-Alaoui
+   */
+  @FunctionalInterface
+  interface Command {
+
+    /**
+     * @param args The command line arguments
+     * @param workingDir The directory the client was called from
+     * @return The exit status
+     */
+    int run(String[] args, Path workingDir);
+  }
+}
@@ -0,0 +1,134 @@
+package com.cosium.vet.gerrit;
+
+import com.cosium.vet.git.BranchShortName;
+import com.cosium.vet.log.Logger;
+import com.cosium.vet.log.LoggerFactory;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Memoizes the patch sets read through the delegate for the lifetime of the instance, which is the
+ * duration of one command. Creating a patch forgets everything known about the patched change.
+ *
+ * <p>Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+class CachingPatchSetRepository implements PatchSetRepository {
+
+  private static final Logger LOG = LoggerFactory.getLogger(CachingPatchSetRepository.class);
+
+  private final PatchSetRepository delegate;
+  private final Map<ChangeNumericId, Optional<Patch>> latestPatches = new ConcurrentHashMap<>();
+  private final Map<ChangeNumericId, Map<Integer, Patch>> patches = new ConcurrentHashMap<>();
+
+  CachingPatchSetRepository(PatchSetRepository delegate) {
+    this.delegate = requireNonNull(delegate);
+  }
+
+  @Override
+  public CreatedPatch createPatch(BranchShortName targetBranch, PatchOptions options) {
+    return invalidating(null, () -> delegate.createPatch(targetBranch, options));
+  }
+
+  @Override
+  public CreatedPatch createPatch(
+      BranchShortName targetBranch, ChangeNumericId numericId, PatchOptions options) {
+    return invalidating(numericId, () -> delegate.createPatch(targetBranch, numericId, options));
+  }
+
+  @Override
+  public CreatedPatch createPatch(
+      BranchShortName targetBranch,
+      ChangeNumericId numericId,
+      ChangeChangeId changeChangeId,
+      int latestPatchNumber,
+      PatchOptions options) {
+    return invalidating(
+        numericId,
+        () ->
+            delegate.createPatch(
+                targetBranch, numericId, changeChangeId, latestPatchNumber, options));
+  }
+
+  @Override
+  public boolean isUpToDate(
+      BranchShortName targetBranch,
+      ChangeNumericId numericId,
+      ChangeChangeId changeChangeId,
+      int latestPatchNumber) {
+    return delegate.isUpToDate(targetBranch, numericId, changeChangeId, latestPatchNumber);
+  }
+
+  @Override
+  public Optional<Patch> findLastestPatch(ChangeNumericId changeNumericId) {
+    if (changeNumericId == null) {
+      return Optional.empty();
+    }
+    Optional<Patch> latestPatch = latestPatches.get(changeNumericId);
+    if (latestPatch != null) {
+      LOG.debug("Latest patch of change {} is cached", changeNumericId);
+      return latestPatch;
+    }
+    latestPatch = delegate.findLastestPatch(changeNumericId);
+    latestPatches.put(changeNumericId, latestPatch);
+    latestPatch.ifPresent(this::cache);
+    return latestPatch;
+  }
+
+  @Override
+  public Patch findPatch(ChangeNumericId changeNumericId, int patchNumber) {
+    Patch patch = patches.getOrDefault(changeNumericId, Collections.emptyMap()).get(patchNumber);
+    if (patch != null) {
+      LOG.debug("Patch {} of change {} is cached", patchNumber, changeNumericId);
+      return patch;
+    }
+    patch = delegate.findPatch(changeNumericId, patchNumber);
+    cache(patch);
+    return patch;
+  }
+
+  @Override
+  public String pullLatest(ChangeNumericId changeNumericId) {
+    return delegate.pullLatest(changeNumericId);
+  }
+
+  private void cache(Patch patch) {
+    patches
+        .computeIfAbsent(patch.getChangeNumericId(), changeNumericId -> new ConcurrentHashMap<>())
+        .put(patch.getNumber(), patch);
+  }
+
+  /**
+   * Forgets the patched change even if the creation failed, since the push may have reached the
+   * remote.
+   *
+   * @param numericId The numeric id of the patched change. Null for a new change.
+   * @param patchCreation The patch creation
+   * @return The created patch
+   */
+  private CreatedPatch invalidating(
+      ChangeNumericId numericId, Supplier<CreatedPatch> patchCreation) {
+    try {
+      CreatedPatch createdPatch = patchCreation.get();
+      invalidate(createdPatch.getChangeNumericId());
+      return createdPatch;
+    } finally {
+      invalidate(numericId);
+    }
+  }
+
+  private void invalidate(ChangeNumericId changeNumericId) {
+    if (changeNumericId == null) {
+      return;
+    }
+    latestPatches.remove(changeNumericId);
+    patches.remove(changeNumericId);
+  }
+}
@@ -23,6 +23,13 @@ public interface Change {
    */
   String createPatch(PatchOptions options);
 
+  /**
+   * Tells, without reaching the remote, whether a new patch would be identical to the latest one.
+   *
+   * @return True if there is nothing new to push. False if there is or if it can't be told locally.
+   */
+  boolean isUpToDate();
+
   /** @return The change web url */
   String getWebUrl();
 }
@@ -0,0 +1,45 @@
+package com.cosium.vet.gerrit;
+
+import com.cosium.vet.git.CommitMessage;
+import com.cosium.vet.thirdparty.apache_commons_lang3.StringUtils;
+import com.cosium.vet.utils.NonBlankString;
+
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The Change-Id footer value identifying a change across its patch sets. i.e.
+ * I8473b95934b5732ac55d26311a706c9c2bde9940
+ *
+ * <p>Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+public class ChangeChangeId extends NonBlankString {
+
+  static final String COMMIT_MESSAGE_PREFIX = "Change-Id: ";
+
+  private static final Pattern COMMIT_MESSAGE_PATTERN =
+      Pattern.compile(Pattern.quote(COMMIT_MESSAGE_PREFIX) + "(.*)");
+
+  private ChangeChangeId(String value) {
+    super(value);
+  }
+
+  public static ChangeChangeId of(String value) {
+    return new ChangeChangeId(value);
+  }
+
+  /**
+   * @param commitMessage The commit message to parse
+   * @return The change id held by the commit message footer
+   */
+  public static Optional<ChangeChangeId> parse(CommitMessage commitMessage) {
+    Matcher matcher = COMMIT_MESSAGE_PATTERN.matcher(commitMessage.toString());
+    if (!matcher.find() || StringUtils.isBlank(matcher.group(1))) {
+      return Optional.empty();
+    }
+    return Optional.of(of(matcher.group(1)));
+  }
+}
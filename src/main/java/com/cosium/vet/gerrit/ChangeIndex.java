@@ -0,0 +1,225 @@
+package com.cosium.vet.gerrit;
+
+import com.cosium.vet.git.ObjectId;
+import com.cosium.vet.git.RevisionId;
+import com.cosium.vet.log.Logger;
+import com.cosium.vet.log.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Persistent index of the latest known patch set of each change, stored in the repository. The file
+ * holds fixed-size records sorted by change numeric id, so that a lookup is a binary search over
+ * the memory-mapped file whatever the number of indexed changes. Every failure to read or write the
+ * index is logged and treated as a miss.
+ *
+ * <p>Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+class ChangeIndex {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ChangeIndex.class);
+
+  private static final int MAGIC = 0x56455449;
+  private static final int VERSION = 1;
+  private static final int HEADER_SIZE = 2 * Integer.BYTES;
+  private static final int MAX_REVISION_BYTES = ObjectId.SHA256_LENGTH;
+  /** change numeric id, patch number, revision length, revision */
+  private static final int RECORD_SIZE = Long.BYTES + Integer.BYTES + 1 + MAX_REVISION_BYTES;
+
+  private final Supplier<Path> file;
+
+  /** @param file Supplies the index file. Called on first use. */
+  ChangeIndex(Supplier<Path> file) {
+    this.file = requireNonNull(file);
+  }
+
+  /**
+   * @param changeNumericId The change numeric id
+   * @return The latest indexed patch set of the change
+   */
+  Optional<Entry> find(ChangeNumericId changeNumericId) {
+    try {
+      Path path = file.get();
+      if (!Files.isRegularFile(path)) {
+        return Optional.empty();
+      }
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        int index = search(buffer, changeNumericId.longValue());
+        if (index < 0) {
+          return Optional.empty();
+        }
+        return Optional.of(readEntry(buffer, index));
+      }
+    } catch (IOException | RuntimeException e) {
+      LOG.debug("Failed to read the change index", e);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Records the latest patch set of a change, replacing any previous entry for the change.
+   *
+   * @param changeNumericId The change numeric id
+   * @param patchNumber The latest patch number
+   * @param revisionId The revision of the latest patch set
+   */
+  void put(ChangeNumericId changeNumericId, int patchNumber, RevisionId revisionId) {
+    Entry entry = new Entry(patchNumber, revisionId);
+    if (entry.equals(find(changeNumericId).orElse(null))) {
+      return;
+    }
+    try {
+      ObjectId objectId =
+          revisionId
+              .getObjectId()
+              .orElseThrow(() -> new IllegalArgumentException(revisionId + " is not an object id"));
+      byte[] revision = new byte[objectId.getLength()];
+      objectId.copyRawTo(revision, 0);
+      Path path = file.get();
+      ByteBuffer current = readRecords(path);
+      long id = changeNumericId.longValue();
+      int index = search(current, id);
+      int count = recordCount(current);
+      int insertionIndex = index < 0 ? -(index + 1) : index;
+      int newCount = index < 0 ? count + 1 : count;
+
+      ByteBuffer updated = ByteBuffer.allocate(HEADER_SIZE + newCount * RECORD_SIZE);
+      updated.putInt(MAGIC).putInt(VERSION);
+      copyRecords(current, 0, insertionIndex, updated);
+      updated.putLong(id).putInt(patchNumber).put((byte) revision.length).put(revision);
+      updated.position(updated.position() + MAX_REVISION_BYTES - revision.length);
+      copyRecords(current, index < 0 ? insertionIndex : insertionIndex + 1, count, updated);
+
+      Files.createDirectories(path.getParent());
+      Path temporaryFile =
+          Files.createTempFile(path.getParent(), path.getFileName().toString(), "");
+      try {
+        Files.write(temporaryFile, updated.array());
+        Files.move(
+            temporaryFile,
+            path,
+            StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(temporaryFile);
+      }
+    } catch (IOException | RuntimeException e) {
+      LOG.debug("Failed to update the change index", e);
+    }
+  }
+
+  private static ByteBuffer readRecords(Path path) throws IOException {
+    if (!Files.isRegularFile(path)) {
+      return emptyIndex();
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+    if (!isValid(buffer)) {
+      LOG.debug("Discarding invalid change index '{}'", path);
+      return emptyIndex();
+    }
+    return buffer;
+  }
+
+  private static ByteBuffer emptyIndex() {
+    return ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).flip();
+  }
+
+  private static boolean isValid(ByteBuffer buffer) {
+    return buffer.limit() >= HEADER_SIZE
+        && buffer.getInt(0) == MAGIC
+        && buffer.getInt(Integer.BYTES) == VERSION
+        && (buffer.limit() - HEADER_SIZE) % RECORD_SIZE == 0;
+  }
+
+  private static int recordCount(ByteBuffer buffer) {
+    return (buffer.limit() - HEADER_SIZE) / RECORD_SIZE;
+  }
+
+  /**
+   * @return The index of the record holding the id, or (-(insertion point) - 1) if there is none
+   */
+  private static int search(ByteBuffer buffer, long id) {
+    if (!isValid(buffer)) {
+      return -1;
+    }
+    int low = 0;
+    int high = recordCount(buffer) - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      long middleId = buffer.getLong(HEADER_SIZE + middle * RECORD_SIZE);
+      if (middleId < id) {
+        low = middle + 1;
+      } else if (middleId > id) {
+        high = middle - 1;
+      } else {
+        return middle;
+      }
+    }
+    return -(low + 1);
+  }
+
+  private static void copyRecords(ByteBuffer source, int from, int to, ByteBuffer target) {
+    for (int i = from; i < to; i++) {
+      int offset = HEADER_SIZE + i * RECORD_SIZE;
+      for (int j = 0; j < RECORD_SIZE; j++) {
+        target.put(source.get(offset + j));
+      }
+    }
+  }
+
+  private static Entry readEntry(ByteBuffer buffer, int index) {
+    int offset = HEADER_SIZE + index * RECORD_SIZE + Long.BYTES;
+    int patchNumber = buffer.getInt(offset);
+    byte[] revision = new byte[buffer.get(offset + Integer.BYTES)];
+    for (int i = 0; i < revision.length; i++) {
+      revision[i] = buffer.get(offset + Integer.BYTES + 1 + i);
+    }
+    return new Entry(patchNumber, RevisionId.of(ObjectId.fromRaw(revision, 0, revision.length)));
+  }
+
+  /** An indexed patch set */
+  static class Entry {
+    private final int patchNumber;
+    private final RevisionId revisionId;
+
+    Entry(int patchNumber, RevisionId revisionId) {
+      this.patchNumber = patchNumber;
+      this.revisionId = requireNonNull(revisionId);
+    }
+
+    int getPatchNumber() {
+      return patchNumber;
+    }
+
+    RevisionId getRevisionId() {
+      return revisionId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      Entry entry = (Entry) o;
+      return patchNumber == entry.patchNumber && revisionId.equals(entry.revisionId);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * patchNumber + revisionId.hashCode();
+    }
+  }
+}
@@ -37,10 +37,19 @@ public class ChangeNumericId {
   }
 
   public BranchRefName branchRefName(Patch patch) {
+    return BranchRefName.of(branchRefNamePrefix() + patch.getNumber());
+  }
+
+  /** @return The prefix shared by all patch refs of this change. i.e. refs/changes/34/1234/ */
+  public String branchRefNamePrefix() {
     String numericIdStr = toString();
-    String numericIdSuffix = StringUtils.substring(numericIdStr, numericIdStr.length() - 2);
-    return BranchRefName.of(
-        "refs/changes/" + numericIdSuffix + "/" + numericIdStr + "/" + patch.getNumber());
+    String numericIdSuffix =
+        StringUtils.leftPad(StringUtils.substring(numericIdStr, numericIdStr.length() - 2), 2, '0');
+    return "refs/changes/" + numericIdSuffix + "/" + numericIdStr + "/";
+  }
+
+  public long longValue() {
+    return value;
   }
 
   @Override
@@ -0,0 +1,119 @@
+package com.cosium.vet.gerrit;
+
+/**
+ * Parses the 'refs/changes/NN/ID/PS' lines printed by ls-remote, character by character. The parsed
+ * values are exposed through the parser fields instead of a result object, so that a single parser
+ * can go through any number of refs without allocating.
+ *
+ * <p>Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+class ChangeRefParser {
+
+  private static final String CHANGES_PREFIX = "refs/changes/";
+
+  private long changeId;
+  private int patchNumber;
+  private int revisionEnd;
+
+  /**
+   * @param line A ref line as printed by ls-remote: '&lt;revision&gt;\t&lt;ref name&gt;'
+   * @return True if the line is a patch set ref. False for any other ref, including
+   *     'refs/changes/NN/ID/meta'.
+   */
+  boolean parse(CharSequence line) {
+    int length = line.length();
+    int position = 0;
+    while (position < length && !isSeparator(line.charAt(position))) {
+      position++;
+    }
+    revisionEnd = position;
+    if (revisionEnd == 0) {
+      return false;
+    }
+    while (position < length && isSeparator(line.charAt(position))) {
+      position++;
+    }
+    if (!regionMatches(line, position, CHANGES_PREFIX)) {
+      return false;
+    }
+    position += CHANGES_PREFIX.length();
+
+    // The NN shard: the last two digits of the change id
+    int shardStart = position;
+    while (position < length && isDigit(line.charAt(position))) {
+      position++;
+    }
+    if (position - shardStart != 2 || position >= length || line.charAt(position) != '/') {
+      return false;
+    }
+    position++;
+
+    long id = 0;
+    int idStart = position;
+    while (position < length && isDigit(line.charAt(position))) {
+      if (id > (Long.MAX_VALUE - 9) / 10) {
+        return false;
+      }
+      id = id * 10 + (line.charAt(position) - '0');
+      position++;
+    }
+    if (position == idStart || position >= length || line.charAt(position) != '/') {
+      return false;
+    }
+    position++;
+
+    int patch = 0;
+    int patchStart = position;
+    while (position < length && isDigit(line.charAt(position))) {
+      if (patch > (Integer.MAX_VALUE - 9) / 10) {
+        return false;
+      }
+      patch = patch * 10 + (line.charAt(position) - '0');
+      position++;
+    }
+    if (position == patchStart || position != length) {
+      return false;
+    }
+
+    changeId = id;
+    patchNumber = patch;
+    return true;
+  }
+
+  /** @return The change id of the last parsed patch set ref */
+  long getChangeId() {
+    return changeId;
+  }
+
+  /** @return The patch number of the last parsed patch set ref */
+  int getPatchNumber() {
+    return patchNumber;
+  }
+
+  /** @return The end index of the revision in the last parsed line. The revision starts at 0. */
+  int getRevisionEnd() {
+    return revisionEnd;
+  }
+
+  private static boolean regionMatches(CharSequence line, int offset, String expected) {
+    if (line.length() - offset < expected.length()) {
+      return false;
+    }
+    for (int i = 0; i < expected.length(); i++) {
+      if (line.charAt(offset + i) != expected.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isSeparator(char c) {
+    return c == '\t' || c == ' ';
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+}
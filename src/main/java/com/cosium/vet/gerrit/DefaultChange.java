@@ -1,5 +1,7 @@
 package com.cosium.vet.gerrit;
 
+import com.cosium.vet.gerrit.config.GerritConfiguration;
+import com.cosium.vet.gerrit.config.GerritConfigurationRepository;
 import com.cosium.vet.git.BranchShortName;
 import com.cosium.vet.git.RevisionId;
 
@@ -12,16 +14,19 @@ import static java.util.Objects.requireNonNull;
  */
 class DefaultChange implements Change {
 
+  private final GerritConfigurationRepository configurationRepository;
   private final PatchSetRepository patchSetRepository;
   private final PushUrl pushUrl;
   private final BranchShortName targetBranch;
   private final ChangeNumericId numericId;
 
   private DefaultChange(
+      GerritConfigurationRepository configurationRepository,
       PatchSetRepository patchSetRepository,
       PushUrl pushUrl,
       BranchShortName targetBranch,
       ChangeNumericId numericId) {
+    this.configurationRepository = requireNonNull(configurationRepository);
     this.patchSetRepository = requireNonNull(patchSetRepository);
     this.pushUrl = requireNonNull(pushUrl);
     this.targetBranch = requireNonNull(targetBranch);
@@ -40,7 +45,49 @@ class DefaultChange implements Change {
 
   @Override
   public String createPatch(PatchOptions options) {
-    return patchSetRepository.createPatch(targetBranch, numericId, options).getCreationLog();
+    return configurationRepository.readAndWrite(
+        conf -> {
+          boolean tracked = conf.getTrackedChangeNumericId().filter(numericId::equals).isPresent();
+          CreatedPatch patch = doCreatePatch(tracked ? conf : null, options);
+          if (tracked) {
+            conf.setTrackedChangeChangeId(
+                ChangeChangeId.parse(patch.getCommitMessage()).orElse(null));
+            conf.setTrackedChangeLatestPatchNumber(patch.getNumber());
+          }
+          return patch.getCreationLog();
+        });
+  }
+
+  /**
+   * @param conf The configuration tracking this change. Null if this change is not tracked.
+   * @param options The patch options
+   * @return The created patch
+   */
+  private CreatedPatch doCreatePatch(GerritConfiguration conf, PatchOptions options) {
+    ChangeChangeId changeChangeId =
+        conf == null ? null : conf.getTrackedChangeChangeId().orElse(null);
+    Integer latestPatchNumber =
+        conf == null ? null : conf.getTrackedChangeLatestPatchNumber().orElse(null);
+    if (changeChangeId == null || latestPatchNumber == null) {
+      return patchSetRepository.createPatch(targetBranch, numericId, options);
+    }
+    return patchSetRepository.createPatch(
+        targetBranch, numericId, changeChangeId, latestPatchNumber, options);
+  }
+
+  @Override
+  public boolean isUpToDate() {
+    GerritConfiguration conf = configurationRepository.read();
+    if (!conf.getTrackedChangeNumericId().filter(numericId::equals).isPresent()) {
+      return false;
+    }
+    ChangeChangeId changeChangeId = conf.getTrackedChangeChangeId().orElse(null);
+    Integer latestPatchNumber = conf.getTrackedChangeLatestPatchNumber().orElse(null);
+    if (changeChangeId == null || latestPatchNumber == null) {
+      return false;
+    }
+    return patchSetRepository.isUpToDate(
+        targetBranch, numericId, changeChangeId, latestPatchNumber);
   }
 
   @Override
@@ -60,17 +107,23 @@ class DefaultChange implements Change {
    */
   static class Factory implements ChangeFactory {
 
+    private final GerritConfigurationRepository configurationRepository;
     private final PatchSetRepository patchSetRepository;
     private final PushUrl pushUrl;
 
-    Factory(PatchSetRepository patchSetRepository, PushUrl pushUrl) {
+    Factory(
+        GerritConfigurationRepository configurationRepository,
+        PatchSetRepository patchSetRepository,
+        PushUrl pushUrl) {
+      this.configurationRepository = requireNonNull(configurationRepository);
       this.patchSetRepository = requireNonNull(patchSetRepository);
       this.pushUrl = requireNonNull(pushUrl);
     }
 
     @Override
     public Change build(BranchShortName targetBranch, ChangeNumericId changeNumericId) {
-      return new DefaultChange(patchSetRepository, pushUrl, targetBranch, changeNumericId);
+      return new DefaultChange(
+          configurationRepository, patchSetRepository, pushUrl, targetBranch, changeNumericId);
     }
   }
 }
@@ -9,9 +9,11 @@ import com.cosium.vet.git.RevisionId;
 import com.cosium.vet.log.Logger;
 import com.cosium.vet.log.LoggerFactory;
 
+import java.util.Arrays;
 import java.util.Optional;
 
 import static java.util.Objects.requireNonNull;
+import static java.util.Optional.ofNullable;
 
 /**
  * Created on 16/02/18.
@@ -44,6 +46,8 @@ class DefaultChangeRepository implements ChangeRepository {
         gerritConfiguration -> {
           gerritConfiguration.setTrackedChangeTargetBranch(null);
           gerritConfiguration.setTrackedChangeNumericId(null);
+          gerritConfiguration.setTrackedChangeChangeId(null);
+          gerritConfiguration.setTrackedChangeLatestPatchNumber(null);
           return null;
         });
   }
@@ -69,11 +73,31 @@ class DefaultChangeRepository implements ChangeRepository {
 
   @Override
   public Change trackChange(ChangeNumericId numericId, BranchShortName targetBranch) {
+    return trackChange(
+        numericId, targetBranch, patchSetRepository.findLastestPatch(numericId).orElse(null));
+  }
+
+  /**
+   * @param numericId The change numeric ID
+   * @param targetBranch The target branch short name
+   * @param latestPatch The latest patch of the change. Can be null.
+   * @return The tracked change
+   */
+  private Change trackChange(
+      ChangeNumericId numericId, BranchShortName targetBranch, Patch latestPatch) {
     LOG.debug("Enabling change for numeric id {}", numericId);
+    ChangeChangeId changeChangeId =
+        ofNullable(latestPatch)
+            .map(Patch::getCommitMessage)
+            .flatMap(ChangeChangeId::parse)
+            .orElse(null);
     return configurationRepository.readAndWrite(
         conf -> {
           conf.setTrackedChangeNumericId(numericId);
           conf.setTrackedChangeTargetBranch(targetBranch);
+          conf.setTrackedChangeChangeId(changeChangeId);
+          conf.setTrackedChangeLatestPatchNumber(
+              changeChangeId == null ? null : latestPatch.getNumber());
           return changeFactory.build(targetBranch, numericId);
         });
   }
@@ -88,17 +112,20 @@ class DefaultChangeRepository implements ChangeRepository {
             .findLastestPatch(numericId)
             .orElseThrow(
                 () -> new RuntimeException("No patch found for change with id " + numericId));
-    git.fetch(RemoteName.ORIGIN, numericId.branchRefName(latestPatch));
+    // The patch set comes first so that FETCH_HEAD points to it
+    git.fetch(
+        RemoteName.ORIGIN,
+        Arrays.asList(numericId.branchRefName(latestPatch).toString(), branchShortName.toString()));
     git.checkoutFetchHead();
     git.checkoutNewBranch(checkoutBranch.toBranchShortName());
-    return trackChange(numericId, branchShortName);
+    return trackChange(numericId, branchShortName, latestPatch);
   }
 
   @Override
   public CreatedChange createAndTrackChange(
       BranchShortName targetBranch, PatchOptions firstPatchOptions) {
     CreatedPatch patch = patchSetRepository.createPatch(targetBranch, firstPatchOptions);
-    Change change = trackChange(patch.getChangeNumericId(), targetBranch);
+    Change change = trackChange(patch.getChangeNumericId(), targetBranch, patch);
     return new DefaultCreatedChange(change, patch.getCreationLog());
   }
 
@@ -152,6 +179,11 @@ class DefaultChangeRepository implements ChangeRepository {
       return change.createPatch(options);
     }
 
+    @Override
+    public boolean isUpToDate() {
+      return change.isUpToDate();
+    }
+
     @Override
     public String getWebUrl() {
       return change.getWebUrl();
@@ -4,13 +4,24 @@ import com.cosium.vet.gerrit.config.DefaultGerritConfigurationRepositoryFactory;
 import com.cosium.vet.gerrit.config.GerritConfigurationRepository;
 import com.cosium.vet.gerrit.config.GerritConfigurationRepositoryFactory;
 import com.cosium.vet.git.GitClient;
+import com.cosium.vet.git.GitConfigRepository;
 import com.cosium.vet.git.GitConfigRepositoryFactory;
 import com.cosium.vet.git.RemoteName;
 import com.cosium.vet.git.RemoteUrl;
 import com.cosium.vet.log.Logger;
 import com.cosium.vet.log.LoggerFactory;
+import com.cosium.vet.runtime.UserOutput;
+import com.cosium.vet.thirdparty.apache_commons_lang3.math.NumberUtils;
+import com.cosium.vet.utils.Lazy;
 
 import java.net.URL;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.util.Objects.requireNonNull;
 
@@ -23,24 +34,84 @@ public class DefaultChangeRepositoryFactory implements ChangeRepositoryFactory {
 
   private static final Logger LOG = LoggerFactory.getLogger(DefaultChangeRepositoryFactory.class);
 
+  private static final String CHANGE_INDEX_FILE_NAME = "changes.idx";
+  private static final String FETCH_HISTORY_FILE_NAME = "fetch-history.properties";
+  private static final String MAX_BASE_AGE_CONFIG_KEY = "vet.max-base-age";
+  private static final int GIT_EXECUTOR_THREADS = 2;
+
+  /** Runs the git operations that overlap. Its daemon threads never keep vet alive. */
+  private static final Executor GIT_EXECUTOR = createGitExecutor();
+
   private final GerritConfigurationRepositoryFactory configurationRepositoryFactory;
+  private final GitConfigRepositoryFactory gitConfigRepositoryFactory;
   private final GitClient git;
+  private final UserOutput userOutput;
+  /** The remote url does not change during a run, so it is resolved once */
+  private final Lazy<PushUrl> pushUrl = Lazy.of(this::resolvePushUrl);
 
   public DefaultChangeRepositoryFactory(
-      GitConfigRepositoryFactory gitConfigRepositoryfactory, GitClient git) {
-    this(new DefaultGerritConfigurationRepositoryFactory(gitConfigRepositoryfactory), git);
+      GitConfigRepositoryFactory gitConfigRepositoryfactory, GitClient git, UserOutput userOutput) {
+    this(
+        new DefaultGerritConfigurationRepositoryFactory(gitConfigRepositoryfactory),
+        gitConfigRepositoryfactory,
+        git,
+        userOutput);
   }
 
   public DefaultChangeRepositoryFactory(
-      GerritConfigurationRepositoryFactory configurationRepositoryFactory, GitClient git) {
+      GerritConfigurationRepositoryFactory configurationRepositoryFactory,
+      GitConfigRepositoryFactory gitConfigRepositoryFactory,
+      GitClient git,
+      UserOutput userOutput) {
     this.configurationRepositoryFactory = requireNonNull(configurationRepositoryFactory);
+    this.gitConfigRepositoryFactory = requireNonNull(gitConfigRepositoryFactory);
     this.git = requireNonNull(git);
+    this.userOutput = requireNonNull(userOutput);
   }
 
   @Override
   public ChangeRepository build() {
     GerritConfigurationRepository configurationRepository = configurationRepositoryFactory.build();
 
+    PushUrl pushUrl = this.pushUrl.get();
+    ProjectName projectName = pushUrl.parseProjectName();
+    LOG.debug("Gerrit project is '{}'", projectName);
+
+    PatchSetCommitMessageFactory commitMessageFactory =
+        new DefaultPatchSetCommitMessageFactory(git);
+    ChangeIndex changeIndex =
+        new ChangeIndex(
+            () -> git.getCommonDirectory().resolve("vet").resolve(CHANGE_INDEX_FILE_NAME));
+    PatchSetRepository gitPatchSetRepository =
+        new DefaultPatchSetRepository(
+            git,
+            pushUrl,
+            commitMessageFactory,
+            userOutput,
+            changeIndex,
+            new FetchHistory(
+                () -> git.getCommonDirectory().resolve("vet").resolve(FETCH_HISTORY_FILE_NAME),
+                Clock.systemUTC()),
+            () -> readMaxBaseAge(gitConfigRepositoryFactory.buildRepository()),
+            GIT_EXECUTOR);
+    PatchSetRepository uncachedPatchSetRepository =
+        pushUrl
+            .computeRestBaseUrl()
+            .<PatchSetRepository>map(
+                restBaseUrl ->
+                    new RestPatchSetRepository(
+                        new GerritRestClient(restBaseUrl), gitPatchSetRepository, changeIndex))
+            .orElse(gitPatchSetRepository);
+    PatchSetRepository patchSetRepository =
+        new CachingPatchSetRepository(uncachedPatchSetRepository);
+    ChangeFactory changeFactory =
+        new DefaultChange.Factory(configurationRepository, patchSetRepository, pushUrl);
+
+    return new DefaultChangeRepository(
+        configurationRepository, changeFactory, patchSetRepository, git);
+  }
+
+  private PushUrl resolvePushUrl() {
     RemoteName remote = RemoteName.ORIGIN;
     URL remoteUrl =
         git.getRemotePushUrl(remote)
@@ -54,16 +125,37 @@ public class DefaultChangeRepositoryFactory implements ChangeRepositoryFactory {
 
     PushUrl pushUrl = PushUrl.of(remoteUrl.toString());
     LOG.debug("Gerrit push url is {}", pushUrl);
-    ProjectName projectName = pushUrl.parseProjectName();
-    LOG.debug("Gerrit project is '{}'", projectName);
+    return pushUrl;
+  }
 
-    PatchSetCommitMessageFactory commitMessageFactory =
-        new DefaultPatchSetCommitMessageFactory(git);
-    PatchSetRepository patchSetRepository =
-        new DefaultPatchSetRepository(git, pushUrl, commitMessageFactory);
-    ChangeFactory changeFactory = new DefaultChange.Factory(patchSetRepository, pushUrl);
+  /** @return The configured max base age, zero to always fetch the target branch */
+  private static Duration readMaxBaseAge(GitConfigRepository gitConfigRepository) {
+    String maxBaseAge = gitConfigRepository.getValue(MAX_BASE_AGE_CONFIG_KEY);
+    if (maxBaseAge == null) {
+      return Duration.ZERO;
+    }
+    if (!NumberUtils.isDigits(maxBaseAge)) {
+      LOG.debug("Ignoring invalid '{}' value '{}'", MAX_BASE_AGE_CONFIG_KEY, maxBaseAge);
+      return Duration.ZERO;
+    }
+    return Duration.ofSeconds(Long.parseLong(maxBaseAge));
+  }
 
-    return new DefaultChangeRepository(
-        configurationRepository, changeFactory, patchSetRepository, git);
+  private static Executor createGitExecutor() {
+    AtomicInteger threadCount = new AtomicInteger();
+    ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            GIT_EXECUTOR_THREADS,
+            GIT_EXECUTOR_THREADS,
+            10,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            runnable -> {
+              Thread thread = new Thread(runnable, "vet-git-" + threadCount.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
   }
 }
@@ -8,8 +8,6 @@ import com.cosium.vet.log.LoggerFactory;
 import com.cosium.vet.thirdparty.apache_commons_codec.DigestUtils;
 
 import java.util.UUID;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import static java.util.Objects.requireNonNull;
 
@@ -24,7 +22,6 @@ class DefaultPatchSetCommitMessageFactory implements PatchSetCommitMessageFactor
       LoggerFactory.getLogger(DefaultPatchSetCommitMessageFactory.class);
 
   private static final String COMMIT_MESSAGE_VET_VERSION_PREFIX = "Vet-Version: ";
-  private static final String COMMIT_MESSAGE_CHANGE_ID_PREFIX = "Change-Id: ";
 
   private final GitClient git;
 
@@ -34,46 +31,56 @@ class DefaultPatchSetCommitMessageFactory implements PatchSetCommitMessageFactor
 
   @Override
   public CommitMessage build(Patch latestPatch) {
-    String changeChangeId;
+    ChangeChangeId changeChangeId;
+    if (latestPatch == null) {
+      changeChangeId = generateChangeChangeId(git.getLastCommitMessage());
+    } else {
+      changeChangeId = parseChangeChangeId(latestPatch.getCommitMessage());
+    }
+    return build(changeChangeId, latestPatch);
+  }
+
+  @Override
+  public CommitMessage build(ChangeChangeId changeChangeId, Patch latestPatch) {
     CommitMessage commitMessage;
     if (latestPatch == null) {
       commitMessage = git.getLastCommitMessage();
-      changeChangeId = generateChangeChangeId(commitMessage);
     } else {
       commitMessage = latestPatch.getCommitMessage();
-      changeChangeId = parseChangeChangeId(commitMessage);
     }
 
     String body =
         commitMessage.removeLinesStartingWith(
-            COMMIT_MESSAGE_VET_VERSION_PREFIX, COMMIT_MESSAGE_CHANGE_ID_PREFIX);
+            COMMIT_MESSAGE_VET_VERSION_PREFIX, ChangeChangeId.COMMIT_MESSAGE_PREFIX);
 
     String footer =
         String.join(
             "\n",
             COMMIT_MESSAGE_VET_VERSION_PREFIX + VetVersion.getValue(),
-            COMMIT_MESSAGE_CHANGE_ID_PREFIX + changeChangeId);
+            ChangeChangeId.COMMIT_MESSAGE_PREFIX + changeChangeId);
 
     return CommitMessage.of(body + "\n\n" + footer);
   }
 
-  private String generateChangeChangeId(CommitMessage commitMessage) {
-    String changeId =
-        "I"
-            + DigestUtils.shaHex(
-                String.format("%s|%s", UUID.randomUUID(), commitMessage.toString()));
+  private ChangeChangeId generateChangeChangeId(CommitMessage commitMessage) {
+    ChangeChangeId changeId =
+        ChangeChangeId.of(
+            "I"
+                + DigestUtils.shaHex(
+                    String.format("%s|%s", UUID.randomUUID(), commitMessage.toString())));
     LOG.debug("Generated change change id '{}'", changeId);
     return changeId;
   }
 
-  private String parseChangeChangeId(CommitMessage commitMessage) {
-    Pattern pattern = Pattern.compile(Pattern.quote(COMMIT_MESSAGE_CHANGE_ID_PREFIX) + "(.*)");
-    Matcher matcher = pattern.matcher(commitMessage.toString());
-    if (!matcher.find()) {
-      throw new RuntimeException(
-          "Could not parse any change id from commit message '" + commitMessage + "'");
-    }
-    String changeId = matcher.group(1);
+  private ChangeChangeId parseChangeChangeId(CommitMessage commitMessage) {
+    ChangeChangeId changeId =
+        ChangeChangeId.parse(commitMessage)
+            .orElseThrow(
+                () ->
+                    new RuntimeException(
+                        "Could not parse any change id from commit message '"
+                            + commitMessage
+                            + "'"));
     LOG.debug("Found change change id '{}'", changeId);
     return changeId;
   }
@@ -3,13 +3,18 @@ package com.cosium.vet.gerrit;
 import com.cosium.vet.git.*;
 import com.cosium.vet.log.Logger;
 import com.cosium.vet.log.LoggerFactory;
+import com.cosium.vet.runtime.UserOutput;
 
-import java.util.Comparator;
-import java.util.List;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.Optional;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static java.util.Objects.requireNonNull;
 import static java.util.Optional.ofNullable;
@@ -23,18 +28,40 @@ public class DefaultPatchSetRepository implements PatchSetRepository {
 
   private static final Logger LOG = LoggerFactory.getLogger(DefaultPatchSetRepository.class);
 
-  private static final Pattern BRANCH_REF_CHANGE_PATTERN =
-      Pattern.compile("refs/changes/\\d{2}/(\\d+)/(\\d+)");
+  private static final int INITIAL_DEEPENING = 16;
+  /** Beyond this number of commits, a full clone is probably cheaper */
+  private static final int MAX_DEEPENING = 16384;
 
   private final GitClient git;
   private final PushUrl pushUrl;
   private final PatchSetCommitMessageFactory commitMessageFactory;
+  private final UserOutput userOutput;
+  private final ChangeIndex changeIndex;
+  private final FetchHistory fetchHistory;
+  private final Supplier<Duration> defaultMaxBaseAge;
+  private final Executor executor;
 
+  /**
+   * @param defaultMaxBaseAge Supplies the max base age to use when the patch options have none
+   * @param executor Runs the git operations that can overlap with the calling thread ones
+   */
   DefaultPatchSetRepository(
-      GitClient gitClient, PushUrl pushUrl, PatchSetCommitMessageFactory commitMessageFactory) {
+      GitClient gitClient,
+      PushUrl pushUrl,
+      PatchSetCommitMessageFactory commitMessageFactory,
+      UserOutput userOutput,
+      ChangeIndex changeIndex,
+      FetchHistory fetchHistory,
+      Supplier<Duration> defaultMaxBaseAge,
+      Executor executor) {
     this.git = requireNonNull(gitClient);
     this.pushUrl = requireNonNull(pushUrl);
     this.commitMessageFactory = requireNonNull(commitMessageFactory);
+    this.userOutput = requireNonNull(userOutput);
+    this.changeIndex = requireNonNull(changeIndex);
+    this.fetchHistory = requireNonNull(fetchHistory);
+    this.defaultMaxBaseAge = requireNonNull(defaultMaxBaseAge);
+    this.executor = requireNonNull(executor);
   }
 
   @Override
@@ -45,25 +72,185 @@ public class DefaultPatchSetRepository implements PatchSetRepository {
   @Override
   public CreatedPatch createPatch(
       BranchShortName targetBranch, ChangeNumericId numericId, PatchOptions options) {
+    return createPatch(
+        targetBranch,
+        numericId,
+        lookUpLatestPatch(numericId),
+        lastestPatch ->
+            new NextPatch(
+                lastestPatch == null ? 1 : lastestPatch.getNumber() + 1,
+                commitMessageFactory.build(lastestPatch)),
+        options);
+  }
+
+  @Override
+  public CreatedPatch createPatch(
+      BranchShortName targetBranch,
+      ChangeNumericId numericId,
+      ChangeChangeId changeChangeId,
+      int latestPatchNumber,
+      PatchOptions options) {
+    requireNonNull(numericId);
+    requireNonNull(changeChangeId);
+    ChangeIndex.Entry entry =
+        changeIndex
+            .find(numericId)
+            .filter(indexed -> indexed.getPatchNumber() == latestPatchNumber)
+            .orElse(null);
+    if (entry == null) {
+      // The tracked patch number may be stale, e.g. if the change was pushed from elsewhere
+      LOG.debug(
+          "Patch {} of change {} is not indexed. Looking up the remote.",
+          latestPatchNumber,
+          numericId);
+      return createPatch(targetBranch, numericId, options);
+    }
+    // Patch set refs never move. The indexed revision can be fetched without listing the refs.
+    PatchRef latestPatchSetRef = new PatchRef(numericId, latestPatchNumber, entry.getRevisionId());
+    return createPatch(
+        targetBranch,
+        numericId,
+        findLocalPatch(latestPatchSetRef)
+            .map(LatestPatch::local)
+            .orElseGet(() -> LatestPatch.missing(latestPatchSetRef)),
+        lastestPatch ->
+            new NextPatch(
+                latestPatchNumber + 1, commitMessageFactory.build(changeChangeId, lastestPatch)),
+        options);
+  }
+
+  /**
+   * @param numericId The change numeric id. Null for a new change.
+   * @return The latest patch of the change on the remote, read locally if its revision is indexed
+   *     and available. Falls back to the latest indexed patch if the remote can't be reached.
+   */
+  private LatestPatch lookUpLatestPatch(ChangeNumericId numericId) {
+    if (numericId == null) {
+      return LatestPatch.NONE;
+    }
+    PatchRef latestPatchSetRef;
+    try {
+      latestPatchSetRef = getLatestPatchSetRef(numericId).orElse(null);
+    } catch (RuntimeException e) {
+      return LatestPatch.local(buildIndexedPatch(numericId, e));
+    }
+    if (latestPatchSetRef == null) {
+      LOG.debug("No revision found for change {}", numericId);
+      return LatestPatch.NONE;
+    }
+    return findLocalPatch(latestPatchSetRef)
+        .map(LatestPatch::local)
+        .orElseGet(() -> LatestPatch.missing(latestPatchSetRef));
+  }
+
+  @Override
+  public boolean isUpToDate(
+      BranchShortName targetBranch,
+      ChangeNumericId numericId,
+      ChangeChangeId changeChangeId,
+      int latestPatchNumber) {
+    ChangeIndex.Entry entry =
+        changeIndex
+            .find(numericId)
+            .filter(indexed -> indexed.getPatchNumber() == latestPatchNumber)
+            .orElse(null);
+    RemoteName remote = git.getRemote(targetBranch).orElse(null);
+    if (entry == null || remote == null) {
+      return false;
+    }
+    String latestPatchTree;
+    try {
+      latestPatchTree = git.getTree(entry.getRevisionId());
+    } catch (RuntimeException e) {
+      LOG.debug("Indexed revision {} is not available locally", entry.getRevisionId(), e);
+      return false;
+    }
+    if (!git.getTree().equals(latestPatchTree)) {
+      return false;
+    }
+    Patch latestPatch = readPatch(latestPatchNumber, numericId, entry.getRevisionId());
+    // The remote tracking branch may be stale, but fetching it can't change the merge base unless
+    // HEAD already contains the fetched commits
+    RevisionId parent;
+    try {
+      parent =
+          RevisionId.of(
+              git.getMostRecentCommonCommit(String.format("%s/%s", remote, targetBranch)));
+    } catch (RuntimeException e) {
+      LOG.debug("Could not find the merge base of HEAD and '{}/{}'", remote, targetBranch, e);
+      return false;
+    }
+    return parent.equals(latestPatch.getParent())
+        && commitMessageFactory
+            .build(changeChangeId, latestPatch)
+            .equals(latestPatch.getCommitMessage());
+  }
+
+  /**
+   * The target branch is fetched in the background while the next patch is prepared, so that the
+   * fetch and the preparation overlap. If the latest patch has to be fetched, it is fetched along
+   * with the target branch, and the preparation waits for that single fetch.
+   *
+   * @param targetBranch The target branch
+   * @param numericId The numeric id of the patched change. Null for a new change.
+   * @param latestPatch The latest patch of the change
+   * @param nextPatchBuilder Builds the next patch from the latest one, null for a new change
+   * @param options The patch options
+   * @return The created patch
+   */
+  private CreatedPatch createPatch(
+      BranchShortName targetBranch,
+      ChangeNumericId numericId,
+      LatestPatch latestPatch,
+      Function<Patch, NextPatch> nextPatchBuilder,
+      PatchOptions options) {
     RemoteName remote =
         git.getRemote(targetBranch)
             .orElseThrow(
                 () ->
                     new RuntimeException(
                         String.format("No remote found for branch '%s'", targetBranch)));
-    git.fetch(remote, targetBranch);
-    String startRevision =
-        git.getMostRecentCommonCommit(String.format("%s/%s", remote, targetBranch));
-
+    Duration maxBaseAge = options.getMaxBaseAge().orElseGet(defaultMaxBaseAge);
+    PatchRef missingPatchRef = latestPatch.missingPatchRef;
+    CompletableFuture<String> startRevisionSearch =
+        CompletableFuture.supplyAsync(
+            () ->
+                missingPatchRef == null
+                    ? findStartRevision(remote, targetBranch, maxBaseAge)
+                    : findStartRevision(remote, targetBranch, maxBaseAge, missingPatchRef),
+            executor);
+
+    NextPatch nextPatch;
+    try {
+      Patch lastestPatch = latestPatch.localPatch;
+      if (missingPatchRef != null) {
+        join(startRevisionSearch);
+        lastestPatch =
+            readPatch(missingPatchRef.getNumber(), numericId, missingPatchRef.getRevisionId());
+        changeIndex.put(numericId, missingPatchRef.getNumber(), missingPatchRef.getRevisionId());
+      }
+      nextPatch = nextPatchBuilder.apply(lastestPatch);
+    } catch (RuntimeException e) {
+      // Let the fetch complete instead of leaving it running behind the failure
+      try {
+        join(startRevisionSearch);
+      } catch (RuntimeException fetchFailure) {
+        if (fetchFailure != e) {
+          e.addSuppressed(fetchFailure);
+        }
+      }
+      throw e;
+    }
     String endRevision = git.getTree();
+    String startRevision = join(startRevisionSearch);
+
     LOG.debug(
         "Creating patch set for change '{}' between start revision '{}' and end revision '{}'",
         numericId,
         startRevision,
         endRevision);
-    Patch lastestPatch = findLastestPatch(numericId).orElse(null);
-    CommitMessage commitMessage = commitMessageFactory.build(lastestPatch);
 
+    CommitMessage commitMessage = nextPatch.getCommitMessage();
     LOG.debug("Creating commit tree with message '{}'", commitMessage);
     String commitId = git.commitTree(endRevision, startRevision, commitMessage);
     LOG.debug("Commit tree id is '{}'", commitId);
@@ -71,13 +258,127 @@ public class DefaultPatchSetRepository implements PatchSetRepository {
     LOG.debug("Pushing '{}' to '{}', with options '{}'", commitId, targetBranch, options);
 
     String creationLog =
-        git.push(pushUrl.toString(), options.buildGitPushTarget(commitId, targetBranch));
-    return buildCreatedPatch(
-        lastestPatch == null ? 1 : lastestPatch.getNumber(),
-        numericId,
-        commitMessage,
-        RevisionId.of(startRevision),
-        creationLog);
+        git.push(
+            pushUrl.toString(),
+            options.buildGitPushTarget(commitId, targetBranch),
+            userOutput::display);
+    CreatedPatch createdPatch =
+        buildCreatedPatch(
+            nextPatch.getNumber(),
+            numericId,
+            commitMessage,
+            RevisionId.of(startRevision),
+            creationLog);
+    changeIndex.put(
+        createdPatch.getChangeNumericId(), createdPatch.getNumber(), RevisionId.of(commitId));
+    return createdPatch;
+  }
+
+  /**
+   * @param remote The remote of the target branch
+   * @param targetBranch The target branch
+   * @param maxBaseAge How long the remote tracking branch can be used without fetching
+   * @return The most recent commit shared by HEAD and the target branch
+   */
+  private String findStartRevision(
+      RemoteName remote, BranchShortName targetBranch, Duration maxBaseAge) {
+    String remoteBranch = String.format("%s/%s", remote, targetBranch);
+    if (fetchHistory.isFresh(remote, targetBranch, maxBaseAge)) {
+      LOG.debug("'{}' was fetched less than {} ago. Using it as is.", remoteBranch, maxBaseAge);
+      try {
+        return findMergeBase(remote, targetBranch);
+      } catch (RuntimeException e) {
+        LOG.debug("Could not use '{}' as is", remoteBranch, e);
+      }
+    }
+    git.fetch(remote, targetBranch);
+    fetchHistory.recordFetch(remote, targetBranch);
+    return findMergeBase(remote, targetBranch);
+  }
+
+  /**
+   * The patch set has to be fetched anyway. Fetching the target branch along with it takes no extra
+   * connection nor negotiation, whatever the age of the remote tracking branch.
+   *
+   * <p>Having the latest patch set locally also shrinks the push. The push leaves out the objects
+   * of the advertised commits available locally, and Gerrit advertises the current patch set of
+   * each open change of the user. The pushed pack is then reduced to the delta between the two
+   * patch sets.
+   *
+   * @param remote The remote of the target branch
+   * @param targetBranch The target branch
+   * @param maxBaseAge How long the remote tracking branch can be used without fetching
+   * @param patchSetRef The patch set to fetch
+   * @return The most recent commit shared by HEAD and the target branch
+   */
+  private String findStartRevision(
+      RemoteName remote, BranchShortName targetBranch, Duration maxBaseAge, PatchRef patchSetRef) {
+    if (!git.getShallowCommits().isEmpty()) {
+      // The target branch fetch of a shallow repository has to care about the fetched depth
+      git.fetch(remote, patchSetRef.getBranchRefName());
+      return findStartRevision(remote, targetBranch, maxBaseAge);
+    }
+    git.fetch(
+        remote,
+        Arrays.asList(
+            String.format("+refs/heads/%s:refs/remotes/%s/%s", targetBranch, remote, targetBranch),
+            patchSetRef.getBranchRefName().toString()));
+    fetchHistory.recordFetch(remote, targetBranch);
+    return findMergeBase(remote, targetBranch);
+  }
+
+  /**
+   * In a shallow repository, the history may stop before the merge base. It is then deepened in
+   * exponentially growing steps until a merge base shows up below the shallow boundary.
+   *
+   * @param remote The remote of the target branch
+   * @param targetBranch The target branch
+   * @return The most recent commit shared by HEAD and the remote tracking branch
+   */
+  private String findMergeBase(RemoteName remote, BranchShortName targetBranch) {
+    String remoteBranch = String.format("%s/%s", remote, targetBranch);
+    int deepened = 0;
+    int depth = INITIAL_DEEPENING;
+    while (true) {
+      Set<RevisionId> shallowCommits = git.getShallowCommits();
+      String mergeBase = null;
+      RuntimeException failure = null;
+      try {
+        mergeBase = git.getMostRecentCommonCommit(remoteBranch);
+      } catch (RuntimeException e) {
+        failure = e;
+      }
+      // Shallow commits have no parents. Any of them may hide a more recent merge base.
+      if (shallowCommits.isEmpty()
+          || (mergeBase != null && !shallowCommits.contains(RevisionId.of(mergeBase)))) {
+        if (failure != null) {
+          throw failure;
+        }
+        return mergeBase;
+      }
+      if (deepened + depth > MAX_DEEPENING) {
+        throw new RuntimeException(
+            String.format(
+                "Could not find the merge base of HEAD and '%s' within %s commits below the shallow boundary. Please deepen or unshallow the repository.",
+                remoteBranch, deepened),
+            failure);
+      }
+      LOG.debug("Deepening the history of '{}' by {} commits", remoteBranch, depth);
+      git.deepen(remote, targetBranch, depth);
+      deepened += depth;
+      depth *= 2;
+    }
+  }
+
+  private static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
   }
 
   @Override
@@ -86,12 +387,42 @@ public class DefaultPatchSetRepository implements PatchSetRepository {
       return Optional.empty();
     }
 
-    PatchRef latestPatchSetRef = getLatestPatchSetRef(changeNumericId).orElse(null);
+    PatchRef latestPatchSetRef;
+    try {
+      latestPatchSetRef = getLatestPatchSetRef(changeNumericId).orElse(null);
+    } catch (RuntimeException e) {
+      return Optional.of(buildIndexedPatch(changeNumericId, e));
+    }
     if (latestPatchSetRef == null) {
       LOG.debug("No revision found for change {}", changeNumericId);
       return Optional.empty();
     }
-    return Optional.of(buildPatch(latestPatchSetRef));
+    Patch patch = buildPatch(latestPatchSetRef);
+    changeIndex.put(
+        changeNumericId, latestPatchSetRef.getNumber(), latestPatchSetRef.getRevisionId());
+    return Optional.of(patch);
+  }
+
+  /**
+   * Falls back to the change index when the remote can't be reached
+   *
+   * @param changeNumericId The change numeric id
+   * @param remoteFailure The failure that occurred while listing the remote refs
+   * @return The latest indexed patch of the change
+   */
+  private Patch buildIndexedPatch(ChangeNumericId changeNumericId, RuntimeException remoteFailure) {
+    ChangeIndex.Entry entry = changeIndex.find(changeNumericId).orElseThrow(() -> remoteFailure);
+    LOG.debug(
+        "Could not list the patch sets of change {}. Using indexed patch set {}.",
+        changeNumericId,
+        entry.getPatchNumber(),
+        remoteFailure);
+    try {
+      return readPatch(entry.getPatchNumber(), changeNumericId, entry.getRevisionId());
+    } catch (RuntimeException e) {
+      remoteFailure.addSuppressed(e);
+      throw remoteFailure;
+    }
   }
 
   @Override
@@ -123,27 +454,42 @@ public class DefaultPatchSetRepository implements PatchSetRepository {
    * @return The latest revision for the provided change numeric id
    */
   private Optional<PatchRef> getLatestPatchSetRef(ChangeNumericId changeNumericId) {
-    return getPatchSetRefs(changeNumericId)
-        .stream()
-        .max(Comparator.comparingInt(PatchRef::getNumber));
+    PatchSetTable patchSets = new PatchSetTable();
+    ChangeRefParser parser = new ChangeRefParser();
+    git.listRemoteRefs(
+        RemoteName.of(pushUrl.toString()),
+        changeNumericId.branchRefNamePrefix(),
+        line -> {
+          if (parser.parse(line)) {
+            patchSets.offer(
+                parser.getChangeId(), parser.getPatchNumber(), line, parser.getRevisionEnd());
+          }
+        });
+    long changeId = changeNumericId.longValue();
+    int patchNumber = patchSets.getPatchNumber(changeId);
+    if (patchNumber < 0) {
+      return Optional.empty();
+    }
+    return Optional.of(
+        new PatchRef(changeNumericId, patchNumber, patchSets.getRevisionId(changeId)));
   }
 
   private Optional<PatchRef> getPatchSetRef(ChangeNumericId changeNumericId, int patchNumber) {
-    return getPatchSetRefs(changeNumericId)
-        .stream()
-        .filter(patchSetRef -> patchSetRef.getNumber() == patchNumber)
-        .findFirst();
-  }
-
-  private List<PatchRef> getPatchSetRefs(ChangeNumericId changeNumericId) {
-    return git.listRemoteRefs(RemoteName.of(pushUrl.toString()))
-        .stream()
-        .map(PatchRefBuilder::new)
-        .map(PatchRefBuilder::build)
-        .filter(Optional::isPresent)
-        .map(Optional::get)
-        .filter(patchSetRef -> patchSetRef.getChangeNumericId().equals(changeNumericId))
-        .collect(Collectors.toList());
+    long changeId = changeNumericId.longValue();
+    ChangeRefParser parser = new ChangeRefParser();
+    AtomicReference<PatchRef> patchRef = new AtomicReference<>();
+    git.listRemoteRefs(
+        RemoteName.of(pushUrl.toString()),
+        changeNumericId.branchRefNamePrefix(),
+        line -> {
+          if (parser.parse(line)
+              && parser.getChangeId() == changeId
+              && parser.getPatchNumber() == patchNumber) {
+            RevisionId revisionId = RevisionId.of(ObjectId.parse(line, 0, parser.getRevisionEnd()));
+            patchRef.set(new PatchRef(changeNumericId, patchNumber, revisionId));
+          }
+        });
+    return Optional.ofNullable(patchRef.get());
   }
 
   private CreatedPatch buildCreatedPatch(
@@ -159,13 +505,48 @@ public class DefaultPatchSetRepository implements PatchSetRepository {
   }
 
   private Patch buildPatch(PatchRef patchSetRef) {
-    git.fetch(RemoteName.of(pushUrl.toString()), patchSetRef.getBranchRefName());
-    RevisionId revisionId = patchSetRef.getRevisionId();
+    Patch localPatch = findLocalPatch(patchSetRef).orElse(null);
+    if (localPatch != null) {
+      return localPatch;
+    }
+    // Reading the patch only takes the commit object. Checkouts fetch the rest.
+    CommitMetadata commit =
+        git.fetchCommitMetadata(RemoteName.of(pushUrl.toString()), patchSetRef.getBranchRefName());
     return new DefaultPatch(
         patchSetRef.getNumber(),
         patchSetRef.getChangeNumericId(),
-        git.getParent(revisionId),
-        git.getCommitMessage(revisionId));
+        commit.getParent(),
+        commit.getCommitMessage());
+  }
+
+  /**
+   * @param patchSetRef The patch set ref
+   * @return The patch, if its revision is indexed and still available locally
+   */
+  private Optional<Patch> findLocalPatch(PatchRef patchSetRef) {
+    RevisionId revisionId = patchSetRef.getRevisionId();
+    boolean indexed =
+        changeIndex
+            .find(patchSetRef.getChangeNumericId())
+            .filter(entry -> entry.getPatchNumber() == patchSetRef.getNumber())
+            .filter(entry -> entry.getRevisionId().equals(revisionId))
+            .isPresent();
+    if (!indexed) {
+      return Optional.empty();
+    }
+    // The indexed revision was fetched or pushed before. It may still be available locally.
+    try {
+      return Optional.of(
+          readPatch(patchSetRef.getNumber(), patchSetRef.getChangeNumericId(), revisionId));
+    } catch (RuntimeException e) {
+      LOG.debug("Indexed revision {} is not available locally", revisionId, e);
+      return Optional.empty();
+    }
+  }
+
+  private Patch readPatch(int number, ChangeNumericId changeNumericId, RevisionId revisionId) {
+    return new DefaultPatch(
+        number, changeNumericId, git.getParent(revisionId), git.getCommitMessage(revisionId));
   }
 
   private class DefaultPatch implements Patch {
@@ -225,42 +606,58 @@ public class DefaultPatchSetRepository implements PatchSetRepository {
     }
   }
 
-  private class PatchRefBuilder {
+  private static class NextPatch {
+    private final int number;
+    private final CommitMessage commitMessage;
 
-    private final BranchRef branchRef;
-    private final Matcher matcher;
+    private NextPatch(int number, CommitMessage commitMessage) {
+      this.number = number;
+      this.commitMessage = requireNonNull(commitMessage);
+    }
 
-    private PatchRefBuilder(BranchRef branchRef) {
-      requireNonNull(branchRef);
-      this.branchRef = branchRef;
-      this.matcher = BRANCH_REF_CHANGE_PATTERN.matcher(branchRef.getBranchRefName().toString());
+    public int getNumber() {
+      return number;
     }
 
-    private Optional<PatchRef> build() {
-      if (!matcher.find()) {
-        return Optional.empty();
-      }
-      return Optional.of(
-          new PatchRef(
-              branchRef,
-              ChangeNumericId.of(Integer.parseInt(matcher.group(1))),
-              Integer.parseInt(matcher.group(2))));
+    public CommitMessage getCommitMessage() {
+      return commitMessage;
+    }
+  }
+
+  /** The latest patch of a change, either readable locally or to be fetched */
+  private static class LatestPatch {
+    private static final LatestPatch NONE = new LatestPatch(null, null);
+
+    private final Patch localPatch;
+    private final PatchRef missingPatchRef;
+
+    private LatestPatch(Patch localPatch, PatchRef missingPatchRef) {
+      this.localPatch = localPatch;
+      this.missingPatchRef = missingPatchRef;
+    }
+
+    private static LatestPatch local(Patch patch) {
+      return new LatestPatch(requireNonNull(patch), null);
+    }
+
+    private static LatestPatch missing(PatchRef patchRef) {
+      return new LatestPatch(null, requireNonNull(patchRef));
     }
   }
 
   private class PatchRef {
-    private final BranchRef branchRef;
     private final ChangeNumericId changeNumericId;
     private final int number;
+    private final RevisionId revisionId;
 
-    private PatchRef(BranchRef branchRef, ChangeNumericId changeNumericId, int number) {
-      this.branchRef = requireNonNull(branchRef);
+    private PatchRef(ChangeNumericId changeNumericId, int number, RevisionId revisionId) {
       this.changeNumericId = requireNonNull(changeNumericId);
       this.number = number;
+      this.revisionId = requireNonNull(revisionId);
     }
 
     public BranchRefName getBranchRefName() {
-      return branchRef.getBranchRefName();
+      return BranchRefName.of(changeNumericId.branchRefNamePrefix() + number);
     }
 
     public ChangeNumericId getChangeNumericId() {
@@ -268,7 +665,7 @@ public class DefaultPatchSetRepository implements PatchSetRepository {
     }
 
     public RevisionId getRevisionId() {
-      return branchRef.getRevisionId();
+      return revisionId;
     }
 
     public int getNumber() {
@@ -0,0 +1,120 @@
+package com.cosium.vet.gerrit;
+
+import com.cosium.vet.git.BranchShortName;
+import com.cosium.vet.git.RemoteName;
+import com.cosium.vet.log.Logger;
+import com.cosium.vet.log.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Persistent record of the last time vet fetched each remote branch, stored in the repository.
+ * Every failure to read or write the record is logged and treated as a branch never fetched.
+ *
+ * <p>Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+class FetchHistory {
+
+  private static final Logger LOG = LoggerFactory.getLogger(FetchHistory.class);
+
+  private final Supplier<Path> file;
+  private final Clock clock;
+
+  /**
+   * @param file Supplies the history file. Called on first use.
+   * @param clock The clock fetches are timed with
+   */
+  FetchHistory(Supplier<Path> file, Clock clock) {
+    this.file = requireNonNull(file);
+    this.clock = requireNonNull(clock);
+  }
+
+  /**
+   * @param remote The remote
+   * @param branch The fetched branch
+   * @param maxAge The maximum age
+   * @return True if the branch was fetched from the remote less than maxAge ago
+   */
+  boolean isFresh(RemoteName remote, BranchShortName branch, Duration maxAge) {
+    if (maxAge.isNegative() || maxAge.isZero()) {
+      return false;
+    }
+    return findFetchTime(remote, branch)
+        .map(fetchTime -> Duration.between(fetchTime, clock.instant()))
+        .filter(age -> !age.isNegative() && age.compareTo(maxAge) < 0)
+        .isPresent();
+  }
+
+  /**
+   * Records that the branch was just fetched from the remote
+   *
+   * @param remote The remote
+   * @param branch The fetched branch
+   */
+  void recordFetch(RemoteName remote, BranchShortName branch) {
+    try {
+      Path path = file.get();
+      Properties fetchTimes = read(path);
+      fetchTimes.setProperty(key(remote, branch), String.valueOf(clock.millis()));
+
+      Files.createDirectories(path.getParent());
+      Path temporaryFile =
+          Files.createTempFile(path.getParent(), path.getFileName().toString(), "");
+      try {
+        try (OutputStream outputStream = Files.newOutputStream(temporaryFile)) {
+          fetchTimes.store(outputStream, null);
+        }
+        Files.move(
+            temporaryFile,
+            path,
+            StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(temporaryFile);
+      }
+    } catch (IOException | RuntimeException e) {
+      LOG.debug("Failed to record the fetch of '{}/{}'", remote, branch, e);
+    }
+  }
+
+  private Optional<Instant> findFetchTime(RemoteName remote, BranchShortName branch) {
+    try {
+      return Optional.ofNullable(read(file.get()).getProperty(key(remote, branch)))
+          .map(Long::parseLong)
+          .map(Instant::ofEpochMilli);
+    } catch (IOException | RuntimeException e) {
+      LOG.debug("Failed to read the fetch history", e);
+      return Optional.empty();
+    }
+  }
+
+  private static Properties read(Path path) throws IOException {
+    Properties properties = new Properties();
+    if (!Files.isRegularFile(path)) {
+      return properties;
+    }
+    try (InputStream inputStream = Files.newInputStream(path)) {
+      properties.load(inputStream);
+    }
+    return properties;
+  }
+
+  private static String key(RemoteName remote, BranchShortName branch) {
+    return remote + "/" + branch;
+  }
+}
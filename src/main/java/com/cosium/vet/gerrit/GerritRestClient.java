@@ -0,0 +1,124 @@
+package com.cosium.vet.gerrit;
+
+import com.cosium.vet.log.Logger;
+import com.cosium.vet.log.LoggerFactory;
+import com.cosium.vet.thirdparty.apache_commons_io.IOUtils;
+import com.cosium.vet.thirdparty.apache_commons_lang3.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Client of the Gerrit REST API.
+ *
+ * <p>Every response is read until its end and its stream closed without disconnecting, so that the
+ * JVM keeps the underlying connection alive and reuses it for the next request to the same server.
+ *
+ * <p>Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+class GerritRestClient {
+
+  private static final Logger LOG = LoggerFactory.getLogger(GerritRestClient.class);
+
+  /** Prefix Gerrit adds to JSON responses to prevent XSSI */
+  private static final String XSSI_PREFIX = ")]}'";
+
+  private static final int CONNECT_TIMEOUT_MILLIS = 5000;
+  private static final int READ_TIMEOUT_MILLIS = 15000;
+
+  private final String baseUrl;
+  private final String authorization;
+
+  /**
+   * @param baseUrl The base url of the Gerrit server. i.e. https://foo.com/. Credentials held by
+   *     the url are used to authenticate.
+   */
+  GerritRestClient(String baseUrl) {
+    URL url = toURL(StringUtils.appendIfMissing(baseUrl, "/"));
+    String userInfo = url.getUserInfo();
+    if (StringUtils.contains(userInfo, ':')) {
+      this.authorization =
+          "Basic "
+              + Base64.getEncoder()
+                  .encodeToString(decode(userInfo).getBytes(StandardCharsets.UTF_8));
+      // Authenticated requests are served under the /a/ prefix
+      this.baseUrl = stripUserInfo(url) + "a/";
+    } else {
+      this.authorization = null;
+      this.baseUrl = stripUserInfo(url);
+    }
+  }
+
+  private static URL toURL(String url) {
+    try {
+      return new URL(url);
+    } catch (MalformedURLException e) {
+      throw new IllegalArgumentException(e);
+    }
+  }
+
+  private static String stripUserInfo(URL url) {
+    if (url.getUserInfo() == null) {
+      return url.toString();
+    }
+    return StringUtils.replaceOnce(url.toString(), url.getUserInfo() + "@", "");
+  }
+
+  private static String decode(String value) {
+    try {
+      return URLDecoder.decode(value, StandardCharsets.UTF_8.name());
+    } catch (UnsupportedEncodingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * @param path The path of the REST endpoint relative to the base url. i.e. changes/1234
+   * @return The JSON response body
+   * @throws GerritRestException If the server answered with another status than 200
+   * @throws UncheckedIOException If the server could not be reached
+   */
+  String get(String path) {
+    String url = baseUrl + path;
+    LOG.debug("GET {}", url);
+    try {
+      HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+      connection.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+      connection.setReadTimeout(READ_TIMEOUT_MILLIS);
+      connection.setRequestProperty("Accept", "application/json");
+      if (authorization != null) {
+        connection.setRequestProperty("Authorization", authorization);
+      }
+      int status = connection.getResponseCode();
+      String body =
+          readFully(status < 400 ? connection.getInputStream() : connection.getErrorStream());
+      if (status != HttpURLConnection.HTTP_OK) {
+        throw new GerritRestException(
+            status, String.format("GET %s failed with status %s: %s", url, status, body));
+      }
+      return StringUtils.removeStart(body, XSSI_PREFIX);
+    } catch (IOException e) {
+      throw new UncheckedIOException("GET " + url + " failed", e);
+    }
+  }
+
+  private static String readFully(InputStream inputStream) throws IOException {
+    if (inputStream == null) {
+      return "";
+    }
+    // Closing a fully read stream hands the connection back to the keep-alive cache
+    try (InputStream in = inputStream) {
+      return IOUtils.toString(in, StandardCharsets.UTF_8);
+    }
+  }
+}
@@ -0,0 +1,28 @@
+package com.cosium.vet.gerrit;
+
+/**
+ * Thrown when the Gerrit REST API answered a request with an unexpected status.
+ *
+ * <p>Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+class GerritRestException extends RuntimeException {
+
+  private final int status;
+
+  GerritRestException(int status, String message) {
+    super(message);
+    this.status = status;
+  }
+
+  /** @return The HTTP status of the response */
+  int getStatus() {
+    return status;
+  }
+
+  /** @return True if the server failed to serve the request, e.g. while it is unavailable */
+  boolean isServerError() {
+    return status >= 500;
+  }
+}
@@ -0,0 +1,208 @@
+package com.cosium.vet.gerrit;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal JSON parser for the Gerrit REST API responses. Objects are parsed to {@link Map}, arrays
+ * to {@link List}, numbers to {@link Long} or {@link Double}, and the remaining values to {@link
+ * String}, {@link Boolean} or null.
+ *
+ * <p>Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+class JsonParser {
+
+  private final CharSequence json;
+  private int position;
+
+  private JsonParser(CharSequence json) {
+    this.json = json;
+  }
+
+  /**
+   * @param json The JSON document
+   * @return The parsed value
+   */
+  static Object parse(CharSequence json) {
+    JsonParser parser = new JsonParser(json);
+    Object value = parser.readValue();
+    parser.skipWhitespaces();
+    if (parser.position != json.length()) {
+      throw parser.error("Unexpected trailing characters");
+    }
+    return value;
+  }
+
+  private Object readValue() {
+    skipWhitespaces();
+    char c = peek();
+    switch (c) {
+      case '{':
+        return readObject();
+      case '[':
+        return readArray();
+      case '"':
+        return readString();
+      case 't':
+        readLiteral("true");
+        return Boolean.TRUE;
+      case 'f':
+        readLiteral("false");
+        return Boolean.FALSE;
+      case 'n':
+        readLiteral("null");
+        return null;
+      default:
+        if (c == '-' || (c >= '0' && c <= '9')) {
+          return readNumber();
+        }
+        throw error("Unexpected character '" + c + "'");
+    }
+  }
+
+  private Map<String, Object> readObject() {
+    Map<String, Object> object = new LinkedHashMap<>();
+    expect('{');
+    skipWhitespaces();
+    if (peek() == '}') {
+      position++;
+      return object;
+    }
+    while (true) {
+      skipWhitespaces();
+      String key = readString();
+      skipWhitespaces();
+      expect(':');
+      object.put(key, readValue());
+      skipWhitespaces();
+      if (peek() == '}') {
+        position++;
+        return object;
+      }
+      expect(',');
+    }
+  }
+
+  private List<Object> readArray() {
+    List<Object> array = new ArrayList<>();
+    expect('[');
+    skipWhitespaces();
+    if (peek() == ']') {
+      position++;
+      return array;
+    }
+    while (true) {
+      array.add(readValue());
+      skipWhitespaces();
+      if (peek() == ']') {
+        position++;
+        return array;
+      }
+      expect(',');
+    }
+  }
+
+  private String readString() {
+    expect('"');
+    StringBuilder builder = new StringBuilder();
+    while (true) {
+      char c = next();
+      if (c == '"') {
+        return builder.toString();
+      }
+      if (c != '\\') {
+        builder.append(c);
+        continue;
+      }
+      char escaped = next();
+      switch (escaped) {
+        case 'b':
+          builder.append('\b');
+          break;
+        case 'f':
+          builder.append('\f');
+          break;
+        case 'n':
+          builder.append('\n');
+          break;
+        case 'r':
+          builder.append('\r');
+          break;
+        case 't':
+          builder.append('\t');
+          break;
+        case 'u':
+          if (position + 4 > json.length()) {
+            throw error("Truncated unicode escape");
+          }
+          builder.append(
+              (char) Integer.parseInt(json.subSequence(position, position + 4).toString(), 16));
+          position += 4;
+          break;
+        default:
+          builder.append(escaped);
+      }
+    }
+  }
+
+  private Number readNumber() {
+    int start = position;
+    boolean decimal = false;
+    while (position < json.length()) {
+      char c = json.charAt(position);
+      if (c == '.' || c == 'e' || c == 'E') {
+        decimal = true;
+      } else if (c != '-' && c != '+' && (c < '0' || c > '9')) {
+        break;
+      }
+      position++;
+    }
+    String number = json.subSequence(start, position).toString();
+    try {
+      return decimal ? (Number) Double.parseDouble(number) : (Number) Long.parseLong(number);
+    } catch (NumberFormatException e) {
+      throw error("Invalid number '" + number + "'");
+    }
+  }
+
+  private void readLiteral(String literal) {
+    for (int i = 0; i < literal.length(); i++) {
+      if (next() != literal.charAt(i)) {
+        throw error("Expected '" + literal + "'");
+      }
+    }
+  }
+
+  private void skipWhitespaces() {
+    while (position < json.length() && Character.isWhitespace(json.charAt(position))) {
+      position++;
+    }
+  }
+
+  private void expect(char expected) {
+    if (next() != expected) {
+      throw error("Expected '" + expected + "'");
+    }
+  }
+
+  private char peek() {
+    if (position >= json.length()) {
+      throw error("Unexpected end of document");
+    }
+    return json.charAt(position);
+  }
+
+  private char next() {
+    char c = peek();
+    position++;
+    return c;
+  }
+
+  private IllegalArgumentException error(String message) {
+    return new IllegalArgumentException(message + " at position " + position + " of JSON document");
+  }
+}
@@ -0,0 +1,59 @@
+package com.cosium.vet.gerrit;
+
+import com.cosium.vet.gerrit.config.LocalTrackedChanges;
+import com.cosium.vet.git.GitLocalState;
+
+import java.util.function.Consumer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Lists the changes the repository already knows about, without reaching Gerrit: the changes
+ * tracked by the local branches, then the changes of the local 'refs/changes' refs, then the
+ * changes of the last fetch.
+ *
+ * <p>Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+public class LocalChanges {
+
+  private static final String CHANGES_PREFIX = "refs/changes/";
+
+  private final GitLocalState gitLocalState;
+  private final LocalTrackedChanges trackedChanges;
+
+  public LocalChanges(GitLocalState gitLocalState) {
+    this.gitLocalState = requireNonNull(gitLocalState);
+    this.trackedChanges = new LocalTrackedChanges(gitLocalState);
+  }
+
+  /**
+   * @param numericIdConsumer Receives the numeric id of each known change. A change may be received
+   *     more than once.
+   */
+  public void listNumericIds(Consumer<ChangeNumericId> numericIdConsumer) {
+    trackedChanges.listNumericIds(numericIdConsumer);
+
+    ChangeRefParser parser = new ChangeRefParser();
+    Consumer<CharSequence> refLineConsumer =
+        refLine -> {
+          if (parser.parse(refLine)) {
+            numericIdConsumer.accept(ChangeNumericId.of(parser.getChangeId()));
+          }
+        };
+    gitLocalState.listRefs(CHANGES_PREFIX, refLineConsumer::accept);
+    gitLocalState.readFetchHead(
+        fetchHeadLine -> {
+          // i.e. <revision>\t\t'refs/changes/81/1081/1' of <url>
+          int refStart = fetchHeadLine.indexOf('\'' + CHANGES_PREFIX);
+          int refEnd = fetchHeadLine.indexOf('\'', refStart + 1);
+          if (refStart < 0 || refEnd < 0) {
+            return;
+          }
+          refLineConsumer.accept(
+              fetchHeadLine.substring(0, fetchHeadLine.indexOf('\t') + 1)
+                  + fetchHeadLine.substring(refStart + 1, refEnd));
+        });
+  }
+}
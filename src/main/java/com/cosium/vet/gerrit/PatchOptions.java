@@ -5,8 +5,10 @@ import com.cosium.vet.git.GitUtils;
 import com.cosium.vet.thirdparty.apache_commons_lang3.StringUtils;
 import com.cosium.vet.utils.NonBlankString;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 import static java.util.Optional.ofNullable;
@@ -25,18 +27,21 @@ public class PatchOptions {
   private final PatchSubject subject;
   private final boolean bypassReview;
   private final CodeReviewVote codeReviewVote;
+  private final Duration maxBaseAge;
 
   private PatchOptions(
       boolean publishDraftComments,
       boolean workInProgress,
       PatchSubject subject,
       boolean bypassReview,
-      CodeReviewVote codeReviewVote) {
+      CodeReviewVote codeReviewVote,
+      Duration maxBaseAge) {
     this.publishDraftComments = publishDraftComments;
     this.workInProgress = workInProgress;
     this.subject = subject;
     this.bypassReview = bypassReview;
     this.codeReviewVote = codeReviewVote;
+    this.maxBaseAge = maxBaseAge;
   }
 
   public static Builder builder() {
@@ -72,12 +77,33 @@ public class PatchOptions {
     return String.format("%s:refs/for/%s%%%s", revisionId, targetBranch, rawOptions);
   }
 
+  /**
+   * @return True if pushing with these options acts on the change beyond uploading a patch set
+   *     (submit, vote, comments publication, work in progress or subject)
+   */
+  public boolean hasServerSideEffect() {
+    return publishDraftComments
+        || workInProgress
+        || subject != null
+        || bypassReview
+        || codeReviewVote != null;
+  }
+
+  /**
+   * @return How long ago the target branch may have been fetched for its remote tracking branch to
+   *     be used as is. Empty to use the configured value.
+   */
+  public Optional<Duration> getMaxBaseAge() {
+    return Optional.ofNullable(maxBaseAge);
+  }
+
   public static class Builder {
     private boolean publishDraftComments;
     private boolean workInProgress;
     private PatchSubject subject;
     private boolean bypassReview;
     private CodeReviewVote codeReviewVote;
+    private Duration maxBaseAge;
 
     private Builder() {}
 
@@ -118,9 +144,14 @@ public class PatchOptions {
       return this;
     }
 
+    public Builder maxBaseAge(Duration maxBaseAge) {
+      this.maxBaseAge = maxBaseAge;
+      return this;
+    }
+
     public PatchOptions build() {
       return new PatchOptions(
-          publishDraftComments, workInProgress, subject, bypassReview, codeReviewVote);
+          publishDraftComments, workInProgress, subject, bypassReview, codeReviewVote, maxBaseAge);
     }
   }
 }
@@ -10,4 +10,11 @@ import com.cosium.vet.git.CommitMessage;
 public interface PatchSetCommitMessageFactory {
 
   CommitMessage build(Patch latestPatch);
+
+  /**
+   * @param changeChangeId The change id of the change
+   * @param latestPatch The latest patch of the change. If null, the last commit message is used.
+   * @return The commit message of the next patch
+   */
+  CommitMessage build(ChangeChangeId changeChangeId, Patch latestPatch);
 }
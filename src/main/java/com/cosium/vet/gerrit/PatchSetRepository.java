@@ -27,6 +27,42 @@ public interface PatchSetRepository {
   CreatedPatch createPatch(
       BranchShortName targetBranch, ChangeNumericId numericId, PatchOptions options);
 
+  /**
+   * Creates a patch without looking up the latest patch of the change on the remote, as long as
+   * that patch is indexed. An indexed patch missing locally is fetched along with the target
+   * branch. Otherwise, the latest patch is looked up on the remote.
+   *
+   * @param targetBranch The target of the change
+   * @param numericId The numeric id of the change
+   * @param changeChangeId The change id of the change
+   * @param latestPatchNumber The latest known patch number of the change
+   * @param options The options for the push.
+   * @return The created patch
+   */
+  CreatedPatch createPatch(
+      BranchShortName targetBranch,
+      ChangeNumericId numericId,
+      ChangeChangeId changeChangeId,
+      int latestPatchNumber,
+      PatchOptions options);
+
+  /**
+   * Tells, from local state only, whether a new patch would be identical to the latest one. A new
+   * patch is identical when it has the same tree, parent and commit message.
+   *
+   * @param targetBranch The target of the change
+   * @param numericId The numeric id of the change
+   * @param changeChangeId The change id of the change
+   * @param latestPatchNumber The latest known patch number of the change
+   * @return True if a new patch would be identical to the latest one. False if it would differ or
+   *     if the latest patch is not available locally.
+   */
+  boolean isUpToDate(
+      BranchShortName targetBranch,
+      ChangeNumericId numericId,
+      ChangeChangeId changeChangeId,
+      int latestPatchNumber);
+
   /**
    * @param changeNumericId The change numeric id
    * @return The latest patch of the provided change numeric id.
@@ -0,0 +1,135 @@
+package com.cosium.vet.gerrit;
+
+import com.cosium.vet.git.ObjectId;
+import com.cosium.vet.git.RevisionId;
+
+/**
+ * Keeps the latest patch set of each change, in an open addressing hash table made of primitive
+ * arrays. Adding a patch set allocates nothing unless the table has to grow.
+ *
+ * <p>Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+class PatchSetTable {
+
+  /** Marks an empty slot. Change ids are strictly positive. */
+  private static final long EMPTY = 0;
+
+  private static final int MAX_REVISION_LENGTH = ObjectId.SHA256_LENGTH;
+  private static final int INITIAL_CAPACITY = 16;
+
+  private long[] changeIds;
+  private int[] patchNumbers;
+  private byte[] revisionLengths;
+  private byte[] revisions;
+  private int size;
+
+  PatchSetTable() {
+    allocate(INITIAL_CAPACITY);
+  }
+
+  /**
+   * Records the patch set if it is the latest one seen so far for its change
+   *
+   * @param changeId The change id
+   * @param patchNumber The patch number
+   * @param line The characters holding the revision, starting at index 0
+   * @param revisionEnd The end index of the revision in line
+   */
+  void offer(long changeId, int patchNumber, CharSequence line, int revisionEnd) {
+    if (changeId <= EMPTY) {
+      return;
+    }
+    if ((size + 1) * 4 > changeIds.length * 3) {
+      grow();
+    }
+    int slot = findSlot(changeIds, changeId);
+    if (changeIds[slot] != EMPTY && patchNumbers[slot] >= patchNumber) {
+      return;
+    }
+    // Writes nothing if the revision is not an object id
+    int revisionLength =
+        ObjectId.decode(line, 0, revisionEnd, revisions, slot * MAX_REVISION_LENGTH);
+    if (revisionLength < 0) {
+      return;
+    }
+    if (changeIds[slot] == EMPTY) {
+      changeIds[slot] = changeId;
+      size++;
+    }
+    patchNumbers[slot] = patchNumber;
+    revisionLengths[slot] = (byte) revisionLength;
+  }
+
+  /**
+   * @param changeId The change id
+   * @return The latest patch number of the change. -1 if the change is unknown.
+   */
+  int getPatchNumber(long changeId) {
+    int slot = findSlot(changeIds, changeId);
+    return changeIds[slot] == EMPTY ? -1 : patchNumbers[slot];
+  }
+
+  /**
+   * @param changeId The change id
+   * @return The revision of the latest patch set of the change. Null if the change is unknown.
+   */
+  RevisionId getRevisionId(long changeId) {
+    int slot = findSlot(changeIds, changeId);
+    if (changeIds[slot] == EMPTY) {
+      return null;
+    }
+    return RevisionId.of(
+        ObjectId.fromRaw(revisions, slot * MAX_REVISION_LENGTH, revisionLengths[slot]));
+  }
+
+  /** @return The number of changes */
+  int size() {
+    return size;
+  }
+
+  private static int findSlot(long[] changeIds, long changeId) {
+    int mask = changeIds.length - 1;
+    int slot = mix(changeId) & mask;
+    while (changeIds[slot] != EMPTY && changeIds[slot] != changeId) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private static int mix(long changeId) {
+    long hash = changeId * 0x9E3779B97F4A7C15L;
+    return (int) (hash ^ (hash >>> 32));
+  }
+
+  private void allocate(int capacity) {
+    changeIds = new long[capacity];
+    patchNumbers = new int[capacity];
+    revisionLengths = new byte[capacity];
+    revisions = new byte[capacity * MAX_REVISION_LENGTH];
+  }
+
+  private void grow() {
+    long[] oldChangeIds = changeIds;
+    int[] oldPatchNumbers = patchNumbers;
+    byte[] oldRevisionLengths = revisionLengths;
+    byte[] oldRevisions = revisions;
+    allocate(oldChangeIds.length * 2);
+    for (int oldSlot = 0; oldSlot < oldChangeIds.length; oldSlot++) {
+      if (oldChangeIds[oldSlot] == EMPTY) {
+        continue;
+      }
+      int slot = findSlot(changeIds, oldChangeIds[oldSlot]);
+      changeIds[slot] = oldChangeIds[oldSlot];
+      patchNumbers[slot] = oldPatchNumbers[oldSlot];
+      revisionLengths[slot] = oldRevisionLengths[oldSlot];
+      System.arraycopy(
+          oldRevisions,
+          oldSlot * MAX_REVISION_LENGTH,
+          revisions,
+          slot * MAX_REVISION_LENGTH,
+          MAX_REVISION_LENGTH);
+    }
+  }
+}
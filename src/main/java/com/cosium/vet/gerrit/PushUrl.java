@@ -3,6 +3,7 @@ package com.cosium.vet.gerrit;
 import com.cosium.vet.thirdparty.apache_commons_lang3.StringUtils;
 import com.cosium.vet.utils.NonBlankString;
 
+import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -32,9 +33,23 @@ public class PushUrl extends NonBlankString {
 
   public String computeChangeWebUrl(ChangeNumericId numericId) {
     ProjectName projectName = parseProjectName();
+    return computeGerritBaseUrl(projectName) + "c/" + projectName.toString() + "/+/" + numericId;
+  }
+
+  /**
+   * @return The base url of the Gerrit REST API. i.e. https://foo.com/ for https://foo.com/biz/baz.
+   *     Empty if the push url is not an http(s) url.
+   */
+  public Optional<String> computeRestBaseUrl() {
+    if (!StringUtils.startsWithIgnoreCase(toString(), "http://")
+        && !StringUtils.startsWithIgnoreCase(toString(), "https://")) {
+      return Optional.empty();
+    }
+    return Optional.of(computeGerritBaseUrl(parseProjectName()));
+  }
+
+  private String computeGerritBaseUrl(ProjectName projectName) {
     String fullUrl = StringUtils.stripEnd(toString(), "/");
-    String gerritBaseUrl =
-        StringUtils.substring(fullUrl, 0, fullUrl.length() - projectName.toString().length());
-    return gerritBaseUrl + "c/" + projectName.toString() + "/+/" + numericId;
+    return StringUtils.substring(fullUrl, 0, fullUrl.length() - projectName.toString().length());
   }
 }
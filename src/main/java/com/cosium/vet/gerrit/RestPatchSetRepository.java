@@ -0,0 +1,271 @@
+package com.cosium.vet.gerrit;
+
+import com.cosium.vet.git.BranchShortName;
+import com.cosium.vet.git.CommitMessage;
+import com.cosium.vet.git.RevisionId;
+import com.cosium.vet.log.Logger;
+import com.cosium.vet.log.LoggerFactory;
+
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads the patch sets of the changes from the Gerrit REST API. A single request replaces the
+ * remote refs listing, the fetch and the local reads of the git based repository. Patches are still
+ * created and pulled through git, once their latest patch set has been looked up and indexed
+ * through the REST API.
+ *
+ * <p>A failed read falls back to the git based repository. As soon as the server can't be reached
+ * or fails with a server error, the git based repository serves all the remaining reads.
+ *
+ * <p>Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+class RestPatchSetRepository implements PatchSetRepository {
+
+  private static final Logger LOG = LoggerFactory.getLogger(RestPatchSetRepository.class);
+
+  private final GerritRestClient restClient;
+  private final PatchSetRepository gitRepository;
+  private final ChangeIndex changeIndex;
+
+  private volatile boolean restAvailable = true;
+
+  RestPatchSetRepository(
+      GerritRestClient restClient, PatchSetRepository gitRepository, ChangeIndex changeIndex) {
+    this.restClient = requireNonNull(restClient);
+    this.gitRepository = requireNonNull(gitRepository);
+    this.changeIndex = requireNonNull(changeIndex);
+  }
+
+  @Override
+  public CreatedPatch createPatch(BranchShortName targetBranch, PatchOptions options) {
+    return gitRepository.createPatch(targetBranch, options);
+  }
+
+  @Override
+  public CreatedPatch createPatch(
+      BranchShortName targetBranch, ChangeNumericId numericId, PatchOptions options) {
+    if (numericId == null) {
+      return gitRepository.createPatch(targetBranch, null, options);
+    }
+    // Once the latest patch is indexed, the git based repository doesn't list the remote refs
+    Optional<RestPatch> latestPatch =
+        read(() -> Optional.of(readCurrentPatch(numericId)), Optional::empty);
+    return latestPatch
+        .flatMap(
+            patch ->
+                ChangeChangeId.parse(patch.getCommitMessage())
+                    .map(
+                        changeChangeId ->
+                            gitRepository.createPatch(
+                                targetBranch,
+                                numericId,
+                                changeChangeId,
+                                patch.getNumber(),
+                                options)))
+        .orElseGet(() -> gitRepository.createPatch(targetBranch, numericId, options));
+  }
+
+  @Override
+  public CreatedPatch createPatch(
+      BranchShortName targetBranch,
+      ChangeNumericId numericId,
+      ChangeChangeId changeChangeId,
+      int latestPatchNumber,
+      PatchOptions options) {
+    boolean indexed =
+        changeIndex
+            .find(numericId)
+            .filter(entry -> entry.getPatchNumber() == latestPatchNumber)
+            .isPresent();
+    if (!indexed) {
+      // The git based repository would list the remote refs to find the latest patch
+      LOG.debug(
+          "Patch {} of change {} is not indexed. Looking up the REST API.",
+          latestPatchNumber,
+          numericId);
+      return createPatch(targetBranch, numericId, options);
+    }
+    return gitRepository.createPatch(
+        targetBranch, numericId, changeChangeId, latestPatchNumber, options);
+  }
+
+  @Override
+  public boolean isUpToDate(
+      BranchShortName targetBranch,
+      ChangeNumericId numericId,
+      ChangeChangeId changeChangeId,
+      int latestPatchNumber) {
+    return gitRepository.isUpToDate(targetBranch, numericId, changeChangeId, latestPatchNumber);
+  }
+
+  @Override
+  public Optional<Patch> findLastestPatch(ChangeNumericId changeNumericId) {
+    if (changeNumericId == null) {
+      return Optional.empty();
+    }
+    return read(
+        () -> Optional.of(readCurrentPatch(changeNumericId)),
+        () -> gitRepository.findLastestPatch(changeNumericId));
+  }
+
+  @Override
+  public Patch findPatch(ChangeNumericId changeNumericId, int patchNumber) {
+    return read(
+        () -> {
+          Map<String, Object> change = getChange(changeNumericId, "o=ALL_REVISIONS&o=ALL_COMMITS");
+          Map.Entry<String, Object> revision =
+              asObject(change.get("revisions")).entrySet().stream()
+                  .filter(
+                      entry ->
+                          asNumber(asObject(entry.getValue()).get("_number")).intValue()
+                              == patchNumber)
+                  .findFirst()
+                  .orElseThrow(
+                      () ->
+                          new RuntimeException(
+                              "Could not find patch "
+                                  + patchNumber
+                                  + " of change numeric id "
+                                  + changeNumericId));
+          RestPatch patch =
+              buildPatch(changeNumericId, revision.getKey(), asObject(revision.getValue()));
+          if (revision.getKey().equals(change.get("current_revision"))) {
+            index(patch);
+          }
+          return patch;
+        },
+        () -> gitRepository.findPatch(changeNumericId, patchNumber));
+  }
+
+  @Override
+  public String pullLatest(ChangeNumericId changeNumericId) {
+    return gitRepository.pullLatest(changeNumericId);
+  }
+
+  /**
+   * @param changeNumericId The change numeric id
+   * @return The current patch of the change, indexed as the git based repository would do
+   */
+  private RestPatch readCurrentPatch(ChangeNumericId changeNumericId) {
+    Map<String, Object> change = getChange(changeNumericId, "o=CURRENT_REVISION&o=CURRENT_COMMIT");
+    String currentRevision =
+        (String) requireNonNull(change.get("current_revision"), "Missing current revision");
+    RestPatch patch =
+        buildPatch(
+            changeNumericId,
+            currentRevision,
+            asObject(asObject(change.get("revisions")).get(currentRevision)));
+    index(patch);
+    return patch;
+  }
+
+  private void index(RestPatch patch) {
+    changeIndex.put(patch.getChangeNumericId(), patch.getNumber(), patch.getRevisionId());
+  }
+
+  private <T> T read(Supplier<T> restRead, Supplier<T> gitRead) {
+    if (!restAvailable) {
+      return gitRead.get();
+    }
+    try {
+      return restRead.get();
+    } catch (UncheckedIOException e) {
+      LOG.debug("Gerrit REST API is unreachable. Falling back to git.", e);
+      restAvailable = false;
+    } catch (GerritRestException e) {
+      LOG.debug("Gerrit REST API read failed. Falling back to git.", e);
+      if (e.isServerError()) {
+        restAvailable = false;
+      }
+    } catch (RuntimeException e) {
+      // e.g. a response missing an expected field
+      LOG.debug("Gerrit REST API read failed. Falling back to git.", e);
+    }
+    return gitRead.get();
+  }
+
+  private Map<String, Object> getChange(ChangeNumericId changeNumericId, String query) {
+    return asObject(JsonParser.parse(restClient.get("changes/" + changeNumericId + "?" + query)));
+  }
+
+  private RestPatch buildPatch(
+      ChangeNumericId changeNumericId, String revisionId, Map<String, Object> revision) {
+    Map<String, Object> commit = asObject(revision.get("commit"));
+    List<?> parents = (List<?>) requireNonNull(commit.get("parents"), "parents");
+    // Same format as git's %P, so that merge patches compare equal whatever the repository
+    String parent =
+        parents.stream()
+            .map(RestPatchSetRepository::asObject)
+            .map(parentCommit -> (String) parentCommit.get("commit"))
+            .collect(Collectors.joining(" "));
+    return new RestPatch(
+        asNumber(revision.get("_number")).intValue(),
+        changeNumericId,
+        RevisionId.of(revisionId),
+        RevisionId.of(parent),
+        CommitMessage.of((String) commit.get("message")));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> asObject(Object value) {
+    return (Map<String, Object>) requireNonNull(value, "Missing JSON object");
+  }
+
+  private static Number asNumber(Object value) {
+    return (Number) requireNonNull(value, "Missing JSON number");
+  }
+
+  private static class RestPatch implements Patch {
+    private final int number;
+    private final ChangeNumericId changeNumericId;
+    private final RevisionId revisionId;
+    private final RevisionId parent;
+    private final CommitMessage commitMessage;
+
+    private RestPatch(
+        int number,
+        ChangeNumericId changeNumericId,
+        RevisionId revisionId,
+        RevisionId parent,
+        CommitMessage commitMessage) {
+      this.number = number;
+      this.changeNumericId = requireNonNull(changeNumericId);
+      this.revisionId = requireNonNull(revisionId);
+      this.parent = requireNonNull(parent);
+      this.commitMessage = requireNonNull(commitMessage);
+    }
+
+    @Override
+    public int getNumber() {
+      return number;
+    }
+
+    @Override
+    public ChangeNumericId getChangeNumericId() {
+      return changeNumericId;
+    }
+
+    @Override
+    public CommitMessage getCommitMessage() {
+      return commitMessage;
+    }
+
+    private RevisionId getRevisionId() {
+      return revisionId;
+    }
+
+    @Override
+    public RevisionId getParent() {
+      return parent;
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package com.cosium.vet.gerrit.config;
 
+import com.cosium.vet.gerrit.ChangeChangeId;
 import com.cosium.vet.gerrit.ChangeNumericId;
 import com.cosium.vet.git.BranchShortName;
 import com.cosium.vet.git.GitConfigRepository;
@@ -25,8 +26,11 @@ class DefaultGerritConfigurationRepository implements GerritConfigurationReposit
   private static final Logger LOG =
       LoggerFactory.getLogger(DefaultGerritConfigurationRepository.class);
 
-  private static final String VET_TRACKED_CHANGE_NUMERIC_ID = "vet-tracked-change-numeric-id";
+  static final String VET_TRACKED_CHANGE_NUMERIC_ID = "vet-tracked-change-numeric-id";
   private static final String VET_TRACKED_CHANGE_TARGET_BRANCH = "vet-tracked-change-target-branch";
+  private static final String VET_TRACKED_CHANGE_CHANGE_ID = "vet-tracked-change-change-id";
+  private static final String VET_TRACKED_CHANGE_LATEST_PATCH_NUMBER =
+      "vet-tracked-change-latest-patch-number";
 
   private final GitConfigRepository gitConfigRepository;
 
@@ -37,29 +41,38 @@ class DefaultGerritConfigurationRepository implements GerritConfigurationReposit
 
   @Override
   public GerritConfiguration read() {
-    return doRead();
+    return gitConfigRepository.transaction(this::doRead);
   }
 
-  private GitStoredConfig doRead() {
+  private GitStoredConfig doRead(GitConfigRepository transaction) {
     return new GitStoredConfig(
-        gitConfigRepository.getCurrentBranchValue(VET_TRACKED_CHANGE_NUMERIC_ID),
-        gitConfigRepository.getCurrentBranchValue(VET_TRACKED_CHANGE_TARGET_BRANCH));
+        transaction.getCurrentBranchValue(VET_TRACKED_CHANGE_NUMERIC_ID),
+        transaction.getCurrentBranchValue(VET_TRACKED_CHANGE_TARGET_BRANCH),
+        transaction.getCurrentBranchValue(VET_TRACKED_CHANGE_CHANGE_ID),
+        transaction.getCurrentBranchValue(VET_TRACKED_CHANGE_LATEST_PATCH_NUMBER));
   }
 
   @Override
   public <T> T readAndWrite(Function<GerritConfiguration, T> functor) {
-    GitStoredConfig config = doRead();
-    T result = functor.apply(config);
-    doWrite(config);
-    return result;
+    return gitConfigRepository.transaction(
+        transaction -> {
+          GitStoredConfig config = doRead(transaction);
+          T result = functor.apply(config);
+          doWrite(transaction, config);
+          return result;
+        });
   }
 
-  private void doWrite(GitStoredConfig config) {
+  private void doWrite(GitConfigRepository transaction, GitStoredConfig config) {
     LOG.debug("Writing {}", config);
-    gitConfigRepository.setCurrentBranchValue(
+    transaction.setCurrentBranchValue(
         VET_TRACKED_CHANGE_NUMERIC_ID, config.trackedChangeNumericId.get());
-    gitConfigRepository.setCurrentBranchValue(
+    transaction.setCurrentBranchValue(
         VET_TRACKED_CHANGE_TARGET_BRANCH, config.trackedChangeTargetBranch.get());
+    transaction.setCurrentBranchValue(
+        VET_TRACKED_CHANGE_CHANGE_ID, config.trackedChangeChangeId.get());
+    transaction.setCurrentBranchValue(
+        VET_TRACKED_CHANGE_LATEST_PATCH_NUMBER, config.trackedChangeLatestPatchNumber.get());
   }
 
   /**
@@ -71,10 +84,18 @@ class DefaultGerritConfigurationRepository implements GerritConfigurationReposit
 
     private final AtomicReference<String> trackedChangeNumericId;
     private final AtomicReference<String> trackedChangeTargetBranch;
-
-    private GitStoredConfig(String trackedChangeNumericId, String trackedChangeTargetBranch) {
+    private final AtomicReference<String> trackedChangeChangeId;
+    private final AtomicReference<String> trackedChangeLatestPatchNumber;
+
+    private GitStoredConfig(
+        String trackedChangeNumericId,
+        String trackedChangeTargetBranch,
+        String trackedChangeChangeId,
+        String trackedChangeLatestPatchNumber) {
       this.trackedChangeNumericId = new AtomicReference<>(trackedChangeNumericId);
       this.trackedChangeTargetBranch = new AtomicReference<>(trackedChangeTargetBranch);
+      this.trackedChangeChangeId = new AtomicReference<>(trackedChangeChangeId);
+      this.trackedChangeLatestPatchNumber = new AtomicReference<>(trackedChangeLatestPatchNumber);
     }
 
     @Override
@@ -103,10 +124,38 @@ class DefaultGerritConfigurationRepository implements GerritConfigurationReposit
           ofNullable(targetBranch).map(BranchShortName::toString).orElse(null));
     }
 
+    @Override
+    public Optional<ChangeChangeId> getTrackedChangeChangeId() {
+      return ofNullable(trackedChangeChangeId.get())
+          .filter(StringUtils::isNotBlank)
+          .map(ChangeChangeId::of);
+    }
+
+    @Override
+    public void setTrackedChangeChangeId(ChangeChangeId changeChangeId) {
+      trackedChangeChangeId.set(
+          ofNullable(changeChangeId).map(ChangeChangeId::toString).orElse(null));
+    }
+
+    @Override
+    public Optional<Integer> getTrackedChangeLatestPatchNumber() {
+      return ofNullable(trackedChangeLatestPatchNumber.get())
+          .filter(NumberUtils::isDigits)
+          .map(Integer::parseInt);
+    }
+
+    @Override
+    public void setTrackedChangeLatestPatchNumber(Integer latestPatchNumber) {
+      trackedChangeLatestPatchNumber.set(
+          ofNullable(latestPatchNumber).map(String::valueOf).orElse(null));
+    }
+
     @Override
     public String toString() {
       final StringBuilder sb = new StringBuilder("GitStoredConfig{");
       sb.append("changeNumericId=").append(trackedChangeNumericId.get());
+      sb.append(", changeChangeId=").append(trackedChangeChangeId.get());
+      sb.append(", latestPatchNumber=").append(trackedChangeLatestPatchNumber.get());
       sb.append('}');
       return sb.toString();
     }
@@ -1,5 +1,6 @@
 package com.cosium.vet.gerrit.config;
 
+import com.cosium.vet.gerrit.ChangeChangeId;
 import com.cosium.vet.gerrit.ChangeNumericId;
 import com.cosium.vet.git.BranchShortName;
 
@@ -23,4 +24,16 @@ public interface GerritConfiguration {
 
   /** Sets the current Gerrit change target branch */
   void setTrackedChangeTargetBranch(BranchShortName targetBranch);
+
+  /** @return The change id of the current Gerrit change */
+  Optional<ChangeChangeId> getTrackedChangeChangeId();
+
+  /** Sets the change id of the current Gerrit change */
+  void setTrackedChangeChangeId(ChangeChangeId changeChangeId);
+
+  /** @return The latest known patch number of the current Gerrit change */
+  Optional<Integer> getTrackedChangeLatestPatchNumber();
+
+  /** Sets the latest known patch number of the current Gerrit change */
+  void setTrackedChangeLatestPatchNumber(Integer latestPatchNumber);
 }
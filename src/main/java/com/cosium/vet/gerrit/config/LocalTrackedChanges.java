@@ -0,0 +1,37 @@
+package com.cosium.vet.gerrit.config;
+
+import com.cosium.vet.gerrit.ChangeNumericId;
+import com.cosium.vet.git.GitLocalState;
+import com.cosium.vet.thirdparty.apache_commons_lang3.math.NumberUtils;
+
+import java.util.function.Consumer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Lists the changes tracked by all the local branches, from the repository files only.
+ *
+ * <p>Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+public class LocalTrackedChanges {
+
+  private final GitLocalState gitLocalState;
+
+  public LocalTrackedChanges(GitLocalState gitLocalState) {
+    this.gitLocalState = requireNonNull(gitLocalState);
+  }
+
+  /** @param numericIdConsumer Receives the numeric id of each tracked change */
+  public void listNumericIds(Consumer<ChangeNumericId> numericIdConsumer) {
+    gitLocalState.listBranchValues(
+        DefaultGerritConfigurationRepository.VET_TRACKED_CHANGE_NUMERIC_ID,
+        value -> {
+          String numericId = value.trim();
+          if (NumberUtils.isDigits(numericId)) {
+            numericIdConsumer.accept(ChangeNumericId.of(Long.parseLong(numericId)));
+          }
+        });
+  }
+}
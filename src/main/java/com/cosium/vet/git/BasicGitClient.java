@@ -5,10 +5,17 @@ import com.cosium.vet.log.LoggerFactory;
 import com.cosium.vet.runtime.CommandRunner;
 import com.cosium.vet.thirdparty.apache_commons_lang3.StringUtils;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -26,10 +33,16 @@ class BasicGitClient implements GitClient {
   private static final Logger LOG = LoggerFactory.getLogger(BasicGitClient.class);
 
   private static final String GIT = "git";
+  private static final Pattern REF_PATTERN = Pattern.compile("(.*?)\\s+(.*?)$");
+  private static final String COMMIT_METADATA_STORE = "vet/commit-metadata.git";
+  private static final String PUSH_SHALLOW_FILE = "vet/push.shallow";
+  private static final String PARENT_PREFIX = "parent ";
 
   private final Path repositoryDirectory;
   private final CommandRunner commandRunner;
   private final GitConfigRepository gitConfigRepository;
+  private Path commitMetadataStore;
+  private Optional<Path> pushShallowFile;
 
   BasicGitClient(
       Path repositoryDirectory,
@@ -76,6 +89,11 @@ class BasicGitClient implements GitClient {
     return commandRunner.run(repositoryDirectory, GIT, "rev-parse", "HEAD:");
   }
 
+  @Override
+  public String getTree(RevisionId revisionId) {
+    return commandRunner.run(repositoryDirectory, GIT, "rev-parse", revisionId + ":");
+  }
+
   @Override
   public String commitTree(String tree, String parent, CommitMessage commitMessage) {
     return commandRunner.run(
@@ -111,32 +129,308 @@ class BasicGitClient implements GitClient {
 
   @Override
   public String push(String remote, String refspec) {
-    return commandRunner.run(repositoryDirectory, GIT, "push", remote, refspec);
+    return push(remote, refspec, line -> {});
+  }
+
+  @Override
+  public String push(String remote, String refspec, Consumer<String> outputLineConsumer) {
+    StringBuilder output = new StringBuilder();
+    Consumer<String> lineConsumer =
+        line -> {
+          output.append(line).append(StringUtils.LF);
+          outputLineConsumer.accept(line);
+        };
+    List<String> command = new ArrayList<>();
+    command.add(GIT);
+    getPushShallowFile()
+        .ifPresent(
+            shallowFile -> {
+              command.add("--shallow-file");
+              command.add(shallowFile.toString());
+            });
+    command.add("push");
+    command.add(remote);
+    command.add(refspec);
+    commandRunner.run(
+        repositoryDirectory, lineConsumer, lineConsumer, command.toArray(new String[0]));
+    return StringUtils.defaultIfBlank(output.toString().trim(), null);
+  }
+
+  /**
+   * By default, the pushed pack only leaves out the objects reachable from the parents of the
+   * pushed commits. A new patch set is not a child of the previous one, so everything it shares
+   * with it would be sent again, even though Gerrit advertises the previous patch set. In a shallow
+   * repository, git also leaves out the objects reachable from any advertised commit available
+   * locally. An empty shallow file gives the push that behaviour without cutting any history.
+   *
+   * @return The shallow file to push with, created on first use. Empty if the repository is already
+   *     shallow.
+   */
+  private synchronized Optional<Path> getPushShallowFile() {
+    if (pushShallowFile != null) {
+      return pushShallowFile;
+    }
+    if (!getShallowCommits().isEmpty()) {
+      pushShallowFile = Optional.empty();
+      return pushShallowFile;
+    }
+    Path shallowFile = getCommonDirectory().toAbsolutePath().resolve(PUSH_SHALLOW_FILE);
+    try {
+      if (!Files.isRegularFile(shallowFile) || Files.size(shallowFile) > 0) {
+        Files.createDirectories(shallowFile.getParent());
+        Files.write(shallowFile, new byte[0]);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    pushShallowFile = Optional.of(shallowFile);
+    return pushShallowFile;
   }
 
   @Override
   public List<BranchRef> listRemoteRefs(RemoteName remote) {
-    String output = commandRunner.run(repositoryDirectory, GIT, "ls-remote", remote.toString());
-    Pattern refMatcher = Pattern.compile("(.*?)\\s+(.*?)$");
-    return Arrays.stream(output.split("\n"))
-        .map(refMatcher::matcher)
-        .filter(Matcher::find)
-        .map(
-            matcher ->
-                new BranchRef(RevisionId.of(matcher.group(1)), BranchRefName.of(matcher.group(2))))
-        .collect(Collectors.toList());
+    List<BranchRef> refs = new ArrayList<>();
+    commandRunner.run(
+        repositoryDirectory,
+        line -> parseRef(line).ifPresent(refs::add),
+        line -> LOG.debug(line),
+        GIT,
+        "ls-remote",
+        remote.toString());
+    return refs;
   }
 
   @Override
-  public void fetch(RemoteName remote, BranchRefName branchRefName) {
+  public List<BranchRef> listRemoteRefs(RemoteName remote, String refPrefix) {
+    if (StringUtils.isBlank(refPrefix)) {
+      throw new IllegalArgumentException("refPrefix can't be blank");
+    }
+    List<BranchRef> refs = new ArrayList<>();
+    listRemoteRefs(remote, refPrefix, line -> parseRef(line).ifPresent(refs::add));
+    return refs;
+  }
+
+  @Override
+  public void listRemoteRefs(
+      RemoteName remote, String refPrefix, Consumer<String> refLineConsumer) {
+    if (StringUtils.isBlank(refPrefix)) {
+      throw new IllegalArgumentException("refPrefix can't be blank");
+    }
+    // ls-remote doesn't send its patterns to the server as protocol v2 ref-prefix, so the server
+    // would still advertise all its refs. fetch sends the sources of its refspecs.
+    fetchIntoCommitMetadataStore(
+        remote, "--prune", String.format("+%s*:%s*", refPrefix, refPrefix));
+    // for-each-ref only matches literal patterns up to a slash
+    String pattern = refPrefix.substring(0, refPrefix.lastIndexOf('/') + 1);
     commandRunner.run(
-        repositoryDirectory, GIT, "fetch", remote.toString(), branchRefName.toString());
+        repositoryDirectory,
+        line -> {
+          int refNameStart = line.indexOf('\t') + 1;
+          if (refNameStart > 0 && line.startsWith(refPrefix, refNameStart)) {
+            refLineConsumer.accept(line);
+          }
+        },
+        line -> LOG.debug(line),
+        GIT,
+        "--git-dir",
+        getCommitMetadataStore().toString(),
+        "for-each-ref",
+        "--format=%(objectname)%09%(refname)",
+        pattern);
+  }
+
+  private Optional<BranchRef> parseRef(String line) {
+    Matcher matcher = REF_PATTERN.matcher(line);
+    if (!matcher.find()) {
+      return Optional.empty();
+    }
+    return Optional.of(
+        new BranchRef(RevisionId.of(matcher.group(1)), BranchRefName.of(matcher.group(2))));
+  }
+
+  @Override
+  public void fetch(RemoteName remote, BranchRefName branchRefName) {
+    fetch(remote, Collections.singletonList(branchRefName.toString()));
   }
 
   @Override
   public void fetch(RemoteName remote, BranchShortName branchShortName) {
+    String remoteTrackingBranch = buildRemoteTrackingBranch(remote, branchShortName);
+    List<String> command = new ArrayList<>();
+    command.add(GIT);
+    command.add("fetch");
+    // Unless it connects to the shallow history, the whole branch history would be downloaded
+    if (!getShallowCommits().isEmpty() && !exists(remoteTrackingBranch)) {
+      command.add("--depth=1");
+    }
+    command.add(remote.toString());
+    command.add(String.format("+refs/heads/%s:%s", branchShortName, remoteTrackingBranch));
+    commandRunner.run(repositoryDirectory, command.toArray(new String[0]));
+  }
+
+  @Override
+  public void deepen(RemoteName remote, BranchShortName branchShortName, int depth) {
     commandRunner.run(
-        repositoryDirectory, GIT, "fetch", remote.toString(), branchShortName.toString());
+        repositoryDirectory,
+        GIT,
+        "fetch",
+        "--deepen=" + depth,
+        remote.toString(),
+        String.format(
+            "+refs/heads/%s:%s",
+            branchShortName, buildRemoteTrackingBranch(remote, branchShortName)));
+  }
+
+  private static String buildRemoteTrackingBranch(
+      RemoteName remote, BranchShortName branchShortName) {
+    return String.format("refs/remotes/%s/%s", remote, branchShortName);
+  }
+
+  private boolean exists(String ref) {
+    try {
+      commandRunner.run(repositoryDirectory, GIT, "rev-parse", "--verify", "--quiet", ref);
+      return true;
+    } catch (RuntimeException e) {
+      return false;
+    }
+  }
+
+  @Override
+  public Set<RevisionId> getShallowCommits() {
+    Path shallowFile = getCommonDirectory().resolve("shallow");
+    if (!Files.isRegularFile(shallowFile)) {
+      return Collections.emptySet();
+    }
+    try {
+      return Files.readAllLines(shallowFile).stream()
+          .filter(StringUtils::isNotBlank)
+          .map(RevisionId::of)
+          .collect(Collectors.toSet());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public void fetch(RemoteName remote, List<String> refspecs) {
+    if (refspecs.isEmpty()) {
+      throw new IllegalArgumentException("At least one refspec is required");
+    }
+    List<String> command = new ArrayList<>();
+    command.add(GIT);
+    command.add("fetch");
+    command.add(remote.toString());
+    command.addAll(refspecs);
+    commandRunner.run(repositoryDirectory, command.toArray(new String[0]));
+  }
+
+  @Override
+  public CommitMetadata fetchCommitMetadata(RemoteName remote, BranchRefName branchRefName) {
+    String ref = branchRefName.toString();
+    String output;
+    try {
+      output = readCommitMetadata(ref);
+    } catch (RuntimeException e) {
+      LOG.debug("'{}' is not in the commit metadata store yet", ref, e);
+      fetchIntoCommitMetadataStore(remote, String.format("+%s:%s", ref, ref));
+      output = readCommitMetadata(ref);
+    }
+    String parentLine = StringUtils.substringBefore(output, StringUtils.LF);
+    return new CommitMetadata(
+        RevisionId.of(StringUtils.removeStart(parentLine, PARENT_PREFIX)),
+        CommitMessage.of(StringUtils.substringAfter(output, StringUtils.LF)));
+  }
+
+  /**
+   * @param ref The ref of the commit in the commit metadata store
+   * @return The parent line of the commit followed by its message
+   */
+  private String readCommitMetadata(String ref) {
+    return commandRunner.run(
+        repositoryDirectory,
+        GIT,
+        "--git-dir",
+        getCommitMetadataStore().toString(),
+        "log",
+        "-n",
+        "1",
+        "--pretty=" + PARENT_PREFIX + "%P%n%B",
+        ref);
+  }
+
+  /**
+   * Fetches the refspecs into the commit metadata store. When the remote allows partial fetches,
+   * neither trees nor blobs are transferred. If git or the remote rejects the partial fetch, a
+   * regular fetch follows.
+   *
+   * @param remote The remote to fetch from
+   * @param arguments The fetch options and refspecs
+   */
+  private void fetchIntoCommitMetadataStore(RemoteName remote, String... arguments) {
+    try {
+      fetchIntoCommitMetadataStore(remote, true, arguments);
+    } catch (GitPromptRequiredException e) {
+      throw e;
+    } catch (RuntimeException e) {
+      LOG.debug("Partial fetch failed. Falling back to a regular fetch.", e);
+      fetchIntoCommitMetadataStore(remote, false, arguments);
+    }
+  }
+
+  private void fetchIntoCommitMetadataStore(
+      RemoteName remote, boolean partial, String... arguments) {
+    List<String> command = new ArrayList<>();
+    command.add(GIT);
+    command.add("--git-dir");
+    command.add(getCommitMetadataStore().toString());
+    command.add("fetch");
+    command.add("--no-tags");
+    if (partial) {
+      command.add("--filter=tree:0");
+    }
+    // The store has no remote of its own
+    command.add(
+        ofNullable(gitConfigRepository.getValue(String.format("remote.%s.url", remote)))
+            .filter(StringUtils::isNotBlank)
+            .orElseGet(remote::toString));
+    command.addAll(Arrays.asList(arguments));
+    commandRunner.run(repositoryDirectory, command.toArray(new String[0]));
+  }
+
+  /**
+   * The store is a bare repository borrowing the repository objects as alternates. The fetch
+   * negotiation can then skip everything the repository already has, and the fetched commits can
+   * point to parents the store never received.
+   *
+   * @return The store, created on first use
+   */
+  private synchronized Path getCommitMetadataStore() {
+    if (commitMetadataStore != null) {
+      return commitMetadataStore;
+    }
+    Path commonDir =
+        repositoryDirectory
+            .resolve(commandRunner.run(repositoryDirectory, GIT, "rev-parse", "--git-common-dir"))
+            .toAbsolutePath()
+            .normalize();
+    Path store = commonDir.resolve(COMMIT_METADATA_STORE);
+    if (!Files.isRegularFile(store.resolve("HEAD"))) {
+      LOG.debug("Creating commit metadata store '{}'", store);
+      commandRunner.run(repositoryDirectory, GIT, "init", "--bare", "--quiet", store.toString());
+    }
+    try {
+      Path alternates = store.resolve("objects/info/alternates");
+      List<String> objectDirectories =
+          Collections.singletonList(commonDir.resolve("objects").toString());
+      if (!Files.exists(alternates) || !Files.readAllLines(alternates).equals(objectDirectories)) {
+        Files.createDirectories(alternates.getParent());
+        Files.write(alternates, objectDirectories);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    commitMetadataStore = store;
+    return store;
   }
 
   @Override
@@ -150,6 +444,11 @@ class BasicGitClient implements GitClient {
     return commandRunner.run(repositoryDirectory, GIT, "status");
   }
 
+  @Override
+  public void status(Consumer<String> lineConsumer) {
+    commandRunner.run(repositoryDirectory, lineConsumer, lineConsumer, GIT, "status");
+  }
+
   @Override
   public String checkoutFetchHead() {
     return commandRunner.run(repositoryDirectory, GIT, "checkout", "FETCH_HEAD");
@@ -165,4 +464,11 @@ class BasicGitClient implements GitClient {
   public String resetKeep(RevisionId revisionId) {
     return commandRunner.run(repositoryDirectory, GIT, "reset", "--keep", revisionId.toString());
   }
+
+  @Override
+  public Path getCommonDirectory() {
+    return repositoryDirectory
+        .resolve(commandRunner.run(repositoryDirectory, GIT, "rev-parse", "--git-common-dir"))
+        .normalize();
+  }
 }
@@ -11,18 +11,35 @@ import static java.util.Objects.requireNonNull;
  */
 public class BranchRef {
 
-  private final RevisionId revisionId;
+  private final ObjectId objectId;
   private final BranchRefName branchRefName;
 
-  public BranchRef(RevisionId revisionId, BranchRefName branchRefName) {
-    requireNonNull(revisionId);
+  public BranchRef(ObjectId objectId, BranchRefName branchRefName) {
+    requireNonNull(objectId);
     requireNonNull(branchRefName);
-    this.revisionId = revisionId;
+    this.objectId = objectId;
     this.branchRefName = branchRefName;
   }
 
+  /**
+   * @param revisionId The revision the ref points to. Must be a plain object id.
+   * @param branchRefName The ref name
+   */
+  public BranchRef(RevisionId revisionId, BranchRefName branchRefName) {
+    this(
+        revisionId
+            .getObjectId()
+            .orElseThrow(
+                () -> new IllegalArgumentException("'" + revisionId + "' is not an object id")),
+        branchRefName);
+  }
+
+  public ObjectId getObjectId() {
+    return objectId;
+  }
+
   public RevisionId getRevisionId() {
-    return revisionId;
+    return RevisionId.of(objectId);
   }
 
   public BranchRefName getBranchRefName() {
@@ -0,0 +1,29 @@
+package com.cosium.vet.git;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * What a commit object says about itself, without its tree.
+ *
+ * <p>Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+public class CommitMetadata {
+
+  private final RevisionId parent;
+  private final CommitMessage commitMessage;
+
+  public CommitMetadata(RevisionId parent, CommitMessage commitMessage) {
+    this.parent = requireNonNull(parent);
+    this.commitMessage = requireNonNull(commitMessage);
+  }
+
+  public RevisionId getParent() {
+    return parent;
+  }
+
+  public CommitMessage getCommitMessage() {
+    return commitMessage;
+  }
+}
@@ -5,11 +5,19 @@ import com.cosium.vet.runtime.CommandRunner;
 import com.cosium.vet.thirdparty.apache_commons_lang3.StringUtils;
 
 import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 
 import static java.util.Objects.requireNonNull;
 
 /**
- * Created on 19/02/18.
+ * Reads the config from a snapshot loaded once with 'git config --list'. Writes go to git and
+ * update the snapshot.
+ *
+ * <p>Created on 19/02/18.
  *
  * @author Reda.Housni-Alaoui
  */
@@ -20,6 +28,8 @@ class DefaultGitConfigRepository implements GitConfigRepository {
   private final Path repositoryDirectory;
   private final CommandRunner commandRunner;
 
+  private Map<String, String> snapshot;
+
   DefaultGitConfigRepository(Path repositoryDirectory, CommandRunner commandRunner) {
     requireNonNull(repositoryDirectory);
     requireNonNull(commandRunner);
@@ -29,21 +39,69 @@ class DefaultGitConfigRepository implements GitConfigRepository {
 
   @Override
   public String getCurrentBranchValue(String key) {
-    return getValue(computeBranchKey(key));
+    return getValue(computeBranchKey(getBranchShortName(), key));
   }
 
   @Override
   public void setCurrentBranchValue(String key, String value) {
-    if (StringUtils.isBlank(value)) {
-      runIgnoringExitCode(5, GIT, "config", "--unset", computeBranchKey(key));
-    } else {
-      commandRunner.run(repositoryDirectory, GIT, "config", computeBranchKey(key), value);
+    setValue(computeBranchKey(getBranchShortName(), key), value);
+  }
+
+  @Override
+  public synchronized String getValue(String key) {
+    String canonicalKey = GitConfigFile.canonicalKey(key);
+    if (canonicalKey == null) {
+      return null;
     }
+    return StringUtils.defaultIfBlank(StringUtils.trim(getSnapshot().get(canonicalKey)), null);
   }
 
   @Override
-  public String getValue(String key) {
-    return runIgnoringExitCode(1, GIT, "config", key);
+  public <T> T transaction(Function<GitConfigRepository, T> functor) {
+    Transaction transaction = new Transaction();
+    T result = functor.apply(transaction);
+    transaction.commit();
+    return result;
+  }
+
+  private synchronized void setValue(String key, String value) {
+    String newValue = StringUtils.defaultIfBlank(StringUtils.trim(value), null);
+    if (Objects.equals(getValue(key), newValue)) {
+      return;
+    }
+    if (newValue == null) {
+      runIgnoringExitCode(5, GIT, "config", "--unset", key);
+      getSnapshot().remove(GitConfigFile.canonicalKey(key));
+    } else {
+      commandRunner.run(repositoryDirectory, GIT, "config", key, value);
+      getSnapshot().put(GitConfigFile.canonicalKey(key), value);
+    }
+  }
+
+  private Map<String, String> getSnapshot() {
+    if (snapshot == null) {
+      snapshot = loadSnapshot();
+    }
+    return snapshot;
+  }
+
+  private Map<String, String> loadSnapshot() {
+    Map<String, String> values = new HashMap<>();
+    String output = runIgnoringExitCode(1, GIT, "config", "--list", "-z");
+    if (output == null) {
+      return values;
+    }
+    // Each entry is 'key\nvalue\0', or 'key\0' for a key declared without value
+    for (String entry : output.split("\0")) {
+      int separator = entry.indexOf('\n');
+      String key = separator < 0 ? entry : entry.substring(0, separator);
+      String canonicalKey = GitConfigFile.canonicalKey(key.trim());
+      if (canonicalKey == null) {
+        continue;
+      }
+      values.put(canonicalKey, separator < 0 ? "" : entry.substring(separator + 1));
+    }
+    return values;
   }
 
   private String runIgnoringExitCode(int exitCodeToIgnore, String... command) {
@@ -57,12 +115,52 @@ class DefaultGitConfigRepository implements GitConfigRepository {
     }
   }
 
-  private String computeBranchKey(String key) {
-    String branch = getBranchShortName();
+  private String computeBranchKey(String branch, String key) {
     return String.format("branch.%s.%s", branch, key);
   }
 
   private String getBranchShortName() {
     return commandRunner.run(repositoryDirectory, GIT, "rev-parse", "--abbrev-ref", "HEAD");
   }
+
+  /** Resolves the branch once and applies the values set through it on commit */
+  private class Transaction implements GitConfigRepository {
+
+    private final Map<String, String> pendingValues = new LinkedHashMap<>();
+    private String branch;
+
+    @Override
+    public String getCurrentBranchValue(String key) {
+      return getValue(computeBranchKey(getBranch(), key));
+    }
+
+    @Override
+    public void setCurrentBranchValue(String key, String value) {
+      pendingValues.put(computeBranchKey(getBranch(), key), value);
+    }
+
+    @Override
+    public String getValue(String key) {
+      if (pendingValues.containsKey(key)) {
+        return StringUtils.defaultIfBlank(StringUtils.trim(pendingValues.get(key)), null);
+      }
+      return DefaultGitConfigRepository.this.getValue(key);
+    }
+
+    @Override
+    public <T> T transaction(Function<GitConfigRepository, T> functor) {
+      return functor.apply(this);
+    }
+
+    private String getBranch() {
+      if (branch == null) {
+        branch = getBranchShortName();
+      }
+      return branch;
+    }
+
+    private void commit() {
+      pendingValues.forEach(DefaultGitConfigRepository.this::setValue);
+    }
+  }
 }
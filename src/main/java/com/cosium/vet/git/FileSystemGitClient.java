@@ -0,0 +1,176 @@
+package com.cosium.vet.git;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Answers the lookups that only need to read HEAD from the repository files. Everything else, and
+ * every lookup the files cannot answer, goes to the delegate.
+ *
+ * <p>Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+class FileSystemGitClient implements GitClient {
+
+  private final GitClient delegate;
+  private final Supplier<Optional<GitRepositoryFiles>> repositoryFiles;
+
+  FileSystemGitClient(GitClient delegate, Supplier<Optional<GitRepositoryFiles>> repositoryFiles) {
+    this.delegate = requireNonNull(delegate);
+    this.repositoryFiles = requireNonNull(repositoryFiles);
+  }
+
+  @Override
+  public BranchShortName getBranch() {
+    return repositoryFiles
+        .get()
+        .flatMap(GitRepositoryFiles::readCurrentBranch)
+        .orElseGet(delegate::getBranch);
+  }
+
+  @Override
+  public Optional<RemoteName> getRemote(BranchShortName branch) {
+    return delegate.getRemote(branch);
+  }
+
+  @Override
+  public Optional<RemoteUrl> getRemotePushUrl(RemoteName remoteName) {
+    return delegate.getRemotePushUrl(remoteName);
+  }
+
+  @Override
+  public String getMostRecentCommonCommit(String otherBranch) {
+    return delegate.getMostRecentCommonCommit(otherBranch);
+  }
+
+  @Override
+  public String getTree() {
+    return delegate.getTree();
+  }
+
+  @Override
+  public String getTree(RevisionId revisionId) {
+    return delegate.getTree(revisionId);
+  }
+
+  @Override
+  public String commitTree(String tree, String parent, CommitMessage commitMessage) {
+    return delegate.commitTree(tree, parent, commitMessage);
+  }
+
+  @Override
+  public CommitMessage getLastCommitMessage() {
+    return delegate.getLastCommitMessage();
+  }
+
+  @Override
+  public CommitMessage getCommitMessage(RevisionId revisionId) {
+    return delegate.getCommitMessage(revisionId);
+  }
+
+  @Override
+  public RevisionId getParent(RevisionId revisionId) {
+    return delegate.getParent(revisionId);
+  }
+
+  @Override
+  public String push(String remote, String refspec) {
+    return delegate.push(remote, refspec);
+  }
+
+  @Override
+  public String push(String remote, String refspec, Consumer<String> outputLineConsumer) {
+    return delegate.push(remote, refspec, outputLineConsumer);
+  }
+
+  @Override
+  public List<BranchRef> listRemoteRefs(RemoteName remote) {
+    return delegate.listRemoteRefs(remote);
+  }
+
+  @Override
+  public List<BranchRef> listRemoteRefs(RemoteName remote, String refPrefix) {
+    return delegate.listRemoteRefs(remote, refPrefix);
+  }
+
+  @Override
+  public void listRemoteRefs(
+      RemoteName remote, String refPrefix, Consumer<String> refLineConsumer) {
+    delegate.listRemoteRefs(remote, refPrefix, refLineConsumer);
+  }
+
+  @Override
+  public void fetch(RemoteName remote, BranchRefName branchRefName) {
+    delegate.fetch(remote, branchRefName);
+  }
+
+  @Override
+  public void fetch(RemoteName remote, BranchShortName branchShortName) {
+    delegate.fetch(remote, branchShortName);
+  }
+
+  @Override
+  public void fetch(RemoteName remote, List<String> refspecs) {
+    delegate.fetch(remote, refspecs);
+  }
+
+  @Override
+  public void deepen(RemoteName remote, BranchShortName branchShortName, int depth) {
+    delegate.deepen(remote, branchShortName, depth);
+  }
+
+  @Override
+  public Set<RevisionId> getShallowCommits() {
+    return delegate.getShallowCommits();
+  }
+
+  @Override
+  public CommitMetadata fetchCommitMetadata(RemoteName remote, BranchRefName branchRefName) {
+    return delegate.fetchCommitMetadata(remote, branchRefName);
+  }
+
+  @Override
+  public String pull(RemoteName remote, BranchRefName branchRefName) {
+    return delegate.pull(remote, branchRefName);
+  }
+
+  @Override
+  public String status() {
+    return delegate.status();
+  }
+
+  @Override
+  public void status(Consumer<String> lineConsumer) {
+    delegate.status(lineConsumer);
+  }
+
+  @Override
+  public String checkoutFetchHead() {
+    return delegate.checkoutFetchHead();
+  }
+
+  @Override
+  public String checkoutNewBranch(BranchShortName branchShortName) {
+    return delegate.checkoutNewBranch(branchShortName);
+  }
+
+  @Override
+  public String resetKeep(RevisionId revisionId) {
+    return delegate.resetKeep(revisionId);
+  }
+
+  @Override
+  public Path getCommonDirectory() {
+    return repositoryFiles
+        .get()
+        .map(GitRepositoryFiles::getCommonDirectory)
+        .orElseGet(delegate::getCommonDirectory);
+  }
+}
@@ -0,0 +1,108 @@
+package com.cosium.vet.git;
+
+import com.cosium.vet.thirdparty.apache_commons_lang3.StringUtils;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads the config values from the repository, worktree and global config files without spawning
+ * git. Falls back to the delegate when a value can't be found there (it may come from the system
+ * config) or when the files use something this reader doesn't support. Writes always go to the
+ * delegate.
+ *
+ * <p>Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+class FileSystemGitConfigRepository implements GitConfigRepository {
+
+  private static final String WORKTREE_CONFIG_KEY = "extensions.worktreeConfig";
+
+  private final GitConfigRepository delegate;
+  private final Supplier<Optional<GitRepositoryFiles>> repositoryFiles;
+
+  FileSystemGitConfigRepository(
+      GitConfigRepository delegate, Supplier<Optional<GitRepositoryFiles>> repositoryFiles) {
+    this.delegate = requireNonNull(delegate);
+    this.repositoryFiles = requireNonNull(repositoryFiles);
+  }
+
+  @Override
+  public String getCurrentBranchValue(String key) {
+    return repositoryFiles
+        .get()
+        .flatMap(GitRepositoryFiles::readCurrentBranch)
+        .map(branch -> getValue(String.format("branch.%s.%s", branch, key)))
+        .orElseGet(() -> delegate.getCurrentBranchValue(key));
+  }
+
+  @Override
+  public void setCurrentBranchValue(String key, String value) {
+    delegate.setCurrentBranchValue(key, value);
+  }
+
+  @Override
+  public String getValue(String key) {
+    if (GitConfigFile.canonicalKey(key) == null) {
+      return delegate.getValue(key);
+    }
+    return repositoryFiles
+        .get()
+        .flatMap(files -> readValue(files, key))
+        .map(value -> StringUtils.defaultIfBlank(value.trim(), null))
+        .orElseGet(() -> delegate.getValue(key));
+  }
+
+  @Override
+  public <T> T transaction(Function<GitConfigRepository, T> functor) {
+    return delegate.transaction(functor);
+  }
+
+  /**
+   * @return The value found in the first file declaring the key, in git precedence order. Empty if
+   *     no file declares it or if a file can't be interpreted.
+   */
+  private Optional<String> readValue(GitRepositoryFiles files, String key) {
+    for (GitConfigFile configFile : readConfigFiles(files)) {
+      if (!configFile.isSupported()) {
+        return Optional.empty();
+      }
+      Optional<String> value = configFile.getLastValue(key);
+      if (value.isPresent()) {
+        return value;
+      }
+    }
+    return Optional.empty();
+  }
+
+  /** @return The config files, from the highest precedence to the lowest */
+  private List<GitConfigFile> readConfigFiles(GitRepositoryFiles files) {
+    List<GitConfigFile> configFiles = new ArrayList<>();
+    GitConfigFile repositoryConfig = GitConfigFile.parse(files.getConfigFile());
+    boolean worktreeConfigEnabled =
+        repositoryConfig
+            .getLastValue(WORKTREE_CONFIG_KEY)
+            .map(value -> value.isEmpty() || "true".equalsIgnoreCase(value.trim()))
+            .orElse(false);
+    if (worktreeConfigEnabled) {
+      configFiles.add(GitConfigFile.parse(files.getWorktreeConfigFile()));
+    }
+    configFiles.add(repositoryConfig);
+
+    Path home = Paths.get(System.getProperty("user.home"));
+    configFiles.add(GitConfigFile.parse(home.resolve(".gitconfig")));
+    String xdgConfigHome = System.getenv("XDG_CONFIG_HOME");
+    Path xdgConfigDirectory =
+        StringUtils.isBlank(xdgConfigHome) ? home.resolve(".config") : Paths.get(xdgConfigHome);
+    configFiles.add(GitConfigFile.parse(xdgConfigDirectory.resolve("git").resolve("config")));
+    return configFiles;
+  }
+}
@@ -1,7 +1,10 @@
 package com.cosium.vet.git;
 
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Created on 16/02/18.
@@ -34,6 +37,12 @@ public interface GitClient {
   /** @return Get current tree */
   String getTree();
 
+  /**
+   * @param revisionId A commit revision
+   * @return The tree of the commit
+   */
+  String getTree(RevisionId revisionId);
+
   /**
    * @param tree An existing tree object
    * @param parent The id of the parent commit object
@@ -66,12 +75,45 @@ public interface GitClient {
    */
   String push(String remote, String refspec);
 
+  /**
+   * Push the refspec to remote
+   *
+   * @param remote The remote to push to
+   * @param refspec The refspec to push
+   * @param outputLineConsumer Receives each line of the command output as soon as it is printed
+   * @return The command output
+   */
+  String push(String remote, String refspec, Consumer<String> outputLineConsumer);
+
   /**
    * @param remote The remote to look for
    * @return All refs for the provided remote
    */
   List<BranchRef> listRemoteRefs(RemoteName remote);
 
+  /**
+   * Lists the remote refs starting with the provided prefix. Only these refs are requested from the
+   * server, provided it speaks protocol v2. Cheaper than {@link #listRemoteRefs(RemoteName)} on
+   * remotes advertising a huge number of refs. The listed refs, and the commits they point to, are
+   * fetched in the store of {@link #fetchCommitMetadata(RemoteName, BranchRefName)}.
+   *
+   * @param remote The remote to look for
+   * @param refPrefix The prefix the refs must start with. i.e. refs/changes/81/1081/
+   * @return The refs of the provided remote starting with the provided prefix
+   */
+  List<BranchRef> listRemoteRefs(RemoteName remote, String refPrefix);
+
+  /**
+   * Streams the remote refs starting with the provided prefix, without building a {@link BranchRef}
+   * per ref.
+   *
+   * @param remote The remote to look for
+   * @param refPrefix The prefix the refs must start with. i.e. refs/changes/
+   * @param refLineConsumer Receives each ref as printed by ls-remote: '&lt;revision&gt;\t&lt;ref
+   *     name&gt;'
+   */
+  void listRemoteRefs(RemoteName remote, String refPrefix, Consumer<String> refLineConsumer);
+
   /**
    * Fetches the ref from remote
    *
@@ -81,13 +123,55 @@ public interface GitClient {
   void fetch(RemoteName remote, BranchRefName branchRefName);
 
   /**
-   * Fetches the branch form remote
+   * Fetches the branch from remote into its remote tracking branch, even in single branch clones.
+   * In a shallow repository, a branch fetched for the first time only gets its tip commit. Use
+   * {@link #deepen(RemoteName, BranchShortName, int)} to get more of its history.
    *
    * @param remote The remote to fetch from
    * @param branchShortName The branch to fetch
    */
   void fetch(RemoteName remote, BranchShortName branchShortName);
 
+  /**
+   * Fetches more history below the shallow boundary, for the branch and for the local history
+   * sharing that boundary
+   *
+   * @param remote The remote to fetch from
+   * @param branchShortName The branch to deepen
+   * @param depth The number of commits to add below the shallow boundary
+   */
+  void deepen(RemoteName remote, BranchShortName branchShortName, int depth);
+
+  /**
+   * @return The commits whose parents are missing from the repository. Empty if the repository is
+   *     not shallow.
+   */
+  Set<RevisionId> getShallowCommits();
+
+  /**
+   * Fetches all the refspecs from remote through a single connection and negotiation. FETCH_HEAD
+   * lists the fetched refs in the order of the refspecs.
+   *
+   * @param remote The remote to fetch from
+   * @param refspecs The refspecs to fetch
+   */
+  void fetch(RemoteName remote, List<String> refspecs);
+
+  /**
+   * Fetches the commit the ref points to, for its metadata only. When the remote allows partial
+   * fetches, neither trees nor blobs are transferred. The commit lands in a vet owned store lying
+   * in the git directory, so that the repository objects, refs and configuration stay untouched.
+   * Use {@link #fetch(RemoteName, BranchRefName)} to check the commit out.
+   *
+   * <p>A ref already in the store is read without fetching. Only use this for refs that never move
+   * once created, like Gerrit patch set refs.
+   *
+   * @param remote The remote to fetch from
+   * @param branchRefName The ref to fetch
+   * @return The metadata of the commit the ref points to
+   */
+  CommitMetadata fetchCommitMetadata(RemoteName remote, BranchRefName branchRefName);
+
   /**
    * Pull the ref from remote
    *
@@ -100,6 +184,9 @@ public interface GitClient {
   /** @return The printed git status */
   String status();
 
+  /** @param lineConsumer Receives each line of the git status as soon as it is printed */
+  void status(Consumer<String> lineConsumer);
+
   String checkoutFetchHead();
 
   String checkoutNewBranch(BranchShortName branchShortName);
@@ -111,4 +198,7 @@ public interface GitClient {
    * @return The command output
    */
   String resetKeep(RevisionId revisionId);
+
+  /** @return The git directory shared by all the worktrees of the repository. i.e. /foo/.git */
+  Path getCommonDirectory();
 }
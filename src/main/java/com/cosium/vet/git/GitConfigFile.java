@@ -0,0 +1,345 @@
+package com.cosium.vet.git;
+
+import com.cosium.vet.log.Logger;
+import com.cosium.vet.log.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A parsed git config file, with its 'include.path' directives expanded. Conditional includes are
+ * not evaluated: a file using them is flagged as not supported.
+ *
+ * <p>Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+class GitConfigFile {
+
+  private static final Logger LOG = LoggerFactory.getLogger(GitConfigFile.class);
+
+  private static final int MAX_INCLUDE_DEPTH = 10;
+  private static final String INCLUDE_PATH = "include.path";
+  private static final String CONDITIONAL_INCLUDE_SECTION = "includeif";
+
+  private final List<Entry> entries;
+  private final boolean supported;
+
+  private GitConfigFile(List<Entry> entries, boolean supported) {
+    this.entries = requireNonNull(entries);
+    this.supported = supported;
+  }
+
+  /**
+   * @param file The file to parse
+   * @return The parsed file. Empty if the file does not exist.
+   */
+  static GitConfigFile parse(Path file) {
+    List<Entry> entries = new ArrayList<>();
+    boolean supported = parse(file, entries, 0);
+    return new GitConfigFile(entries, supported);
+  }
+
+  private static boolean parse(Path file, List<Entry> entries, int depth) {
+    if (!Files.isRegularFile(file)) {
+      return true;
+    }
+    if (depth > MAX_INCLUDE_DEPTH) {
+      LOG.debug("Too many nested includes reaching '{}'", file);
+      return false;
+    }
+    String content;
+    try {
+      content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      LOG.debug("Failed to read '{}'", file, e);
+      return false;
+    }
+    List<Entry> fileEntries = new ArrayList<>();
+    if (!new Parser(content).parse(fileEntries)) {
+      LOG.debug("Could not parse '{}'", file);
+      return false;
+    }
+    for (Entry entry : fileEntries) {
+      if (entry.key.startsWith(CONDITIONAL_INCLUDE_SECTION + ".")) {
+        LOG.debug("'{}' uses conditional includes", file);
+        return false;
+      }
+      entries.add(entry);
+      if (INCLUDE_PATH.equals(entry.key) && entry.value != null) {
+        if (!parse(resolveIncludePath(file, entry.value), entries, depth + 1)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private static Path resolveIncludePath(Path includingFile, String includePath) {
+    if (includePath.startsWith("~/")) {
+      return Paths.get(System.getProperty("user.home")).resolve(includePath.substring(2));
+    }
+    return includingFile.toAbsolutePath().getParent().resolve(includePath);
+  }
+
+  /**
+   * @param key The key. i.e. branch.master.remote
+   * @return The key as stored in the parsed entries. Null if the key is not valid.
+   */
+  static String canonicalKey(String key) {
+    int firstDot = key.indexOf('.');
+    int lastDot = key.lastIndexOf('.');
+    if (firstDot <= 0 || lastDot == key.length() - 1) {
+      return null;
+    }
+    String section = key.substring(0, firstDot).toLowerCase(Locale.ENGLISH);
+    String name = key.substring(lastDot + 1).toLowerCase(Locale.ENGLISH);
+    if (firstDot == lastDot) {
+      return section + "." + name;
+    }
+    return section + "." + key.substring(firstDot + 1, lastDot) + "." + name;
+  }
+
+  /** @return False if the file contains something this parser can't interpret */
+  boolean isSupported() {
+    return supported;
+  }
+
+  /**
+   * @param key The key to look for. i.e. remote.origin.url
+   * @return The last value of the key, like 'git config key' would print it. A key declared without
+   *     value is returned as an empty string.
+   */
+  Optional<String> getLastValue(String key) {
+    String canonicalKey = canonicalKey(key);
+    for (int i = entries.size() - 1; i >= 0; i--) {
+      Entry entry = entries.get(i);
+      if (entry.key.equals(canonicalKey)) {
+        return Optional.of(entry.value == null ? "" : entry.value);
+      }
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * @param section The section. i.e. branch
+   * @param name The name of the key in each subsection. i.e. remote
+   * @param valueConsumer Receives the value of each 'section.&lt;subsection&gt;.name' key, in
+   *     declaration order. Keys declared without value are skipped.
+   */
+  void forEachSubsectionValue(String section, String name, Consumer<String> valueConsumer) {
+    String prefix = section.toLowerCase(Locale.ENGLISH) + ".";
+    String suffix = "." + name.toLowerCase(Locale.ENGLISH);
+    for (Entry entry : entries) {
+      if (entry.value != null
+          && entry.key.length() > prefix.length() + suffix.length()
+          && entry.key.startsWith(prefix)
+          && entry.key.endsWith(suffix)) {
+        valueConsumer.accept(entry.value);
+      }
+    }
+  }
+
+  private static class Entry {
+    private final String key;
+    private final String value;
+
+    private Entry(String key, String value) {
+      this.key = requireNonNull(key);
+      this.value = value;
+    }
+  }
+
+  /** Follows the syntax implemented by git's config.c */
+  private static class Parser {
+
+    private static final int EOF = -1;
+
+    private final String content;
+    private int position;
+    private String section;
+
+    private Parser(String content) {
+      this.content = content.replace("\r\n", "\n");
+    }
+
+    private boolean parse(List<Entry> entries) {
+      int c;
+      while ((c = next()) != EOF) {
+        if (c == '\n' || Character.isWhitespace(c)) {
+          continue;
+        }
+        if (c == '#' || c == ';') {
+          skipLine();
+          continue;
+        }
+        if (c == '[') {
+          if (!parseSection()) {
+            return false;
+          }
+          continue;
+        }
+        if (section == null || !Character.isLetter(c)) {
+          return false;
+        }
+        StringBuilder name = new StringBuilder().append((char) c);
+        while ((c = peek()) != EOF && (Character.isLetterOrDigit(c) || c == '-')) {
+          name.append((char) next());
+        }
+        while ((c = peek()) == ' ' || c == '\t') {
+          next();
+        }
+        String key = section + "." + name.toString().toLowerCase(Locale.ENGLISH);
+        if (c == EOF || c == '\n') {
+          entries.add(new Entry(key, null));
+          continue;
+        }
+        if (c == '#' || c == ';') {
+          skipLine();
+          entries.add(new Entry(key, null));
+          continue;
+        }
+        if (c != '=') {
+          return false;
+        }
+        next();
+        String value = parseValue();
+        if (value == null) {
+          return false;
+        }
+        entries.add(new Entry(key, value));
+      }
+      return true;
+    }
+
+    private boolean parseSection() {
+      StringBuilder name = new StringBuilder();
+      int c;
+      while ((c = next()) != EOF && (Character.isLetterOrDigit(c) || c == '-' || c == '.')) {
+        name.append((char) c);
+      }
+      if (name.length() == 0) {
+        return false;
+      }
+      String sectionName = name.toString();
+      if (c == ']') {
+        // Legacy [section.subsection] syntax. The subsection is case insensitive.
+        section = sectionName.toLowerCase(Locale.ENGLISH);
+        return true;
+      }
+      if (sectionName.indexOf('.') >= 0) {
+        return false;
+      }
+      while (c == ' ' || c == '\t') {
+        c = next();
+      }
+      if (c != '"') {
+        return false;
+      }
+      StringBuilder subsection = new StringBuilder();
+      while ((c = next()) != '"') {
+        if (c == EOF || c == '\n') {
+          return false;
+        }
+        if (c == '\\') {
+          c = next();
+          if (c == EOF || c == '\n') {
+            return false;
+          }
+        }
+        subsection.append((char) c);
+      }
+      if (next() != ']') {
+        return false;
+      }
+      section = sectionName.toLowerCase(Locale.ENGLISH) + "." + subsection;
+      return true;
+    }
+
+    /** @return The parsed value. Null if the value is malformed. */
+    private String parseValue() {
+      StringBuilder value = new StringBuilder();
+      boolean quote = false;
+      int spaces = 0;
+      int c;
+      while (true) {
+        c = next();
+        if (c == EOF || c == '\n') {
+          return quote ? null : value.toString();
+        }
+        if (!quote && (c == ';' || c == '#')) {
+          skipLine();
+          return value.toString();
+        }
+        if (!quote && Character.isWhitespace(c)) {
+          if (value.length() > 0) {
+            spaces++;
+          }
+          continue;
+        }
+        for (; spaces > 0; spaces--) {
+          value.append(' ');
+        }
+        if (c == '\\') {
+          c = next();
+          switch (c) {
+            case '\n':
+              continue;
+            case 't':
+              c = '\t';
+              break;
+            case 'b':
+              c = '\b';
+              break;
+            case 'n':
+              c = '\n';
+              break;
+            case '\\':
+            case '"':
+              break;
+            default:
+              return null;
+          }
+          value.append((char) c);
+          continue;
+        }
+        if (c == '"') {
+          quote = !quote;
+          continue;
+        }
+        value.append((char) c);
+      }
+    }
+
+    private void skipLine() {
+      int c;
+      while ((c = next()) != EOF && c != '\n') {
+        // Skipping
+      }
+    }
+
+    private int next() {
+      if (position >= content.length()) {
+        return EOF;
+      }
+      return content.charAt(position++);
+    }
+
+    private int peek() {
+      if (position >= content.length()) {
+        return EOF;
+      }
+      return content.charAt(position);
+    }
+  }
+}
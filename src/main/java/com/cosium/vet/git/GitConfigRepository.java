@@ -1,5 +1,7 @@
 package com.cosium.vet.git;
 
+import java.util.function.Function;
+
 /**
  * Created on 19/02/18.
  *
@@ -24,4 +26,14 @@ public interface GitConfigRepository {
    * @return The value associated with the provided key
    */
   String getValue(String key);
+
+  /**
+   * Runs the functor against a view of the config where the current branch is resolved once. The
+   * values set through the view are applied when the functor returns.
+   *
+   * @param functor The functor to run
+   * @param <T> The result type
+   * @return The functor result
+   */
+  <T> T transaction(Function<GitConfigRepository, T> functor);
 }
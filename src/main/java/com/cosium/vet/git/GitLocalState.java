@@ -0,0 +1,88 @@
+package com.cosium.vet.git;
+
+import com.cosium.vet.log.Logger;
+import com.cosium.vet.log.LoggerFactory;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads what the repository already knows, from the repository files only. Never spawns git nor
+ * reaches a remote, so that it can answer within a few milliseconds, i.e. for shell completion.
+ * Answers nothing when the files can't be located, and stops early when the current thread is
+ * interrupted.
+ *
+ * <p>Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+public class GitLocalState {
+
+  private static final Logger LOG = LoggerFactory.getLogger(GitLocalState.class);
+
+  private static final String REMOTE_TRACKING_BRANCH_PREFIX = "refs/remotes/";
+  private static final String HEAD = "HEAD";
+
+  private final Supplier<Optional<GitRepositoryFiles>> repositoryFiles;
+
+  GitLocalState(Supplier<Optional<GitRepositoryFiles>> repositoryFiles) {
+    this.repositoryFiles = requireNonNull(repositoryFiles);
+  }
+
+  /**
+   * @param branchConsumer Receives the branch of each remote tracking branch. i.e. 'master' for
+   *     'refs/remotes/origin/master'. A branch tracked from several remotes is received once per
+   *     remote.
+   */
+  public void listRemoteTrackingBranches(Consumer<BranchShortName> branchConsumer) {
+    listRefs(
+        REMOTE_TRACKING_BRANCH_PREFIX,
+        refLine -> {
+          String refName = refLine.substring(refLine.indexOf(' ') + 1);
+          int remoteEnd = refName.indexOf('/', REMOTE_TRACKING_BRANCH_PREFIX.length());
+          if (remoteEnd < 0 || remoteEnd == refName.length() - 1) {
+            return;
+          }
+          String branch = refName.substring(remoteEnd + 1);
+          if (!HEAD.equals(branch)) {
+            branchConsumer.accept(BranchShortName.of(branch));
+          }
+        });
+  }
+
+  /**
+   * @param refPrefix The prefix the ref names must start with. i.e. refs/changes/
+   * @param refLineConsumer Receives each local ref as '&lt;revision&gt; &lt;ref name&gt;'
+   */
+  public void listRefs(String refPrefix, Consumer<String> refLineConsumer) {
+    repositoryFiles.get().ifPresent(files -> files.listRefs(refPrefix, refLineConsumer));
+  }
+
+  /**
+   * @param lineConsumer Receives each line of FETCH_HEAD: '&lt;revision&gt;\t[not-for-merge]\t'ref
+   *     name' of &lt;url&gt;'
+   */
+  public void readFetchHead(Consumer<String> lineConsumer) {
+    repositoryFiles.get().ifPresent(files -> files.readFetchHead(lineConsumer));
+  }
+
+  /**
+   * @param key The branch key to look for. i.e. remote
+   * @param valueConsumer Receives the value of the key for each local branch declaring it
+   */
+  public void listBranchValues(String key, Consumer<String> valueConsumer) {
+    repositoryFiles
+        .get()
+        .map(files -> GitConfigFile.parse(files.getConfigFile()))
+        .ifPresent(
+            configFile -> {
+              if (!configFile.isSupported()) {
+                LOG.debug("The repository config may be partially read");
+              }
+              configFile.forEachSubsectionValue("branch", key, valueConsumer);
+            });
+  }
+}
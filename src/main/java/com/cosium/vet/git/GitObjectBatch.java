@@ -0,0 +1,149 @@
+package com.cosium.vet.git;
+
+import com.cosium.vet.log.Logger;
+import com.cosium.vet.log.LoggerFactory;
+import com.cosium.vet.runtime.CommandRunner;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads git objects through a single long-lived 'git cat-file --batch' process. The process is
+ * started on first read and lives until {@link #close()} or the end of the JVM.
+ *
+ * <p>Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+class GitObjectBatch implements AutoCloseable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(GitObjectBatch.class);
+
+  private final Path repositoryDirectory;
+  private final CommandRunner commandRunner;
+
+  private Process process;
+  private OutputStream requests;
+  private InputStream responses;
+  private boolean broken;
+
+  GitObjectBatch(Path repositoryDirectory, CommandRunner commandRunner) {
+    this.repositoryDirectory = requireNonNull(repositoryDirectory);
+    this.commandRunner = requireNonNull(commandRunner);
+  }
+
+  /**
+   * @param revision Any revision expression understood by git. i.e. HEAD, HEAD:, a commit id
+   * @return The object matching the revision. Empty if the object does not exist or could not be
+   *     read.
+   */
+  synchronized Optional<GitObject> read(String revision) {
+    if (broken || revision.indexOf('\n') >= 0) {
+      return Optional.empty();
+    }
+    try {
+      start();
+      requests.write((revision + "\n").getBytes(StandardCharsets.UTF_8));
+      requests.flush();
+
+      // <id> SP <type> SP <size> LF <contents> LF, or <revision> SP missing LF
+      String[] header = readLine().split(" ");
+      if (header.length != 3) {
+        LOG.debug("cat-file could not read '{}': {}", revision, String.join(" ", header));
+        return Optional.empty();
+      }
+      byte[] content = readFully(Integer.parseInt(header[2]));
+      if (responses.read() != '\n') {
+        throw new IOException("Unexpected end of object " + header[0]);
+      }
+      return Optional.of(new GitObject(header[0], header[1], content));
+    } catch (IOException | RuntimeException e) {
+      LOG.debug("git cat-file --batch failed. Disabling it.", e);
+      broken = true;
+      close();
+      return Optional.empty();
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    if (process == null) {
+      return;
+    }
+    try {
+      requests.close();
+    } catch (IOException e) {
+      LOG.debug("Failed to close cat-file input", e);
+    }
+    process.destroy();
+    process = null;
+  }
+
+  private void start() {
+    if (process != null) {
+      return;
+    }
+    process = commandRunner.start(repositoryDirectory, "git", "cat-file", "--batch");
+    requests = process.getOutputStream();
+    responses = new BufferedInputStream(process.getInputStream());
+  }
+
+  private String readLine() throws IOException {
+    ByteArrayOutputStream line = new ByteArrayOutputStream();
+    int b;
+    while ((b = responses.read()) != '\n') {
+      if (b < 0) {
+        throw new IOException("cat-file output ended unexpectedly");
+      }
+      line.write(b);
+    }
+    return new String(line.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  private byte[] readFully(int size) throws IOException {
+    byte[] content = new byte[size];
+    int offset = 0;
+    while (offset < size) {
+      int read = responses.read(content, offset, size - offset);
+      if (read < 0) {
+        throw new IOException("cat-file output ended unexpectedly");
+      }
+      offset += read;
+    }
+    return content;
+  }
+
+  /** A raw git object */
+  static class GitObject {
+
+    private final String id;
+    private final String type;
+    private final byte[] content;
+
+    private GitObject(String id, String type, byte[] content) {
+      this.id = requireNonNull(id);
+      this.type = requireNonNull(type);
+      this.content = requireNonNull(content);
+    }
+
+    String getId() {
+      return id;
+    }
+
+    String getType() {
+      return type;
+    }
+
+    byte[] getContent() {
+      return content;
+    }
+  }
+}
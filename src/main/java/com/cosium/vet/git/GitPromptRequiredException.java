@@ -0,0 +1,16 @@
+package com.cosium.vet.git;
+
+/**
+ * Thrown when a git network command failed because git or ssh needed to prompt the user while
+ * terminal prompts were disabled.
+ *
+ * <p>Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+public class GitPromptRequiredException extends RuntimeException {
+
+  GitPromptRequiredException(RuntimeException cause) {
+    super(cause.getMessage(), cause);
+  }
+}
@@ -4,6 +4,7 @@ import com.cosium.vet.runtime.CommandRunner;
 import com.cosium.vet.utils.OperatingSystem;
 
 import java.nio.file.Path;
+import java.util.Optional;
 
 import static java.util.Objects.requireNonNull;
 
@@ -12,11 +13,14 @@ import static java.util.Objects.requireNonNull;
  *
  * @author Reda.Housni-Alaoui
  */
-public class GitProvider implements GitClientFactory, GitConfigRepositoryFactory {
+public class GitProvider implements GitClientFactory, GitConfigRepositoryFactory, AutoCloseable {
 
   private final OperatingSystem operatingSystem;
   private final Path repositoryDirectory;
   private final CommandRunner commandRunner;
+  private final GitObjectBatch objectBatch;
+  private final GitConfigRepository gitConfigRepository;
+  private Optional<GitRepositoryFiles> repositoryFiles;
 
   public GitProvider(Path repositoryDirectory, CommandRunner commandRunner) {
     this(new OperatingSystem(), repositoryDirectory, commandRunner);
@@ -27,20 +31,55 @@ public class GitProvider implements GitClientFactory, GitConfigRepositoryFactory
     this.operatingSystem = requireNonNull(operatingSystem);
     this.repositoryDirectory = requireNonNull(repositoryDirectory);
     this.commandRunner = requireNonNull(commandRunner);
+    this.objectBatch = new GitObjectBatch(repositoryDirectory, commandRunner);
+    this.gitConfigRepository = new DefaultGitConfigRepository(repositoryDirectory, commandRunner);
   }
 
   @Override
   public GitClient build() {
-    GitClient basicGitClient =
-        new BasicGitClient(repositoryDirectory, commandRunner, buildRepository());
+    GitClient gitClient =
+        new ObjectBatchGitClient(
+            new FileSystemGitClient(
+                new BasicGitClient(
+                    repositoryDirectory, buildNetworkCommandRunner(), buildRepository()),
+                this::getRepositoryFiles),
+            objectBatch);
     if (!operatingSystem.isWindows()) {
-      return basicGitClient;
+      return gitClient;
     }
-    return new WindowsGitClient(basicGitClient);
+    return new WindowsGitClient(gitClient);
   }
 
   @Override
   public GitConfigRepository buildRepository() {
-    return new DefaultGitConfigRepository(repositoryDirectory, commandRunner);
+    return new FileSystemGitConfigRepository(gitConfigRepository, this::getRepositoryFiles);
+  }
+
+  /** @return A reader of the repository files, that never spawns git */
+  public GitLocalState buildLocalState() {
+    return new GitLocalState(this::getRepositoryFiles);
+  }
+
+  /** OpenSSH connection multiplexing is not available on Windows */
+  private CommandRunner buildNetworkCommandRunner() {
+    if (operatingSystem.isWindows()) {
+      return new PromptDetectingCommandRunner(commandRunner);
+    }
+    return new PromptDetectingCommandRunner(
+        new SshMultiplexingCommandRunner(commandRunner, buildRepository()));
+  }
+
+  /** Locates the repository files on first use, so that building clients stays free of I/O */
+  private synchronized Optional<GitRepositoryFiles> getRepositoryFiles() {
+    if (repositoryFiles == null) {
+      repositoryFiles = GitRepositoryFiles.locate(repositoryDirectory);
+    }
+    return repositoryFiles;
+  }
+
+  /** Stops the git processes shared by the built clients */
+  @Override
+  public void close() {
+    objectBatch.close();
   }
 }
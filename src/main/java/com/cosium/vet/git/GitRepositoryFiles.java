@@ -0,0 +1,282 @@
+package com.cosium.vet.git;
+
+import com.cosium.vet.log.Logger;
+import com.cosium.vet.log.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads the files of a git repository (HEAD, refs, packed-refs, config) without spawning git.
+ * Supports linked worktrees through the 'commondir' file.
+ *
+ * <p>Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+class GitRepositoryFiles {
+
+  private static final Logger LOG = LoggerFactory.getLogger(GitRepositoryFiles.class);
+
+  private static final String GITDIR_PREFIX = "gitdir:";
+  private static final String SYMREF_PREFIX = "ref:";
+  private static final String LOCAL_BRANCH_PREFIX = "refs/heads/";
+  private static final List<String> OVERRIDING_ENVIRONMENT_VARIABLES =
+      Arrays.asList(
+          "GIT_DIR",
+          "GIT_WORK_TREE",
+          "GIT_COMMON_DIR",
+          "GIT_CONFIG",
+          "GIT_CONFIG_GLOBAL",
+          "GIT_CONFIG_COUNT",
+          "GIT_CONFIG_PARAMETERS",
+          "GIT_NAMESPACE");
+
+  private final Path gitDir;
+  private final Path commonDir;
+
+  private GitRepositoryFiles(Path gitDir, Path commonDir) {
+    this.gitDir = requireNonNull(gitDir);
+    this.commonDir = requireNonNull(commonDir);
+  }
+
+  /**
+   * @param workingDirectory A directory inside a git working tree
+   * @return The repository files. Empty if they can't be located without the help of git.
+   */
+  static Optional<GitRepositoryFiles> locate(Path workingDirectory) {
+    if (OVERRIDING_ENVIRONMENT_VARIABLES.stream().anyMatch(name -> System.getenv(name) != null)) {
+      LOG.debug("Git environment variables are set. Not reading git files directly.");
+      return Optional.empty();
+    }
+    try {
+      for (Path dir = workingDirectory.toAbsolutePath().normalize();
+          dir != null;
+          dir = dir.getParent()) {
+        Path dotGit = dir.resolve(".git");
+        if (Files.isDirectory(dotGit)) {
+          return Optional.of(of(dotGit));
+        }
+        if (Files.isRegularFile(dotGit)) {
+          Optional<Path> gitDir = readGitDirLink(dotGit);
+          return gitDir.isPresent() ? Optional.of(of(gitDir.get())) : Optional.empty();
+        }
+        if (Files.isRegularFile(dir.resolve("HEAD")) && Files.isDirectory(dir.resolve("objects"))) {
+          LOG.debug("'{}' looks like a bare repository. Not supported.", dir);
+          return Optional.empty();
+        }
+      }
+    } catch (IOException | UncheckedIOException e) {
+      LOG.debug("Failed to locate git directory from '{}'", workingDirectory, e);
+    }
+    return Optional.empty();
+  }
+
+  private static GitRepositoryFiles of(Path gitDir) throws IOException {
+    Path commonDirFile = gitDir.resolve("commondir");
+    if (!Files.isRegularFile(commonDirFile)) {
+      return new GitRepositoryFiles(gitDir, gitDir);
+    }
+    Path commonDir = gitDir.resolve(readFirstLine(commonDirFile).trim()).normalize();
+    return new GitRepositoryFiles(gitDir, commonDir);
+  }
+
+  private static Optional<Path> readGitDirLink(Path dotGitFile) throws IOException {
+    String line = readFirstLine(dotGitFile);
+    if (!line.startsWith(GITDIR_PREFIX)) {
+      return Optional.empty();
+    }
+    Path target = Paths.get(line.substring(GITDIR_PREFIX.length()).trim());
+    return Optional.of(dotGitFile.getParent().resolve(target).normalize());
+  }
+
+  private static String readFirstLine(Path file) throws IOException {
+    try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      String line = reader.readLine();
+      return line == null ? "" : line;
+    }
+  }
+
+  /** @return The branch HEAD points to. Empty if HEAD is detached. */
+  Optional<BranchRefName> readHeadTarget() {
+    try {
+      String head = readFirstLine(gitDir.resolve("HEAD")).trim();
+      if (!head.startsWith(SYMREF_PREFIX)) {
+        return Optional.empty();
+      }
+      return Optional.of(BranchRefName.of(head.substring(SYMREF_PREFIX.length()).trim()));
+    } catch (IOException e) {
+      LOG.debug("Failed to read HEAD", e);
+      return Optional.empty();
+    }
+  }
+
+  /** @return The branch checked out in the worktree. Empty if HEAD is not on a local branch. */
+  Optional<BranchShortName> readCurrentBranch() {
+    return readHeadTarget()
+        .map(BranchRefName::toString)
+        .filter(refName -> refName.startsWith(LOCAL_BRANCH_PREFIX))
+        .map(refName -> refName.substring(LOCAL_BRANCH_PREFIX.length()))
+        .filter(name -> !name.isEmpty())
+        .map(BranchShortName::of);
+  }
+
+  /**
+   * @param refName The full ref name. i.e. refs/remotes/origin/master
+   * @return The revision the ref points to, looking at the loose ref first then at packed-refs.
+   *     Empty if the ref does not exist or is symbolic.
+   */
+  Optional<RevisionId> resolveRef(BranchRefName refName) {
+    String name = refName.toString();
+    try {
+      Path looseRef = commonDir.resolve(name);
+      if (Files.isRegularFile(looseRef)) {
+        String value = readFirstLine(looseRef).trim();
+        if (value.startsWith(SYMREF_PREFIX) || value.isEmpty()) {
+          return Optional.empty();
+        }
+        return Optional.of(RevisionId.of(value));
+      }
+      return readPackedRef(name);
+    } catch (IOException e) {
+      LOG.debug("Failed to resolve '{}'", refName, e);
+      return Optional.empty();
+    }
+  }
+
+  private Optional<RevisionId> readPackedRef(String name) throws IOException {
+    Path packedRefs = commonDir.resolve("packed-refs");
+    if (!Files.isRegularFile(packedRefs)) {
+      return Optional.empty();
+    }
+    try (BufferedReader reader = Files.newBufferedReader(packedRefs, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        // Skips the header and the peeled lines ('^<id>')
+        if (line.startsWith("#") || line.startsWith("^")) {
+          continue;
+        }
+        int separator = line.indexOf(' ');
+        if (separator > 0 && name.equals(line.substring(separator + 1))) {
+          return Optional.of(RevisionId.of(line.substring(0, separator)));
+        }
+      }
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Lists the loose and packed refs starting with the prefix. A loose ref hides the packed ref of
+   * the same name. Stops early when the current thread is interrupted.
+   *
+   * @param refPrefix The prefix the ref names must start with. i.e. refs/remotes/
+   * @param refLineConsumer Receives each ref as '&lt;revision&gt; &lt;ref name&gt;'
+   */
+  void listRefs(String refPrefix, Consumer<String> refLineConsumer) {
+    Set<String> looseRefNames = new HashSet<>();
+    try {
+      listLooseRefs(refPrefix, looseRefNames, refLineConsumer);
+      listPackedRefs(refPrefix, looseRefNames, refLineConsumer);
+    } catch (IOException | UncheckedIOException e) {
+      LOG.debug("Failed to list the refs starting with '{}'", refPrefix, e);
+    }
+  }
+
+  private void listLooseRefs(
+      String refPrefix, Set<String> looseRefNames, Consumer<String> refLineConsumer)
+      throws IOException {
+    int lastSlash = refPrefix.lastIndexOf('/');
+    if (lastSlash <= 0) {
+      return;
+    }
+    Path directory = commonDir.resolve(refPrefix.substring(0, lastSlash + 1));
+    if (!Files.isDirectory(directory)) {
+      return;
+    }
+    try (Stream<Path> files = Files.walk(directory)) {
+      Iterator<Path> iterator = files.iterator();
+      while (iterator.hasNext() && !Thread.currentThread().isInterrupted()) {
+        Path file = iterator.next();
+        String name = commonDir.relativize(file).toString().replace(File.separatorChar, '/');
+        if (!name.startsWith(refPrefix) || !Files.isRegularFile(file)) {
+          continue;
+        }
+        String value = readFirstLine(file).trim();
+        if (value.startsWith(SYMREF_PREFIX) || value.isEmpty()) {
+          continue;
+        }
+        looseRefNames.add(name);
+        refLineConsumer.accept(value + " " + name);
+      }
+    }
+  }
+
+  private void listPackedRefs(
+      String refPrefix, Set<String> looseRefNames, Consumer<String> refLineConsumer)
+      throws IOException {
+    Path packedRefs = commonDir.resolve("packed-refs");
+    if (!Files.isRegularFile(packedRefs)) {
+      return;
+    }
+    try (BufferedReader reader = Files.newBufferedReader(packedRefs, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null && !Thread.currentThread().isInterrupted()) {
+        int separator = line.indexOf(' ');
+        if (separator <= 0 || line.startsWith("#") || line.startsWith("^")) {
+          continue;
+        }
+        String name = line.substring(separator + 1);
+        if (name.startsWith(refPrefix) && !looseRefNames.contains(name)) {
+          refLineConsumer.accept(line);
+        }
+      }
+    }
+  }
+
+  /** @param lineConsumer Receives each line of the FETCH_HEAD of the current worktree */
+  void readFetchHead(Consumer<String> lineConsumer) {
+    Path fetchHead = gitDir.resolve("FETCH_HEAD");
+    if (!Files.isRegularFile(fetchHead)) {
+      return;
+    }
+    try (BufferedReader reader = Files.newBufferedReader(fetchHead, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null && !Thread.currentThread().isInterrupted()) {
+        lineConsumer.accept(line);
+      }
+    } catch (IOException | UncheckedIOException e) {
+      LOG.debug("Failed to read FETCH_HEAD", e);
+    }
+  }
+
+  /** @return The git directory shared by all worktrees */
+  Path getCommonDirectory() {
+    return commonDir;
+  }
+
+  /** @return The repository config file, shared by all worktrees */
+  Path getConfigFile() {
+    return commonDir.resolve("config");
+  }
+
+  /** @return The config file specific to the current worktree. Only read if enabled. */
+  Path getWorktreeConfigFile() {
+    return gitDir.resolve("config.worktree");
+  }
+}
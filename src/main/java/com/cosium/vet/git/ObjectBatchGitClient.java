@@ -0,0 +1,234 @@
+package com.cosium.vet.git;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Answers object lookups through a shared {@link GitObjectBatch} instead of forking a git process
+ * per lookup. Everything else, and every lookup the batch cannot answer, goes to the delegate.
+ *
+ * <p>Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+class ObjectBatchGitClient implements GitClient {
+
+  private static final String COMMIT_TYPE = "commit";
+  private static final String TREE_TYPE = "tree";
+
+  private final GitClient delegate;
+  private final GitObjectBatch objectBatch;
+
+  ObjectBatchGitClient(GitClient delegate, GitObjectBatch objectBatch) {
+    this.delegate = requireNonNull(delegate);
+    this.objectBatch = requireNonNull(objectBatch);
+  }
+
+  @Override
+  public BranchShortName getBranch() {
+    return delegate.getBranch();
+  }
+
+  @Override
+  public Optional<RemoteName> getRemote(BranchShortName branch) {
+    return delegate.getRemote(branch);
+  }
+
+  @Override
+  public Optional<RemoteUrl> getRemotePushUrl(RemoteName remoteName) {
+    return delegate.getRemotePushUrl(remoteName);
+  }
+
+  @Override
+  public String getMostRecentCommonCommit(String otherBranch) {
+    return delegate.getMostRecentCommonCommit(otherBranch);
+  }
+
+  @Override
+  public String getTree() {
+    return objectBatch
+        .read("HEAD:")
+        .filter(object -> TREE_TYPE.equals(object.getType()))
+        .map(GitObjectBatch.GitObject::getId)
+        .orElseGet(delegate::getTree);
+  }
+
+  @Override
+  public String getTree(RevisionId revisionId) {
+    return objectBatch
+        .read(revisionId + ":")
+        .filter(object -> TREE_TYPE.equals(object.getType()))
+        .map(GitObjectBatch.GitObject::getId)
+        .orElseGet(() -> delegate.getTree(revisionId));
+  }
+
+  @Override
+  public String commitTree(String tree, String parent, CommitMessage commitMessage) {
+    return delegate.commitTree(tree, parent, commitMessage);
+  }
+
+  @Override
+  public CommitMessage getLastCommitMessage() {
+    return readCommit("HEAD")
+        .flatMap(ParsedCommit::getMessage)
+        .orElseGet(delegate::getLastCommitMessage);
+  }
+
+  @Override
+  public CommitMessage getCommitMessage(RevisionId revisionId) {
+    return readCommit(revisionId.toString())
+        .flatMap(ParsedCommit::getMessage)
+        .orElseGet(() -> delegate.getCommitMessage(revisionId));
+  }
+
+  @Override
+  public RevisionId getParent(RevisionId revisionId) {
+    return readCommit(revisionId.toString())
+        .flatMap(ParsedCommit::getParent)
+        .orElseGet(() -> delegate.getParent(revisionId));
+  }
+
+  @Override
+  public String push(String remote, String refspec) {
+    return delegate.push(remote, refspec);
+  }
+
+  @Override
+  public String push(String remote, String refspec, Consumer<String> outputLineConsumer) {
+    return delegate.push(remote, refspec, outputLineConsumer);
+  }
+
+  @Override
+  public List<BranchRef> listRemoteRefs(RemoteName remote) {
+    return delegate.listRemoteRefs(remote);
+  }
+
+  @Override
+  public List<BranchRef> listRemoteRefs(RemoteName remote, String refPrefix) {
+    return delegate.listRemoteRefs(remote, refPrefix);
+  }
+
+  @Override
+  public void listRemoteRefs(
+      RemoteName remote, String refPrefix, Consumer<String> refLineConsumer) {
+    delegate.listRemoteRefs(remote, refPrefix, refLineConsumer);
+  }
+
+  @Override
+  public void fetch(RemoteName remote, BranchRefName branchRefName) {
+    delegate.fetch(remote, branchRefName);
+  }
+
+  @Override
+  public void fetch(RemoteName remote, BranchShortName branchShortName) {
+    delegate.fetch(remote, branchShortName);
+  }
+
+  @Override
+  public void fetch(RemoteName remote, List<String> refspecs) {
+    delegate.fetch(remote, refspecs);
+  }
+
+  @Override
+  public void deepen(RemoteName remote, BranchShortName branchShortName, int depth) {
+    delegate.deepen(remote, branchShortName, depth);
+  }
+
+  @Override
+  public Set<RevisionId> getShallowCommits() {
+    return delegate.getShallowCommits();
+  }
+
+  @Override
+  public CommitMetadata fetchCommitMetadata(RemoteName remote, BranchRefName branchRefName) {
+    return delegate.fetchCommitMetadata(remote, branchRefName);
+  }
+
+  @Override
+  public String pull(RemoteName remote, BranchRefName branchRefName) {
+    return delegate.pull(remote, branchRefName);
+  }
+
+  @Override
+  public String status() {
+    return delegate.status();
+  }
+
+  @Override
+  public void status(Consumer<String> lineConsumer) {
+    delegate.status(lineConsumer);
+  }
+
+  @Override
+  public String checkoutFetchHead() {
+    return delegate.checkoutFetchHead();
+  }
+
+  @Override
+  public String checkoutNewBranch(BranchShortName branchShortName) {
+    return delegate.checkoutNewBranch(branchShortName);
+  }
+
+  @Override
+  public String resetKeep(RevisionId revisionId) {
+    return delegate.resetKeep(revisionId);
+  }
+
+  @Override
+  public Path getCommonDirectory() {
+    return delegate.getCommonDirectory();
+  }
+
+  private Optional<ParsedCommit> readCommit(String revision) {
+    return objectBatch
+        .read(revision)
+        .filter(object -> COMMIT_TYPE.equals(object.getType()))
+        .map(object -> new ParsedCommit(new String(object.getContent(), StandardCharsets.UTF_8)));
+  }
+
+  /** A commit object split into its headers and message */
+  private static class ParsedCommit {
+
+    private final List<String> parents = new ArrayList<>();
+    private final String message;
+    private final boolean utf8;
+
+    private ParsedCommit(String content) {
+      int headersEnd = content.indexOf("\n\n");
+      String headers = headersEnd < 0 ? content : content.substring(0, headersEnd);
+      boolean utf8 = true;
+      for (String header : headers.split("\n")) {
+        if (header.startsWith("parent ")) {
+          parents.add(header.substring("parent ".length()));
+        } else if (header.startsWith("encoding ")) {
+          utf8 = "UTF-8".equalsIgnoreCase(header.substring("encoding ".length()).trim());
+        }
+      }
+      this.utf8 = utf8;
+      this.message = headersEnd < 0 ? "" : content.substring(headersEnd + 2);
+    }
+
+    /** @return The message. Empty if it can't be read as is. */
+    private Optional<CommitMessage> getMessage() {
+      if (!utf8 || message.trim().isEmpty()) {
+        return Optional.empty();
+      }
+      return Optional.of(CommitMessage.of(message));
+    }
+
+    /** @return The parents as printed by 'git log --pretty=%P'. Empty for a root commit. */
+    private Optional<RevisionId> getParent() {
+      if (parents.isEmpty()) {
+        return Optional.empty();
+      }
+      return Optional.of(RevisionId.of(String.join(" ", parents)));
+    }
+  }
+}
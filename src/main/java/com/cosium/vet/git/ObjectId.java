@@ -0,0 +1,211 @@
+package com.cosium.vet.git;
+
+/**
+ * The binary form of a git object id. Holds a SHA-1 (20 bytes) or a SHA-256 (32 bytes) id in four
+ * longs instead of its 40 or 64 characters hexadecimal form.
+ *
+ * <p>Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+public final class ObjectId {
+
+  public static final int SHA1_LENGTH = 20;
+  public static final int SHA256_LENGTH = 32;
+
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+  private static final byte[] HEX_VALUES = new byte[128];
+
+  static {
+    for (int i = 0; i < HEX_VALUES.length; i++) {
+      HEX_VALUES[i] = -1;
+    }
+    for (int i = 0; i < HEX_DIGITS.length; i++) {
+      HEX_VALUES[HEX_DIGITS[i]] = (byte) i;
+    }
+  }
+
+  private final long word0;
+  private final long word1;
+  private final long word2;
+  private final long word3;
+  private final int length;
+
+  private ObjectId(long word0, long word1, long word2, long word3, int length) {
+    this.word0 = word0;
+    this.word1 = word1;
+    this.word2 = word2;
+    this.word3 = word3;
+    this.length = length;
+  }
+
+  /**
+   * @param hex The lower case hexadecimal form of the id. i.e.
+   *     96a9475f9992e5324afc5a5020a456da0dcc1c4f
+   * @return The object id
+   */
+  public static ObjectId of(CharSequence hex) {
+    return parse(hex, 0, hex.length());
+  }
+
+  /**
+   * @param hex Characters holding the lower case hexadecimal form of the id
+   * @param start The index of the first character of the id
+   * @param end The index following the last character of the id
+   * @return The object id
+   */
+  public static ObjectId parse(CharSequence hex, int start, int end) {
+    if (!isObjectId(hex, start, end)) {
+      throw new IllegalArgumentException(
+          "'" + hex.subSequence(start, end) + "' is not an object id");
+    }
+    return new ObjectId(
+        parseWord(hex, start, end, 0),
+        parseWord(hex, start, end, 1),
+        parseWord(hex, start, end, 2),
+        parseWord(hex, start, end, 3),
+        (end - start) / 2);
+  }
+
+  private static long parseWord(CharSequence hex, int start, int end, int index) {
+    long word = 0;
+    for (int position = start + 16 * index; position < start + 16 * (index + 1); position++) {
+      word <<= 4;
+      if (position < end) {
+        word |= hexValue(hex.charAt(position));
+      }
+    }
+    return word;
+  }
+
+  /**
+   * @param hex The characters to test
+   * @return True if the characters are the lower case hexadecimal form of a SHA-1 or SHA-256 id
+   */
+  public static boolean isObjectId(CharSequence hex) {
+    return isObjectId(hex, 0, hex.length());
+  }
+
+  private static boolean isObjectId(CharSequence hex, int start, int end) {
+    int digits = end - start;
+    if (digits != 2 * SHA1_LENGTH && digits != 2 * SHA256_LENGTH) {
+      return false;
+    }
+    for (int position = start; position < end; position++) {
+      if (hexValue(hex.charAt(position)) < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @param raw The array holding the binary form of the id
+   * @param offset The index of the first byte of the id
+   * @param length {@link #SHA1_LENGTH} or {@link #SHA256_LENGTH}
+   * @return The object id
+   */
+  public static ObjectId fromRaw(byte[] raw, int offset, int length) {
+    if (length != SHA1_LENGTH && length != SHA256_LENGTH) {
+      throw new IllegalArgumentException(length + " is not a valid object id length");
+    }
+    return new ObjectId(
+        rawWord(raw, offset, length, 0),
+        rawWord(raw, offset, length, 1),
+        rawWord(raw, offset, length, 2),
+        rawWord(raw, offset, length, 3),
+        length);
+  }
+
+  private static long rawWord(byte[] raw, int offset, int length, int index) {
+    long word = 0;
+    for (int i = 8 * index; i < 8 * (index + 1); i++) {
+      word <<= 8;
+      if (i < length) {
+        word |= raw[offset + i] & 0xffL;
+      }
+    }
+    return word;
+  }
+
+  /**
+   * Decodes an hexadecimal id straight into a byte array, without creating any object.
+   *
+   * @param hex Characters holding the lower case hexadecimal form of the id
+   * @param start The index of the first character of the id
+   * @param end The index following the last character of the id
+   * @param target The array receiving the binary form of the id
+   * @param offset The index of target receiving the first byte
+   * @return The number of written bytes. -1 if the characters are not an object id.
+   */
+  public static int decode(CharSequence hex, int start, int end, byte[] target, int offset) {
+    if (!isObjectId(hex, start, end)) {
+      return -1;
+    }
+    for (int position = start; position < end; position += 2) {
+      target[offset + (position - start) / 2] =
+          (byte) ((hexValue(hex.charAt(position)) << 4) | hexValue(hex.charAt(position + 1)));
+    }
+    return (end - start) / 2;
+  }
+
+  private static int hexValue(char c) {
+    return c < HEX_VALUES.length ? HEX_VALUES[c] : -1;
+  }
+
+  /** @return The number of bytes of the id. {@link #SHA1_LENGTH} or {@link #SHA256_LENGTH}. */
+  public int getLength() {
+    return length;
+  }
+
+  /**
+   * @param target The array receiving the binary form of the id
+   * @param offset The index of target receiving the first byte
+   */
+  public void copyRawTo(byte[] target, int offset) {
+    for (int i = 0; i < length; i++) {
+      target[offset + i] = (byte) (word(i >> 3) >>> ((7 - (i & 7)) << 3));
+    }
+  }
+
+  private long word(int index) {
+    switch (index) {
+      case 0:
+        return word0;
+      case 1:
+        return word1;
+      case 2:
+        return word2;
+      default:
+        return word3;
+    }
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    ObjectId objectId = (ObjectId) o;
+    return word0 == objectId.word0
+        && word1 == objectId.word1
+        && word2 == objectId.word2
+        && word3 == objectId.word3
+        && length == objectId.length;
+  }
+
+  @Override
+  public int hashCode() {
+    // Object ids are uniformly distributed. Any of their bits make a good hash.
+    return (int) (word0 >>> 32);
+  }
+
+  /** @return The lower case hexadecimal form of the id */
+  @Override
+  public String toString() {
+    char[] hex = new char[2 * length];
+    for (int i = 0; i < hex.length; i++) {
+      hex[i] = HEX_DIGITS[(int) (word(i >> 4) >>> ((15 - (i & 15)) << 2)) & 0xf];
+    }
+    return new String(hex);
+  }
+}
@@ -0,0 +1,90 @@
+package com.cosium.vet.git;
+
+import com.cosium.vet.runtime.CommandRunException;
+import com.cosium.vet.runtime.CommandRunner;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * When terminal prompts are disabled through <code>GIT_TERMINAL_PROMPT=0</code>, turns the failures
+ * of git network commands caused by a missing prompt into {@link GitPromptRequiredException}. Those
+ * are credential, passphrase and host key prompts, git and ssh failing instead of asking.
+ *
+ * <p>Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+class PromptDetectingCommandRunner implements CommandRunner {
+
+  private static final String TERMINAL_PROMPT_VARIABLE = "GIT_TERMINAL_PROMPT";
+
+  /** What git and ssh (in batch mode) print when they could not prompt */
+  private static final List<String> PROMPT_FAILURES =
+      Collections.unmodifiableList(
+          Arrays.asList(
+              "terminal prompts disabled", "Host key verification failed", "Permission denied ("));
+
+  private final CommandRunner delegate;
+  private final boolean terminalPromptDisabled;
+
+  PromptDetectingCommandRunner(CommandRunner delegate) {
+    this(delegate, System.getenv());
+  }
+
+  /**
+   * @param delegate The command runner to decorate
+   * @param environment The environment git commands run with
+   */
+  PromptDetectingCommandRunner(CommandRunner delegate, Map<String, String> environment) {
+    this.delegate = requireNonNull(delegate);
+    this.terminalPromptDisabled = isTerminalPromptDisabled(environment);
+  }
+
+  /** @return True if git must not prompt on the terminal */
+  static boolean isTerminalPromptDisabled(Map<String, String> environment) {
+    return "0".equals(environment.get(TERMINAL_PROMPT_VARIABLE));
+  }
+
+  @Override
+  public String run(Path workingDir, String... command) {
+    try {
+      return delegate.run(workingDir, command);
+    } catch (CommandRunException e) {
+      throw translate(e, command);
+    }
+  }
+
+  @Override
+  public void run(
+      Path workingDir,
+      Consumer<String> outputLineConsumer,
+      Consumer<String> errorLineConsumer,
+      String... command) {
+    try {
+      delegate.run(workingDir, outputLineConsumer, errorLineConsumer, command);
+    } catch (CommandRunException e) {
+      throw translate(e, command);
+    }
+  }
+
+  @Override
+  public Process start(Path workingDir, String... command) {
+    return delegate.start(workingDir, command);
+  }
+
+  private RuntimeException translate(CommandRunException e, String... command) {
+    if (!terminalPromptDisabled
+        || !SshMultiplexingCommandRunner.isNetworkCommand(command)
+        || PROMPT_FAILURES.stream().noneMatch(e.getMessage()::contains)) {
+      return e;
+    }
+    return new GitPromptRequiredException(e);
+  }
+}
@@ -1,19 +1,64 @@
 package com.cosium.vet.git;
 
-import com.cosium.vet.utils.NonBlankString;
+import com.cosium.vet.thirdparty.apache_commons_lang3.StringUtils;
+
+import java.util.Objects;
+import java.util.Optional;
 
 /**
- * Created on 27/02/18.
+ * A revision. Most of the time a plain object id, kept in its binary form. Anything else git
+ * understands as a revision (i.e. HEAD~1) is kept as is.
+ *
+ * <p>Created on 27/02/18.
  *
  * @author Reda.Housni-Alaoui
  */
-public class RevisionId extends NonBlankString {
-  private RevisionId(String value) {
-    super(value);
+public class RevisionId {
+
+  private final ObjectId objectId;
+  private final String expression;
+
+  private RevisionId(ObjectId objectId, String expression) {
+    this.objectId = objectId;
+    this.expression = expression;
   }
 
   /** i.e. 96a9475f9992e5324afc5a5020a456da0dcc1c4f */
   public static RevisionId of(String value) {
-    return new RevisionId(value);
+    if (StringUtils.isBlank(value)) {
+      throw new IllegalArgumentException(RevisionId.class.getSimpleName() + " can't be blank");
+    }
+    String trimmedValue = value.trim();
+    if (ObjectId.isObjectId(trimmedValue)) {
+      return new RevisionId(ObjectId.of(trimmedValue), null);
+    }
+    return new RevisionId(null, trimmedValue);
+  }
+
+  public static RevisionId of(ObjectId objectId) {
+    return new RevisionId(Objects.requireNonNull(objectId), null);
+  }
+
+  /** @return The object id. Empty if the revision is not a plain object id. */
+  public Optional<ObjectId> getObjectId() {
+    return Optional.ofNullable(objectId);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    RevisionId that = (RevisionId) o;
+    return Objects.equals(objectId, that.objectId) && Objects.equals(expression, that.expression);
+  }
+
+  @Override
+  public int hashCode() {
+    return objectId == null ? expression.hashCode() : objectId.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return objectId == null ? expression : objectId.toString();
   }
 }
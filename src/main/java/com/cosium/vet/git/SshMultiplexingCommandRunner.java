@@ -0,0 +1,229 @@
+package com.cosium.vet.git;
+
+import com.cosium.vet.log.Logger;
+import com.cosium.vet.log.LoggerFactory;
+import com.cosium.vet.runtime.CommandRunner;
+import com.cosium.vet.thirdparty.apache_commons_lang3.StringUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Makes the git network commands share one OpenSSH master connection per remote host, through a vet
+ * owned control socket. The master outlives the vet process for {@link #CONTROL_PERSIST}, so that
+ * successive invocations skip the key exchange too.
+ *
+ * <p>The ssh command is passed through <code>-c core.sshCommand</code>. Nothing is changed when the
+ * user already configured the ssh command, either through the environment or through git
+ * configuration.
+ *
+ * <p>When terminal prompts are disabled, ssh also runs in batch mode so that it fails instead of
+ * prompting.
+ *
+ * <p>Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+class SshMultiplexingCommandRunner implements CommandRunner {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SshMultiplexingCommandRunner.class);
+
+  private static final String GIT = "git";
+  private static final String SSH = "ssh";
+  private static final String CONTROL_PERSIST = "60s";
+
+  /** Unix socket paths are limited to 104 bytes on some systems, 108 on Linux */
+  private static final int MAX_CONTROL_PATH_LENGTH = 100;
+  /** The length of the %C token expansion, a SHA1 hex digest */
+  private static final int CONTROL_PATH_TOKEN_LENGTH = 40;
+
+  private static final Set<PosixFilePermission> CONTROL_DIRECTORY_PERMISSIONS =
+      PosixFilePermissions.fromString("rwx------");
+
+  private static final Set<String> NETWORK_SUBCOMMANDS =
+      Collections.unmodifiableSet(
+          new HashSet<>(Arrays.asList("clone", "fetch", "ls-remote", "pull", "push")));
+
+  /** Global git options followed by a separate value */
+  private static final Set<String> GIT_OPTIONS_WITH_VALUE =
+      Collections.unmodifiableSet(
+          new HashSet<>(
+              Arrays.asList(
+                  "-C", "-c", "--git-dir", "--work-tree", "--namespace", "--shallow-file")));
+
+  private final CommandRunner delegate;
+  private final GitConfigRepository gitConfigRepository;
+  private final Map<String, String> environment;
+  private final String sshProgram;
+  private final Path controlDirectory;
+  private Optional<String> sshCommand;
+
+  SshMultiplexingCommandRunner(CommandRunner delegate, GitConfigRepository gitConfigRepository) {
+    this(delegate, gitConfigRepository, System.getenv(), SSH, defaultControlDirectory());
+  }
+
+  /**
+   * @param delegate The command runner to decorate
+   * @param gitConfigRepository The git configuration
+   * @param environment The environment git commands run with
+   * @param sshProgram The ssh program
+   * @param controlDirectory The directory holding the control sockets
+   */
+  SshMultiplexingCommandRunner(
+      CommandRunner delegate,
+      GitConfigRepository gitConfigRepository,
+      Map<String, String> environment,
+      String sshProgram,
+      Path controlDirectory) {
+    this.delegate = requireNonNull(delegate);
+    this.gitConfigRepository = requireNonNull(gitConfigRepository);
+    this.environment = requireNonNull(environment);
+    this.sshProgram = requireNonNull(sshProgram);
+    this.controlDirectory = requireNonNull(controlDirectory);
+  }
+
+  /** Falls back to /tmp when the temporary directory is too deep, as it is on macOS */
+  private static Path defaultControlDirectory() {
+    String directoryName = "vet-ssh-" + System.getProperty("user.name");
+    Path controlDirectory = Paths.get(System.getProperty("java.io.tmpdir"), directoryName);
+    if (isTooLong(buildControlPath(controlDirectory))) {
+      return Paths.get("/tmp", directoryName);
+    }
+    return controlDirectory;
+  }
+
+  private static String buildControlPath(Path controlDirectory) {
+    return controlDirectory.toAbsolutePath() + "/%C";
+  }
+
+  private static boolean isTooLong(String controlPath) {
+    return controlPath.length() - 2 + CONTROL_PATH_TOKEN_LENGTH > MAX_CONTROL_PATH_LENGTH;
+  }
+
+  @Override
+  public String run(Path workingDir, String... command) {
+    return delegate.run(workingDir, multiplex(command));
+  }
+
+  @Override
+  public void run(
+      Path workingDir,
+      Consumer<String> outputLineConsumer,
+      Consumer<String> errorLineConsumer,
+      String... command) {
+    delegate.run(workingDir, outputLineConsumer, errorLineConsumer, multiplex(command));
+  }
+
+  @Override
+  public Process start(Path workingDir, String... command) {
+    return delegate.start(workingDir, multiplex(command));
+  }
+
+  private String[] multiplex(String... command) {
+    if (!isNetworkCommand(command)) {
+      return command;
+    }
+    return getSshCommand()
+        .map(
+            ssh -> {
+              String[] multiplexedCommand = new String[command.length + 2];
+              multiplexedCommand[0] = command[0];
+              multiplexedCommand[1] = "-c";
+              multiplexedCommand[2] = "core.sshCommand=" + ssh;
+              System.arraycopy(command, 1, multiplexedCommand, 3, command.length - 1);
+              return multiplexedCommand;
+            })
+        .orElse(command);
+  }
+
+  /** @return True if the command is a git command reaching a remote */
+  static boolean isNetworkCommand(String... command) {
+    if (command.length < 2 || !GIT.equals(command[0])) {
+      return false;
+    }
+    int index = 1;
+    while (index < command.length && command[index].startsWith("-")) {
+      index += GIT_OPTIONS_WITH_VALUE.contains(command[index]) ? 2 : 1;
+    }
+    return index < command.length && NETWORK_SUBCOMMANDS.contains(command[index]);
+  }
+
+  private synchronized Optional<String> getSshCommand() {
+    if (sshCommand == null) {
+      sshCommand = computeSshCommand();
+    }
+    return sshCommand;
+  }
+
+  private Optional<String> computeSshCommand() {
+    if (StringUtils.isNotBlank(environment.get("GIT_SSH_COMMAND"))
+        || StringUtils.isNotBlank(environment.get("GIT_SSH"))) {
+      LOG.debug("The ssh command is set by the environment. SSH multiplexing is disabled.");
+      return Optional.empty();
+    }
+    if (gitConfigRepository.getValue("core.sshCommand") != null) {
+      LOG.debug("The ssh command is set by git configuration. SSH multiplexing is disabled.");
+      return Optional.empty();
+    }
+    List<String> sshCommand = new ArrayList<>();
+    sshCommand.add(sshProgram);
+    if (PromptDetectingCommandRunner.isTerminalPromptDisabled(environment)) {
+      // Fail instead of asking for a passphrase or a host key confirmation
+      sshCommand.add("-o BatchMode=yes");
+    }
+    sshCommand.addAll(computeMultiplexingOptions());
+    if (sshCommand.size() == 1) {
+      return Optional.empty();
+    }
+    return Optional.of(String.join(StringUtils.SPACE, sshCommand));
+  }
+
+  /** @return The ssh options enabling multiplexing. Empty if multiplexing is not possible. */
+  private List<String> computeMultiplexingOptions() {
+    String controlPath = buildControlPath(controlDirectory);
+    if (isTooLong(controlPath)) {
+      LOG.debug("Control path '{}' is too long. SSH multiplexing is disabled.", controlPath);
+      return Collections.emptyList();
+    }
+    try {
+      if (!Files.isDirectory(controlDirectory)) {
+        Files.createDirectories(
+            controlDirectory, PosixFilePermissions.asFileAttribute(CONTROL_DIRECTORY_PERMISSIONS));
+      }
+      // Anyone able to write in the directory could hijack the connections
+      if (!Files.getOwner(controlDirectory).getName().equals(System.getProperty("user.name"))
+          || !Files.getPosixFilePermissions(controlDirectory)
+              .equals(CONTROL_DIRECTORY_PERMISSIONS)) {
+        LOG.debug("'{}' is not private. SSH multiplexing is disabled.", controlDirectory);
+        return Collections.emptyList();
+      }
+    } catch (IOException | UnsupportedOperationException e) {
+      LOG.debug("Could not create '{}'. SSH multiplexing is disabled.", controlDirectory, e);
+      return Collections.emptyList();
+    }
+    return Arrays.asList(
+        "-o ControlMaster=auto",
+        "-o " + quote("ControlPath=" + controlPath),
+        "-o ControlPersist=" + CONTROL_PERSIST);
+  }
+
+  /** Quotes the value for the shell git runs the ssh command with */
+  private static String quote(String value) {
+    return "'" + value.replace("'", "'\\''") + "'";
+  }
+}
@@ -1,7 +1,10 @@
 package com.cosium.vet.git;
 
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import static java.util.Objects.requireNonNull;
 
@@ -43,6 +46,11 @@ class WindowsGitClient implements GitClient {
     return delegate.getTree();
   }
 
+  @Override
+  public String getTree(RevisionId revisionId) {
+    return delegate.getTree(revisionId);
+  }
+
   @Override
   public String commitTree(String tree, String parent, CommitMessage commitMessage) {
     return delegate.commitTree(tree, parent, commitMessage.escapeQuotes());
@@ -68,11 +76,27 @@ class WindowsGitClient implements GitClient {
     return delegate.push(remote, refspec);
   }
 
+  @Override
+  public String push(String remote, String refspec, Consumer<String> outputLineConsumer) {
+    return delegate.push(remote, refspec, outputLineConsumer);
+  }
+
   @Override
   public List<BranchRef> listRemoteRefs(RemoteName remote) {
     return delegate.listRemoteRefs(remote);
   }
 
+  @Override
+  public List<BranchRef> listRemoteRefs(RemoteName remote, String refPrefix) {
+    return delegate.listRemoteRefs(remote, refPrefix);
+  }
+
+  @Override
+  public void listRemoteRefs(
+      RemoteName remote, String refPrefix, Consumer<String> refLineConsumer) {
+    delegate.listRemoteRefs(remote, refPrefix, refLineConsumer);
+  }
+
   @Override
   public void fetch(RemoteName remote, BranchRefName branchRefName) {
     delegate.fetch(remote, branchRefName);
@@ -83,6 +107,26 @@ class WindowsGitClient implements GitClient {
     delegate.fetch(remote, branchShortName);
   }
 
+  @Override
+  public void fetch(RemoteName remote, List<String> refspecs) {
+    delegate.fetch(remote, refspecs);
+  }
+
+  @Override
+  public void deepen(RemoteName remote, BranchShortName branchShortName, int depth) {
+    delegate.deepen(remote, branchShortName, depth);
+  }
+
+  @Override
+  public Set<RevisionId> getShallowCommits() {
+    return delegate.getShallowCommits();
+  }
+
+  @Override
+  public CommitMetadata fetchCommitMetadata(RemoteName remote, BranchRefName branchRefName) {
+    return delegate.fetchCommitMetadata(remote, branchRefName);
+  }
+
   @Override
   public String pull(RemoteName remote, BranchRefName branchRefName) {
     return delegate.pull(remote, branchRefName);
@@ -93,6 +137,11 @@ class WindowsGitClient implements GitClient {
     return delegate.status();
   }
 
+  @Override
+  public void status(Consumer<String> lineConsumer) {
+    delegate.status(lineConsumer);
+  }
+
   @Override
   public String checkoutFetchHead() {
     return delegate.checkoutFetchHead();
@@ -107,4 +156,9 @@ class WindowsGitClient implements GitClient {
   public String resetKeep(RevisionId revisionId) {
     return delegate.resetKeep(revisionId);
   }
+
+  @Override
+  public Path getCommonDirectory() {
+    return delegate.getCommonDirectory();
+  }
 }
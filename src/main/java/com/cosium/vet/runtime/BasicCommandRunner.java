@@ -2,11 +2,19 @@ package com.cosium.vet.runtime;
 
 import com.cosium.vet.log.Logger;
 import com.cosium.vet.log.LoggerFactory;
-import com.cosium.vet.thirdparty.apache_commons_io.IOUtils;
 import com.cosium.vet.thirdparty.apache_commons_lang3.StringUtils;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 /**
  * Created on 16/02/18.
@@ -17,8 +25,71 @@ public class BasicCommandRunner implements CommandRunner {
 
   private static final Logger LOG = LoggerFactory.getLogger(BasicCommandRunner.class);
 
+  private static final int MAX_ERROR_LINES_IN_EXCEPTION = 50;
+
   @Override
   public String run(Path workingDir, String... command) {
+    StringBuilder output = new StringBuilder();
+    StringBuilder error = new StringBuilder();
+    int exitCode =
+        execute(
+            workingDir,
+            line -> output.append(line).append(StringUtils.LF),
+            line -> error.append(line).append(StringUtils.LF),
+            command);
+
+    String fullOutput = output.toString().trim() + error.toString().trim();
+    if (exitCode != 0) {
+      throw new CommandRunException(exitCode, fullOutput, command);
+    }
+
+    LOG.debug(fullOutput);
+    return StringUtils.defaultIfBlank(fullOutput, null);
+  }
+
+  @Override
+  public void run(
+      Path workingDir,
+      Consumer<String> outputLineConsumer,
+      Consumer<String> errorLineConsumer,
+      String... command) {
+    Deque<String> lastErrorLines = new ArrayDeque<>();
+    int exitCode =
+        execute(
+            workingDir,
+            outputLineConsumer,
+            line -> {
+              if (lastErrorLines.size() == MAX_ERROR_LINES_IN_EXCEPTION) {
+                lastErrorLines.removeFirst();
+              }
+              lastErrorLines.addLast(line);
+              errorLineConsumer.accept(line);
+            },
+            command);
+
+    if (exitCode != 0) {
+      throw new CommandRunException(exitCode, String.join(StringUtils.LF, lastErrorLines), command);
+    }
+  }
+
+  @Override
+  public Process start(Path workingDir, String... command) {
+    LOG.debug("Starting '{}'", StringUtils.join(command, StringUtils.SPACE));
+    try {
+      return new ProcessBuilder(command)
+          .directory(workingDir.toFile())
+          .redirectError(ProcessBuilder.Redirect.DISCARD)
+          .start();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private int execute(
+      Path workingDir,
+      Consumer<String> outputLineConsumer,
+      Consumer<String> errorLineConsumer,
+      String... command) {
     try {
       ProcessBuilder processBuilder =
           new ProcessBuilder(command)
@@ -27,20 +98,58 @@ public class BasicCommandRunner implements CommandRunner {
 
       LOG.debug("Executing '{}'", StringUtils.join(command, StringUtils.SPACE));
       Process process = processBuilder.start();
-
-      String output =
-          IOUtils.toString(process.getInputStream(), "UTF-8").trim()
-              + IOUtils.toString(process.getErrorStream(), "UTF-8").trim();
-
-      int exitCode = process.waitFor();
-      if (exitCode != 0) {
-        throw new CommandRunException(exitCode, output, command);
+      try {
+        return waitFor(process, outputLineConsumer, errorLineConsumer, command);
+      } finally {
+        process.destroy();
       }
-
-      LOG.debug(output);
-      return StringUtils.defaultIfBlank(output, null);
     } catch (IOException | InterruptedException e) {
       throw new RuntimeException(e);
     }
   }
+
+  private int waitFor(
+      Process process,
+      Consumer<String> outputLineConsumer,
+      Consumer<String> errorLineConsumer,
+      String... command)
+      throws InterruptedException {
+    Object consumersLock = new Object();
+    AtomicReference<RuntimeException> errorDrainFailure = new AtomicReference<>();
+    // Draining stderr apart from stdout prevents the child from blocking on a full pipe
+    Thread errorDrainer =
+        new Thread(
+            () -> {
+              try {
+                drain(process.getErrorStream(), consumersLock, errorLineConsumer);
+              } catch (RuntimeException e) {
+                errorDrainFailure.set(e);
+              }
+            },
+            "vet-stderr-" + command[0]);
+    errorDrainer.setDaemon(true);
+    errorDrainer.start();
+
+    drain(process.getInputStream(), consumersLock, outputLineConsumer);
+    errorDrainer.join();
+    if (errorDrainFailure.get() != null) {
+      throw errorDrainFailure.get();
+    }
+
+    return process.waitFor();
+  }
+
+  private void drain(InputStream inputStream, Object consumersLock, Consumer<String> consumer) {
+    try (BufferedReader reader =
+        new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        synchronized (consumersLock) {
+          consumer.accept(line);
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
 }
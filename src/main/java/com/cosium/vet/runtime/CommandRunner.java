@@ -1,6 +1,7 @@
 package com.cosium.vet.runtime;
 
 import java.nio.file.Path;
+import java.util.function.Consumer;
 
 /**
  * Created on 16/02/18.
@@ -15,4 +16,29 @@ public interface CommandRunner {
    * @return The command output
    */
   String run(Path workingDir, String... command);
+
+  /**
+   * Runs the command without buffering its output. Standard output and error are drained
+   * concurrently. The consumers are never called concurrently.
+   *
+   * @param workingDir The working directory
+   * @param outputLineConsumer Receives each standard output line as soon as it is printed
+   * @param errorLineConsumer Receives each error output line as soon as it is printed
+   * @param command The command to execute
+   */
+  void run(
+      Path workingDir,
+      Consumer<String> outputLineConsumer,
+      Consumer<String> errorLineConsumer,
+      String... command);
+
+  /**
+   * Starts the command without waiting for its completion. The error output of the command is
+   * discarded.
+   *
+   * @param workingDir The working directory
+   * @param command The command to start
+   * @return The started process. The caller is responsible for its termination.
+   */
+  Process start(Path workingDir, String... command);
 }
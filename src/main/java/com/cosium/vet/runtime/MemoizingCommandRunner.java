@@ -0,0 +1,227 @@
+package com.cosium.vet.runtime;
+
+import com.cosium.vet.log.Logger;
+import com.cosium.vet.log.LoggerFactory;
+import com.cosium.vet.thirdparty.apache_commons_lang3.StringUtils;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Memoizes the output of read-only git commands. Any other git command may mutate the repository
+ * and flushes everything memoized so far. Commands that are not git commands are never memoized.
+ *
+ * <p>Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+public class MemoizingCommandRunner implements CommandRunner {
+
+  private static final Logger LOG = LoggerFactory.getLogger(MemoizingCommandRunner.class);
+
+  private static final String GIT = "git";
+
+  /** Subcommands whose output only depends on the repository refs, objects and configuration */
+  private static final Set<String> READ_ONLY_SUBCOMMANDS =
+      Collections.unmodifiableSet(
+          new HashSet<>(
+              Arrays.asList(
+                  "cat-file",
+                  "describe",
+                  "for-each-ref",
+                  "log",
+                  "ls-remote",
+                  "merge-base",
+                  "rev-list",
+                  "rev-parse",
+                  "show",
+                  "show-ref",
+                  "version")));
+
+  /** Subcommands that are neither memoized nor able to change the memoized outputs */
+  private static final Set<String> NEUTRAL_SUBCOMMANDS =
+      Collections.unmodifiableSet(
+          new HashSet<>(
+              Arrays.asList("commit-tree", "diff", "hash-object", "status", "write-tree")));
+
+  private static final Set<String> CONFIG_READ_OPTIONS =
+      Collections.unmodifiableSet(
+          new HashSet<>(
+              Arrays.asList(
+                  "--get", "--get-all", "--get-regexp", "--get-urlmatch", "--list", "-l")));
+
+  private static final Set<String> CONFIG_WRITE_OPTIONS =
+      Collections.unmodifiableSet(
+          new HashSet<>(
+              Arrays.asList(
+                  "--add",
+                  "--edit",
+                  "-e",
+                  "--remove-section",
+                  "--rename-section",
+                  "--replace-all",
+                  "--unset",
+                  "--unset-all")));
+
+  /** Global git options followed by a separate value */
+  private static final Set<String> GIT_OPTIONS_WITH_VALUE =
+      Collections.unmodifiableSet(
+          new HashSet<>(
+              Arrays.asList(
+                  "-C", "-c", "--git-dir", "--work-tree", "--namespace", "--shallow-file")));
+
+  private final CommandRunner delegate;
+  private final Map<List<String>, Optional<String>> outputs = new ConcurrentHashMap<>();
+  private final AtomicLong generation = new AtomicLong();
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+
+  public MemoizingCommandRunner(CommandRunner delegate) {
+    this.delegate = requireNonNull(delegate);
+  }
+
+  @Override
+  public String run(Path workingDir, String... command) {
+    Kind kind = classify(command);
+    if (kind == Kind.MUTATING) {
+      try {
+        return delegate.run(workingDir, command);
+      } finally {
+        flush();
+      }
+    }
+    if (kind == Kind.NEUTRAL) {
+      return delegate.run(workingDir, command);
+    }
+
+    List<String> key = new ArrayList<>(command.length + 1);
+    key.add(workingDir.toAbsolutePath().normalize().toString());
+    key.addAll(Arrays.asList(command));
+
+    Optional<String> memoizedOutput = outputs.get(key);
+    if (memoizedOutput != null) {
+      hitCount.incrementAndGet();
+      LOG.debug("Memoized '{}'", StringUtils.join(command, StringUtils.SPACE));
+      return memoizedOutput.orElse(null);
+    }
+    missCount.incrementAndGet();
+    long startGeneration = generation.get();
+    String output = delegate.run(workingDir, command);
+    // A concurrent mutation may have made the output stale
+    if (generation.get() == startGeneration) {
+      outputs.put(key, Optional.ofNullable(output));
+    }
+    return output;
+  }
+
+  @Override
+  public void run(
+      Path workingDir,
+      Consumer<String> outputLineConsumer,
+      Consumer<String> errorLineConsumer,
+      String... command) {
+    try {
+      delegate.run(workingDir, outputLineConsumer, errorLineConsumer, command);
+    } finally {
+      if (classify(command) == Kind.MUTATING) {
+        flush();
+      }
+    }
+  }
+
+  @Override
+  public Process start(Path workingDir, String... command) {
+    if (classify(command) == Kind.MUTATING) {
+      flush();
+    }
+    return delegate.start(workingDir, command);
+  }
+
+  /** @return The number of commands served from memory */
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  /** @return The number of memoizable commands that had to be run */
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  private void flush() {
+    generation.incrementAndGet();
+    outputs.clear();
+  }
+
+  private static Kind classify(String... command) {
+    if (command.length == 0 || !GIT.equals(command[0])) {
+      return Kind.NEUTRAL;
+    }
+    int index = 1;
+    while (index < command.length && command[index].startsWith("-")) {
+      if (command[index].equals("--version")) {
+        return Kind.READ_ONLY;
+      }
+      index += GIT_OPTIONS_WITH_VALUE.contains(command[index]) ? 2 : 1;
+    }
+    if (index >= command.length) {
+      return Kind.NEUTRAL;
+    }
+    String subcommand = command[index];
+    List<String> arguments = Arrays.asList(command).subList(index + 1, command.length);
+    if (READ_ONLY_SUBCOMMANDS.contains(subcommand)) {
+      return Kind.READ_ONLY;
+    }
+    if (NEUTRAL_SUBCOMMANDS.contains(subcommand)) {
+      return Kind.NEUTRAL;
+    }
+    switch (subcommand) {
+      case "config":
+        return classifyConfig(arguments);
+      case "symbolic-ref":
+        // Reading takes a single name. Writing also takes the target ref.
+        return countPositionals(arguments) == 1 && !arguments.contains("-d")
+            ? Kind.READ_ONLY
+            : Kind.MUTATING;
+      case "remote":
+        return arguments.isEmpty()
+                || arguments.equals(Collections.singletonList("-v"))
+                || arguments.get(0).equals("get-url")
+            ? Kind.READ_ONLY
+            : Kind.MUTATING;
+      default:
+        return Kind.MUTATING;
+    }
+  }
+
+  private static Kind classifyConfig(List<String> arguments) {
+    if (arguments.stream().anyMatch(CONFIG_WRITE_OPTIONS::contains)) {
+      return Kind.MUTATING;
+    }
+    if (arguments.stream().anyMatch(CONFIG_READ_OPTIONS::contains)) {
+      return Kind.READ_ONLY;
+    }
+    return countPositionals(arguments) == 1 ? Kind.READ_ONLY : Kind.MUTATING;
+  }
+
+  private static long countPositionals(List<String> arguments) {
+    return arguments.stream().filter(argument -> !argument.startsWith("-")).count();
+  }
+
+  private enum Kind {
+    READ_ONLY,
+    NEUTRAL,
+    MUTATING
+  }
+}
@@ -0,0 +1,52 @@
+package com.cosium.vet.utils;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A value computed on first use then reused. Safe to share between threads: the value is computed
+ * once.
+ *
+ * <p>Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+public class Lazy<T> implements Supplier<T> {
+
+  private final Supplier<T> supplier;
+  private volatile T value;
+
+  private Lazy(Supplier<T> supplier) {
+    this.supplier = requireNonNull(supplier);
+  }
+
+  /**
+   * @param supplier Computes the value. Called at most once, on first use.
+   * @param <T> The value type
+   * @return The lazy value
+   */
+  public static <T> Lazy<T> of(Supplier<T> supplier) {
+    return new Lazy<>(supplier);
+  }
+
+  @Override
+  public T get() {
+    T result = value;
+    if (result != null) {
+      return result;
+    }
+    synchronized (this) {
+      if (value == null) {
+        value = requireNonNull(supplier.get());
+      }
+      return value;
+    }
+  }
+
+  /** @return The value if it was already computed. Empty otherwise. Never computes the value. */
+  public Optional<T> getIfComputed() {
+    return Optional.ofNullable(value);
+  }
+}
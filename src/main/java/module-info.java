@@ -6,9 +6,11 @@ module com.cosium.vet {
   opens com.cosium.vet.log;
   opens com.cosium.vet.git;
   opens com.cosium.vet.runtime;
+  opens com.cosium.vet.daemon;
   opens com.cosium.vet.utils;
   opens com.cosium.vet.command;
   opens com.cosium.vet.command.autocomplete;
+  opens com.cosium.vet.command.completion;
   opens com.cosium.vet.command.checkout;
   opens com.cosium.vet.command.checkout_new;
   opens com.cosium.vet.command.fire_and_forget;
@@ -8,6 +8,7 @@ import com.cosium.vet.thirdparty.apache_commons_lang3.ArrayUtils;
 import com.cosium.vet.thirdparty.apache_commons_lang3.StringUtils;
 
 import java.nio.file.Path;
+import java.util.function.Consumer;
 
 /**
  * Created on 17/02/18.
@@ -33,6 +34,28 @@ public class TestCommandRunner implements CommandRunner {
 
   @Override
   public String run(Path workingDir, String... command) {
+    return delegate.run(workingDir, wrap(workingDir, command));
+  }
+
+  @Override
+  public void run(
+      Path workingDir,
+      Consumer<String> outputLineConsumer,
+      Consumer<String> errorLineConsumer,
+      String... command) {
+    delegate.run(workingDir, outputLineConsumer, errorLineConsumer, wrap(workingDir, command));
+  }
+
+  @Override
+  public Process start(Path workingDir, String... command) {
+    return delegate.start(workingDir, wrap(workingDir, true, command));
+  }
+
+  private String[] wrap(Path workingDir, String... command) {
+    return wrap(workingDir, false, command);
+  }
+
+  private String[] wrap(Path workingDir, boolean keepStdinOpen, String... command) {
     if ("git".equalsIgnoreCase(command[0])) {
       if (gitAvailable == null) {
         try {
@@ -52,6 +75,9 @@ public class TestCommandRunner implements CommandRunner {
           DOCKER_CMD, "run", "--rm", "-v", String.format("%s:/git", workingDir), "--net", "host"
         };
 
+        if (keepStdinOpen) {
+          gitBaseCommand = ArrayUtils.add(gitBaseCommand, "-i");
+        }
         if (StringUtils.isNotBlank(uid)) {
           gitBaseCommand = ArrayUtils.addAll(gitBaseCommand, "--user", uid);
         }
@@ -59,6 +85,6 @@ public class TestCommandRunner implements CommandRunner {
         command = ArrayUtils.addAll(gitBaseCommand, ArrayUtils.remove(command, 0));
       }
     }
-    return delegate.run(workingDir, command);
+    return command;
   }
 }
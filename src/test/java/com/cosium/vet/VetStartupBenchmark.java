@@ -0,0 +1,92 @@
+package com.cosium.vet;
+
+import com.cosium.vet.git.GitTestRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Measures the time between launching vet and its first byte of output, for '--version',
+ * 'autocomplete' and 'status'. Each command is run in a fresh process, in a clone whose origin
+ * looks like a Gerrit remote. 'status' does not contact the remote.
+ *
+ * <p>Run with 'java -cp ... com.cosium.vet.VetStartupBenchmark [iterations] [vet executable]'.
+ * Without executable, vet is launched from the current classpath.
+ *
+ * <p>Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+public class VetStartupBenchmark {
+
+  private static final int WARMUP_ITERATIONS = 2;
+
+  public static void main(String[] args) throws Exception {
+    int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+    List<String> launcher =
+        args.length > 1
+            ? Collections.singletonList(args[1])
+            : Arrays.asList(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp",
+                System.getProperty("java.class.path"),
+                App.class.getName());
+
+    GitTestRepository testRepository = GitTestRepository.builder().build();
+    testRepository.runner.run(
+        testRepository.repo, "git", "remote", "set-url", "origin", "http://localhost/vet");
+
+    measure(testRepository.repo, launcher, iterations, "--version");
+    measure(testRepository.repo, launcher, iterations, "autocomplete", "-a", "vet pu", "-i", "1");
+    measure(testRepository.repo, launcher, iterations, "status");
+  }
+
+  private static void measure(
+      Path workingDir, List<String> launcher, int iterations, String... vetArgs)
+      throws IOException, InterruptedException {
+    List<String> command = new ArrayList<>(launcher);
+    command.addAll(Arrays.asList(vetArgs));
+
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+      timeToFirstOutput(workingDir, command);
+    }
+    List<Long> durations = new ArrayList<>();
+    for (int i = 0; i < iterations; i++) {
+      durations.add(timeToFirstOutput(workingDir, command));
+    }
+    Collections.sort(durations);
+    System.out.printf(
+        "%-14s min %4d ms, median %4d ms%n",
+        vetArgs[0], durations.get(0), durations.get(durations.size() / 2));
+  }
+
+  /** @return The milliseconds elapsed until the process wrote its first byte */
+  private static long timeToFirstOutput(Path workingDir, List<String> command)
+      throws IOException, InterruptedException {
+    long start = System.nanoTime();
+    Process process =
+        new ProcessBuilder(command)
+            .directory(workingDir.toFile())
+            .redirectErrorStream(true)
+            .start();
+    long elapsed;
+    try (InputStream output = process.getInputStream()) {
+      if (output.read() < 0) {
+        throw new IllegalStateException(command + " did not output anything");
+      }
+      elapsed = System.nanoTime() - start;
+      byte[] buffer = new byte[4096];
+      while (output.read(buffer) >= 0) {
+        // Drain the output so that the process can exit
+      }
+    }
+    process.waitFor();
+    return elapsed / 1_000_000;
+  }
+}
@@ -4,6 +4,8 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
@@ -59,4 +61,20 @@ public class CompositeCommandArgParserUnitTest {
   public void testVersion() {
     tested.parse("--version").execute();
   }
+
+  @Test
+  public void WHEN_asking_version_THEN_parsers_should_not_be_built() {
+    Supplier<List<VetAdvancedCommandArgParser>> parsers = mock(Supplier.class);
+    CompositeCommandArgParser lazyTested =
+        new CompositeCommandArgParser(
+            EXECUTABLE_NAME,
+            parsers,
+            new DebugOptions(Collections.emptyList(), Collections.emptyList()));
+
+    lazyTested.parse("--version");
+    verify(parsers, never()).get();
+
+    when(parsers.get()).thenReturn(Collections.singletonList(stdParser));
+    assertThat(lazyTested.parse(STD_COMMAND_NAME)).isSameAs(vetCommand);
+  }
 }
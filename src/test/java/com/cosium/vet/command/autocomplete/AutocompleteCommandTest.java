@@ -2,13 +2,20 @@ package com.cosium.vet.command.autocomplete;
 
 import com.cosium.vet.command.VetAdvancedCommandArgParser;
 import com.cosium.vet.runtime.UserOutput;
+import com.cosium.vet.thirdparty.apache_commons_cli.Option;
+import com.cosium.vet.thirdparty.apache_commons_cli.Options;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Java6Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
@@ -28,6 +35,8 @@ public class AutocompleteCommandTest {
   private static final String OPT_2 = "opt2";
   private static final String FULL_OPT_2 = "--" + OPT_2;
   private static final List<String> OPTIONS = Arrays.asList(FULL_OPT_1, FULL_OPT_2);
+  private static final String VALUE_OPT = "value-opt";
+  private static final String FULL_VALUE_OPT = "--" + VALUE_OPT;
 
   private UserOutput userOutput;
   private VetAdvancedCommandArgParser parser;
@@ -40,6 +49,12 @@ public class AutocompleteCommandTest {
     parser = mock(VetAdvancedCommandArgParser.class);
     when(parser.getCommandArgName()).thenReturn(COMMAND);
     when(parser.getMatchingOptions(any())).thenReturn(OPTIONS);
+    when(parser.getOptions())
+        .thenReturn(
+            new Options()
+                .addOption(Option.builder().longOpt(OPT_1).build())
+                .addOption(Option.builder().longOpt(OPT_2).build())
+                .addOption(Option.builder("v").longOpt(VALUE_OPT).hasArg().build()));
 
     factory = new AutocompleteCommand.Factory(userOutput, Collections.singletonList(parser));
   }
@@ -67,4 +82,59 @@ public class AutocompleteCommandTest {
     String output = argumentCaptor.getValue();
     assertThat(output).isEqualTo(FULL_OPT_2);
   }
+
+  @Test
+  public void GIVEN_entered_option_taking_a_value_WHEN_autocomplete_THEN_it_should_offer_nothing() {
+    build("vet", COMMAND, FULL_VALUE_OPT, "").execute();
+    build("vet", COMMAND, "-v", "").execute();
+
+    verifyZeroInteractions(userOutput);
+  }
+
+  @Test
+  public void
+      GIVEN_value_provider_WHEN_autocomplete_option_value_THEN_it_should_offer_matching_values() {
+    Map<String, CompletionProvider> valueProviders =
+        Collections.singletonMap(
+            VALUE_OPT,
+            candidateConsumer ->
+                Stream.of("1081", "1082", "2000", "1081").forEach(candidateConsumer));
+    factory =
+        new AutocompleteCommand.Factory(
+            userOutput, Collections.singletonList(parser), valueProviders);
+
+    build("vet", COMMAND, "-v", "10").execute();
+
+    verify(userOutput).display("1081\n1082");
+  }
+
+  @Test
+  public void
+      GIVEN_slow_value_provider_WHEN_autocomplete_option_value_THEN_it_should_offer_values_found_within_budget()
+          throws Exception {
+    CountDownLatch interrupted = new CountDownLatch(1);
+    Map<String, CompletionProvider> valueProviders =
+        Collections.singletonMap(
+            VALUE_OPT,
+            candidateConsumer -> {
+              candidateConsumer.accept("master");
+              try {
+                Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+              } catch (InterruptedException e) {
+                interrupted.countDown();
+                return;
+              }
+              candidateConsumer.accept("develop");
+            });
+    factory =
+        new AutocompleteCommand.Factory(
+            userOutput, Collections.singletonList(parser), valueProviders, Duration.ofMillis(50));
+
+    long start = System.nanoTime();
+    build("vet", COMMAND, FULL_VALUE_OPT, "").execute();
+
+    assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(5));
+    verify(userOutput).display("master");
+    assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+  }
 }
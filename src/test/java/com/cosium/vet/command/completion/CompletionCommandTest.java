@@ -0,0 +1,142 @@
+package com.cosium.vet.command.completion;
+
+import com.cosium.vet.command.VetAdvancedCommandArgParser;
+import com.cosium.vet.runtime.BasicCommandRunner;
+import com.cosium.vet.runtime.UserOutput;
+import com.cosium.vet.thirdparty.apache_commons_cli.Option;
+import com.cosium.vet.thirdparty.apache_commons_cli.Options;
+import com.cosium.vet.utils.OperatingSystem;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assume.assumeFalse;
+import static org.mockito.Mockito.*;
+
+/**
+ * Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+public class CompletionCommandTest {
+
+  private UserOutput userOutput;
+  private CompletionCommandFactory factory;
+
+  @Before
+  public void before() {
+    userOutput = mock(UserOutput.class);
+
+    VetAdvancedCommandArgParser push = mock(VetAdvancedCommandArgParser.class);
+    when(push.getCommandArgName()).thenReturn("push");
+    when(push.getOptions())
+        .thenReturn(
+            new Options()
+                .addOption(Option.builder("w").longOpt("work-in-progress").build())
+                .addOption(Option.builder("s").longOpt("patch-set-subject").hasArg().build())
+                .addOption(Option.builder("t").longOpt("target-branch").hasArg().build()));
+    VetAdvancedCommandArgParser pull = mock(VetAdvancedCommandArgParser.class);
+    when(pull.getCommandArgName()).thenReturn("pull");
+    when(pull.getOptions()).thenReturn(new Options());
+
+    factory =
+        new CompletionCommand.Factory(
+            userOutput, "vet", Arrays.asList(push, pull), Collections.singleton("target-branch"));
+  }
+
+  @Test
+  public void WHEN_completing_the_command_THEN_bash_should_offer_matching_commands()
+      throws Exception {
+    assertThat(complete("vet", "pu")).isEqualTo("push pull");
+    assertThat(complete("vet", "pus")).isEqualTo("push");
+  }
+
+  @Test
+  public void WHEN_completing_options_THEN_bash_should_offer_the_options_not_typed_yet()
+      throws Exception {
+    assertThat(complete("vet", "push", ""))
+        .isEqualTo("--work-in-progress --patch-set-subject --target-branch");
+    assertThat(complete("vet", "push", "--work-in-progress", "--p"))
+        .isEqualTo("--patch-set-subject");
+    assertThat(complete("vet", "pull", "")).isNullOrEmpty();
+  }
+
+  @Test
+  public void WHEN_completing_a_dynamic_option_value_THEN_bash_should_ask_vet() throws Exception {
+    assertThat(complete("vet", "push", "-t", "")).isEqualTo("autocomplete -a vet push -t -i 3");
+    assertThat(complete("vet", "push", "--target-branch", ""))
+        .isEqualTo("autocomplete -a vet push --target-branch -i 3");
+  }
+
+  @Test
+  public void WHEN_completing_another_option_value_THEN_bash_should_offer_nothing()
+      throws Exception {
+    assertThat(complete("vet", "push", "-s", "")).isNullOrEmpty();
+    assertThat(complete("vet", "push", "--patch-set-subject", "")).isNullOrEmpty();
+  }
+
+  @Test
+  public void WHEN_generating_zsh_script_THEN_it_should_contain_commands_and_options() {
+    String script = script(Shell.ZSH);
+
+    assertThat(script)
+        .startsWith("#compdef vet")
+        .contains("compadd -- push pull")
+        .contains("      options=(--work-in-progress --patch-set-subject --target-branch)")
+        .contains("      value_options=(-s --patch-set-subject -t --target-branch)")
+        .contains("      dynamic_value_options=(-t --target-branch)")
+        .contains("vet autocomplete -a");
+  }
+
+  @Test
+  public void WHEN_parsing_shell_THEN_it_should_build_the_matching_command() {
+    CompletionCommandFactory factory = mock(CompletionCommandFactory.class);
+    CompletionCommandArgParser parser = new CompletionCommandArgParser(factory);
+
+    parser.parse("completion", "zsh");
+
+    verify(factory).build(Shell.ZSH);
+    assertThatThrownBy(() -> parser.parse("completion", "fish"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("bash, zsh");
+    assertThatThrownBy(() -> parser.parse("completion"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private String script(Shell shell) {
+    factory.build(shell).execute();
+    ArgumentCaptor<String> argumentCaptor = ArgumentCaptor.forClass(String.class);
+    verify(userOutput).display(argumentCaptor.capture());
+    reset(userOutput);
+    return argumentCaptor.getValue();
+  }
+
+  /** Runs the bash script with the last word highlighted, vet printing its arguments */
+  private String complete(String... words) throws Exception {
+    assumeFalse(new OperatingSystem().isWindows());
+    Path script = Files.createTempFile("vet_", ".sh");
+    Files.write(script, script(Shell.BASH).getBytes(StandardCharsets.UTF_8));
+    String wordArray =
+        Arrays.stream(words).map(word -> "'" + word + "'").reduce((a, b) -> a + " " + b).get();
+    return new BasicCommandRunner()
+        .run(
+            script.getParent(),
+            "bash",
+            "-c",
+            "source '"
+                + script
+                + "'; vet() { echo \"$@\"; }; COMP_WORDS=("
+                + wordArray
+                + "); COMP_CWORD="
+                + (words.length - 1)
+                + "; _vet; echo \"${COMPREPLY[*]}\"");
+  }
+}
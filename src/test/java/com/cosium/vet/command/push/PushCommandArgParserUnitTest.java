@@ -5,7 +5,10 @@ import com.cosium.vet.gerrit.PatchSubject;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.time.Duration;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
@@ -24,7 +27,8 @@ public class PushCommandArgParserUnitTest {
   @Before
   public void before() {
     factory = mock(PushCommandFactory.class);
-    when(factory.build(any(), any(), any(), any(), any())).thenReturn(mock(PushCommand.class));
+    when(factory.build(any(), any(), any(), any(), any(), any(), any()))
+        .thenReturn(mock(PushCommand.class));
     tested = new PushCommandArgParser(factory);
   }
 
@@ -41,49 +45,105 @@ public class PushCommandArgParserUnitTest {
   @Test
   public void testPatchSetSubjectShort() {
     tested.parse("push", "-s", "hello");
-    verify(factory).build(isNull(), isNull(), eq(PatchSubject.of("hello")), isNull(), isNull());
+    verify(factory)
+        .build(
+            isNull(),
+            isNull(),
+            eq(PatchSubject.of("hello")),
+            isNull(),
+            isNull(),
+            isNull(),
+            isNull());
   }
 
   @Test
   public void testPatchSetSubjectLong() {
     tested.parse("push", "--patch-set-subject", "hello");
-    verify(factory).build(isNull(), isNull(), eq(PatchSubject.of("hello")), isNull(), isNull());
+    verify(factory)
+        .build(
+            isNull(),
+            isNull(),
+            eq(PatchSubject.of("hello")),
+            isNull(),
+            isNull(),
+            isNull(),
+            isNull());
   }
 
   @Test
   public void testPublishDraftedCommentsShort() {
     tested.parse("push", "-p");
-    verify(factory).build(eq(true), isNull(), isNull(), isNull(), isNull());
+    verify(factory).build(eq(true), isNull(), isNull(), isNull(), isNull(), isNull(), isNull());
   }
 
   @Test
   public void testPublishDraftedCommentsLong() {
     tested.parse("push", "--publish-drafted-comments");
-    verify(factory).build(eq(true), isNull(), isNull(), isNull(), isNull());
+    verify(factory).build(eq(true), isNull(), isNull(), isNull(), isNull(), isNull(), isNull());
   }
 
   @Test
   public void testWipShort() {
     tested.parse("push", "-w");
-    verify(factory).build(isNull(), eq(true), isNull(), isNull(), isNull());
+    verify(factory).build(isNull(), eq(true), isNull(), isNull(), isNull(), isNull(), isNull());
   }
 
   @Test
   public void testWipLong() {
     tested.parse("push", "--work-in-progress");
-    verify(factory).build(isNull(), eq(true), isNull(), isNull(), isNull());
+    verify(factory).build(isNull(), eq(true), isNull(), isNull(), isNull(), isNull(), isNull());
   }
 
   @Test
   public void testBypassReviewShort() {
     tested.parse("push", "-f");
-    verify(factory).build(isNull(), isNull(), isNull(), eq(true), isNull());
+    verify(factory).build(isNull(), isNull(), isNull(), eq(true), isNull(), isNull(), isNull());
   }
 
   @Test
   public void testBypassReviewLong() {
     tested.parse("push", "--bypass-review");
-    verify(factory).build(isNull(), isNull(), isNull(), eq(true), isNull());
+    verify(factory).build(isNull(), isNull(), isNull(), eq(true), isNull(), isNull(), isNull());
+  }
+
+  @Test
+  public void testMaxBaseAgeShort() {
+    tested.parse("push", "-a", "300");
+    verify(factory)
+        .build(
+            isNull(),
+            isNull(),
+            isNull(),
+            isNull(),
+            isNull(),
+            eq(Duration.ofSeconds(300)),
+            isNull());
+  }
+
+  @Test
+  public void testMaxBaseAgeLong() {
+    tested.parse("push", "--max-base-age", "300");
+    verify(factory)
+        .build(
+            isNull(),
+            isNull(),
+            isNull(),
+            isNull(),
+            isNull(),
+            eq(Duration.ofSeconds(300)),
+            isNull());
+  }
+
+  @Test
+  public void testInvalidMaxBaseAge() {
+    assertThatThrownBy(() -> tested.parse("push", "--max-base-age", "5m"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void testForce() {
+    tested.parse("push", "--force");
+    verify(factory).build(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), eq(true));
   }
 
   @Test
@@ -95,7 +155,15 @@ public class PushCommandArgParserUnitTest {
         "--publish-drafted-comments",
         "--work-in-progress",
         "--bypass-review");
-    verify(factory).build(eq(true), eq(true), eq(PatchSubject.of("hello")), eq(true), isNull());
+    verify(factory)
+        .build(
+            eq(true),
+            eq(true),
+            eq(PatchSubject.of("hello")),
+            eq(true),
+            isNull(),
+            isNull(),
+            isNull());
   }
 
   @Test
@@ -3,12 +3,19 @@ package com.cosium.vet.command.push;
 import com.cosium.vet.gerrit.Change;
 import com.cosium.vet.gerrit.ChangeRepository;
 import com.cosium.vet.gerrit.ChangeRepositoryFactory;
+import com.cosium.vet.gerrit.CodeReviewVote;
+import com.cosium.vet.gerrit.PatchOptions;
+import com.cosium.vet.gerrit.PatchSubject;
+import com.cosium.vet.git.BranchShortName;
 import com.cosium.vet.runtime.UserOutput;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
+import java.time.Duration;
 import java.util.Optional;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
 /**
@@ -19,6 +26,7 @@ import static org.mockito.Mockito.*;
 public class PushCommandUnitTest {
 
   private ChangeRepository changeRepository;
+  private Change change;
   private UserOutput userOutput;
 
   private PushCommandFactory factory;
@@ -28,7 +36,7 @@ public class PushCommandUnitTest {
     ChangeRepositoryFactory changeRepositoryFactory = mock(ChangeRepositoryFactory.class);
     changeRepository = mock(ChangeRepository.class);
     when(changeRepositoryFactory.build()).thenReturn(changeRepository);
-    Change change = mock(Change.class);
+    change = mock(Change.class);
     when(changeRepository.getTrackedChange()).thenReturn(Optional.of(change));
 
     userOutput = mock(UserOutput.class);
@@ -38,8 +46,96 @@ public class PushCommandUnitTest {
 
   @Test
   public void WHEN_no_tracked_change_THEN_it_display_a_message_and_does_nothing() {
-    PushCommand pushCommand = factory.build(null, null, null, null, null);
+    PushCommand pushCommand = factory.build(null, null, null, null, null, null, null);
     pushCommand.execute();
     verify(userOutput).display(anyString());
   }
+
+  @Test
+  public void GIVEN_up_to_date_change_WHEN_pushing_THEN_it_should_display_a_message_and_not_push() {
+    when(change.isUpToDate()).thenReturn(true);
+    when(change.getWebUrl()).thenReturn("https://foo.bar/1234");
+
+    factory.build(null, null, null, null, null, null, null).execute();
+
+    verify(change, never()).createPatch(any());
+    verify(userOutput)
+        .display(
+            "Nothing changed since the last patch set pushed from this clone to https://foo.bar/1234. Nothing was pushed. Use --force to push anyway.");
+  }
+
+  @Test
+  public void GIVEN_up_to_date_change_WHEN_force_pushing_THEN_it_should_push() {
+    when(change.isUpToDate()).thenReturn(true);
+
+    factory.build(null, null, null, null, null, null, true).execute();
+
+    verify(change).createPatch(any());
+  }
+
+  private PatchOptions pushUpToDateChange(PushCommand pushCommand) {
+    when(change.isUpToDate()).thenReturn(true);
+
+    pushCommand.execute();
+
+    ArgumentCaptor<PatchOptions> patchOptions = ArgumentCaptor.forClass(PatchOptions.class);
+    verify(change).createPatch(patchOptions.capture());
+    return patchOptions.getValue();
+  }
+
+  @Test
+  public void GIVEN_up_to_date_change_WHEN_pushing_with_bypass_review_THEN_it_should_push() {
+    PatchOptions patchOptions =
+        pushUpToDateChange(factory.build(null, null, null, true, null, null, null));
+    assertThat(patchOptions.buildGitPushTarget("foo", BranchShortName.MASTER)).contains("submit");
+  }
+
+  @Test
+  public void GIVEN_up_to_date_change_WHEN_pushing_with_a_vote_THEN_it_should_push() {
+    PatchOptions patchOptions =
+        pushUpToDateChange(
+            factory.build(null, null, null, null, CodeReviewVote.of("+1"), null, null));
+    assertThat(patchOptions.buildGitPushTarget("foo", BranchShortName.MASTER))
+        .contains("l=Code-Review+1");
+  }
+
+  @Test
+  public void
+      GIVEN_up_to_date_change_WHEN_pushing_with_drafted_comments_publication_THEN_it_should_push() {
+    PatchOptions patchOptions =
+        pushUpToDateChange(factory.build(true, null, null, null, null, null, null));
+    assertThat(patchOptions.buildGitPushTarget("foo", BranchShortName.MASTER))
+        .contains("publish-comments");
+  }
+
+  @Test
+  public void GIVEN_up_to_date_change_WHEN_pushing_as_work_in_progress_THEN_it_should_push() {
+    PatchOptions patchOptions =
+        pushUpToDateChange(factory.build(null, true, null, null, null, null, null));
+    assertThat(patchOptions.buildGitPushTarget("foo", BranchShortName.MASTER)).contains("wip");
+  }
+
+  @Test
+  public void GIVEN_up_to_date_change_WHEN_pushing_with_a_subject_THEN_it_should_push() {
+    PatchOptions patchOptions =
+        pushUpToDateChange(
+            factory.build(null, null, PatchSubject.of("Hello"), null, null, null, null));
+    assertThat(patchOptions.buildGitPushTarget("foo", BranchShortName.MASTER)).contains("m=Hello");
+  }
+
+  @Test
+  public void GIVEN_up_to_date_change_WHEN_pushing_with_a_max_base_age_THEN_it_should_not_push() {
+    when(change.isUpToDate()).thenReturn(true);
+
+    factory.build(null, null, null, null, null, Duration.ofSeconds(10), null).execute();
+
+    verify(change, never()).createPatch(any());
+  }
+
+  @Test
+  public void GIVEN_changed_change_WHEN_pushing_THEN_it_should_push() {
+    factory.build(null, null, null, null, null, null, null).execute();
+
+    verify(change).createPatch(any());
+  }
 }
@@ -0,0 +1,237 @@
+package com.cosium.vet.daemon;
+
+import com.cosium.vet.App;
+import com.cosium.vet.git.GitTestRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+public class DaemonServerTest {
+
+  private static final String VERSION = "1.0";
+  private static final Map<String, String> ENVIRONMENT = Collections.singletonMap("HOME", "/foo");
+
+  private DaemonRegistry registry;
+  private Path workingDir;
+  private DaemonServer server;
+  private Thread serverThread;
+
+  @Before
+  public void before() throws Exception {
+    registry = new DaemonRegistry(Files.createTempDirectory("vet_"), VERSION, ENVIRONMENT);
+    workingDir = Files.createTempDirectory("vet_");
+  }
+
+  @After
+  public void after() throws Exception {
+    if (server != null) {
+      server.close();
+      serverThread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+  }
+
+  @Test
+  public void WHEN_running_a_command_THEN_it_should_use_the_client_streams_and_directory()
+      throws Exception {
+    startServer(
+        Duration.ofMinutes(1),
+        (args, workingDir) -> {
+          try {
+            String line = new BufferedReader(new InputStreamReader(System.in)).readLine();
+            System.out.println(String.join(" ", args) + " " + line + " in " + workingDir);
+            System.err.println("warning");
+          } catch (Exception e) {
+            throw new RuntimeException(e);
+          }
+          return 3;
+        });
+    ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+    ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+
+    OptionalInt status =
+        client(VERSION)
+            .run(
+                new String[] {"push", "-w"},
+                workingDir,
+                new ByteArrayInputStream("yes\n".getBytes(StandardCharsets.UTF_8)),
+                stdout,
+                stderr);
+
+    assertThat(status).hasValue(3);
+    assertThat(stdout.toString("UTF-8"))
+        .isEqualTo("push -w yes in " + workingDir + System.lineSeparator());
+    assertThat(stderr.toString("UTF-8")).isEqualTo("warning" + System.lineSeparator());
+  }
+
+  @Test
+  public void WHEN_git_needs_to_prompt_THEN_the_client_should_run_the_command_itself()
+      throws Exception {
+    startServer(Duration.ofMinutes(1), (args, workingDir) -> App.PROMPT_REQUIRED_STATUS);
+    ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+
+    OptionalInt status =
+        client(VERSION)
+            .run(
+                new String[] {"push"},
+                workingDir,
+                new ByteArrayInputStream(new byte[0]),
+                new ByteArrayOutputStream(),
+                stderr);
+
+    assertThat(status).isEmpty();
+    assertThat(stderr.toString("UTF-8")).contains("outside of the vet daemon");
+  }
+
+  @Test
+  public void WHEN_no_daemon_is_registered_THEN_the_client_should_start_one() throws Exception {
+    DaemonClient client =
+        new DaemonClient(
+            registry,
+            VERSION,
+            ENVIRONMENT,
+            () -> startServer(Duration.ofMinutes(1), (args, workingDir) -> 0));
+
+    assertThat(run(client)).hasValue(0);
+    assertThat(registry.read()).isPresent();
+  }
+
+  @Test
+  public void WHEN_the_daemon_is_busy_THEN_the_client_should_give_up() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    startServer(
+        Duration.ofMinutes(1),
+        (args, workingDir) -> {
+          started.countDown();
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          return 0;
+        });
+    Thread firstClient = new Thread(() -> run(client(VERSION)));
+    firstClient.start();
+    assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+    assertThat(run(client(VERSION))).isEmpty();
+
+    release.countDown();
+    firstClient.join();
+  }
+
+  @Test
+  public void WHEN_versions_differ_THEN_the_daemon_should_reject_the_client() throws Exception {
+    startServer(Duration.ofMinutes(1), (args, workingDir) -> 0);
+
+    assertThat(run(client("2.0"))).isEmpty();
+  }
+
+  @Test
+  public void WHEN_idle_for_too_long_THEN_the_daemon_should_stop_and_unregister() throws Exception {
+    startServer(Duration.ofMillis(100), (args, workingDir) -> 0);
+
+    serverThread.join(TimeUnit.SECONDS.toMillis(5));
+
+    assertThat(serverThread.isAlive()).isFalse();
+    assertThat(registry.read()).isEmpty();
+  }
+
+  @Test
+  public void WHEN_running_commands_THEN_their_git_processes_should_be_stopped() throws Exception {
+    GitTestRepository testRepository = GitTestRepository.builder().build();
+    testRepository.runner.run(
+        testRepository.repo, "git", "remote", "set-url", "origin", "http://localhost/vet");
+    startServer(Duration.ofMinutes(1), App::run);
+    long catFileProcesses = countCatFileProcesses();
+
+    for (int i = 0; i < 3; i++) {
+      // Reads objects before failing to reach the remote
+      client(VERSION)
+          .run(
+              new String[] {"new", "-t", "master"},
+              testRepository.repo,
+              new ByteArrayInputStream(new byte[0]),
+              new ByteArrayOutputStream(),
+              new ByteArrayOutputStream());
+    }
+
+    // Stopping a process is asynchronous
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (countCatFileProcesses() > catFileProcesses && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(countCatFileProcesses()).isEqualTo(catFileProcesses);
+  }
+
+  @Test
+  public void testReadIdleTimeout() {
+    assertThat(DaemonServer.readIdleTimeout("30")).isEqualTo(Duration.ofMinutes(30));
+    assertThat(DaemonServer.readIdleTimeout(null)).isEqualTo(Duration.ofHours(3));
+    assertThat(DaemonServer.readIdleTimeout("foo")).isEqualTo(Duration.ofHours(3));
+  }
+
+  private DaemonClient client(String version) {
+    return new DaemonClient(registry, version, ENVIRONMENT, () -> {});
+  }
+
+  private OptionalInt run(DaemonClient client) {
+    return client.run(
+        new String[0],
+        workingDir,
+        new ByteArrayInputStream(new byte[0]),
+        new ByteArrayOutputStream(),
+        new ByteArrayOutputStream());
+  }
+
+  private static long countCatFileProcesses() {
+    return ProcessHandle.current()
+        .descendants()
+        .filter(ProcessHandle::isAlive)
+        .filter(process -> process.info().commandLine().orElse("").contains("cat-file"))
+        .count();
+  }
+
+  private void startServer(Duration idleTimeout, DaemonServer.Command command) {
+    try {
+      server = new DaemonServer(registry, VERSION, ENVIRONMENT, idleTimeout, command);
+      serverThread =
+          new Thread(
+              () -> {
+                try {
+                  server.serve();
+                } catch (Exception e) {
+                  throw new RuntimeException(e);
+                }
+              });
+      serverThread.start();
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (!registry.read().isPresent() && System.nanoTime() < deadline) {
+        Thread.sleep(10);
+      }
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
+}
@@ -0,0 +1,104 @@
+package com.cosium.vet.gerrit;
+
+import com.cosium.vet.git.BranchShortName;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+/**
+ * Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+public class CachingPatchSetRepositoryTest {
+
+  private static final ChangeNumericId _1081 = ChangeNumericId.of(1081);
+  private static final ChangeNumericId _1048 = ChangeNumericId.of(1048);
+
+  private PatchSetRepository delegate;
+  private CachingPatchSetRepository tested;
+
+  @Before
+  public void before() {
+    delegate = mock(PatchSetRepository.class);
+    tested = new CachingPatchSetRepository(delegate);
+  }
+
+  @Test
+  public void WHEN_retrieving_latest_patch_twice_THEN_the_delegate_should_be_called_once() {
+    Patch patch = patch(_1081, 2);
+    when(delegate.findLastestPatch(_1081)).thenReturn(Optional.of(patch));
+
+    assertThat(tested.findLastestPatch(_1081)).contains(patch);
+    assertThat(tested.findLastestPatch(_1081)).contains(patch);
+    verify(delegate, times(1)).findLastestPatch(_1081);
+  }
+
+  @Test
+  public void GIVEN_missing_change_WHEN_retrieving_latest_patch_twice_THEN_absence_is_cached() {
+    when(delegate.findLastestPatch(_1081)).thenReturn(Optional.empty());
+
+    assertThat(tested.findLastestPatch(_1081)).isEmpty();
+    assertThat(tested.findLastestPatch(_1081)).isEmpty();
+    verify(delegate, times(1)).findLastestPatch(_1081);
+  }
+
+  @Test
+  public void GIVEN_retrieved_latest_patch_2_WHEN_retrieving_patch_2_THEN_it_should_be_cached() {
+    Patch patch = patch(_1081, 2);
+    when(delegate.findLastestPatch(_1081)).thenReturn(Optional.of(patch));
+
+    tested.findLastestPatch(_1081);
+    assertThat(tested.findPatch(_1081, 2)).isSameAs(patch);
+    verify(delegate, never()).findPatch(any(), anyInt());
+  }
+
+  @Test
+  public void WHEN_creating_patch_THEN_only_the_patched_change_should_be_forgotten() {
+    Patch patch1081 = patch(_1081, 2);
+    Patch patch1048 = patch(_1048, 1);
+    when(delegate.findLastestPatch(_1081)).thenReturn(Optional.of(patch1081));
+    when(delegate.findLastestPatch(_1048)).thenReturn(Optional.of(patch1048));
+    CreatedPatch createdPatch = mock(CreatedPatch.class);
+    when(createdPatch.getChangeNumericId()).thenReturn(_1081);
+    when(delegate.createPatch(BranchShortName.MASTER, _1081, PatchOptions.DEFAULT))
+        .thenReturn(createdPatch);
+
+    tested.findLastestPatch(_1081);
+    tested.findLastestPatch(_1048);
+    tested.createPatch(BranchShortName.MASTER, _1081, PatchOptions.DEFAULT);
+    tested.findLastestPatch(_1081);
+    tested.findLastestPatch(_1048);
+
+    verify(delegate, times(2)).findLastestPatch(_1081);
+    verify(delegate, times(1)).findLastestPatch(_1048);
+  }
+
+  @Test
+  public void WHEN_patch_creation_fails_THEN_the_patched_change_should_be_forgotten() {
+    Patch patch = patch(_1081, 2);
+    when(delegate.findLastestPatch(_1081)).thenReturn(Optional.of(patch));
+    when(delegate.createPatch(BranchShortName.MASTER, _1081, PatchOptions.DEFAULT))
+        .thenThrow(new RuntimeException("Push failed"));
+
+    tested.findLastestPatch(_1081);
+    assertThatThrownBy(
+            () -> tested.createPatch(BranchShortName.MASTER, _1081, PatchOptions.DEFAULT))
+        .hasMessage("Push failed");
+    tested.findLastestPatch(_1081);
+
+    verify(delegate, times(2)).findLastestPatch(_1081);
+  }
+
+  private static Patch patch(ChangeNumericId changeNumericId, int number) {
+    Patch patch = mock(Patch.class);
+    when(patch.getChangeNumericId()).thenReturn(changeNumericId);
+    when(patch.getNumber()).thenReturn(number);
+    return patch;
+  }
+}
@@ -0,0 +1,75 @@
+package com.cosium.vet.gerrit;
+
+import com.cosium.vet.git.RevisionId;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+public class ChangeIndexTest {
+
+  private static final RevisionId SHA1 = RevisionId.of("9dfc574e74ade12285512dad12172c533c5ff96f");
+  private static final RevisionId OTHER_SHA1 =
+      RevisionId.of("9ac5ea128e339acc2e372f3df7277e316167dfe8");
+  private static final RevisionId SHA256 =
+      RevisionId.of("6b2d6b5d4e1a4bb0a2b5f32fbd5d51d6a4b2f6a3b9fd1b2d2c6e7cbd0f7a9c11");
+
+  private Path file;
+  private ChangeIndex tested;
+
+  @Before
+  public void before() throws Exception {
+    file = Files.createTempDirectory("vet_").resolve("vet").resolve("changes.idx");
+    tested = new ChangeIndex(() -> file);
+  }
+
+  @Test
+  public void GIVEN_no_index_file_WHEN_finding_THEN_it_should_return_empty() {
+    assertThat(tested.find(ChangeNumericId.of(1081))).isEmpty();
+  }
+
+  @Test
+  public void GIVEN_indexed_changes_WHEN_finding_THEN_it_should_return_their_entries() {
+    tested.put(ChangeNumericId.of(1081), 3, SHA1);
+    tested.put(ChangeNumericId.of(12), 1, OTHER_SHA1);
+    tested.put(ChangeNumericId.of(5000000000L), 7, SHA256);
+
+    assertThat(tested.find(ChangeNumericId.of(1081))).contains(new ChangeIndex.Entry(3, SHA1));
+    assertThat(tested.find(ChangeNumericId.of(12))).contains(new ChangeIndex.Entry(1, OTHER_SHA1));
+    assertThat(tested.find(ChangeNumericId.of(5000000000L)))
+        .contains(new ChangeIndex.Entry(7, SHA256));
+    assertThat(tested.find(ChangeNumericId.of(13))).isEmpty();
+  }
+
+  @Test
+  public void GIVEN_indexed_change_WHEN_putting_it_again_THEN_it_should_be_replaced()
+      throws Exception {
+    tested.put(ChangeNumericId.of(1081), 3, SHA1);
+    long size = Files.size(file);
+
+    tested.put(ChangeNumericId.of(1081), 4, OTHER_SHA1);
+
+    assertThat(tested.find(ChangeNumericId.of(1081)))
+        .contains(new ChangeIndex.Entry(4, OTHER_SHA1));
+    assertThat(Files.size(file)).isEqualTo(size);
+  }
+
+  @Test
+  public void GIVEN_corrupted_index_file_WHEN_using_it_THEN_it_should_be_rebuilt()
+      throws Exception {
+    Files.createDirectories(file.getParent());
+    Files.write(file, new byte[] {1, 2, 3});
+
+    assertThat(tested.find(ChangeNumericId.of(1081))).isEmpty();
+    tested.put(ChangeNumericId.of(1081), 3, SHA1);
+    assertThat(tested.find(ChangeNumericId.of(1081))).contains(new ChangeIndex.Entry(3, SHA1));
+  }
+}
@@ -36,4 +36,10 @@ public class ChangeNumericIdTest {
     assertThat(numericId.branchRefName(patch))
         .isEqualTo(BranchRefName.of("refs/changes/34/1234/5"));
   }
+
+  @Test
+  public void testBranchRefNamePrefix() {
+    assertThat(ChangeNumericId.of(1234).branchRefNamePrefix()).isEqualTo("refs/changes/34/1234/");
+    assertThat(ChangeNumericId.of(5).branchRefNamePrefix()).isEqualTo("refs/changes/05/5/");
+  }
 }
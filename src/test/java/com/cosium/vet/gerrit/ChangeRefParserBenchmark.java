@@ -0,0 +1,114 @@
+package com.cosium.vet.gerrit;
+
+import com.cosium.vet.git.BranchRef;
+import com.cosium.vet.git.BranchRefName;
+import com.cosium.vet.git.RevisionId;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Measures the heap allocated per advertised ref when looking for the latest patch sets, with the
+ * former regex based parsing and with {@link ChangeRefParser} folding into a {@link PatchSetTable}.
+ * The ref lines themselves are built beforehand and are not counted.
+ *
+ * <p>Run with 'java -cp ... com.cosium.vet.gerrit.ChangeRefParserBenchmark [ref count]'.
+ *
+ * <p>Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+public class ChangeRefParserBenchmark {
+
+  private static final Pattern BRANCH_REF_CHANGE_PATTERN =
+      Pattern.compile("refs/changes/\\d{2}/(\\d+)/(\\d+)");
+  private static final Pattern REF_PATTERN = Pattern.compile("(.*?)\\s+(.*?)$");
+  private static final int ITERATIONS = 5;
+
+  public static void main(String[] args) {
+    int refCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    List<String> lines = buildLines(refCount);
+
+    for (int i = 0; i < ITERATIONS; i++) {
+      long regexBytes = measure(() -> parseWithRegex(lines));
+      long parserBytes = measure(() -> parseWithParser(lines));
+      System.out.printf(
+          "Iteration %d: regex %.1f bytes/ref, parser %.1f bytes/ref%n",
+          i + 1, (double) regexBytes / refCount, (double) parserBytes / refCount);
+    }
+  }
+
+  private static List<String> buildLines(int refCount) {
+    List<String> lines = new ArrayList<>(refCount);
+    int changeCount = Math.max(1, refCount / 4);
+    for (int i = 0; i < refCount; i++) {
+      long changeId = 1 + (i % changeCount);
+      int patchNumber = 1 + i / changeCount;
+      String shard = String.format("%02d", changeId % 100);
+      lines.add(
+          String.format(
+              "%040x\trefs/changes/%s/%d/%d", (long) i * 7919, shard, changeId, patchNumber));
+    }
+    return lines;
+  }
+
+  private static long measure(Runnable runnable) {
+    com.sun.management.ThreadMXBean threadMXBean =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long threadId = Thread.currentThread().getId();
+    long before = threadMXBean.getThreadAllocatedBytes(threadId);
+    runnable.run();
+    return threadMXBean.getThreadAllocatedBytes(threadId) - before;
+  }
+
+  private static int parseWithRegex(List<String> lines) {
+    List<BranchRef> refs = new ArrayList<>();
+    for (String line : lines) {
+      Matcher matcher = REF_PATTERN.matcher(line);
+      if (matcher.find()) {
+        refs.add(
+            new BranchRef(RevisionId.of(matcher.group(1)), BranchRefName.of(matcher.group(2))));
+      }
+    }
+    return refs.stream()
+        .map(
+            ref -> {
+              Matcher matcher =
+                  BRANCH_REF_CHANGE_PATTERN.matcher(ref.getBranchRefName().toString());
+              if (!matcher.find()) {
+                return Optional.<long[]>empty();
+              }
+              return Optional.of(
+                  new long[] {
+                    ChangeNumericId.of(Long.parseLong(matcher.group(1))).longValue(),
+                    Integer.parseInt(matcher.group(2))
+                  });
+            })
+        .filter(Optional::isPresent)
+        .map(Optional::get)
+        .collect(Collectors.groupingBy(ref -> ref[0]))
+        .values()
+        .stream()
+        .map(refsOfChange -> refsOfChange.stream().max(Comparator.comparingLong(ref -> ref[1])))
+        .mapToInt(ref -> ref.isPresent() ? 1 : 0)
+        .sum();
+  }
+
+  private static int parseWithParser(List<String> lines) {
+    PatchSetTable patchSets = new PatchSetTable();
+    ChangeRefParser parser = new ChangeRefParser();
+    for (String line : lines) {
+      if (parser.parse(line)) {
+        patchSets.offer(
+            parser.getChangeId(), parser.getPatchNumber(), line, parser.getRevisionEnd());
+      }
+    }
+    return patchSets.size();
+  }
+}
@@ -0,0 +1,52 @@
+package com.cosium.vet.gerrit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+public class ChangeRefParserTest {
+
+  private static final String REVISION = "9dfc574e74ade12285512dad12172c533c5ff96f";
+
+  private ChangeRefParser tested;
+
+  @Before
+  public void before() {
+    tested = new ChangeRefParser();
+  }
+
+  @Test
+  public void GIVEN_patch_set_ref_WHEN_parsing_THEN_it_should_read_change_id_and_patch_number() {
+    String line = REVISION + "\trefs/changes/81/1081/3";
+    assertThat(tested.parse(line)).isTrue();
+    assertThat(tested.getChangeId()).isEqualTo(1081);
+    assertThat(tested.getPatchNumber()).isEqualTo(3);
+    assertThat(line.substring(0, tested.getRevisionEnd())).isEqualTo(REVISION);
+  }
+
+  @Test
+  public void GIVEN_space_separated_patch_set_ref_WHEN_parsing_THEN_it_should_be_accepted() {
+    assertThat(tested.parse(REVISION + "   refs/changes/05/5/12")).isTrue();
+    assertThat(tested.getChangeId()).isEqualTo(5);
+    assertThat(tested.getPatchNumber()).isEqualTo(12);
+  }
+
+  @Test
+  public void GIVEN_other_refs_WHEN_parsing_THEN_they_should_be_rejected() {
+    assertThat(tested.parse(REVISION + "\tHEAD")).isFalse();
+    assertThat(tested.parse(REVISION + "\trefs/heads/master")).isFalse();
+    assertThat(tested.parse(REVISION + "\trefs/changes/81/1081/meta")).isFalse();
+    assertThat(tested.parse(REVISION + "\trefs/changes/81/1081/")).isFalse();
+    assertThat(tested.parse(REVISION + "\trefs/changes/811/1081/1")).isFalse();
+    assertThat(tested.parse(REVISION + "\trefs/changes/81/1081/1/foo")).isFalse();
+    assertThat(tested.parse(REVISION + "\trefs/changes/81/99999999999999999999/1")).isFalse();
+    assertThat(tested.parse("\trefs/changes/81/1081/1")).isFalse();
+    assertThat(tested.parse("")).isFalse();
+  }
+}
@@ -3,10 +3,14 @@ package com.cosium.vet.gerrit;
 import com.cosium.vet.gerrit.config.GerritConfiguration;
 import com.cosium.vet.gerrit.config.GerritConfigurationRepository;
 import com.cosium.vet.git.BranchShortName;
+import com.cosium.vet.git.CommitMessage;
 import com.cosium.vet.git.GitClient;
+import com.cosium.vet.git.RemoteName;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.InOrder;
 
+import java.util.Arrays;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
@@ -85,4 +89,45 @@ public class DefaultGerritChangeRepositoryUnitTest {
     verify(lastSavedConfiguration.get()).setTrackedChangeNumericId(_1234);
     verify(lastSavedConfiguration.get()).setTrackedChangeTargetBranch(BranchShortName.MASTER);
   }
+
+  @Test
+  public void
+      GIVEN_change_1234_at_patch_2_WHEN_track_change_1234_THEN_it_should_store_its_change_id_and_patch_number() {
+    ChangeNumericId _1234 = ChangeNumericId.of(1234);
+    Patch patch = mock(Patch.class);
+    when(patch.getNumber()).thenReturn(2);
+    when(patch.getCommitMessage()).thenReturn(CommitMessage.of("Foo\n\nChange-Id: I1111"));
+    when(patchSetRepository.findLastestPatch(_1234)).thenReturn(Optional.of(patch));
+
+    tested.trackChange(_1234, BranchShortName.MASTER);
+
+    verify(lastSavedConfiguration.get()).setTrackedChangeChangeId(ChangeChangeId.of("I1111"));
+    verify(lastSavedConfiguration.get()).setTrackedChangeLatestPatchNumber(2);
+  }
+
+  @Test
+  public void WHEN_untrack_THEN_it_should_clear_the_change_id_and_patch_number() {
+    tested.untrack();
+
+    verify(lastSavedConfiguration.get()).setTrackedChangeChangeId(null);
+    verify(lastSavedConfiguration.get()).setTrackedChangeLatestPatchNumber(null);
+  }
+
+  @Test
+  public void
+      WHEN_checkout_and_track_change_1234_THEN_its_patch_set_and_target_branch_should_be_fetched_at_once() {
+    ChangeNumericId _1234 = ChangeNumericId.of(1234);
+    Patch patch = mock(Patch.class);
+    when(patch.getNumber()).thenReturn(2);
+    when(patch.getCommitMessage()).thenReturn(CommitMessage.of("Foo\n\nChange-Id: I1111"));
+    when(patchSetRepository.findLastestPatch(_1234)).thenReturn(Optional.of(patch));
+
+    tested.checkoutAndTrackChange(
+        ChangeCheckoutBranchName.of("feature"), _1234, BranchShortName.MASTER);
+
+    InOrder inOrder = inOrder(git);
+    inOrder.verify(git).fetch(RemoteName.ORIGIN, Arrays.asList("refs/changes/34/1234/2", "master"));
+    inOrder.verify(git).checkoutFetchHead();
+    verify(git, times(1)).fetch(any(), anyList());
+  }
 }
@@ -82,4 +82,25 @@ public class DefaultPatchSetCommitMessageFactoryTest {
     assertThat(commitMessage.toString()).contains("\nVet-Version: " + VetVersion.getValue());
   }
 
+  @Test
+  public void
+      GIVEN_change_id_I5678_and_no_latest_patch_WHEN_build_THEN_it_should_use_the_last_commit_message_and_I5678() {
+    when(git.getLastCommitMessage()).thenReturn(CommitMessage.of(HELLO_WORLD));
+
+    CommitMessage commitMessage = tested.build(ChangeChangeId.of("I5678"), null);
+    assertThat(commitMessage.toString()).startsWith(HELLO_WORLD);
+    assertThat(commitMessage.toString()).endsWith("\nChange-Id: I5678");
+  }
+
+  @Test
+  public void
+      GIVEN_change_id_I5678_and_latest_patch_with_I1234_WHEN_build_THEN_it_should_replace_the_change_id() {
+    Patch patch = mock(Patch.class);
+    when(patch.getCommitMessage()).thenReturn(CommitMessage.of(HELLO_WORLD + "\nChange-Id: I1234"));
+
+    CommitMessage commitMessage = tested.build(ChangeChangeId.of("I5678"), patch);
+    assertThat(commitMessage.toString()).startsWith(HELLO_WORLD);
+    assertThat(commitMessage.toString()).doesNotContain("I1234");
+    assertThat(commitMessage.toString()).endsWith("\nChange-Id: I5678");
+  }
 }
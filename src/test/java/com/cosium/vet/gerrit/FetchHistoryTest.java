@@ -0,0 +1,93 @@
+package com.cosium.vet.gerrit;
+
+import com.cosium.vet.git.BranchShortName;
+import com.cosium.vet.git.RemoteName;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+public class FetchHistoryTest {
+
+  private static final Instant NOW = Instant.parse("2026-10-18T10:00:00Z");
+  private static final BranchShortName BAR_BRANCH = BranchShortName.of("bar");
+
+  private Path file;
+
+  @Before
+  public void before() throws Exception {
+    file = Files.createTempDirectory("vet_").resolve("vet").resolve("fetch-history.properties");
+  }
+
+  @Test
+  public void GIVEN_no_history_file_WHEN_checking_freshness_THEN_it_should_be_false() {
+    assertThat(at(NOW).isFresh(RemoteName.ORIGIN, BAR_BRANCH, Duration.ofMinutes(5))).isFalse();
+  }
+
+  @Test
+  public void GIVEN_recent_fetch_WHEN_checking_freshness_THEN_it_should_be_true() {
+    at(NOW).recordFetch(RemoteName.ORIGIN, BAR_BRANCH);
+
+    FetchHistory later = at(NOW.plusSeconds(60));
+    assertThat(later.isFresh(RemoteName.ORIGIN, BAR_BRANCH, Duration.ofMinutes(5))).isTrue();
+    assertThat(later.isFresh(RemoteName.ORIGIN, BranchShortName.MASTER, Duration.ofMinutes(5)))
+        .isFalse();
+    assertThat(later.isFresh(RemoteName.of("upstream"), BAR_BRANCH, Duration.ofMinutes(5)))
+        .isFalse();
+  }
+
+  @Test
+  public void GIVEN_old_fetch_WHEN_checking_freshness_THEN_it_should_be_false() {
+    at(NOW).recordFetch(RemoteName.ORIGIN, BAR_BRANCH);
+
+    assertThat(
+            at(NOW.plus(Duration.ofMinutes(5)))
+                .isFresh(RemoteName.ORIGIN, BAR_BRANCH, Duration.ofMinutes(5)))
+        .isFalse();
+  }
+
+  @Test
+  public void GIVEN_zero_max_age_WHEN_checking_freshness_THEN_it_should_be_false() {
+    FetchHistory tested = at(NOW);
+    tested.recordFetch(RemoteName.ORIGIN, BAR_BRANCH);
+
+    assertThat(tested.isFresh(RemoteName.ORIGIN, BAR_BRANCH, Duration.ZERO)).isFalse();
+  }
+
+  @Test
+  public void GIVEN_fetch_recorded_in_the_future_WHEN_checking_freshness_THEN_it_should_be_false() {
+    at(NOW).recordFetch(RemoteName.ORIGIN, BAR_BRANCH);
+
+    assertThat(at(NOW.minusSeconds(60)).isFresh(RemoteName.ORIGIN, BAR_BRANCH, Duration.ofHours(1)))
+        .isFalse();
+  }
+
+  @Test
+  public void GIVEN_corrupted_history_file_WHEN_using_it_THEN_it_should_be_ignored()
+      throws Exception {
+    Files.createDirectories(file.getParent());
+    Files.write(file, "origin/bar=x".getBytes(StandardCharsets.ISO_8859_1));
+    FetchHistory tested = at(NOW);
+
+    assertThat(tested.isFresh(RemoteName.ORIGIN, BAR_BRANCH, Duration.ofMinutes(5))).isFalse();
+    tested.recordFetch(RemoteName.ORIGIN, BAR_BRANCH);
+    assertThat(tested.isFresh(RemoteName.ORIGIN, BAR_BRANCH, Duration.ofMinutes(5))).isTrue();
+  }
+
+  private FetchHistory at(Instant instant) {
+    return new FetchHistory(() -> file, Clock.fixed(instant, ZoneOffset.UTC));
+  }
+}
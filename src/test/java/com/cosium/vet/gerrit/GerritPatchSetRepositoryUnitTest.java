@@ -1,14 +1,27 @@
 package com.cosium.vet.gerrit;
 
 import com.cosium.vet.git.*;
+import com.cosium.vet.runtime.UserOutput;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.InOrder;
 
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.Mockito.*;
@@ -55,6 +68,8 @@ public class GerritPatchSetRepositoryUnitTest {
 
   private GitClient git;
   private PatchSetCommitMessageFactory patchSetCommitMessageFactory;
+  private ChangeIndex changeIndex;
+  private FetchHistory fetchHistory;
   private DefaultPatchSetRepository tested;
 
   @Before
@@ -64,17 +79,28 @@ public class GerritPatchSetRepositoryUnitTest {
     when(git.getRemote(BAR_BRANCH)).thenReturn(Optional.of(RemoteName.ORIGIN));
     when(git.commitTree(any(), any(), any())).thenReturn("commit");
     when(git.getMostRecentCommonCommit(any())).thenReturn("most-recent-commit");
-    when(git.push(any(), any())).thenReturn("Push log");
+    when(git.push(any(), any(), any())).thenReturn("Push log");
 
     patchSetCommitMessageFactory = mock(PatchSetCommitMessageFactory.class);
     when(patchSetCommitMessageFactory.build(any())).thenReturn(CommitMessage.of("Hello world"));
-    tested = new DefaultPatchSetRepository(git, PUSH_URL, patchSetCommitMessageFactory);
+    changeIndex = mock(ChangeIndex.class);
+    fetchHistory = mock(FetchHistory.class);
+    tested =
+        new DefaultPatchSetRepository(
+            git,
+            PUSH_URL,
+            patchSetCommitMessageFactory,
+            mock(UserOutput.class),
+            changeIndex,
+            fetchHistory,
+            () -> Duration.ZERO,
+            Runnable::run);
   }
 
   @Test
   public void
       GIVEN_refs_1048_1_with_i2222_and_1081_2_with_i1111_WHEN_retrieving_latestpatchsetcommitmessage_of_i1111_THEN_it_should_return_1081_2_commit_message() {
-    when(git.listRemoteRefs(any())).thenReturn(Arrays.asList(HEAD, _1048_1, META, _1081_2));
+    givenRemoteRefs(HEAD, _1048_1, META, _1081_2);
 
     when(git.getCommitMessage(_1048_1.getRevisionId()))
         .thenReturn(CommitMessage.of("Bar man Change-Id: I2222"));
@@ -92,8 +118,7 @@ public class GerritPatchSetRepositoryUnitTest {
   @Test
   public void
       GIVEN_refs_1048_1_and_1048_4_with_i2222_comma_1081_2_and_1081_3_with_i1111_WHEN_retrieving_latestpatchsetcommitmessage_i1111_THEN_it_should_retrieve_1081_3_commitmessages() {
-    when(git.listRemoteRefs(any()))
-        .thenReturn(Arrays.asList(HEAD, _1081_3, _1048_1, META, _1081_2, _1048_4));
+    givenRemoteRefs(HEAD, _1081_3, _1048_1, META, _1081_2, _1048_4);
 
     when(git.getCommitMessage(_1048_1.getRevisionId()))
         .thenReturn(CommitMessage.of("Foo man Change-Id: I2222"));
@@ -115,7 +140,7 @@ public class GerritPatchSetRepositoryUnitTest {
   @Test
   public void
       GIVEN_refs_1048_1_with_i2222_and_1081_2_with_i2222_WHEN_retrieving_latestpatchsetcommitmessage_of_i2222_THEN_1081_2_will_be_returned() {
-    when(git.listRemoteRefs(any())).thenReturn(Arrays.asList(_1048_1, _1081_2));
+    givenRemoteRefs(_1048_1, _1081_2);
 
     when(git.getCommitMessage(_1081_2.getRevisionId()))
         .thenReturn(CommitMessage.of("Foo man Change-Id: I2222"));
@@ -129,6 +154,18 @@ public class GerritPatchSetRepositoryUnitTest {
                     .isEqualTo(CommitMessage.of("Foo man Change-Id: I2222")));
   }
 
+  @Test
+  public void
+      WHEN_retrieving_latest_patch_of_1081_THEN_it_should_only_list_refs_prefixed_by_refs_changes_81_1081() {
+    givenRemoteRefs(_1081_2);
+    when(git.getCommitMessage(_1081_2.getRevisionId()))
+        .thenReturn(CommitMessage.of("Foo man Change-Id: I1111"));
+    tested.findLastestPatch(_1081);
+    verify(git).listRemoteRefs(any(), eq("refs/changes/81/1081/"), any());
+    verify(git, never()).listRemoteRefs(any());
+    verify(git, never()).listRemoteRefs(any(), any());
+  }
+
   @Test
   public void WHEN_create_patch_set_until_end_THEN_commit_tree_be_until_end() {
     when(git.getTree()).thenReturn("end");
@@ -141,12 +178,496 @@ public class GerritPatchSetRepositoryUnitTest {
       GIVEN_commit_tree_id_foo_and_target_bar_WHEN_create_patch_set_THEN_it_should_push_foo_to_ref_for_bar() {
     when(git.commitTree(any(), any(), any())).thenReturn("foo");
     tested.createPatch(BAR_BRANCH, _1081, PatchOptions.DEFAULT);
-    verify(git).push(any(), startsWith("foo:refs/for/" + BAR_BRANCH));
+    verify(git).push(any(), startsWith("foo:refs/for/" + BAR_BRANCH), any());
   }
 
   @Test
   public void WHEN_create_patch_set_THEN_it_should_push_to_pushurl() {
     tested.createPatch(BAR_BRANCH, _1081, PatchOptions.DEFAULT);
-    verify(git).push(eq(PUSH_URL.toString()), any());
+    verify(git).push(eq(PUSH_URL.toString()), any(), any());
+  }
+
+  @Test
+  public void WHEN_retrieving_latest_patch_THEN_it_should_be_indexed() {
+    givenRemoteRefs(_1081_2, _1081_3);
+    when(git.getCommitMessage(_1081_3.getRevisionId()))
+        .thenReturn(CommitMessage.of("Foo man Change-Id: I1111"));
+    tested.findLastestPatch(_1081);
+    verify(changeIndex).put(_1081, 3, _1081_3.getRevisionId());
+  }
+
+  @Test
+  public void GIVEN_indexed_latest_patch_WHEN_retrieving_it_THEN_it_should_not_fetch() {
+    givenRemoteRefs(_1081_3);
+    when(git.getCommitMessage(_1081_3.getRevisionId()))
+        .thenReturn(CommitMessage.of("Foo man Change-Id: I1111"));
+    when(changeIndex.find(_1081))
+        .thenReturn(Optional.of(new ChangeIndex.Entry(3, _1081_3.getRevisionId())));
+
+    assertThat(tested.findLastestPatch(_1081)).isPresent();
+    verify(git, never()).fetch(any(), any(BranchRefName.class));
+    verify(git, never()).fetchCommitMetadata(any(), any());
+  }
+
+  @Test
+  public void GIVEN_unreachable_remote_WHEN_retrieving_latest_patch_THEN_it_should_use_the_index() {
+    doThrow(new RuntimeException("Offline")).when(git).listRemoteRefs(any(), any(), any());
+    when(git.getCommitMessage(_1081_3.getRevisionId()))
+        .thenReturn(CommitMessage.of("Foo man Change-Id: I1111"));
+    when(changeIndex.find(_1081))
+        .thenReturn(Optional.of(new ChangeIndex.Entry(3, _1081_3.getRevisionId())));
+
+    assertThat(tested.findLastestPatch(_1081))
+        .hasValueSatisfying(patch -> assertThat(patch.getNumber()).isEqualTo(3));
+  }
+
+  @Test
+  public void
+      GIVEN_known_change_id_and_indexed_latest_patch_WHEN_create_patch_set_THEN_it_should_not_list_remote_refs() {
+    ChangeChangeId i1111 = ChangeChangeId.of("I1111");
+    when(changeIndex.find(_1081))
+        .thenReturn(Optional.of(new ChangeIndex.Entry(3, _1081_3.getRevisionId())));
+    when(git.getCommitMessage(_1081_3.getRevisionId()))
+        .thenReturn(CommitMessage.of("Foo man Change-Id: I1111"));
+    when(patchSetCommitMessageFactory.build(eq(i1111), any()))
+        .thenReturn(CommitMessage.of("Hello world"));
+
+    CreatedPatch patch = tested.createPatch(BAR_BRANCH, _1081, i1111, 3, PatchOptions.DEFAULT);
+
+    assertThat(patch.getNumber()).isEqualTo(4);
+    verify(git, never()).listRemoteRefs(any(), any(), any());
+    verify(changeIndex).put(_1081, 4, RevisionId.of("commit"));
+  }
+
+  @Test
+  public void
+      GIVEN_known_change_id_and_indexed_latest_patch_WHEN_create_patch_set_THEN_it_should_build_the_message_from_the_indexed_patch() {
+    ChangeChangeId i1111 = ChangeChangeId.of("I1111");
+    when(changeIndex.find(_1081))
+        .thenReturn(Optional.of(new ChangeIndex.Entry(3, _1081_3.getRevisionId())));
+    when(git.getCommitMessage(_1081_3.getRevisionId()))
+        .thenReturn(CommitMessage.of("Foo man Change-Id: I1111"));
+    when(patchSetCommitMessageFactory.build(eq(i1111), any()))
+        .thenReturn(CommitMessage.of("Hello world"));
+
+    tested.createPatch(BAR_BRANCH, _1081, i1111, 3, PatchOptions.DEFAULT);
+
+    verify(patchSetCommitMessageFactory)
+        .build(
+            eq(i1111),
+            argThat(
+                patch ->
+                    patch.getNumber() == 3
+                        && patch
+                            .getCommitMessage()
+                            .equals(CommitMessage.of("Foo man Change-Id: I1111"))));
+    verify(git, never()).fetch(any(), any(BranchRefName.class));
+  }
+
+  @Test
+  public void
+      GIVEN_known_change_id_and_missing_indexed_patch_WHEN_create_patch_set_THEN_it_should_follow_the_remote_latest_patch() {
+    ChangeChangeId i1111 = ChangeChangeId.of("I1111");
+    givenRemoteRefs(_1081_2, _1081_3);
+    when(git.getCommitMessage(_1081_3.getRevisionId()))
+        .thenReturn(CommitMessage.of("Foo man Change-Id: I1111"));
+
+    CreatedPatch patch = tested.createPatch(BAR_BRANCH, _1081, i1111, 2, PatchOptions.DEFAULT);
+
+    assertThat(patch.getNumber()).isEqualTo(4);
+    verify(patchSetCommitMessageFactory)
+        .build(
+            argThat(
+                (Patch latestPatch) ->
+                    latestPatch.getNumber() == 3
+                        && latestPatch
+                            .getCommitMessage()
+                            .equals(CommitMessage.of("Foo man Change-Id: I1111"))));
+    verify(patchSetCommitMessageFactory, never()).build(eq(i1111), any());
+  }
+
+  @Test
+  public void WHEN_create_patch_set_THEN_the_target_branch_fetch_should_be_recorded() {
+    tested.createPatch(BAR_BRANCH, _1081, PatchOptions.DEFAULT);
+
+    InOrder inOrder = inOrder(git, fetchHistory);
+    inOrder.verify(git).fetch(RemoteName.ORIGIN, BAR_BRANCH);
+    inOrder.verify(fetchHistory).recordFetch(RemoteName.ORIGIN, BAR_BRANCH);
+  }
+
+  @Test
+  public void
+      GIVEN_target_branch_fetched_within_max_base_age_WHEN_create_patch_set_THEN_it_should_not_fetch_it() {
+    when(fetchHistory.isFresh(RemoteName.ORIGIN, BAR_BRANCH, Duration.ofMinutes(5)))
+        .thenReturn(true);
+
+    tested.createPatch(
+        BAR_BRANCH, _1081, PatchOptions.builder().maxBaseAge(Duration.ofMinutes(5)).build());
+
+    verify(git, never()).fetch(RemoteName.ORIGIN, BAR_BRANCH);
+    verify(git).commitTree(any(), eq("most-recent-commit"), any());
+  }
+
+  @Test
+  public void
+      GIVEN_no_max_base_age_option_WHEN_create_patch_set_THEN_it_should_use_the_default_one() {
+    when(fetchHistory.isFresh(RemoteName.ORIGIN, BAR_BRANCH, Duration.ofMinutes(10)))
+        .thenReturn(true);
+
+    new DefaultPatchSetRepository(
+            git,
+            PUSH_URL,
+            patchSetCommitMessageFactory,
+            mock(UserOutput.class),
+            changeIndex,
+            fetchHistory,
+            () -> Duration.ofMinutes(10),
+            Runnable::run)
+        .createPatch(BAR_BRANCH, _1081, PatchOptions.DEFAULT);
+
+    verify(git, never()).fetch(RemoteName.ORIGIN, BAR_BRANCH);
+  }
+
+  @Test
+  public void
+      GIVEN_fresh_but_missing_remote_tracking_branch_WHEN_create_patch_set_THEN_it_should_fetch_it() {
+    when(fetchHistory.isFresh(any(), any(), any())).thenReturn(true);
+    when(git.getMostRecentCommonCommit("origin/bar"))
+        .thenThrow(new RuntimeException("Unknown revision"))
+        .thenReturn("most-recent-commit");
+
+    tested.createPatch(
+        BAR_BRANCH, _1081, PatchOptions.builder().maxBaseAge(Duration.ofMinutes(5)).build());
+
+    verify(git).fetch(RemoteName.ORIGIN, BAR_BRANCH);
+    verify(git).commitTree(any(), eq("most-recent-commit"), any());
+  }
+
+  @Test
+  public void
+      GIVEN_shallow_repository_without_merge_base_WHEN_create_patch_set_THEN_it_should_deepen_until_found() {
+    when(git.getShallowCommits())
+        .thenReturn(Collections.singleton(RevisionId.of("shallow-commit")));
+    when(git.getMostRecentCommonCommit("origin/bar"))
+        .thenThrow(new RuntimeException("No merge base"))
+        .thenThrow(new RuntimeException("No merge base"))
+        .thenReturn("most-recent-commit");
+
+    tested.createPatch(BAR_BRANCH, _1081, PatchOptions.DEFAULT);
+
+    InOrder inOrder = inOrder(git);
+    inOrder.verify(git).deepen(RemoteName.ORIGIN, BAR_BRANCH, 16);
+    inOrder.verify(git).deepen(RemoteName.ORIGIN, BAR_BRANCH, 32);
+    inOrder.verify(git).commitTree(any(), eq("most-recent-commit"), any());
+    verify(git, times(2)).deepen(any(), any(), anyInt());
+  }
+
+  @Test
+  public void
+      GIVEN_merge_base_on_the_shallow_boundary_WHEN_create_patch_set_THEN_it_should_deepen() {
+    when(git.getShallowCommits())
+        .thenReturn(Collections.singleton(RevisionId.of("shallow-commit")))
+        .thenReturn(Collections.emptySet());
+    when(git.getMostRecentCommonCommit("origin/bar"))
+        .thenReturn("shallow-commit")
+        .thenReturn("most-recent-commit");
+
+    tested.createPatch(BAR_BRANCH, _1081, PatchOptions.DEFAULT);
+
+    verify(git).deepen(RemoteName.ORIGIN, BAR_BRANCH, 16);
+    verify(git).commitTree(any(), eq("most-recent-commit"), any());
+  }
+
+  @Test
+  public void
+      GIVEN_shallow_repository_without_merge_base_WHEN_create_patch_set_THEN_it_should_stop_deepening_at_the_ceiling() {
+    when(git.getShallowCommits())
+        .thenReturn(Collections.singleton(RevisionId.of("shallow-commit")));
+    when(git.getMostRecentCommonCommit("origin/bar"))
+        .thenThrow(new RuntimeException("No merge base"));
+
+    assertThatThrownBy(() -> tested.createPatch(BAR_BRANCH, _1081, PatchOptions.DEFAULT))
+        .hasMessageContaining("within 16368 commits below the shallow boundary");
+    verify(git).deepen(RemoteName.ORIGIN, BAR_BRANCH, 8192);
+    verify(git, never()).deepen(RemoteName.ORIGIN, BAR_BRANCH, 16384);
+    verify(git, never()).push(any(), any(), any());
+  }
+
+  @Test
+  public void
+      GIVEN_indexed_latest_patch_missing_locally_WHEN_create_patch_set_THEN_it_should_fetch_it_once_before_pushing() {
+    ChangeChangeId i1111 = ChangeChangeId.of("I1111");
+    givenLatestPatch3MissingLocally();
+    when(patchSetCommitMessageFactory.build(eq(i1111), any()))
+        .thenReturn(CommitMessage.of("Hello world"));
+
+    CreatedPatch patch = tested.createPatch(BAR_BRANCH, _1081, i1111, 3, PatchOptions.DEFAULT);
+
+    assertThat(patch.getNumber()).isEqualTo(4);
+    verify(git, never()).listRemoteRefs(any(), any(), any());
+    verify(patchSetCommitMessageFactory)
+        .build(eq(i1111), argThat((Patch latestPatch) -> latestPatch.getNumber() == 3));
+    InOrder inOrder = inOrder(git);
+    inOrder
+        .verify(git)
+        .fetch(
+            RemoteName.ORIGIN,
+            Arrays.asList(
+                "+refs/heads/bar:refs/remotes/origin/bar", _1081_3.getBranchRefName().toString()));
+    inOrder.verify(git).push(any(), any(), any());
+    verify(git, never()).fetch(any(), any(BranchRefName.class));
+    verify(git, never()).fetchCommitMetadata(any(), any());
+  }
+
+  @Test
+  public void
+      GIVEN_known_change_id_WHEN_create_patch_set_THEN_target_branch_fetch_and_next_patch_preparation_should_overlap()
+          throws Exception {
+    ChangeChangeId i1111 = ChangeChangeId.of("I1111");
+    givenIndexedLatestPatch3("tree", "most-recent-commit");
+    CountDownLatch preparationStarted = new CountDownLatch(1);
+    doAnswer(
+            invocation -> {
+              preparationStarted.countDown();
+              return CommitMessage.of("Hello world");
+            })
+        .when(patchSetCommitMessageFactory)
+        .build(eq(i1111), any());
+    doAnswer(
+            invocation -> {
+              // Blocks forever if the preparation only starts after the fetch
+              assertThat(preparationStarted.await(10, TimeUnit.SECONDS)).isTrue();
+              return null;
+            })
+        .when(git)
+        .fetch(RemoteName.ORIGIN, BAR_BRANCH);
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      new DefaultPatchSetRepository(
+              git,
+              PUSH_URL,
+              patchSetCommitMessageFactory,
+              mock(UserOutput.class),
+              changeIndex,
+              fetchHistory,
+              () -> Duration.ZERO,
+              executor)
+          .createPatch(BAR_BRANCH, _1081, i1111, 3, PatchOptions.DEFAULT);
+    } finally {
+      executor.shutdownNow();
+    }
+
+    verify(git).push(any(), any(), any());
+  }
+
+  @Test
+  public void
+      GIVEN_latest_patch_missing_locally_WHEN_create_patch_set_THEN_it_should_be_fetched_with_the_target_branch() {
+    givenRemoteRefs(_1081_2, _1081_3);
+    givenFetchedRevision(_1081_3);
+
+    CreatedPatch patch = tested.createPatch(BAR_BRANCH, _1081, PatchOptions.DEFAULT);
+
+    assertThat(patch.getNumber()).isEqualTo(4);
+    verify(git)
+        .fetch(
+            RemoteName.ORIGIN,
+            Arrays.asList(
+                "+refs/heads/bar:refs/remotes/origin/bar", _1081_3.getBranchRefName().toString()));
+    verify(git, never()).fetch(any(), any(BranchRefName.class));
+    verify(git, never()).fetch(any(), any(BranchShortName.class));
+    verify(git, never()).fetchCommitMetadata(any(), any());
+    verify(fetchHistory).recordFetch(RemoteName.ORIGIN, BAR_BRANCH);
+    verify(changeIndex).put(_1081, 3, _1081_3.getRevisionId());
+    verify(patchSetCommitMessageFactory)
+        .build(
+            argThat(
+                (Patch latestPatch) ->
+                    latestPatch.getNumber() == 3
+                        && latestPatch
+                            .getCommitMessage()
+                            .equals(CommitMessage.of("Foo man Change-Id: I1111"))));
+  }
+
+  @Test
+  public void
+      GIVEN_indexed_latest_patch_available_locally_WHEN_create_patch_set_THEN_only_the_target_branch_should_be_fetched() {
+    givenRemoteRefs(_1081_2, _1081_3);
+    givenIndexedLatestPatch3("tree", "most-recent-commit");
+
+    tested.createPatch(BAR_BRANCH, _1081, PatchOptions.DEFAULT);
+
+    verify(git).fetch(RemoteName.ORIGIN, BAR_BRANCH);
+    verify(git, never()).fetch(any(), anyList());
+    verify(git, never()).fetch(any(), any(BranchRefName.class));
+  }
+
+  @Test
+  public void
+      GIVEN_shallow_repository_and_latest_patch_missing_locally_WHEN_create_patch_set_THEN_the_target_branch_should_be_fetched_on_its_own() {
+    when(git.getShallowCommits())
+        .thenReturn(Collections.singleton(RevisionId.of("shallow-commit")));
+    givenRemoteRefs(_1081_3);
+    when(git.getCommitMessage(_1081_3.getRevisionId()))
+        .thenReturn(CommitMessage.of("Foo man Change-Id: I1111"));
+
+    tested.createPatch(BAR_BRANCH, _1081, PatchOptions.DEFAULT);
+
+    verify(git).fetch(RemoteName.ORIGIN, _1081_3.getBranchRefName());
+    verify(git).fetch(RemoteName.ORIGIN, BAR_BRANCH);
+    verify(git, never()).fetch(any(), anyList());
+  }
+
+  @Test
+  public void GIVEN_failing_latest_patch_fetch_WHEN_create_patch_set_THEN_it_should_fail() {
+    givenRemoteRefs(_1081_3);
+    doThrow(new RuntimeException("Fetch failed")).when(git).fetch(eq(RemoteName.ORIGIN), anyList());
+
+    assertThatThrownBy(() -> tested.createPatch(BAR_BRANCH, _1081, PatchOptions.DEFAULT))
+        .hasMessage("Fetch failed");
+    verify(git, never()).push(any(), any(), any());
+  }
+
+  @Test
+  public void GIVEN_failing_target_branch_fetch_WHEN_create_patch_set_THEN_it_should_fail() {
+    doThrow(new RuntimeException("Fetch failed")).when(git).fetch(RemoteName.ORIGIN, BAR_BRANCH);
+
+    assertThatThrownBy(() -> tested.createPatch(BAR_BRANCH, _1081, PatchOptions.DEFAULT))
+        .hasMessage("Fetch failed");
+    verify(git, never()).push(any(), any(), any());
+  }
+
+  @Test
+  public void
+      GIVEN_latest_patch_missing_locally_WHEN_retrieving_it_THEN_only_its_commit_metadata_should_be_fetched() {
+    givenRemoteRefs(_1081_2, _1081_3);
+    doReturn(
+            new CommitMetadata(
+                RevisionId.of("3cc707ca7a7720684bada790b5011573bee78a13"),
+                CommitMessage.of("Foo man Change-Id: I1111")))
+        .when(git)
+        .fetchCommitMetadata(RemoteName.of(PUSH_URL.toString()), _1081_3.getBranchRefName());
+
+    Patch patch = tested.findLastestPatch(_1081).orElseThrow(AssertionError::new);
+
+    assertThat(patch.getNumber()).isEqualTo(3);
+    assertThat(patch.getParent())
+        .isEqualTo(RevisionId.of("3cc707ca7a7720684bada790b5011573bee78a13"));
+    assertThat(patch.getCommitMessage()).isEqualTo(CommitMessage.of("Foo man Change-Id: I1111"));
+    verify(git, never()).fetch(any(), any(BranchRefName.class));
+    verify(git, never()).fetch(any(), anyList());
+  }
+
+  @Test
+  public void
+      GIVEN_same_tree_parent_and_message_as_indexed_latest_patch_WHEN_checking_up_to_date_THEN_it_should_be_true_without_network_calls() {
+    ChangeChangeId i1111 = ChangeChangeId.of("I1111");
+    givenIndexedLatestPatch3("tree", "most-recent-commit");
+    when(patchSetCommitMessageFactory.build(eq(i1111), any()))
+        .thenReturn(CommitMessage.of("Foo man Change-Id: I1111"));
+
+    assertThat(tested.isUpToDate(BAR_BRANCH, _1081, i1111, 3)).isTrue();
+    verify(git, never()).listRemoteRefs(any(), any(), any());
+    verify(git, never()).fetch(any(), any(BranchShortName.class));
+    verify(git, never()).fetchCommitMetadata(any(), any());
+  }
+
+  @Test
+  public void
+      GIVEN_different_tree_than_indexed_latest_patch_WHEN_checking_up_to_date_THEN_it_should_be_false() {
+    ChangeChangeId i1111 = ChangeChangeId.of("I1111");
+    givenIndexedLatestPatch3("other-tree", "most-recent-commit");
+    when(patchSetCommitMessageFactory.build(eq(i1111), any()))
+        .thenReturn(CommitMessage.of("Foo man Change-Id: I1111"));
+
+    assertThat(tested.isUpToDate(BAR_BRANCH, _1081, i1111, 3)).isFalse();
+  }
+
+  @Test
+  public void
+      GIVEN_different_parent_than_indexed_latest_patch_WHEN_checking_up_to_date_THEN_it_should_be_false() {
+    ChangeChangeId i1111 = ChangeChangeId.of("I1111");
+    givenIndexedLatestPatch3("tree", "older-commit");
+    when(patchSetCommitMessageFactory.build(eq(i1111), any()))
+        .thenReturn(CommitMessage.of("Foo man Change-Id: I1111"));
+
+    assertThat(tested.isUpToDate(BAR_BRANCH, _1081, i1111, 3)).isFalse();
+  }
+
+  @Test
+  public void GIVEN_unindexed_latest_patch_WHEN_checking_up_to_date_THEN_it_should_be_false() {
+    ChangeChangeId i1111 = ChangeChangeId.of("I1111");
+    givenIndexedLatestPatch3("tree", "most-recent-commit");
+
+    assertThat(tested.isUpToDate(BAR_BRANCH, _1081, i1111, 4)).isFalse();
+  }
+
+  private void givenLatestPatch3MissingLocally() {
+    givenRemoteRefs(_1081_3);
+    when(changeIndex.find(_1081))
+        .thenReturn(Optional.of(new ChangeIndex.Entry(3, _1081_3.getRevisionId())));
+    givenFetchedRevision(_1081_3);
+  }
+
+  /** The revision of the ref is only available locally once fetched */
+  private void givenFetchedRevision(BranchRef ref) {
+    AtomicBoolean fetched = new AtomicBoolean();
+    doAnswer(
+            invocation -> {
+              List<String> refspecs = invocation.getArgument(1);
+              if (refspecs.contains(ref.getBranchRefName().toString())) {
+                fetched.set(true);
+              }
+              return null;
+            })
+        .when(git)
+        .fetch(any(), anyList());
+    when(git.getTree(ref.getRevisionId()))
+        .thenAnswer(
+            invocation -> {
+              if (!fetched.get()) {
+                throw new RuntimeException("Missing object");
+              }
+              return "tree";
+            });
+    when(git.getCommitMessage(ref.getRevisionId()))
+        .thenAnswer(
+            invocation -> {
+              if (!fetched.get()) {
+                throw new RuntimeException("Missing object");
+              }
+              return CommitMessage.of("Foo man Change-Id: I1111");
+            });
+  }
+
+  private void givenIndexedLatestPatch3(String tree, String parent) {
+    when(changeIndex.find(_1081))
+        .thenReturn(Optional.of(new ChangeIndex.Entry(3, _1081_3.getRevisionId())));
+    when(git.getTree()).thenReturn("tree");
+    when(git.getTree(_1081_3.getRevisionId())).thenReturn(tree);
+    when(git.getParent(_1081_3.getRevisionId())).thenReturn(RevisionId.of(parent));
+    when(git.getCommitMessage(_1081_3.getRevisionId()))
+        .thenReturn(CommitMessage.of("Foo man Change-Id: I1111"));
+  }
+
+  private void givenRemoteRefs(BranchRef... refs) {
+    doAnswer(
+            invocation -> {
+              Consumer<String> lineConsumer = invocation.getArgument(2);
+              Arrays.stream(refs)
+                  .map(ref -> ref.getRevisionId() + "\t" + ref.getBranchRefName())
+                  .forEach(lineConsumer);
+              return null;
+            })
+        .when(git)
+        .listRemoteRefs(any(), any(), any());
+    for (BranchRef ref : refs) {
+      when(git.fetchCommitMetadata(any(), eq(ref.getBranchRefName())))
+          .thenAnswer(
+              invocation ->
+                  new CommitMetadata(
+                      RevisionId.of("parent"), git.getCommitMessage(ref.getRevisionId())));
+    }
   }
 }
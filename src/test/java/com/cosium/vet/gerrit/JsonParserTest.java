@@ -0,0 +1,43 @@
+package com.cosium.vet.gerrit;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+public class JsonParserTest {
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void WHEN_parsing_object_THEN_it_should_return_its_members() {
+    Map<String, Object> object =
+        (Map<String, Object>)
+            JsonParser.parse(
+                "{\"a\": 1, \"b\": [true, false, null], \"c\": {\"d\": -1.5}, \"e\": \"x\\ny\\u0041\"}");
+
+    assertThat(object.get("a")).isEqualTo(1L);
+    assertThat(object.get("b")).isEqualTo(Arrays.asList(true, false, null));
+    assertThat((Map<String, Object>) object.get("c")).containsEntry("d", -1.5);
+    assertThat(object.get("e")).isEqualTo("x\nyA");
+  }
+
+  @Test
+  public void WHEN_parsing_empty_containers_THEN_they_should_be_empty() {
+    assertThat((Map<?, ?>) JsonParser.parse(" {} ")).isEmpty();
+    assertThat((Iterable<?>) JsonParser.parse("[ ]")).isEmpty();
+  }
+
+  @Test
+  public void WHEN_parsing_truncated_document_THEN_it_should_fail() {
+    assertThatThrownBy(() -> JsonParser.parse("{\"a\": [1, 2"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -0,0 +1,43 @@
+package com.cosium.vet.gerrit;
+
+import com.cosium.vet.git.GitProvider;
+import com.cosium.vet.git.GitTestRepository;
+import com.cosium.vet.runtime.CommandRunner;
+import org.junit.Test;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+public class LocalChangesTest {
+
+  @Test
+  public void WHEN_listing_numeric_ids_THEN_it_should_read_config_refs_and_fetch_head()
+      throws Exception {
+    GitTestRepository testRepository = GitTestRepository.builder().build();
+    CommandRunner runner = testRepository.runner;
+    Path repo = testRepository.repo;
+    Path upstream = repo.resolveSibling("upstream");
+    runner.run(upstream, "git", "update-ref", "refs/changes/83/1083/1", "HEAD");
+    runner.run(repo, "git", "config", "branch.master.vet-tracked-change-numeric-id", "1081");
+    runner.run(repo, "git", "config", "branch.feature.vet-tracked-change-numeric-id", "");
+    runner.run(repo, "git", "update-ref", "refs/changes/82/1082/1", "HEAD");
+    runner.run(repo, "git", "update-ref", "refs/changes/82/1082/meta", "HEAD");
+    runner.run(repo, "git", "fetch", "origin", "refs/changes/83/1083/1", "master");
+
+    List<ChangeNumericId> numericIds = new ArrayList<>();
+    new LocalChanges(new GitProvider(repo, runner).buildLocalState())
+        .listNumericIds(numericIds::add);
+
+    assertThat(numericIds)
+        .containsExactly(
+            ChangeNumericId.of(1081), ChangeNumericId.of(1082), ChangeNumericId.of(1083));
+  }
+}
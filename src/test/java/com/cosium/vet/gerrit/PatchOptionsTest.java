@@ -4,6 +4,8 @@ import com.cosium.vet.git.BranchShortName;
 import com.cosium.vet.git.GitUtils;
 import org.junit.Test;
 
+import java.time.Duration;
+
 import static org.assertj.core.api.Java6Assertions.assertThat;
 
 /**
@@ -23,7 +25,8 @@ public class PatchOptionsTest {
 
   @Test
   public void WHEN_default_THEN_push_target_has_no_option() {
-    String pushTarget = PatchOptions.DEFAULT.buildGitPushTarget(REVISION_ID, BranchShortName.MASTER);
+    String pushTarget =
+        PatchOptions.DEFAULT.buildGitPushTarget(REVISION_ID, BranchShortName.MASTER);
     assertThat(pushTarget).isEqualTo(REVISION_ID + ":refs/for/" + BranchShortName.MASTER + "%");
   }
 
@@ -52,4 +55,29 @@ public class PatchOptionsTest {
     PatchOptions patchOptions = PatchOptions.builder().bypassReview().build();
     assertThat(buildTargetOptions(patchOptions)).contains("submit");
   }
+
+  @Test
+  public void WHEN_default_THEN_it_has_no_server_side_effect() {
+    assertThat(PatchOptions.DEFAULT.hasServerSideEffect()).isFalse();
+    assertThat(
+            PatchOptions.builder().maxBaseAge(Duration.ofSeconds(10)).build().hasServerSideEffect())
+        .isFalse();
+  }
+
+  @Test
+  public void WHEN_any_change_option_THEN_it_has_server_side_effect() {
+    assertThat(PatchOptions.builder().publishDraftComments().build().hasServerSideEffect())
+        .isTrue();
+    assertThat(PatchOptions.builder().workInProgress().build().hasServerSideEffect()).isTrue();
+    assertThat(
+            PatchOptions.builder().subject(WHERE_IS_MY_MIND_SUBJECT).build().hasServerSideEffect())
+        .isTrue();
+    assertThat(PatchOptions.builder().bypassReview().build().hasServerSideEffect()).isTrue();
+    assertThat(
+            PatchOptions.builder()
+                .codeReviewVote(CodeReviewVote.of("-1"))
+                .build()
+                .hasServerSideEffect())
+        .isTrue();
+  }
 }
@@ -0,0 +1,57 @@
+package com.cosium.vet.gerrit;
+
+import com.cosium.vet.git.RevisionId;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+public class PatchSetTableTest {
+
+  private static final String REVISION = "9dfc574e74ade12285512dad12172c533c5ff96f";
+  private static final String OTHER_REVISION = "9ac5ea128e339acc2e372f3df7277e316167dfe8";
+
+  private PatchSetTable tested;
+
+  @Before
+  public void before() {
+    tested = new PatchSetTable();
+  }
+
+  @Test
+  public void GIVEN_no_patch_set_WHEN_looking_up_THEN_it_should_return_nothing() {
+    assertThat(tested.getPatchNumber(1081)).isEqualTo(-1);
+    assertThat(tested.getRevisionId(1081)).isNull();
+  }
+
+  @Test
+  public void GIVEN_several_patch_sets_WHEN_looking_up_THEN_it_should_return_the_latest() {
+    tested.offer(1081, 2, REVISION, REVISION.length());
+    tested.offer(1081, 3, OTHER_REVISION, OTHER_REVISION.length());
+    tested.offer(1081, 1, REVISION, REVISION.length());
+
+    assertThat(tested.getPatchNumber(1081)).isEqualTo(3);
+    assertThat(tested.getRevisionId(1081)).isEqualTo(RevisionId.of(OTHER_REVISION));
+    assertThat(tested.size()).isEqualTo(1);
+  }
+
+  @Test
+  public void GIVEN_many_changes_WHEN_looking_up_THEN_each_should_keep_its_patch_set() {
+    for (long changeId = 1; changeId <= 10_000; changeId++) {
+      String line = (changeId % 2 == 0 ? REVISION : OTHER_REVISION) + "\trefs/changes/...";
+      tested.offer(changeId, (int) (changeId % 7), line, REVISION.length());
+    }
+
+    assertThat(tested.size()).isEqualTo(10_000);
+    for (long changeId = 1; changeId <= 10_000; changeId++) {
+      assertThat(tested.getPatchNumber(changeId)).isEqualTo((int) (changeId % 7));
+      assertThat(tested.getRevisionId(changeId))
+          .isEqualTo(RevisionId.of(changeId % 2 == 0 ? REVISION : OTHER_REVISION));
+    }
+  }
+}
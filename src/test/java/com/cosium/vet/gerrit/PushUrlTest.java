@@ -35,4 +35,15 @@ public class PushUrlTest {
         PushUrl.of(PUSH_URL_WITH_SLASH).computeChangeWebUrl(ChangeNumericId.of(1234));
     assertThat(changeUrl).isEqualTo("https://foo.com/c/biz/baz/+/1234");
   }
+
+  @Test
+  public void testComputeRestBaseUrl() {
+    assertThat(PushUrl.of(PUSH_URL).computeRestBaseUrl()).contains("https://foo.com/");
+    assertThat(PushUrl.of(PUSH_URL_WITH_SLASH).computeRestBaseUrl()).contains("https://foo.com/");
+  }
+
+  @Test
+  public void testComputeRestBaseUrlOfSshUrl() {
+    assertThat(PushUrl.of("ssh://foo.com:29418/biz/baz").computeRestBaseUrl()).isEmpty();
+  }
 }
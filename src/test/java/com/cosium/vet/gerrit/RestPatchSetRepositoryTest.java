@@ -0,0 +1,271 @@
+package com.cosium.vet.gerrit;
+
+import com.cosium.vet.git.BranchShortName;
+import com.cosium.vet.git.CommitMessage;
+import com.cosium.vet.git.RevisionId;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+/**
+ * Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+public class RestPatchSetRepositoryTest {
+
+  private static final ChangeNumericId _1081 = ChangeNumericId.of(1081);
+
+  private static final String CURRENT_PATCH_QUERY =
+      "/changes/1081?o=CURRENT_REVISION&o=CURRENT_COMMIT";
+  private static final String ALL_PATCHES_QUERY = "/changes/1081?o=ALL_REVISIONS&o=ALL_COMMITS";
+
+  private static final String PATCH_2 =
+      "\"9ac5ea128e339acc2e372f3df7277e316167dfe8\": {"
+          + "\"kind\": \"REWORK\", \"_number\": 2,"
+          + "\"commit\": {"
+          + "\"parents\": [{\"commit\": \"3cc707ca7a7720684bada790b5011573bee78a13\","
+          + "\"subject\": \"Base\"}],"
+          + "\"subject\": \"Foo\","
+          + "\"message\": \"Foo\\n\\nChange-Id: I1111\\n\""
+          + "}}";
+  private static final String PATCH_1 =
+      "\"8612790edb5784abbf541dd21247cfd2fb2cd466\": {"
+          + "\"_number\": 1,"
+          + "\"commit\": {"
+          + "\"parents\": [{\"commit\": \"367ebe96b4d368a6d7026f3908266cd8f3889e95\"}],"
+          + "\"message\": \"Bar\\n\\nChange-Id: I1111\\n\""
+          + "}}";
+
+  private static final BranchShortName BAR_BRANCH = BranchShortName.of("bar");
+  private static final ChangeChangeId I1111 = ChangeChangeId.of("I1111");
+  private static final RevisionId PATCH_2_REVISION =
+      RevisionId.of("9ac5ea128e339acc2e372f3df7277e316167dfe8");
+
+  private StubGerritServer server;
+  private PatchSetRepository gitRepository;
+  private ChangeIndex changeIndex;
+  private RestPatchSetRepository tested;
+
+  @Before
+  public void before() throws Exception {
+    server = new StubGerritServer();
+    gitRepository = mock(PatchSetRepository.class);
+    Path changeIndexFile = Files.createTempDirectory("vet_").resolve("vet").resolve("changes.idx");
+    changeIndex = new ChangeIndex(() -> changeIndexFile);
+    tested =
+        new RestPatchSetRepository(
+            new GerritRestClient(server.getBaseUrl()), gitRepository, changeIndex);
+  }
+
+  private void givenCurrentPatch2() {
+    server.respond(
+        CURRENT_PATCH_QUERY,
+        "{\"_number\": 1081, "
+            + "\"current_revision\": \"9ac5ea128e339acc2e372f3df7277e316167dfe8\", "
+            + "\"revisions\": {"
+            + PATCH_2
+            + "}}");
+  }
+
+  @After
+  public void after() throws Exception {
+    server.close();
+  }
+
+  @Test
+  public void WHEN_retrieving_latest_patch_THEN_it_should_be_read_from_the_current_revision() {
+    givenCurrentPatch2();
+
+    Patch patch = tested.findLastestPatch(_1081).orElseThrow(AssertionError::new);
+
+    assertThat(patch.getNumber()).isEqualTo(2);
+    assertThat(patch.getChangeNumericId()).isEqualTo(_1081);
+    assertThat(patch.getParent())
+        .isEqualTo(RevisionId.of("3cc707ca7a7720684bada790b5011573bee78a13"));
+    assertThat(patch.getCommitMessage()).isEqualTo(CommitMessage.of("Foo\n\nChange-Id: I1111"));
+    verifyZeroInteractions(gitRepository);
+  }
+
+  @Test
+  public void WHEN_retrieving_latest_patch_THEN_it_should_be_indexed() {
+    givenCurrentPatch2();
+
+    tested.findLastestPatch(_1081);
+
+    assertThat(changeIndex.find(_1081)).contains(new ChangeIndex.Entry(2, PATCH_2_REVISION));
+  }
+
+  @Test
+  public void WHEN_retrieving_current_patch_among_all_THEN_only_it_should_be_indexed() {
+    server.respond(
+        ALL_PATCHES_QUERY,
+        "{\"current_revision\": \"9ac5ea128e339acc2e372f3df7277e316167dfe8\", "
+            + "\"revisions\": {"
+            + PATCH_2
+            + ", "
+            + PATCH_1
+            + "}}");
+
+    tested.findPatch(_1081, 1);
+    assertThat(changeIndex.find(_1081)).isEmpty();
+
+    tested.findPatch(_1081, 2);
+    assertThat(changeIndex.find(_1081)).contains(new ChangeIndex.Entry(2, PATCH_2_REVISION));
+  }
+
+  @Test
+  public void WHEN_creating_patch_THEN_the_latest_patch_should_be_looked_up_through_rest() {
+    givenCurrentPatch2();
+    CreatedPatch createdPatch = mock(CreatedPatch.class);
+    when(gitRepository.createPatch(BAR_BRANCH, _1081, I1111, 2, PatchOptions.DEFAULT))
+        .thenReturn(createdPatch);
+
+    assertThat(tested.createPatch(BAR_BRANCH, _1081, PatchOptions.DEFAULT)).isSameAs(createdPatch);
+    assertThat(changeIndex.find(_1081)).contains(new ChangeIndex.Entry(2, PATCH_2_REVISION));
+    verify(gitRepository, never()).createPatch(any(), any(), any());
+  }
+
+  @Test
+  public void
+      GIVEN_failing_rest_api_WHEN_creating_patch_THEN_git_should_look_up_the_latest_patch() {
+    server.fail(CURRENT_PATCH_QUERY, 503);
+    CreatedPatch createdPatch = mock(CreatedPatch.class);
+    when(gitRepository.createPatch(BAR_BRANCH, _1081, PatchOptions.DEFAULT))
+        .thenReturn(createdPatch);
+
+    assertThat(tested.createPatch(BAR_BRANCH, _1081, PatchOptions.DEFAULT)).isSameAs(createdPatch);
+    verify(gitRepository, never()).createPatch(any(), any(), any(), anyInt(), any());
+  }
+
+  @Test
+  public void GIVEN_failing_push_WHEN_creating_patch_THEN_it_should_not_be_retried() {
+    givenCurrentPatch2();
+    RuntimeException pushFailure = new RuntimeException("Push rejected");
+    when(gitRepository.createPatch(BAR_BRANCH, _1081, I1111, 2, PatchOptions.DEFAULT))
+        .thenThrow(pushFailure);
+
+    assertThatThrownBy(() -> tested.createPatch(BAR_BRANCH, _1081, PatchOptions.DEFAULT))
+        .isSameAs(pushFailure);
+    verify(gitRepository, never()).createPatch(any(), any(), any());
+  }
+
+  @Test
+  public void GIVEN_indexed_tracked_patch_WHEN_creating_patch_THEN_rest_should_not_be_used() {
+    changeIndex.put(_1081, 2, PATCH_2_REVISION);
+    CreatedPatch createdPatch = mock(CreatedPatch.class);
+    when(gitRepository.createPatch(BAR_BRANCH, _1081, I1111, 2, PatchOptions.DEFAULT))
+        .thenReturn(createdPatch);
+
+    assertThat(tested.createPatch(BAR_BRANCH, _1081, I1111, 2, PatchOptions.DEFAULT))
+        .isSameAs(createdPatch);
+    assertThat(server.getRequestCount()).isZero();
+  }
+
+  @Test
+  public void GIVEN_unindexed_tracked_patch_WHEN_creating_patch_THEN_rest_should_be_used() {
+    givenCurrentPatch2();
+    CreatedPatch createdPatch = mock(CreatedPatch.class);
+    when(gitRepository.createPatch(BAR_BRANCH, _1081, I1111, 2, PatchOptions.DEFAULT))
+        .thenReturn(createdPatch);
+
+    assertThat(tested.createPatch(BAR_BRANCH, _1081, I1111, 1, PatchOptions.DEFAULT))
+        .isSameAs(createdPatch);
+    assertThat(server.getRequestCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void WHEN_retrieving_patch_1_THEN_it_should_be_read_from_all_revisions() {
+    server.respond(ALL_PATCHES_QUERY, "{\"revisions\": {" + PATCH_2 + ", " + PATCH_1 + "}}");
+
+    Patch patch = tested.findPatch(_1081, 1);
+
+    assertThat(patch.getNumber()).isEqualTo(1);
+    assertThat(patch.getParent())
+        .isEqualTo(RevisionId.of("367ebe96b4d368a6d7026f3908266cd8f3889e95"));
+    verifyZeroInteractions(gitRepository);
+  }
+
+  @Test
+  public void WHEN_retrieving_merge_patch_THEN_it_should_keep_all_its_parents() {
+    server.respond(
+        ALL_PATCHES_QUERY,
+        "{\"revisions\": {"
+            + "\"5f2a1c4e0d4b3e1f9c7a8b6d5e4f3a2b1c0d9e8f\": {"
+            + "\"_number\": 3,"
+            + "\"commit\": {"
+            + "\"parents\": ["
+            + "{\"commit\": \"3cc707ca7a7720684bada790b5011573bee78a13\"},"
+            + "{\"commit\": \"367ebe96b4d368a6d7026f3908266cd8f3889e95\"}],"
+            + "\"message\": \"Merge\\n\\nChange-Id: I1111\\n\""
+            + "}}}}");
+
+    Patch patch = tested.findPatch(_1081, 3);
+
+    assertThat(patch.getParent())
+        .isEqualTo(
+            RevisionId.of(
+                "3cc707ca7a7720684bada790b5011573bee78a13 "
+                    + "367ebe96b4d368a6d7026f3908266cd8f3889e95"));
+  }
+
+  @Test
+  public void WHEN_sending_multiple_requests_THEN_they_should_share_one_connection() {
+    server.respond(ALL_PATCHES_QUERY, "{\"revisions\": {" + PATCH_2 + ", " + PATCH_1 + "}}");
+
+    tested.findPatch(_1081, 1);
+    tested.findPatch(_1081, 2);
+    tested.findPatch(_1081, 1);
+
+    assertThat(server.getRequestCount()).isEqualTo(3);
+    assertThat(server.getConnectionCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void
+      GIVEN_failing_rest_api_WHEN_retrieving_latest_patch_THEN_it_should_fall_back_to_git() {
+    server.fail(CURRENT_PATCH_QUERY, 503);
+    Patch gitPatch = mock(Patch.class);
+    when(gitRepository.findLastestPatch(_1081)).thenReturn(Optional.of(gitPatch));
+
+    assertThat(tested.findLastestPatch(_1081)).contains(gitPatch);
+    assertThat(tested.findLastestPatch(_1081)).contains(gitPatch);
+    assertThat(server.getRequestCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void
+      GIVEN_unreachable_rest_api_WHEN_retrieving_latest_patch_THEN_it_should_fall_back_to_git()
+          throws Exception {
+    server.close();
+    Patch gitPatch = mock(Patch.class);
+    when(gitRepository.findLastestPatch(_1081)).thenReturn(Optional.of(gitPatch));
+
+    assertThat(tested.findLastestPatch(_1081)).contains(gitPatch);
+    assertThat(tested.findLastestPatch(_1081)).contains(gitPatch);
+    assertThat(server.getConnectionCount()).isZero();
+    verify(gitRepository, times(2)).findLastestPatch(_1081);
+  }
+
+  @Test
+  public void
+      GIVEN_unknown_change_WHEN_retrieving_latest_patch_THEN_only_this_read_should_fall_back_to_git() {
+    Patch gitPatch = mock(Patch.class);
+    when(gitRepository.findLastestPatch(_1081)).thenReturn(Optional.of(gitPatch));
+
+    assertThat(tested.findLastestPatch(_1081)).contains(gitPatch);
+
+    server.respond(ALL_PATCHES_QUERY, "{\"revisions\": {" + PATCH_2 + ", " + PATCH_1 + "}}");
+    assertThat(tested.findPatch(_1081, 1).getNumber()).isEqualTo(1);
+    assertThat(server.getRequestCount()).isEqualTo(2);
+    verify(gitRepository, never()).findPatch(any(), anyInt());
+  }
+}
@@ -0,0 +1,126 @@
+package com.cosium.vet.gerrit;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A local HTTP/1.1 server serving canned Gerrit REST API responses over keep-alive connections.
+ *
+ * <p>Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+public class StubGerritServer implements AutoCloseable {
+
+  private final ServerSocket serverSocket;
+  private final Map<String, String> responses = new ConcurrentHashMap<>();
+  private final Map<String, Integer> failures = new ConcurrentHashMap<>();
+  private final AtomicInteger connectionCount = new AtomicInteger();
+  private final AtomicInteger requestCount = new AtomicInteger();
+
+  public StubGerritServer() throws IOException {
+    serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+    Thread acceptor = new Thread(this::accept, "stub-gerrit-server");
+    acceptor.setDaemon(true);
+    acceptor.start();
+  }
+
+  /** @return The base url of the server. i.e. http://127.0.0.1:1234/ */
+  public String getBaseUrl() {
+    return "http://"
+        + serverSocket.getInetAddress().getHostAddress()
+        + ":"
+        + serverSocket.getLocalPort()
+        + "/";
+  }
+
+  /**
+   * @param pathAndQuery The requested path and query. i.e. /changes/1234?o=CURRENT_REVISION
+   * @param json The JSON body to serve, without the XSSI prefix
+   */
+  public void respond(String pathAndQuery, String json) {
+    responses.put(pathAndQuery, json);
+  }
+
+  /**
+   * @param pathAndQuery The requested path and query. i.e. /changes/1234?o=CURRENT_REVISION
+   * @param status The error status to answer with. i.e. 503
+   */
+  public void fail(String pathAndQuery, int status) {
+    failures.put(pathAndQuery, status);
+  }
+
+  /** @return The number of accepted connections */
+  public int getConnectionCount() {
+    return connectionCount.get();
+  }
+
+  /** @return The number of served requests */
+  public int getRequestCount() {
+    return requestCount.get();
+  }
+
+  private void accept() {
+    while (!serverSocket.isClosed()) {
+      try {
+        Socket socket = serverSocket.accept();
+        connectionCount.incrementAndGet();
+        Thread handler = new Thread(() -> serve(socket), "stub-gerrit-connection");
+        handler.setDaemon(true);
+        handler.start();
+      } catch (IOException e) {
+        return;
+      }
+    }
+  }
+
+  private void serve(Socket socket) {
+    try (Socket s = socket;
+        BufferedReader in =
+            new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+        OutputStream out = s.getOutputStream()) {
+      String requestLine;
+      while ((requestLine = in.readLine()) != null) {
+        String header;
+        do {
+          header = in.readLine();
+        } while (header != null && !header.isEmpty());
+
+        requestCount.incrementAndGet();
+        String pathAndQuery = requestLine.split(" ")[1];
+        String json = responses.get(pathAndQuery);
+        int status = failures.getOrDefault(pathAndQuery, json == null ? 404 : 200);
+        byte[] body =
+            (status == 200 ? ")]}'\n" + json : "Failure " + status)
+                .getBytes(StandardCharsets.UTF_8);
+        String head =
+            "HTTP/1.1 "
+                + status
+                + (status == 200 ? " OK" : " Failure")
+                + "\r\nContent-Type: application/json; charset=UTF-8"
+                + "\r\nContent-Length: "
+                + body.length
+                + "\r\n\r\n";
+        out.write(head.getBytes(StandardCharsets.US_ASCII));
+        out.write(body);
+        out.flush();
+      }
+    } catch (IOException e) {
+      // Connection closed by the client
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    serverSocket.close();
+  }
+}
@@ -1,13 +1,18 @@
 package com.cosium.vet.gerrit.config;
 
+import com.cosium.vet.gerrit.ChangeChangeId;
 import com.cosium.vet.gerrit.ChangeNumericId;
 import com.cosium.vet.git.BranchShortName;
 import com.cosium.vet.git.GitConfigRepository;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.function.Function;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -25,6 +30,12 @@ public class DefaultGerritConfigurationRepositoryUnitTest {
   @Before
   public void before() {
     gitConfigProvider = mock(GitConfigRepository.class);
+    when(gitConfigProvider.transaction(any()))
+        .thenAnswer(
+            invocation ->
+                invocation
+                    .<Function<GitConfigRepository, Object>>getArgument(0)
+                    .apply(gitConfigProvider));
     tested = new DefaultGerritConfigurationRepository(gitConfigProvider);
   }
 
@@ -63,4 +74,42 @@ public class DefaultGerritConfigurationRepositoryUnitTest {
     assertThat(gerritConfiguration).isNotNull();
     assertThat(gerritConfiguration.getTrackedChangeNumericId()).isEmpty();
   }
+
+  @Test
+  public void WHEN_read_and_write_THEN_it_should_write_through_a_single_transaction() {
+    tested.readAndWrite(
+        conf -> {
+          conf.setTrackedChangeNumericId(ChangeNumericId.of(1234));
+          return null;
+        });
+
+    verify(gitConfigProvider).transaction(any());
+    verify(gitConfigProvider).setCurrentBranchValue("vet-tracked-change-numeric-id", "1234");
+  }
+
+  @Test
+  public void
+      GIVEN_conf_containing_change_id_I1234_and_patch_number_3_WHEN_read_THEN_it_should_return_them() {
+    when(gitConfigProvider.getCurrentBranchValue("vet-tracked-change-change-id"))
+        .thenReturn("I1234");
+    when(gitConfigProvider.getCurrentBranchValue("vet-tracked-change-latest-patch-number"))
+        .thenReturn("3");
+
+    GerritConfiguration gerritConfiguration = tested.read();
+    assertThat(gerritConfiguration.getTrackedChangeChangeId()).contains(ChangeChangeId.of("I1234"));
+    assertThat(gerritConfiguration.getTrackedChangeLatestPatchNumber()).contains(3);
+  }
+
+  @Test
+  public void WHEN_write_change_id_and_patch_number_THEN_they_should_be_stored() {
+    tested.readAndWrite(
+        conf -> {
+          conf.setTrackedChangeChangeId(ChangeChangeId.of("I1234"));
+          conf.setTrackedChangeLatestPatchNumber(3);
+          return null;
+        });
+
+    verify(gitConfigProvider).setCurrentBranchValue("vet-tracked-change-change-id", "I1234");
+    verify(gitConfigProvider).setCurrentBranchValue("vet-tracked-change-latest-patch-number", "3");
+  }
 }
@@ -0,0 +1,71 @@
+package com.cosium.vet.git;
+
+import com.cosium.vet.runtime.CommandRunner;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+public class FileSystemGitClientTest {
+
+  private CommandRunner runner;
+  private Path repo;
+  private GitClient delegate;
+
+  @Before
+  public void before() throws Exception {
+    GitTestRepository testRepository = GitTestRepository.builder().build();
+    runner = testRepository.runner;
+    repo = testRepository.repo;
+    delegate = mock(GitClient.class);
+  }
+
+  @Test
+  public void WHEN_getting_branch_THEN_it_should_be_read_from_head() {
+    runner.run(repo, "git", "checkout", "-b", "feature");
+    assertThat(build(repo).getBranch()).isEqualTo(BranchShortName.of("feature"));
+    verifyZeroInteractions(delegate);
+  }
+
+  @Test
+  public void GIVEN_linked_worktree_WHEN_getting_branch_THEN_it_should_be_read_from_its_head() {
+    String mainBranch = runner.run(repo, "git", "symbolic-ref", "--short", "HEAD");
+    runner.run(repo, "git", "worktree", "add", "-b", "other", "../worktree");
+    Path worktree = repo.resolveSibling("worktree");
+
+    assertThat(build(worktree).getBranch()).isEqualTo(BranchShortName.of("other"));
+    assertThat(build(worktree.resolve("subdirectory")).getBranch())
+        .isEqualTo(BranchShortName.of("other"));
+    assertThat(build(repo).getBranch()).isEqualTo(BranchShortName.of(mainBranch));
+    verifyZeroInteractions(delegate);
+  }
+
+  @Test
+  public void GIVEN_detached_head_WHEN_getting_branch_THEN_it_should_use_the_delegate() {
+    runner.run(repo, "git", "checkout", "--detach");
+    when(delegate.getBranch()).thenReturn(BranchShortName.of("delegated"));
+    assertThat(build(repo).getBranch()).isEqualTo(BranchShortName.of("delegated"));
+  }
+
+  @Test
+  public void GIVEN_packed_refs_WHEN_resolving_ref_THEN_it_should_match_rev_parse() {
+    runner.run(repo, "git", "pack-refs", "--all");
+    BranchRefName ref = BranchRefName.of("refs/remotes/origin/master");
+    assertThat(GitRepositoryFiles.locate(repo).flatMap(files -> files.resolveRef(ref)))
+        .contains(RevisionId.of(runner.run(repo, "git", "rev-parse", ref.toString())));
+  }
+
+  private GitClient build(Path directory) {
+    return new FileSystemGitClient(delegate, () -> GitRepositoryFiles.locate(directory));
+  }
+}
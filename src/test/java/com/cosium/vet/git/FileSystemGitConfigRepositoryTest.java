@@ -0,0 +1,116 @@
+package com.cosium.vet.git;
+
+import com.cosium.vet.runtime.CommandRunner;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+public class FileSystemGitConfigRepositoryTest {
+
+  private CommandRunner runner;
+  private Path repo;
+  private GitConfigRepository delegate;
+
+  private FileSystemGitConfigRepository tested;
+
+  @Before
+  public void before() throws Exception {
+    GitTestRepository testRepository = GitTestRepository.builder().build();
+    runner = testRepository.runner;
+    repo = testRepository.repo;
+
+    delegate = mock(GitConfigRepository.class);
+    tested = new FileSystemGitConfigRepository(delegate, () -> GitRepositoryFiles.locate(repo));
+  }
+
+  @Test
+  public void WHEN_getting_current_branch_value_THEN_it_should_be_read_from_the_files() {
+    assertThat(tested.getCurrentBranchValue("remote")).isEqualTo("origin");
+    String branch = runner.run(repo, "git", "symbolic-ref", "--short", "HEAD");
+    assertThat(tested.getValue("BRANCH." + branch + ".Remote")).isEqualTo("origin");
+    verifyZeroInteractions(delegate);
+  }
+
+  @Test
+  public void GIVEN_quirky_values_WHEN_getting_them_THEN_they_should_match_git_config()
+      throws Exception {
+    appendToConfig(
+        "[vet \"Sub \\\"Section\\\"\"]\n",
+        "\tspaces = a   b\t c   ; comment\n",
+        "\tquoted = \" a  b \" c\\\" \\\\ # comment\n",
+        "\tescapes = a\\tb\n",
+        "\tcontinued = a\\\n",
+        "b\n",
+        "[vet.Legacy]\n",
+        "\tvalue = legacy\n",
+        "[vet]\n",
+        "\tmultiple = first\n",
+        "\tmultiple = second\n");
+
+    assertMatchesGitConfig("vet.Sub \"Section\".spaces");
+    assertMatchesGitConfig("vet.Sub \"Section\".quoted");
+    assertMatchesGitConfig("vet.Sub \"Section\".escapes");
+    assertMatchesGitConfig("vet.Sub \"Section\".continued");
+    assertMatchesGitConfig("vet.legacy.value");
+    assertMatchesGitConfig("vet.multiple");
+    verifyZeroInteractions(delegate);
+  }
+
+  @Test
+  public void GIVEN_included_file_WHEN_getting_value_THEN_it_should_be_read() throws Exception {
+    Files.write(
+        repo.resolve(".git").resolve("included"),
+        "[vet]\n\tincluded = yes\n".getBytes(StandardCharsets.UTF_8));
+    appendToConfig("[include]\n", "\tpath = included\n");
+
+    assertThat(tested.getValue("vet.included")).isEqualTo("yes");
+    verifyZeroInteractions(delegate);
+  }
+
+  @Test
+  public void GIVEN_conditional_include_WHEN_getting_value_THEN_it_should_use_the_delegate()
+      throws Exception {
+    appendToConfig("[includeIf \"gitdir:/foo/\"]\n", "\tpath = foo\n");
+    when(delegate.getValue("remote.origin.url")).thenReturn("delegated");
+
+    assertThat(tested.getValue("remote.origin.url")).isEqualTo("delegated");
+  }
+
+  @Test
+  public void GIVEN_absent_key_WHEN_getting_value_THEN_it_should_use_the_delegate() {
+    tested.getValue("vet.absent");
+    verify(delegate).getValue("vet.absent");
+  }
+
+  @Test
+  public void WHEN_setting_current_branch_value_THEN_it_should_use_the_delegate() {
+    tested.setCurrentBranchValue("foo", "bar");
+    verify(delegate).setCurrentBranchValue("foo", "bar");
+  }
+
+  private void assertMatchesGitConfig(String key) {
+    assertThat(tested.getValue(key)).isEqualTo(runner.run(repo, "git", "config", key));
+  }
+
+  private void appendToConfig(String... lines) throws Exception {
+    Files.write(
+        repo.resolve(".git").resolve("config"),
+        String.join("", lines).getBytes(StandardCharsets.UTF_8),
+        StandardOpenOption.APPEND);
+  }
+}
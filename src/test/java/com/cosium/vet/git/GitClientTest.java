@@ -6,9 +6,13 @@ import org.junit.Test;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * Created on 17/02/18.
@@ -57,6 +61,17 @@ public class GitClientTest {
     assertThat(Files.exists(barPath)).isFalse();
   }
 
+  @Test
+  public void testGetTreeOfRevision() throws Exception {
+    String headCommit = runner.run(repo, "git", "rev-parse", "HEAD");
+    assertThat(tested.getTree(RevisionId.of(headCommit))).isEqualTo(tested.getTree());
+
+    Files.createFile(repo.resolve("bar.txt"));
+    runner.run(repo, "git", "add", ".");
+    runner.run(repo, "git", "commit", "-am", "Add bar");
+    assertThat(tested.getTree(RevisionId.of(headCommit))).isNotEqualTo(tested.getTree());
+  }
+
   @Test
   public void testCommitTree() throws Exception {
     Path barPath = repo.resolve("bar.txt");
@@ -103,8 +118,208 @@ public class GitClientTest {
                 branchRef.getBranchRefName().equals(BranchRefName.of("refs/heads/master")));
   }
 
+  @Test
+  public void testListRemoteRefsWithPrefix() {
+    List<BranchRef> branchRefs = tested.listRemoteRefs(RemoteName.ORIGIN, "refs/heads/");
+    assertThat(branchRefs)
+        .hasSize(1)
+        .allMatch(
+            branchRef ->
+                branchRef.getBranchRefName().equals(BranchRefName.of("refs/heads/master")));
+
+    assertThat(tested.listRemoteRefs(RemoteName.ORIGIN, "refs/changes/")).isEmpty();
+  }
+
+  @Test
+  public void testListRemoteRefsWithChangePrefix() throws Exception {
+    Path upstream = repo.resolveSibling("upstream");
+    runner.run(upstream, "git", "update-ref", "refs/changes/81/1081/1", "HEAD");
+    runner.run(upstream, "git", "update-ref", "refs/changes/81/1081/2", "HEAD");
+    runner.run(upstream, "git", "update-ref", "refs/changes/81/10811/1", "HEAD");
+    runner.run(upstream, "git", "update-ref", "refs/changes/82/1082/1", "HEAD");
+
+    assertThat(tested.listRemoteRefs(RemoteName.ORIGIN, "refs/changes/81/1081/"))
+        .extracting(BranchRef::getBranchRefName)
+        .containsExactlyInAnyOrder(
+            BranchRefName.of("refs/changes/81/1081/1"), BranchRefName.of("refs/changes/81/1081/2"));
+    assertThat(tested.listRemoteRefs(RemoteName.ORIGIN, "refs/changes/81/1081")).hasSize(3);
+
+    runner.run(upstream, "git", "update-ref", "-d", "refs/changes/81/1081/2");
+    assertThat(tested.listRemoteRefs(RemoteName.ORIGIN, "refs/changes/81/1081/"))
+        .extracting(BranchRef::getBranchRefName)
+        .containsExactly(BranchRefName.of("refs/changes/81/1081/1"));
+    // The repository refs are left untouched
+    assertThat(runner.run(repo, "git", "for-each-ref", "refs/changes/")).isNullOrEmpty();
+  }
+
+  @Test
+  public void testStatus() {
+    List<String> lines = new ArrayList<>();
+    tested.status(lines::add);
+    assertThat(lines).contains("On branch master");
+  }
+
   @Test
   public void testGetCommitMessage() {
     assertThat(tested.getCommitMessage(RevisionId.of("HEAD"))).isNotNull();
   }
+
+  @Test
+  public void testFetchMultipleRefspecs() throws Exception {
+    Path upstream = repo.resolveSibling("upstream");
+    runner.run(upstream, "git", "checkout", "-b", "change");
+    Files.createFile(upstream.resolve("bar.txt"));
+    runner.run(upstream, "git", "add", ".");
+    runner.run(upstream, "git", "commit", "-am", "Add bar");
+    runner.run(upstream, "git", "update-ref", "refs/changes/81/1081/1", "HEAD");
+    String changeCommit = runner.run(upstream, "git", "rev-parse", "HEAD");
+
+    tested.fetch(RemoteName.ORIGIN, Arrays.asList("refs/changes/81/1081/1", "master"));
+
+    assertThat(Files.readAllLines(repo.resolve(".git/FETCH_HEAD")))
+        .hasSize(2)
+        .first()
+        .asString()
+        .startsWith(changeCommit);
+    tested.checkoutFetchHead();
+    assertThat(runner.run(repo, "git", "rev-parse", "HEAD")).isEqualTo(changeCommit);
+  }
+
+  @Test
+  public void testDeepenShallowClone() throws Exception {
+    Path upstream = repo.resolveSibling("upstream");
+    for (int i = 0; i < 10; i++) {
+      Files.write(upstream.resolve("foo.txt"), String.valueOf(i).getBytes());
+      runner.run(upstream, "git", "commit", "-am", "Commit " + i);
+    }
+    String forkPoint = runner.run(upstream, "git", "rev-parse", "HEAD~5");
+    runner.run(upstream, "git", "checkout", "-b", "feature", forkPoint);
+    Files.createFile(upstream.resolve("bar.txt"));
+    runner.run(upstream, "git", "add", ".");
+    runner.run(upstream, "git", "commit", "-am", "Add bar");
+    runner.run(upstream, "git", "checkout", "master");
+    runner.run(
+        repo.getParent(),
+        "git",
+        "clone",
+        "--depth",
+        "1",
+        "--branch",
+        "feature",
+        upstream.toUri().toString(),
+        "shallow");
+    Path shallowRepo = repo.resolveSibling("shallow");
+    GitClient shallowGit = new GitProvider(shallowRepo, runner).build();
+
+    shallowGit.fetch(RemoteName.ORIGIN, BranchShortName.MASTER);
+
+    assertThat(shallowGit.getShallowCommits()).hasSize(2);
+    assertThatThrownBy(() -> shallowGit.getMostRecentCommonCommit("origin/master"))
+        .isInstanceOf(RuntimeException.class);
+
+    shallowGit.deepen(RemoteName.ORIGIN, BranchShortName.MASTER, 8);
+
+    assertThat(shallowGit.getMostRecentCommonCommit("origin/master")).isEqualTo(forkPoint);
+    assertThat(tested.getShallowCommits()).isEmpty();
+  }
+
+  @Test
+  public void testPushLeavesOutObjectsOfAdvertisedCommits() throws Exception {
+    Path upstream = repo.resolveSibling("upstream");
+    String parent = runner.run(upstream, "git", "rev-parse", "HEAD");
+    runner.run(upstream, "git", "checkout", "--detach");
+    byte[] content = new byte[1024 * 1024];
+    new Random(0).nextBytes(content);
+    Files.write(upstream.resolve("bar.bin"), content);
+    runner.run(upstream, "git", "add", ".");
+    runner.run(upstream, "git", "commit", "-am", "Patch set 1");
+    runner.run(upstream, "git", "update-ref", "refs/changes/81/1081/1", "HEAD");
+
+    tested.fetch(RemoteName.ORIGIN, BranchRefName.of("refs/changes/81/1081/1"));
+    tested.checkoutFetchHead();
+    Files.createFile(repo.resolve("baz.txt"));
+    runner.run(repo, "git", "add", ".");
+    // Patch set 2 is not a child of patch set 1
+    String patchSet2 =
+        tested.commitTree(
+            runner.run(repo, "git", "write-tree"), parent, CommitMessage.of("Patch set 2"));
+    Path upload = repo.resolveSibling("upload");
+    runner.run(
+        repo,
+        "git",
+        "config",
+        "remote.origin.receivepack",
+        "tee " + upload + " | git-receive-pack");
+
+    tested.push("origin", patchSet2 + ":refs/changes/81/1081/2");
+
+    assertThat(runner.run(upstream, "git", "rev-parse", "refs/changes/81/1081/2"))
+        .isEqualTo(patchSet2);
+    assertThat(Files.size(upload)).isLessThan(content.length / 10);
+    assertThat(Files.exists(repo.resolve(".git/shallow"))).isFalse();
+  }
+
+  @Test
+  public void testFetchCommitMetadata() throws Exception {
+    Path upstream = repo.resolveSibling("upstream");
+    String parent = runner.run(upstream, "git", "rev-parse", "HEAD");
+    runner.run(upstream, "git", "checkout", "--detach");
+    Files.createFile(upstream.resolve("bar.txt"));
+    runner.run(upstream, "git", "add", ".");
+    runner.run(upstream, "git", "commit", "-am", "Add bar");
+    runner.run(upstream, "git", "update-ref", "refs/changes/81/1081/1", "HEAD");
+    String changeCommit = runner.run(upstream, "git", "rev-parse", "HEAD");
+
+    CommitMetadata commit =
+        tested.fetchCommitMetadata(RemoteName.ORIGIN, BranchRefName.of("refs/changes/81/1081/1"));
+
+    assertThat(commit.getParent()).isEqualTo(RevisionId.of(parent));
+    assertThat(commit.getCommitMessage()).isEqualTo(CommitMessage.of("Add bar"));
+    // The repository itself is left untouched
+    assertThatThrownBy(() -> runner.run(repo, "git", "cat-file", "-e", changeCommit))
+        .isInstanceOf(RuntimeException.class);
+    assertThat(runner.run(repo, "git", "config", "--list", "--local"))
+        .doesNotContain("promisor")
+        .doesNotContain("partialclonefilter");
+    assertThat(Files.exists(repo.resolve(".git/shallow"))).isFalse();
+  }
+
+  @Test
+  public void testFetchCommitMetadataReadsTheStoreFirst() throws Exception {
+    Path upstream = repo.resolveSibling("upstream");
+    runner.run(upstream, "git", "checkout", "--detach");
+    Files.createFile(upstream.resolve("bar.txt"));
+    runner.run(upstream, "git", "add", ".");
+    runner.run(upstream, "git", "commit", "-am", "Add bar");
+    runner.run(upstream, "git", "update-ref", "refs/changes/81/1081/1", "HEAD");
+    BranchRefName ref = BranchRefName.of("refs/changes/81/1081/1");
+    CommitMetadata fetched = tested.fetchCommitMetadata(RemoteName.ORIGIN, ref);
+
+    runner.run(
+        repo, "git", "config", "remote.origin.url", repo.resolveSibling("nowhere").toString());
+
+    CommitMetadata read = tested.fetchCommitMetadata(RemoteName.ORIGIN, ref);
+    assertThat(read.getParent()).isEqualTo(fetched.getParent());
+    assertThat(read.getCommitMessage()).isEqualTo(fetched.getCommitMessage());
+  }
+
+  @Test
+  public void testFetchCommitMetadataFromRemoteRejectingPartialFetches() throws Exception {
+    Path upstream = repo.resolveSibling("upstream");
+    runner.run(upstream, "git", "config", "uploadpack.allowFilter", "true");
+    runner.run(upstream, "git", "config", "uploadpackfilter.tree.allow", "false");
+    String parent = runner.run(upstream, "git", "rev-parse", "HEAD");
+    runner.run(upstream, "git", "checkout", "--detach");
+    Files.createFile(upstream.resolve("bar.txt"));
+    runner.run(upstream, "git", "add", ".");
+    runner.run(upstream, "git", "commit", "-am", "Add bar");
+    runner.run(upstream, "git", "update-ref", "refs/changes/81/1081/1", "HEAD");
+
+    assertThat(tested.listRemoteRefs(RemoteName.ORIGIN, "refs/changes/81/1081/")).hasSize(1);
+    CommitMetadata commit =
+        tested.fetchCommitMetadata(RemoteName.ORIGIN, BranchRefName.of("refs/changes/81/1081/1"));
+
+    assertThat(commit.getParent()).isEqualTo(RevisionId.of(parent));
+    assertThat(commit.getCommitMessage()).isEqualTo(CommitMessage.of("Add bar"));
+  }
 }
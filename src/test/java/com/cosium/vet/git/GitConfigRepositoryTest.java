@@ -1,9 +1,16 @@
 package com.cosium.vet.git;
 
+import com.cosium.vet.runtime.CommandRunException;
+import com.cosium.vet.runtime.CommandRunner;
 import org.junit.Before;
 import org.junit.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 /**
  * Created on 20/02/18.
@@ -12,11 +19,12 @@ import static org.assertj.core.api.Assertions.assertThat;
  */
 public class GitConfigRepositoryTest {
 
+  private GitTestRepository gitTestRepository;
   private GitConfigRepository tested;
 
   @Before
   public void before() throws Exception {
-    GitTestRepository gitTestRepository = GitTestRepository.builder().build();
+    gitTestRepository = GitTestRepository.builder().build();
     GitProvider gitProvider = new GitProvider(gitTestRepository.repo, gitTestRepository.runner);
     tested = gitProvider.buildRepository();
   }
@@ -41,4 +49,46 @@ public class GitConfigRepositoryTest {
   public void GIVEN_inexisting_key_foo_WHEN_setting_foo_to_null_THEN_it_should_not_fail() {
     tested.setCurrentBranchValue("foo", null);
   }
+
+  @Test
+  public void GIVEN_transaction_WHEN_setting_foo_to_bar_THEN_it_should_be_written_on_commit() {
+    tested.transaction(
+        transaction -> {
+          transaction.setCurrentBranchValue("foo", "bar");
+          assertThat(transaction.getCurrentBranchValue("foo")).isEqualTo("bar");
+          assertThat(readCurrentBranchValue("foo")).isNull();
+          return null;
+        });
+    assertThat(readCurrentBranchValue("foo")).isEqualTo("bar");
+    assertThat(tested.getCurrentBranchValue("foo")).isEqualTo("bar");
+  }
+
+  @Test
+  public void WHEN_reading_values_THEN_git_config_should_be_listed_once() {
+    CommandRunner runner = spy(gitTestRepository.runner);
+    GitConfigRepository repository = new DefaultGitConfigRepository(gitTestRepository.repo, runner);
+
+    repository.transaction(
+        transaction -> {
+          transaction.getCurrentBranchValue("remote");
+          transaction.getCurrentBranchValue("merge");
+          return transaction.getValue("user.name");
+        });
+    assertThat(repository.getValue("user.email")).isEqualTo("you@example.com");
+
+    verify(runner, times(2)).run(eq(gitTestRepository.repo), any());
+    verify(runner).run(gitTestRepository.repo, "git", "config", "--list", "-z");
+  }
+
+  private String readCurrentBranchValue(String key) {
+    String branch =
+        gitTestRepository.runner.run(
+            gitTestRepository.repo, "git", "rev-parse", "--abbrev-ref", "HEAD");
+    try {
+      return gitTestRepository.runner.run(
+          gitTestRepository.repo, "git", "config", "branch." + branch + "." + key);
+    } catch (CommandRunException e) {
+      return null;
+    }
+  }
 }
@@ -0,0 +1,89 @@
+package com.cosium.vet.git;
+
+import com.cosium.vet.runtime.CommandRunner;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+public class GitLocalStateTest {
+
+  private CommandRunner runner;
+  private GitTestRepository testRepository;
+
+  private GitLocalState tested;
+
+  @Before
+  public void before() throws Exception {
+    testRepository = GitTestRepository.builder().build();
+    runner = testRepository.runner;
+    tested = new GitProvider(testRepository.repo, runner).buildLocalState();
+  }
+
+  @Test
+  public void WHEN_listing_remote_tracking_branches_THEN_it_should_skip_head() throws Exception {
+    runner.run(testRepository.repo, "git", "update-ref", "refs/remotes/origin/feature/foo", "HEAD");
+    runner.run(testRepository.repo, "git", "pack-refs", "--all");
+    runner.run(testRepository.repo, "git", "update-ref", "refs/remotes/upstream/bar", "HEAD");
+
+    List<BranchShortName> branches = new ArrayList<>();
+    tested.listRemoteTrackingBranches(branches::add);
+
+    assertThat(branches)
+        .containsExactlyInAnyOrder(
+            BranchShortName.MASTER, BranchShortName.of("feature/foo"), BranchShortName.of("bar"));
+  }
+
+  @Test
+  public void WHEN_listing_refs_THEN_loose_refs_should_hide_packed_refs() throws Exception {
+    String head = runner.run(testRepository.repo, "git", "rev-parse", "HEAD");
+    runner.run(testRepository.repo, "git", "update-ref", "refs/changes/81/1081/1", "HEAD");
+    runner.run(testRepository.repo, "git", "pack-refs", "--all");
+    runner.run(testRepository.repo, "git", "commit", "--allow-empty", "-m", "Patch set 2");
+    String patchSet2 = runner.run(testRepository.repo, "git", "rev-parse", "HEAD");
+    runner.run(testRepository.repo, "git", "update-ref", "refs/changes/81/1081/1", patchSet2);
+    runner.run(testRepository.repo, "git", "update-ref", "refs/changes/82/1082/1", head);
+
+    List<String> refLines = new ArrayList<>();
+    tested.listRefs("refs/changes/", refLines::add);
+
+    assertThat(refLines)
+        .containsExactlyInAnyOrder(
+            patchSet2 + " refs/changes/81/1081/1", head + " refs/changes/82/1082/1");
+  }
+
+  @Test
+  public void WHEN_listing_branch_values_THEN_it_should_read_every_branch() throws Exception {
+    runner.run(testRepository.repo, "git", "config", "branch.master.vet-foo", "1");
+    runner.run(testRepository.repo, "git", "config", "branch.feature/Bar.vet-foo", "2");
+    runner.run(testRepository.repo, "git", "config", "branch.feature.vet-other", "3");
+
+    List<String> values = new ArrayList<>();
+    tested.listBranchValues("vet-foo", values::add);
+
+    assertThat(values).containsExactly("1", "2");
+  }
+
+  @Test
+  public void GIVEN_interrupted_thread_WHEN_listing_refs_THEN_it_should_stop() throws Exception {
+    runner.run(testRepository.repo, "git", "update-ref", "refs/remotes/origin/bar", "HEAD");
+
+    List<BranchShortName> branches = new ArrayList<>();
+    Thread.currentThread().interrupt();
+    try {
+      tested.listRemoteTrackingBranches(branches::add);
+    } finally {
+      Thread.interrupted();
+    }
+
+    assertThat(branches).isEmpty();
+  }
+}
@@ -0,0 +1,91 @@
+package com.cosium.vet.git;
+
+import com.cosium.vet.runtime.CommandRunner;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+public class ObjectBatchGitClientTest {
+
+  private CommandRunner runner;
+  private Path repo;
+  private GitObjectBatch objectBatch;
+  private GitClient delegate;
+
+  private ObjectBatchGitClient tested;
+
+  @Before
+  public void before() throws Exception {
+    GitTestRepository testRepository = GitTestRepository.builder().build();
+    runner = testRepository.runner;
+    repo = testRepository.repo;
+
+    Files.createFile(repo.resolve("bar.txt"));
+    runner.run(repo, "git", "add", ".");
+    runner.run(repo, "git", "commit", "-am", "Add bar\n\nWith a body");
+
+    objectBatch = new GitObjectBatch(repo, runner);
+    delegate = mock(GitClient.class);
+    tested = new ObjectBatchGitClient(delegate, objectBatch);
+  }
+
+  @After
+  public void after() {
+    objectBatch.close();
+  }
+
+  @Test
+  public void WHEN_reading_commit_message_THEN_it_should_match_git_log() {
+    String head = runner.run(repo, "git", "rev-parse", "HEAD");
+    assertThat(tested.getCommitMessage(RevisionId.of(head)))
+        .isEqualTo(CommitMessage.of(runner.run(repo, "git", "log", "-1", "--pretty=%B")));
+    assertThat(tested.getLastCommitMessage()).isEqualTo(CommitMessage.of("Add bar\n\nWith a body"));
+    verifyZeroInteractions(delegate);
+  }
+
+  @Test
+  public void WHEN_reading_parent_THEN_it_should_match_git_log() {
+    assertThat(tested.getParent(RevisionId.of("HEAD")))
+        .isEqualTo(RevisionId.of(runner.run(repo, "git", "rev-parse", "HEAD~1")));
+    verifyZeroInteractions(delegate);
+  }
+
+  @Test
+  public void WHEN_reading_tree_THEN_it_should_match_rev_parse() {
+    assertThat(tested.getTree()).isEqualTo(runner.run(repo, "git", "rev-parse", "HEAD:"));
+    verifyZeroInteractions(delegate);
+  }
+
+  @Test
+  public void GIVEN_unknown_revision_WHEN_reading_commit_message_THEN_it_should_use_the_delegate() {
+    RevisionId unknown = RevisionId.of("0000000000000000000000000000000000000000");
+    CommitMessage delegateMessage = CommitMessage.of("From delegate");
+    when(delegate.getCommitMessage(unknown)).thenReturn(delegateMessage);
+
+    assertThat(tested.getCommitMessage(unknown)).isEqualTo(delegateMessage);
+    verify(delegate).getCommitMessage(unknown);
+  }
+
+  @Test
+  public void GIVEN_root_commit_WHEN_reading_parent_THEN_it_should_use_the_delegate() {
+    RevisionId root = RevisionId.of("HEAD~1");
+    RevisionId delegateParent = RevisionId.of("from-delegate");
+    when(delegate.getParent(root)).thenReturn(delegateParent);
+
+    assertThat(tested.getParent(root)).isEqualTo(delegateParent);
+  }
+}
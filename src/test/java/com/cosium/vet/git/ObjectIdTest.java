@@ -0,0 +1,74 @@
+package com.cosium.vet.git;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+public class ObjectIdTest {
+
+  private static final String SHA1 = "96a9475f9992e5324afc5a5020a456da0dcc1c4f";
+  private static final String SHA256 =
+      "6b2d6b5d4e1a4bb0a2b5f32fbd5d51d6a4b2f6a3b9fd1b2d2c6e7cbd0f7a9c11";
+
+  @Test
+  public void WHEN_parsing_sha1_and_sha256_THEN_they_should_format_back_identically() {
+    assertThat(ObjectId.of(SHA1).toString()).isEqualTo(SHA1);
+    assertThat(ObjectId.of(SHA1).getLength()).isEqualTo(ObjectId.SHA1_LENGTH);
+    assertThat(ObjectId.of(SHA256).toString()).isEqualTo(SHA256);
+    assertThat(ObjectId.of(SHA256).getLength()).isEqualTo(ObjectId.SHA256_LENGTH);
+  }
+
+  @Test
+  public void WHEN_parsing_a_region_THEN_only_the_region_should_be_read() {
+    String line = SHA1 + "\trefs/heads/master";
+    assertThat(ObjectId.parse(line, 0, SHA1.length())).isEqualTo(ObjectId.of(SHA1));
+  }
+
+  @Test
+  public void WHEN_converting_to_raw_and_back_THEN_it_should_be_equal() {
+    for (String hex : new String[] {SHA1, SHA256}) {
+      ObjectId objectId = ObjectId.of(hex);
+      byte[] raw = new byte[objectId.getLength() + 2];
+      objectId.copyRawTo(raw, 1);
+
+      assertThat(ObjectId.fromRaw(raw, 1, objectId.getLength())).isEqualTo(objectId);
+
+      byte[] decoded = new byte[objectId.getLength()];
+      assertThat(ObjectId.decode(hex, 0, hex.length(), decoded, 0)).isEqualTo(objectId.getLength());
+      assertThat(ObjectId.fromRaw(decoded, 0, decoded.length)).isEqualTo(objectId);
+    }
+  }
+
+  @Test
+  public void WHEN_comparing_THEN_equality_should_follow_the_id() {
+    assertThat(ObjectId.of(SHA1)).isEqualTo(ObjectId.of(SHA1));
+    assertThat(ObjectId.of(SHA1).hashCode()).isEqualTo(ObjectId.of(SHA1).hashCode());
+    assertThat(ObjectId.of(SHA1))
+        .isNotEqualTo(ObjectId.of("96a9475f9992e5324afc5a5020a456da0dcc1c4e"));
+    assertThat(ObjectId.of(SHA256)).isNotEqualTo(ObjectId.of(SHA1));
+  }
+
+  @Test
+  public void GIVEN_invalid_ids_WHEN_parsing_THEN_they_should_be_rejected() {
+    assertThat(ObjectId.isObjectId("HEAD~1")).isFalse();
+    assertThat(ObjectId.isObjectId(SHA1.toUpperCase())).isFalse();
+    assertThat(ObjectId.isObjectId(SHA1.substring(1))).isFalse();
+    assertThat(ObjectId.decode("HEAD", 0, 4, new byte[32], 0)).isEqualTo(-1);
+    assertThatThrownBy(() -> ObjectId.of("zz" + SHA1.substring(2)))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void WHEN_building_revision_ids_THEN_object_ids_should_be_detected() {
+    assertThat(RevisionId.of(SHA1).getObjectId()).contains(ObjectId.of(SHA1));
+    assertThat(RevisionId.of(" " + SHA1 + " ")).isEqualTo(RevisionId.of(ObjectId.of(SHA1)));
+    assertThat(RevisionId.of("HEAD~1").getObjectId()).isEmpty();
+    assertThat(RevisionId.of("HEAD~1").toString()).isEqualTo("HEAD~1");
+  }
+}
@@ -0,0 +1,90 @@
+package com.cosium.vet.git;
+
+import com.cosium.vet.runtime.CommandRunException;
+import com.cosium.vet.runtime.CommandRunner;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+/**
+ * Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+public class PromptDetectingCommandRunnerTest {
+
+  private static final Path REPO = Paths.get("repo");
+
+  private CommandRunner delegate;
+  private CommandRunException promptFailure;
+
+  @Before
+  public void before() {
+    delegate = mock(CommandRunner.class);
+    promptFailure = mock(CommandRunException.class);
+    when(promptFailure.getMessage())
+        .thenReturn(
+            "fatal: could not read Username for 'https://gerrit.example.org': terminal prompts disabled");
+  }
+
+  @Test
+  public void
+      GIVEN_terminal_prompts_disabled_WHEN_network_command_needs_a_prompt_THEN_it_should_be_reported() {
+    doThrow(promptFailure).when(delegate).run(REPO, "git", "fetch", "origin");
+
+    assertThatThrownBy(() -> tested(true).run(REPO, "git", "fetch", "origin"))
+        .isInstanceOf(GitPromptRequiredException.class)
+        .hasCause(promptFailure);
+  }
+
+  @Test
+  public void
+      GIVEN_terminal_prompts_disabled_WHEN_pushing_is_denied_by_ssh_THEN_it_should_be_reported() {
+    when(promptFailure.getMessage()).thenReturn("git@gerrit: Permission denied (publickey).");
+    doThrow(promptFailure)
+        .when(delegate)
+        .run(
+            eq(REPO),
+            any(Consumer.class),
+            any(Consumer.class),
+            eq("git"),
+            eq("push"),
+            eq("origin"));
+
+    assertThatThrownBy(
+            () -> tested(true).run(REPO, line -> {}, line -> {}, "git", "push", "origin"))
+        .isInstanceOf(GitPromptRequiredException.class);
+  }
+
+  @Test
+  public void
+      GIVEN_terminal_prompts_enabled_WHEN_network_command_fails_THEN_it_should_not_change() {
+    doThrow(promptFailure).when(delegate).run(REPO, "git", "fetch", "origin");
+
+    assertThatThrownBy(() -> tested(false).run(REPO, "git", "fetch", "origin"))
+        .isSameAs(promptFailure);
+  }
+
+  @Test
+  public void GIVEN_terminal_prompts_disabled_WHEN_local_command_fails_THEN_it_should_not_change() {
+    doThrow(promptFailure).when(delegate).run(REPO, "git", "rev-parse", "HEAD");
+
+    assertThatThrownBy(() -> tested(true).run(REPO, "git", "rev-parse", "HEAD"))
+        .isSameAs(promptFailure);
+  }
+
+  private CommandRunner tested(boolean terminalPromptDisabled) {
+    return new PromptDetectingCommandRunner(
+        delegate,
+        terminalPromptDisabled
+            ? Collections.singletonMap("GIT_TERMINAL_PROMPT", "0")
+            : Collections.emptyMap());
+  }
+}
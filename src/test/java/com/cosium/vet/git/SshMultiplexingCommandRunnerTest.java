@@ -0,0 +1,219 @@
+package com.cosium.vet.git;
+
+import com.cosium.vet.runtime.CommandRunner;
+import com.cosium.vet.utils.OperatingSystem;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assume.assumeFalse;
+import static org.mockito.Mockito.*;
+
+/**
+ * Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+public class SshMultiplexingCommandRunnerTest {
+
+  private static final Path REPO = Paths.get("repo");
+
+  private CommandRunner delegate;
+  private GitConfigRepository gitConfigRepository;
+  private Path controlDirectory;
+
+  @Before
+  public void before() throws Exception {
+    delegate = mock(CommandRunner.class);
+    gitConfigRepository = mock(GitConfigRepository.class);
+    controlDirectory = Files.createTempDirectory("vet_").resolve("ssh");
+  }
+
+  @Test
+  public void WHEN_running_network_command_THEN_it_should_use_the_control_socket() {
+    tested(Collections.emptyMap()).run(REPO, "git", "ls-remote", "origin");
+
+    verify(delegate)
+        .run(
+            REPO,
+            "git",
+            "-c",
+            "core.sshCommand=ssh -o ControlMaster=auto -o 'ControlPath="
+                + controlDirectory.toAbsolutePath()
+                + "/%C' -o ControlPersist=60s",
+            "ls-remote",
+            "origin");
+  }
+
+  @Test
+  public void
+      GIVEN_terminal_prompts_disabled_WHEN_running_network_command_THEN_ssh_should_not_prompt() {
+    tested(Collections.singletonMap("GIT_TERMINAL_PROMPT", "0"))
+        .run(REPO, "git", "fetch", "origin", "master");
+
+    verify(delegate)
+        .run(
+            eq(REPO),
+            eq("git"),
+            eq("-c"),
+            startsWith("core.sshCommand=ssh -o BatchMode=yes -o ControlMaster=auto"),
+            eq("fetch"),
+            eq("origin"),
+            eq("master"));
+  }
+
+  @Test
+  public void WHEN_running_network_command_THEN_the_control_directory_should_be_private()
+      throws Exception {
+    assumeFalse(new OperatingSystem().isWindows());
+
+    tested(Collections.emptyMap()).run(REPO, "git", "fetch", "origin", "master");
+
+    assertThat(Files.getPosixFilePermissions(controlDirectory))
+        .isEqualTo(PosixFilePermissions.fromString("rwx------"));
+  }
+
+  @Test
+  public void
+      GIVEN_shared_control_directory_WHEN_running_network_command_THEN_it_should_not_change()
+          throws Exception {
+    assumeFalse(new OperatingSystem().isWindows());
+    Files.createDirectories(controlDirectory);
+    Files.setPosixFilePermissions(controlDirectory, PosixFilePermissions.fromString("rwxrwxrwx"));
+
+    tested(Collections.emptyMap()).run(REPO, "git", "fetch", "origin", "master");
+
+    verify(delegate).run(REPO, "git", "fetch", "origin", "master");
+  }
+
+  @Test
+  public void
+      GIVEN_git_dir_option_WHEN_running_network_command_THEN_it_should_use_the_control_socket() {
+    tested(Collections.emptyMap())
+        .run(REPO, "git", "--git-dir", "store", "fetch", "origin", "master");
+
+    verify(delegate)
+        .run(
+            eq(REPO),
+            eq("git"),
+            eq("-c"),
+            startsWith("core.sshCommand=ssh -o ControlMaster=auto"),
+            eq("--git-dir"),
+            eq("store"),
+            eq("fetch"),
+            eq("origin"),
+            eq("master"));
+  }
+
+  @Test
+  public void GIVEN_shallow_file_option_WHEN_pushing_THEN_it_should_use_the_control_socket() {
+    tested(Collections.emptyMap())
+        .run(
+            REPO,
+            line -> {},
+            line -> {},
+            "git",
+            "--shallow-file",
+            "push.shallow",
+            "push",
+            "origin",
+            "HEAD:refs/for/master");
+
+    verify(delegate)
+        .run(
+            eq(REPO),
+            any(Consumer.class),
+            any(Consumer.class),
+            eq("git"),
+            eq("-c"),
+            startsWith("core.sshCommand=ssh -o ControlMaster=auto"),
+            eq("--shallow-file"),
+            eq("push.shallow"),
+            eq("push"),
+            eq("origin"),
+            eq("HEAD:refs/for/master"));
+  }
+
+  @Test
+  public void WHEN_running_local_command_THEN_it_should_not_change() {
+    tested(Collections.emptyMap()).run(REPO, "git", "rev-parse", "HEAD");
+
+    verify(delegate).run(REPO, "git", "rev-parse", "HEAD");
+    verifyZeroInteractions(gitConfigRepository);
+  }
+
+  @Test
+  public void
+      GIVEN_ssh_command_environment_variable_WHEN_running_network_command_THEN_it_should_not_change() {
+    tested(Collections.singletonMap("GIT_SSH_COMMAND", "ssh -i key"))
+        .run(REPO, "git", "push", "origin", "HEAD:refs/for/master");
+
+    verify(delegate).run(REPO, "git", "push", "origin", "HEAD:refs/for/master");
+  }
+
+  @Test
+  public void
+      GIVEN_configured_ssh_command_WHEN_running_network_command_THEN_it_should_not_change() {
+    when(gitConfigRepository.getValue("core.sshCommand")).thenReturn("ssh -i key");
+
+    tested(Collections.emptyMap()).run(REPO, "git", "fetch", "origin", "master");
+
+    verify(delegate).run(REPO, "git", "fetch", "origin", "master");
+  }
+
+  @Test
+  public void GIVEN_ssh_remote_WHEN_fetching_THEN_the_ssh_stand_in_should_be_asked_to_multiplex()
+      throws Exception {
+    assumeFalse(new OperatingSystem().isWindows());
+    GitTestRepository testRepository = GitTestRepository.builder().build();
+    Path upstream = testRepository.repo.resolveSibling("upstream");
+    // Runs the remote git command locally, as sshd would
+    Path sshStandIn = Files.createTempDirectory("vet_").resolve("ssh");
+    Path sshLog = sshStandIn.resolveSibling("ssh.log");
+    Files.write(
+        sshStandIn,
+        Arrays.asList(
+            "#!/bin/sh",
+            "echo \"$@\" >> '" + sshLog + "'",
+            "for last; do :; done",
+            "exec sh -c \"$last\""),
+        StandardCharsets.UTF_8);
+    Files.setPosixFilePermissions(sshStandIn, PosixFilePermissions.fromString("rwx------"));
+
+    CommandRunner tested =
+        new SshMultiplexingCommandRunner(
+            testRepository.runner,
+            gitConfigRepository,
+            Collections.emptyMap(),
+            sshStandIn.toString(),
+            controlDirectory);
+    String remote = "ssh://localhost" + upstream.toAbsolutePath();
+    tested.run(testRepository.repo, "git", "ls-remote", remote);
+    tested.run(testRepository.repo, "git", "fetch", remote, "master");
+
+    List<String> sshCalls = Files.readAllLines(sshLog, StandardCharsets.UTF_8);
+    assertThat(sshCalls)
+        .hasSize(2)
+        .allMatch(call -> call.contains("-o ControlMaster=auto"))
+        .allMatch(call -> call.contains("-o ControlPath=" + controlDirectory.toAbsolutePath()))
+        .allMatch(call -> call.contains("-o ControlPersist=60s"));
+    assertThat(testRepository.runner.run(testRepository.repo, "git", "rev-parse", "FETCH_HEAD"))
+        .isEqualTo(testRepository.runner.run(upstream, "git", "rev-parse", "master"));
+  }
+
+  private CommandRunner tested(Map<String, String> environment) {
+    return new SshMultiplexingCommandRunner(
+        delegate, gitConfigRepository, environment, "ssh", controlDirectory);
+  }
+}
@@ -5,8 +5,11 @@ import org.junit.Test;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * Created on 17/02/18.
@@ -29,4 +32,22 @@ public class BasicCommandRunnerTest {
     String output = tested.run(directory, "docker", "run", "hello-world");
     assertThat(output).contains("Hello");
   }
+
+  @Test
+  public void WHEN_streaming_git_version_THEN_it_should_hand_the_version_line_to_the_consumer() {
+    List<String> outputLines = new ArrayList<>();
+    List<String> errorLines = new ArrayList<>();
+    tested.run(directory, outputLines::add, errorLines::add, "git", "--version");
+    assertThat(outputLines).hasSize(1).allMatch(line -> line.startsWith("git version"));
+    assertThat(errorLines).isEmpty();
+  }
+
+  @Test
+  public void WHEN_streamed_command_fails_THEN_the_exception_should_contain_the_error_output() {
+    List<String> errorLines = new ArrayList<>();
+    assertThatThrownBy(
+            () -> tested.run(directory, line -> {}, errorLines::add, "git", "rev-parse", "HEAD"))
+        .isInstanceOf(CommandRunException.class)
+        .hasMessageContaining(errorLines.get(0));
+  }
 }
@@ -0,0 +1,118 @@
+package com.cosium.vet.runtime;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+/**
+ * Created on 18/10/26.
+ *
+ * @author Reda.Housni-Alaoui
+ */
+public class MemoizingCommandRunnerTest {
+
+  private static final Path REPO = Paths.get("repo");
+  private static final Path OTHER_REPO = Paths.get("other-repo");
+
+  private CommandRunner delegate;
+  private MemoizingCommandRunner tested;
+
+  @Before
+  public void before() {
+    delegate =
+        mock(
+            CommandRunner.class,
+            invocation -> invocation.getMethod().getReturnType() == String.class ? "output" : null);
+    tested = new MemoizingCommandRunner(delegate);
+  }
+
+  @Test
+  public void WHEN_running_read_only_command_twice_THEN_it_should_be_run_once() {
+    assertThat(tested.run(REPO, "git", "rev-parse", "--abbrev-ref", "HEAD")).isEqualTo("output");
+    assertThat(tested.run(REPO, "git", "rev-parse", "--abbrev-ref", "HEAD")).isEqualTo("output");
+
+    verify(delegate, times(1)).run(REPO, "git", "rev-parse", "--abbrev-ref", "HEAD");
+    assertThat(tested.getHitCount()).isEqualTo(1);
+    assertThat(tested.getMissCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void WHEN_running_read_only_command_in_two_directories_THEN_it_should_be_run_twice() {
+    tested.run(REPO, "git", "symbolic-ref", "--short", "HEAD");
+    tested.run(OTHER_REPO, "git", "symbolic-ref", "--short", "HEAD");
+
+    verify(delegate).run(REPO, "git", "symbolic-ref", "--short", "HEAD");
+    verify(delegate).run(OTHER_REPO, "git", "symbolic-ref", "--short", "HEAD");
+    assertThat(tested.getHitCount()).isZero();
+  }
+
+  @Test
+  public void GIVEN_null_output_WHEN_running_read_only_command_twice_THEN_null_is_memoized() {
+    when(delegate.run(REPO, "git", "config", "remote.origin.url")).thenReturn(null);
+
+    assertThat(tested.run(REPO, "git", "config", "remote.origin.url")).isNull();
+    assertThat(tested.run(REPO, "git", "config", "remote.origin.url")).isNull();
+
+    verify(delegate, times(1)).run(REPO, "git", "config", "remote.origin.url");
+  }
+
+  @Test
+  public void WHEN_running_mutating_commands_THEN_memoized_outputs_should_be_flushed() {
+    String[][] mutatingCommands = {
+      {"git", "checkout", "FETCH_HEAD"},
+      {"git", "reset", "--keep", "HEAD~1"},
+      {"git", "config", "foo.bar", "baz"},
+      {"git", "config", "--unset", "foo.bar"},
+      {"git", "fetch", "origin", "master"},
+      {"git", "push", "origin", "HEAD:refs/for/master"},
+      {"git", "symbolic-ref", "HEAD", "refs/heads/foo"}
+    };
+    for (String[] mutatingCommand : mutatingCommands) {
+      tested.run(REPO, "git", "log", "-1", "--pretty=%B");
+      tested.run(REPO, mutatingCommand);
+    }
+
+    verify(delegate, times(mutatingCommands.length)).run(REPO, "git", "log", "-1", "--pretty=%B");
+    assertThat(tested.getHitCount()).isZero();
+  }
+
+  @Test
+  public void WHEN_streaming_mutating_command_THEN_memoized_outputs_should_be_flushed() {
+    tested.run(REPO, "git", "rev-parse", "HEAD:");
+    tested.run(REPO, line -> {}, line -> {}, "git", "push", "origin", "HEAD:refs/for/master");
+    tested.run(REPO, "git", "rev-parse", "HEAD:");
+
+    verify(delegate, times(2)).run(REPO, "git", "rev-parse", "HEAD:");
+  }
+
+  @Test
+  public void WHEN_running_neutral_commands_THEN_memoized_outputs_should_be_kept() {
+    tested.run(REPO, "git", "config", "--list", "-z");
+    tested.run(REPO, "git", "status");
+    tested.run(REPO, "git", "commit-tree", "tree", "-p", "parent", "-m", "message");
+    tested.run(REPO, "docker", "ps");
+    tested.run(REPO, "git", "config", "--list", "-z");
+
+    verify(delegate, times(1)).run(REPO, "git", "config", "--list", "-z");
+    verify(delegate, times(1)).run(REPO, "git", "status");
+  }
+
+  @Test
+  public void GIVEN_failing_command_WHEN_running_it_twice_THEN_it_should_be_run_twice() {
+    when(delegate.run(REPO, "git", "rev-parse", "HEAD"))
+        .thenThrow(new CommandRunException(128, "fatal", "git", "rev-parse", "HEAD"));
+
+    assertThatThrownBy(() -> tested.run(REPO, "git", "rev-parse", "HEAD"))
+        .isInstanceOf(CommandRunException.class);
+    assertThatThrownBy(() -> tested.run(REPO, "git", "rev-parse", "HEAD"))
+        .isInstanceOf(CommandRunException.class);
+
+    verify(delegate, times(2)).run(REPO, "git", "rev-parse", "HEAD");
+  }
+}
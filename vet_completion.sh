@@ -1,11 +1,83 @@
-#!/bin/bash
+# Bash completion for vet. Generated by 'vet completion bash'.
 
 _vet()
 {
-    local words="$(printf '%s ' "${COMP_WORDS[@]}")"
+    local cur="${COMP_WORDS[COMP_CWORD]}"
+    local prev="${COMP_WORDS[COMP_CWORD-1]}"
     COMPREPLY=()
-    local possibilities=$(vet autocomplete -a "${words}" -i ${COMP_CWORD})
-    COMPREPLY=(${possibilities})
+
+    if [ "${COMP_CWORD}" -eq 1 ]; then
+        COMPREPLY=($(compgen -W "checkout-new checkout push fire-and-forget new pull status track untrack" -- "${cur}"))
+        return 0
+    fi
+
+    local options value_options dynamic_value_options
+    case "${COMP_WORDS[1]}" in
+        checkout-new)
+            options="--force --checkout-branch"
+            value_options="-b --checkout-branch"
+            dynamic_value_options=""
+            ;;
+        checkout)
+            options="--force --numeric-id --target-branch --checkout-branch"
+            value_options="-i --numeric-id -t --target-branch -b --checkout-branch"
+            dynamic_value_options="-i --numeric-id -t --target-branch"
+            ;;
+        push)
+            options="--publish-drafted-comments --work-in-progress --patch-set-subject --bypass-review --code-review-vote --max-base-age --force"
+            value_options="-s --patch-set-subject -v --code-review-vote -a --max-base-age"
+            dynamic_value_options=""
+            ;;
+        fire-and-forget)
+            options="--force --code-review-vote"
+            value_options="-v --code-review-vote"
+            dynamic_value_options=""
+            ;;
+        new)
+            options="--force --target-branch"
+            value_options="-t --target-branch"
+            dynamic_value_options="-t --target-branch"
+            ;;
+        pull)
+            options=""
+            value_options=""
+            dynamic_value_options=""
+            ;;
+        status)
+            options=""
+            value_options=""
+            dynamic_value_options=""
+            ;;
+        track)
+            options="--force --numeric-id --target-branch"
+            value_options="-i --numeric-id -t --target-branch"
+            dynamic_value_options="-i --numeric-id -t --target-branch"
+            ;;
+        untrack)
+            options="--force"
+            value_options=""
+            dynamic_value_options=""
+            ;;
+        *)
+            return 0
+            ;;
+    esac
+
+    if [[ -n "${prev}" && " ${value_options} " == *" ${prev} "* ]]; then
+        if [[ " ${dynamic_value_options} " == *" ${prev} "* ]]; then
+            local words="$(printf '%s ' "${COMP_WORDS[@]}")"
+            COMPREPLY=($(vet autocomplete -a "${words}" -i ${COMP_CWORD}))
+        fi
+        return 0
+    fi
+
+    local option remaining_options=""
+    for option in ${options}; do
+        if [[ " ${COMP_WORDS[*]} " != *" ${option} "* ]]; then
+            remaining_options="${remaining_options} ${option}"
+        fi
+    done
+    COMPREPLY=($(compgen -W "${remaining_options}" -- "${cur}"))
     return 0
 }
-complete -F _vet vet
\ No newline at end of file
+complete -F _vet vet